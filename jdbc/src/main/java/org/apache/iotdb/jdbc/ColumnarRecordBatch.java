@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.jdbc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * A forward-only cursor over a {@link TSColumnarDataSet}. Values are decoded straight from the
+ * packed column buffers when they are read, so no per-row object is built for a fetched batch.
+ */
+class ColumnarRecordBatch {
+
+  private static final Charset CHARSET = Charset.forName(TSFileConfig.STRING_ENCODING);
+
+  private final int rowCount;
+  private final ByteBuffer timeBuffer;
+  private final TSDataType[] dataTypes;
+  private final ByteBuffer[] valueBuffers;
+  private final ByteBuffer[] bitmapBuffers;
+  /**
+   * the offset of the current row's value in each value buffer, -1 if the value is null
+   */
+  private final int[] valueOffsets;
+  private int rowIndex = -1;
+  private long timestamp;
+
+  ColumnarRecordBatch(TSColumnarDataSet dataSet) {
+    this.rowCount = dataSet.getRowCount();
+    this.timeBuffer = dataSet.time.slice();
+    List<String> typeList = dataSet.getDataTypeList();
+    int columnNum = typeList.size();
+    this.dataTypes = new TSDataType[columnNum];
+    this.valueBuffers = new ByteBuffer[columnNum];
+    this.bitmapBuffers = new ByteBuffer[columnNum];
+    this.valueOffsets = new int[columnNum];
+    for (int i = 0; i < columnNum; i++) {
+      dataTypes[i] = TSDataType.valueOf(typeList.get(i));
+      valueBuffers[i] = dataSet.getValueList().get(i).slice();
+      bitmapBuffers[i] = dataSet.getBitmapList().get(i).slice();
+    }
+  }
+
+  boolean hasNext() {
+    return rowIndex + 1 < rowCount;
+  }
+
+  /**
+   * move the cursor to the next row and locate its value in each column.
+   */
+  void next() {
+    rowIndex++;
+    timestamp = timeBuffer.getLong();
+    for (int i = 0; i < dataTypes.length; i++) {
+      if ((bitmapBuffers[i].get(rowIndex / 8) & (0x80 >>> (rowIndex % 8))) == 0) {
+        valueOffsets[i] = -1;
+        continue;
+      }
+      ByteBuffer buffer = valueBuffers[i];
+      valueOffsets[i] = buffer.position();
+      switch (dataTypes[i]) {
+        case BOOLEAN:
+          buffer.position(buffer.position() + 1);
+          break;
+        case INT32:
+        case FLOAT:
+          buffer.position(buffer.position() + 4);
+          break;
+        case INT64:
+        case DOUBLE:
+          buffer.position(buffer.position() + 8);
+          break;
+        case TEXT:
+          int length = buffer.getInt();
+          buffer.position(buffer.position() + length);
+          break;
+        default:
+          throw new UnsupportedOperationException(
+              String.format("Data type %s is not supported.", dataTypes[i]));
+      }
+    }
+  }
+
+  long getTimestamp() {
+    return timestamp;
+  }
+
+  int getColumnNum() {
+    return dataTypes.length;
+  }
+
+  boolean isNull(int column) {
+    return valueOffsets[column] < 0;
+  }
+
+  /**
+   * get the value of the given column in the current row, formatted the same way as
+   * {@code Field.getStringValue()}. Return null if the value is null.
+   */
+  String getString(int column) {
+    int offset = valueOffsets[column];
+    if (offset < 0) {
+      return null;
+    }
+    ByteBuffer buffer = valueBuffers[column];
+    switch (dataTypes[column]) {
+      case BOOLEAN:
+        return String.valueOf(buffer.get(offset) != 0);
+      case INT32:
+        return String.valueOf(buffer.getInt(offset));
+      case INT64:
+        return String.valueOf(buffer.getLong(offset));
+      case FLOAT:
+        return String.valueOf(buffer.getFloat(offset));
+      case DOUBLE:
+        return String.valueOf(buffer.getDouble(offset));
+      case TEXT:
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset + 4);
+        duplicate.get(bytes);
+        return new String(bytes, CHARSET);
+      default:
+        throw new UnsupportedOperationException(
+            String.format("Data type %s is not supported.", dataTypes[column]));
+    }
+  }
+}
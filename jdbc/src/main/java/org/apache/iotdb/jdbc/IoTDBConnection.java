@@ -343,6 +343,9 @@ public class IoTDBConnection implements Connection {
     if (sql.equalsIgnoreCase("INSERT")) {
       return new IoTDBPreparedInsertionStatement(this, client, sessionHandle, zoneId);
     }
+    if (sql.equalsIgnoreCase("INSERT BATCH")) {
+      return new IoTDBPreparedBatchInsertionStatement(this, client, sessionHandle, zoneId);
+    }
     return new IoTDBPreparedStatement(this, client, sessionHandle, sql, zoneId);
   }
 
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.jdbc;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.service.rpc.thrift.TSBatchInsertionReq;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSIService.Iface;
+import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
+import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.thrift.TException;
+
+/**
+ * Inserts many rows of one device with a single RPC. The values of each measurement are given as
+ * a primitive array of its data type: boolean[], int[], long[], float[], double[] or Binary[].
+ */
+public class IoTDBPreparedBatchInsertionStatement extends IoTDBPreparedStatement {
+
+  private TSBatchInsertionReq req = new TSBatchInsertionReq();
+  private List<TSDataType> dataTypes;
+  private long[] timestamps;
+  private Object[] values;
+  private int size;
+
+  public IoTDBPreparedBatchInsertionStatement(IoTDBConnection connection,
+      Iface client,
+      TS_SessionHandle sessionHandle, ZoneId zoneId) throws SQLException {
+    super(connection, client, sessionHandle, zoneId);
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    if (timestamps == null || dataTypes == null) {
+      throw new SQLException("Timestamps and measurements must be set before execution");
+    }
+    List<ByteBuffer> valueBuffers = new ArrayList<>(dataTypes.size());
+    for (int i = 0; i < dataTypes.size(); i++) {
+      if (values[i] == null) {
+        throw new SQLException(String.format("Values of measurement %s are not set",
+            req.getMeasurements().get(i)));
+      }
+      valueBuffers.add(packValues(dataTypes.get(i), values[i]));
+    }
+    ByteBuffer timeBuffer = ByteBuffer.allocate(size * 8);
+    timeBuffer.asLongBuffer().put(timestamps, 0, size);
+    req.setTimestamps(timeBuffer);
+    req.setValues(valueBuffers);
+    req.setSize(size);
+
+    try {
+      TSExecuteStatementResp resp = client.insertBatch(req);
+      return resp.getStatus().getStatusCode() == TS_StatusCode.SUCCESS_STATUS;
+    } catch (TException e) {
+      throw new SQLException(e);
+    } finally {
+      req.unsetTimestamps();
+      req.unsetValues();
+      values = new Object[dataTypes.size()];
+    }
+  }
+
+  private ByteBuffer packValues(TSDataType dataType, Object valueArray) throws SQLException {
+    ByteBuffer buffer;
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) valueArray;
+        buffer = ByteBuffer.allocate(size);
+        for (int i = 0; i < size; i++) {
+          buffer.put(booleans[i] ? (byte) 1 : (byte) 0);
+        }
+        break;
+      case INT32:
+        buffer = ByteBuffer.allocate(size * 4);
+        buffer.asIntBuffer().put((int[]) valueArray, 0, size);
+        break;
+      case INT64:
+        buffer = ByteBuffer.allocate(size * 8);
+        buffer.asLongBuffer().put((long[]) valueArray, 0, size);
+        break;
+      case FLOAT:
+        buffer = ByteBuffer.allocate(size * 4);
+        buffer.asFloatBuffer().put((float[]) valueArray, 0, size);
+        break;
+      case DOUBLE:
+        buffer = ByteBuffer.allocate(size * 8);
+        buffer.asDoubleBuffer().put((double[]) valueArray, 0, size);
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) valueArray;
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+          length += 4 + binaries[i].getLength();
+        }
+        buffer = ByteBuffer.allocate(length);
+        for (int i = 0; i < size; i++) {
+          buffer.putInt(binaries[i].getLength());
+          buffer.put(binaries[i].getValues());
+        }
+        break;
+      default:
+        throw new SQLException(String.format("Data type %s is not supported.", dataType));
+    }
+    // the views above do not move the position of buffer, only the relative puts do
+    buffer.rewind();
+    return buffer;
+  }
+
+  public void setDeviceId(String deviceId) {
+    req.setDeviceId(deviceId);
+  }
+
+  /**
+   * set the measurements and their data types, the values set before are cleared.
+   */
+  public void setMeasurements(List<String> measurements, List<TSDataType> dataTypes) {
+    req.setMeasurements(measurements);
+    List<String> typeNames = new ArrayList<>(dataTypes.size());
+    for (TSDataType dataType : dataTypes) {
+      typeNames.add(dataType.toString());
+    }
+    req.setDataTypes(typeNames);
+    this.dataTypes = dataTypes;
+    this.values = new Object[dataTypes.size()];
+  }
+
+  /**
+   * set the timestamps of the rows, only the first size elements of timestamps and each value
+   * array are inserted.
+   */
+  public void setTimestamps(long[] timestamps, int size) {
+    this.timestamps = timestamps;
+    this.size = size;
+  }
+
+  /**
+   * @param measurementIndex index of the measurement in the list given to setMeasurements()
+   * @param values a primitive array of the measurement's data type
+   */
+  public void setValues(int measurementIndex, Object values) {
+    this.values[measurementIndex] = values;
+  }
+}
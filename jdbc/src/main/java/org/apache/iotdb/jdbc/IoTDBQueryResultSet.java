@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationResp;
+import org.apache.iotdb.service.rpc.thrift.TSFetchColumnarResultsResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchResultsReq;
 import org.apache.iotdb.service.rpc.thrift.TSFetchResultsResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
@@ -55,6 +56,7 @@ import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.slf4j.LoggerFactory;
 
@@ -77,6 +79,9 @@ public class IoTDBQueryResultSet implements ResultSet {
   private Map<String, Integer> columnInfoMap;
   private RowRecord record;
   private Iterator<RowRecord> recordItr;
+  private ColumnarRecordBatch columnarBatch;
+  // set to false once the server turns out not to support fetchColumnarResults
+  private boolean columnarFetch = true;
   private int rowsFetched = 0;
   private int maxRows; // defined in TsfileStatement
   private int fetchSize;
@@ -702,6 +707,19 @@ public class IoTDBQueryResultSet implements ResultSet {
 
   // the next record rule without constraints
   private boolean nextWithoutConstraints(int limitFetchSize) throws SQLException {
+    if (columnarFetch) {
+      if ((columnarBatch == null || !columnarBatch.hasNext()) && !emptyResultSet) {
+        fetchColumnarResults(limitFetchSize);
+      }
+      if (columnarFetch) {
+        if (emptyResultSet) {
+          return false;
+        }
+        columnarBatch.next();
+        return true;
+      }
+    }
+
     if ((recordItr == null || !recordItr.hasNext()) && !emptyResultSet) {
       int adaFetchSize = (limitFetchSize < fetchSize) ? limitFetchSize : fetchSize;
       TSFetchResultsReq req = new TSFetchResultsReq(sql, adaFetchSize, queryId);
@@ -730,6 +748,35 @@ public class IoTDBQueryResultSet implements ResultSet {
     return true;
   }
 
+  /**
+   * fetch the next batch in the columnar form. If the server does not know the columnar RPC, fall
+   * back to the row based fetchResults for the rest of this result set.
+   */
+  private void fetchColumnarResults(int limitFetchSize) throws SQLException {
+    int adaFetchSize = (limitFetchSize < fetchSize) ? limitFetchSize : fetchSize;
+    TSFetchResultsReq req = new TSFetchResultsReq(sql, adaFetchSize, queryId);
+
+    try {
+      TSFetchColumnarResultsResp resp = client.fetchColumnarResults(req);
+      Utils.verifySuccess(resp.getStatus());
+      if (!resp.hasResultSet) {
+        emptyResultSet = true;
+      } else {
+        columnarBatch = new ColumnarRecordBatch(resp.getColumnarDataSet());
+      }
+    } catch (TApplicationException e) {
+      if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+        throw new SQLException(
+            "Cannot fetch result from server, because of network connection: {} ", e);
+      }
+      logger.debug("Server does not support fetchColumnarResults, use fetchResults instead");
+      columnarFetch = false;
+    } catch (TException e) {
+      throw new SQLException(
+          "Cannot fetch result from server, because of network connection: {} ", e);
+    }
+  }
+
   @Override
   // the next record rule considering both the maxRows constraint and the LIMIT&OFFSET constraint
   public boolean next() throws SQLException {
@@ -1221,7 +1268,7 @@ public class IoTDBQueryResultSet implements ResultSet {
   }
 
   private void checkRecord() throws SQLException {
-    if (record == null) {
+    if (columnarFetch ? columnarBatch == null : record == null) {
       throw new SQLException("No record remains");
     }
   }
@@ -1239,6 +1286,13 @@ public class IoTDBQueryResultSet implements ResultSet {
 
   private String getValueByName(String columnName) throws SQLException {
     checkRecord();
+    if (columnarFetch) {
+      if (columnName.equals(TIMESTAMP_STR)) {
+        return String.valueOf(columnarBatch.getTimestamp());
+      }
+      int column = columnInfoMap.get(columnName) - 2;
+      return column < columnarBatch.getColumnNum() ? columnarBatch.getString(column) : null;
+    }
     if (columnName.equals(TIMESTAMP_STR)) {
       return String.valueOf(record.getTimestamp());
     }
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
@@ -31,9 +32,11 @@ import java.sql.Types;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSFetchColumnarResultsResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataReq;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchResultsReq;
@@ -46,6 +49,7 @@ import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
 import org.apache.iotdb.service.rpc.thrift.TS_Status;
 import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.thrift.TApplicationException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -116,6 +120,42 @@ public class IoTDBQueryResultSetTest {
   private TSFetchMetadataResp fetchMetadataResp;
   @Mock
   private TSFetchResultsResp fetchResultsResp;
+  @Mock
+  private TSFetchColumnarResultsResp fetchColumnarResultsResp;
+
+  private static final int FAKED_DATA_TYPE_NUM = 3;
+  // the first-time fetched result of 'testSql': timestamp, then (path, type, value) per column
+  private static final Object[][] FAKED_INPUT = {
+      {1L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
+          1101L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {2L, "root.vehicle.d0.s2", TSDataType.FLOAT, 2.22F, "root.vehicle.d0.s1", TSDataType.INT64,
+          40000L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {3L, "root.vehicle.d0.s2", TSDataType.FLOAT, 3.33F, "root.vehicle.d0.s1", TSDataType.INT64,
+          null,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {4L, "root.vehicle.d0.s2", TSDataType.FLOAT, 4.44F, "root.vehicle.d0.s1", TSDataType.INT64,
+          null,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {50L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
+          50000L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {100L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
+          199L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {101L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
+          199L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {103L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
+          199L,
+          "root.vehicle.d0.s0", TSDataType.INT32, null,},
+      {105L, "root.vehicle.d0.s2", TSDataType.FLOAT, 11.11F, "root.vehicle.d0.s1",
+          TSDataType.INT64, 199L,
+          "root.vehicle.d0.s0", TSDataType.INT32, 33333,},
+      {1000L, "root.vehicle.d0.s2", TSDataType.FLOAT, 1000.11F, "root.vehicle.d0.s1",
+          TSDataType.INT64,
+          55555L, "root.vehicle.d0.s0", TSDataType.INT32, 22222,}};
 
   private TS_Status Status_SUCCESS = new TS_Status(TS_StatusCode.SUCCESS_STATUS);
   private ZoneId zoneID = ZoneId.systemDefault();
@@ -137,18 +177,54 @@ public class IoTDBQueryResultSetTest {
 
     when(client.fetchResults(any(TSFetchResultsReq.class))).thenReturn(fetchResultsResp);
     when(fetchResultsResp.getStatus()).thenReturn(Status_SUCCESS);
+
+    when(client.fetchColumnarResults(any(TSFetchResultsReq.class)))
+        .thenReturn(fetchColumnarResultsResp);
+    when(fetchColumnarResultsResp.getStatus()).thenReturn(Status_SUCCESS);
   }
 
   @SuppressWarnings("resource")
   @Test
   public void testQuery() throws Exception {
+    boolean hasResultSet = executeTestSql();
 
-    String testSql = "select *,s1,s0,s2 from root.vehicle.d0 where s1 > 190 or s2 < 10.0 "
-        + "limit 20 offset 1 slimit 4 soffset 2";
+    /*
+     * step 2: fetch result
+     */
+    fetchColumnarResultsResp.hasResultSet = true; // at the first time to fetch
+    TSColumnarDataSet columnarDataSet = FakedFirstColumnarFetchResult();
+    when(fetchColumnarResultsResp.getColumnarDataSet()).thenReturn(columnarDataSet);
+
+    checkFetchedResult(hasResultSet);
+    verify(client, times(0)).fetchResults(any(TSFetchResultsReq.class));
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void testQueryFallbackToRowFetch() throws Exception {
+    boolean hasResultSet = executeTestSql();
 
     /*
-     * step 1: execute statement
+     * step 2: fetch result from a server which does not support the columnar fetch
      */
+    when(client.fetchColumnarResults(any(TSFetchResultsReq.class))).thenThrow(
+        new TApplicationException(TApplicationException.UNKNOWN_METHOD,
+            "Invalid method name: 'fetchColumnarResults'"));
+    fetchResultsResp.hasResultSet = true; // at the first time to fetch
+    TSQueryDataSet tsQueryDataSet = FakedFirstFetchResult();
+    when(fetchResultsResp.getQueryDataSet()).thenReturn(tsQueryDataSet);
+
+    checkFetchedResult(hasResultSet);
+    verify(client, times(1)).fetchColumnarResults(any(TSFetchResultsReq.class));
+  }
+
+  /*
+   * step 1: execute statement
+   */
+  private boolean executeTestSql() throws Exception {
+    String testSql = "select *,s1,s0,s2 from root.vehicle.d0 where s1 > 190 or s2 < 10.0 "
+        + "limit 20 offset 1 slimit 4 soffset 2";
+
     List<String> columns = new ArrayList<>();
     columns.add("root.vehicle.d0.s2");
     columns.add("root.vehicle.d0.s1");
@@ -172,14 +248,10 @@ public class IoTDBQueryResultSetTest {
     boolean hasResultSet = statement.execute(testSql);
 
     verify(fetchMetadataResp, times(0)).getDataType();
+    return hasResultSet;
+  }
 
-    /*
-     * step 2: fetch result
-     */
-    fetchResultsResp.hasResultSet = true; // at the first time to fetch
-    TSQueryDataSet tsQueryDataSet = FakedFirstFetchResult();
-    when(fetchResultsResp.getQueryDataSet()).thenReturn(tsQueryDataSet);
-
+  private void checkFetchedResult(boolean hasResultSet) throws Exception {
     if (hasResultSet) {
       ResultSet resultSet = statement.getResultSet();
       // check columnInfoMap
@@ -215,6 +287,7 @@ public class IoTDBQueryResultSetTest {
         resultStr.append("\n");
 
         fetchResultsResp.hasResultSet = false; // at the second time to fetch
+        fetchColumnarResultsResp.hasResultSet = false;
       }
       String standard =
           "Time,root.vehicle.d0.s2,root.vehicle.d0.s1,root.vehicle.d0.s0,root.vehicle.d0.s2,\n"
@@ -231,44 +304,12 @@ public class IoTDBQueryResultSetTest {
   // fake the first-time fetched result of 'testSql' from an IoTDB server
   private TSQueryDataSet FakedFirstFetchResult() {
     TSQueryDataSet tsQueryDataSet = new TSQueryDataSet(new ArrayList<>());
-    final int DATA_TYPE_NUM = 3;
-    Object[][] input = {
-        {1L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
-            1101L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {2L, "root.vehicle.d0.s2", TSDataType.FLOAT, 2.22F, "root.vehicle.d0.s1", TSDataType.INT64,
-            40000L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {3L, "root.vehicle.d0.s2", TSDataType.FLOAT, 3.33F, "root.vehicle.d0.s1", TSDataType.INT64,
-            null,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {4L, "root.vehicle.d0.s2", TSDataType.FLOAT, 4.44F, "root.vehicle.d0.s1", TSDataType.INT64,
-            null,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {50L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
-            50000L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {100L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
-            199L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {101L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
-            199L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {103L, "root.vehicle.d0.s2", TSDataType.FLOAT, null, "root.vehicle.d0.s1", TSDataType.INT64,
-            199L,
-            "root.vehicle.d0.s0", TSDataType.INT32, null,},
-        {105L, "root.vehicle.d0.s2", TSDataType.FLOAT, 11.11F, "root.vehicle.d0.s1",
-            TSDataType.INT64, 199L,
-            "root.vehicle.d0.s0", TSDataType.INT32, 33333,},
-        {1000L, "root.vehicle.d0.s2", TSDataType.FLOAT, 1000.11F, "root.vehicle.d0.s1",
-            TSDataType.INT64,
-            55555L, "root.vehicle.d0.s0", TSDataType.INT32, 22222,}};
-    for (Object[] item : input) {
+    for (Object[] item : FAKED_INPUT) {
       TSRowRecord record = new TSRowRecord();
       record.setTimestamp((long) item[0]);
       List<String> keys = new ArrayList<>();
       List<TSDataValue> values = new ArrayList<>();
-      for (int i = 0; i < DATA_TYPE_NUM; i++) {
+      for (int i = 0; i < FAKED_DATA_TYPE_NUM; i++) {
         keys.add((String) item[3 * i + 1]);
         TSDataValue value = new TSDataValue(false);
         if (item[3 * i + 3] == null) {
@@ -292,4 +333,40 @@ public class IoTDBQueryResultSetTest {
     }
     return tsQueryDataSet;
   }
-}
\ No newline at end of file
+
+  // fake the first-time fetched result of 'testSql' in the columnar form
+  private TSColumnarDataSet FakedFirstColumnarFetchResult() {
+    int rowCount = FAKED_INPUT.length;
+    ByteBuffer time = ByteBuffer.allocate(rowCount * 8);
+    List<String> dataTypeList = new ArrayList<>();
+    List<ByteBuffer> valueList = new ArrayList<>();
+    List<ByteBuffer> bitmapList = new ArrayList<>();
+    for (Object[] item : FAKED_INPUT) {
+      time.putLong((long) item[0]);
+    }
+    time.flip();
+    for (int i = 0; i < FAKED_DATA_TYPE_NUM; i++) {
+      dataTypeList.add(FAKED_INPUT[0][3 * i + 2].toString());
+      ByteBuffer value = ByteBuffer.allocate(rowCount * 8);
+      byte[] bitmap = new byte[(rowCount + 7) / 8];
+      for (int row = 0; row < rowCount; row++) {
+        Object item = FAKED_INPUT[row][3 * i + 3];
+        if (item == null) {
+          continue;
+        }
+        bitmap[row / 8] |= 0x80 >>> (row % 8);
+        if (i == 0) {
+          value.putFloat((float) item);
+        } else if (i == 1) {
+          value.putLong((long) item);
+        } else {
+          value.putInt((int) item);
+        }
+      }
+      value.flip();
+      valueList.add(value);
+      bitmapList.add(ByteBuffer.wrap(bitmap));
+    }
+    return new TSColumnarDataSet(rowCount, time, dataTypeList, valueList, bitmapList);
+  }
+}
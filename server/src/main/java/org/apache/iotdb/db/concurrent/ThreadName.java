@@ -33,12 +33,16 @@ public enum ThreadName {
   STAT_MONITOR("StatMonitor-ServerServiceImpl"),
   FLUSH_SERVICE("Flush-ServerServiceImpl"),
   FLUSH_SUB_TASK_SERVICE("Flush-SubTask-ServerServiceImpl"),
+  QUERY_SERVICE("Query-ServerServiceImpl"),
   WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
   WAL_FORCE_DAEMON("IoTDB-MultiFileLogNodeManager-Force-Thread"),
   INDEX_SERVICE("Index-ServerServiceImpl"),
   SYNC_CLIENT("Sync-Client"),
   SYNC_SERVER("Sync-Server"),
   SYNC_MONITOR("Sync-Monitor"),
+  METADATA_SNAPSHOT("IoTDB-Metadata-Snapshot"),
+  STORAGE_GROUP_RECOVER("IoTDB-StorageGroup-Recover"),
+  TSFILE_RECOVER("IoTDB-TsFile-Recover"),
   TIME_COST_STATSTIC("TIME_COST_STATSTIC");
 
   private String name;
@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.TSServiceImpl;
+import org.apache.iotdb.db.writelog.node.WalSyncMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +54,18 @@ public class IoTDBConfig {
    */
   private long allocateMemoryForRead = Runtime.getRuntime().maxMemory() * 3 / 10;
 
+  /**
+   * Whether the time and value arrays of the memtables are kept in direct memory instead of the
+   * Java heap. TEXT series are always kept on the heap.
+   */
+  private boolean enableOffHeapMemtable = false;
+
+  /**
+   * Direct memory allocated for the memtables when enableOffHeapMemtable is true, it should not be
+   * larger than -XX:MaxDirectMemorySize.
+   */
+  private long allocateMemoryForOffHeapMemtable = Runtime.getRuntime().maxMemory() * 6 / 10;
+
   /**
    * Is dynamic parameter adapter enable.
    */
@@ -83,8 +96,16 @@ public class IoTDBConfig {
   private long forceWalPeriodInMs = 10;
 
   /**
-   * Size of log buffer in each log node(in byte). If WAL is enabled and the size of a insert plan
-   * is smaller than this parameter, then the insert plan will be rejected by WAL.
+   * When a write to the WAL is acknowledged and when its log is forced to disk, see {@link
+   * WalSyncMode}.
+   */
+  private WalSyncMode walSyncMode = WalSyncMode.PERIODIC;
+
+  /**
+   * Size of log buffer in each log node(in byte). The buffer is split into two halves, one is
+   * filled by insertions while the other is written to disk. If WAL is enabled and the size of a
+   * insert plan is larger than half of this parameter, then the insert plan will be rejected by
+   * WAL.
    */
   private int walBufferSize = 16 * 1024 * 1024;
 
@@ -134,6 +155,24 @@ public class IoTDBConfig {
    */
   private int mergeConcurrentThreads = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * Every storage group merges its unsequence files into its sequence files in this interval (in
+   * second). When <= 0, merges are only triggered manually.
+   */
+  private long mergeIntervalSec = 3600;
+
+  /**
+   * The maximum bytes per second that all the merges may write to disk together. When <= 0, the
+   * merges are not throttled.
+   */
+  private long mergeThroughputBytePerSec = 16 * 1024 * 1024L;
+
+  /**
+   * When a merged chunk has this many points, it is written to the new TsFile and a new chunk is
+   * started, so that a long series does not stay in memory during a merge.
+   */
+  private int mergeChunkPointNumber = 100000;
+
   /**
    * The amount of data that is read every time when IoTDB merges data.
    */
@@ -144,6 +183,23 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads can concurrently read series for queries. When <= 0, use CPU core number.
+   */
+  private int concurrentQueryThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many series of one query can be read concurrently. When <= 1, the series of a query are
+   * read one by one in the query thread.
+   */
+  private int maxParallelismPerQuery = 8;
+
+  /**
+   * How many threads can concurrently recover storage groups, and how many can concurrently recover
+   * the TsFiles of them, at startup. When <= 0, use CPU core number.
+   */
+  private int concurrentRecoveryThread = Runtime.getRuntime().availableProcessors();
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -156,6 +212,13 @@ public class IoTDBConfig {
    */
   private long memtableSizeThreshold = 128 * 1024 * 1024L;
 
+  /**
+   * The time range (in the timestamp precision) covered by a time partition of a storage group.
+   * Each partition has its own working TsFiles and flush watermarks. When <= 0, a storage group is
+   * not partitioned.
+   */
+  private long partitionInterval = 0;
+
   /**
    * whether to cache meta data(ChunkMetaData and TsFileMetaData) or not.
    */
@@ -170,6 +233,22 @@ public class IoTDBConfig {
    */
   private long allocateMemoryForChumkMetaDataCache = allocateMemoryForRead * 6 / 19;
 
+  /**
+   * whether to cache the chunks read from TsFiles across queries or not.
+   */
+  private boolean chunkCacheEnable = true;
+
+  /**
+   * Memory allocated for the chunk cache in read process
+   */
+  private long allocateMemoryForChunkCache = allocateMemoryForRead * 3 / 22;
+
+  /**
+   * The max number of series whose latest point is cached. A value not larger than 0 disables the
+   * cache, which is the default.
+   */
+  private int lastValueCacheSize = 0;
+
   /**
    * The statMonitor writes statistics info into IoTDB every backLoopPeriodSec secs. The default
    * value is 5s.
@@ -194,6 +273,13 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * Take a snapshot of the metadata after this many operations are appended to the metadata log
+   * since the last snapshot, so that a restart only replays the log after the snapshot. A value
+   * not larger than 0 disables snapshots.
+   */
+  private int schemaSnapshotInterval = 100000;
+
   /**
    * Is this IoTDB instance a receiver of sync or not.
    */
@@ -377,6 +463,14 @@ public class IoTDBConfig {
     this.schemaDir = schemaDir;
   }
 
+  public WalSyncMode getWalSyncMode() {
+    return walSyncMode;
+  }
+
+  public void setWalSyncMode(WalSyncMode walSyncMode) {
+    this.walSyncMode = walSyncMode;
+  }
+
   public String getWalFolder() {
     return walFolder;
   }
@@ -413,6 +507,30 @@ public class IoTDBConfig {
     this.mergeConcurrentThreads = mergeConcurrentThreads;
   }
 
+  public long getMergeIntervalSec() {
+    return mergeIntervalSec;
+  }
+
+  void setMergeIntervalSec(long mergeIntervalSec) {
+    this.mergeIntervalSec = mergeIntervalSec;
+  }
+
+  public long getMergeThroughputBytePerSec() {
+    return mergeThroughputBytePerSec;
+  }
+
+  void setMergeThroughputBytePerSec(long mergeThroughputBytePerSec) {
+    this.mergeThroughputBytePerSec = mergeThroughputBytePerSec;
+  }
+
+  public int getMergeChunkPointNumber() {
+    return mergeChunkPointNumber;
+  }
+
+  void setMergeChunkPointNumber(int mergeChunkPointNumber) {
+    this.mergeChunkPointNumber = mergeChunkPointNumber;
+  }
+
   public int getFetchSize() {
     return fetchSize;
   }
@@ -437,6 +555,30 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getConcurrentQueryThread() {
+    return concurrentQueryThread;
+  }
+
+  void setConcurrentQueryThread(int concurrentQueryThread) {
+    this.concurrentQueryThread = concurrentQueryThread;
+  }
+
+  public int getConcurrentRecoveryThread() {
+    return concurrentRecoveryThread;
+  }
+
+  void setConcurrentRecoveryThread(int concurrentRecoveryThread) {
+    this.concurrentRecoveryThread = concurrentRecoveryThread;
+  }
+
+  public int getMaxParallelismPerQuery() {
+    return maxParallelismPerQuery;
+  }
+
+  public void setMaxParallelismPerQuery(int maxParallelismPerQuery) {
+    this.maxParallelismPerQuery = maxParallelismPerQuery;
+  }
+
   void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -449,6 +591,14 @@ public class IoTDBConfig {
     this.tsFileSizeThreshold = tsFileSizeThreshold;
   }
 
+  public long getPartitionInterval() {
+    return partitionInterval;
+  }
+
+  public void setPartitionInterval(long partitionInterval) {
+    this.partitionInterval = partitionInterval;
+  }
+
   public int getBackLoopPeriodSec() {
     return backLoopPeriodSec;
   }
@@ -489,6 +639,14 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getSchemaSnapshotInterval() {
+    return schemaSnapshotInterval;
+  }
+
+  public void setSchemaSnapshotInterval(int schemaSnapshotInterval) {
+    this.schemaSnapshotInterval = schemaSnapshotInterval;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -585,6 +743,22 @@ public class IoTDBConfig {
     this.enableParameterAdapter = enableParameterAdapter;
   }
 
+  public boolean isEnableOffHeapMemtable() {
+    return enableOffHeapMemtable;
+  }
+
+  public void setEnableOffHeapMemtable(boolean enableOffHeapMemtable) {
+    this.enableOffHeapMemtable = enableOffHeapMemtable;
+  }
+
+  public long getAllocateMemoryForOffHeapMemtable() {
+    return allocateMemoryForOffHeapMemtable;
+  }
+
+  public void setAllocateMemoryForOffHeapMemtable(long allocateMemoryForOffHeapMemtable) {
+    this.allocateMemoryForOffHeapMemtable = allocateMemoryForOffHeapMemtable;
+  }
+
   public long getAllocateMemoryForWrite() {
     return allocateMemoryForWrite;
   }
@@ -656,4 +830,28 @@ public class IoTDBConfig {
   public void setAllocateMemoryForChumkMetaDataCache(long allocateMemoryForChumkMetaDataCache) {
     this.allocateMemoryForChumkMetaDataCache = allocateMemoryForChumkMetaDataCache;
   }
+
+  public boolean isChunkCacheEnable() {
+    return chunkCacheEnable;
+  }
+
+  public void setChunkCacheEnable(boolean chunkCacheEnable) {
+    this.chunkCacheEnable = chunkCacheEnable;
+  }
+
+  public long getAllocateMemoryForChunkCache() {
+    return allocateMemoryForChunkCache;
+  }
+
+  public void setAllocateMemoryForChunkCache(long allocateMemoryForChunkCache) {
+    this.allocateMemoryForChunkCache = allocateMemoryForChunkCache;
+  }
+
+  public int getLastValueCacheSize() {
+    return lastValueCacheSize;
+  }
+
+  public void setLastValueCacheSize(int lastValueCacheSize) {
+    this.lastValueCacheSize = lastValueCacheSize;
+  }
 }
@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.time.ZoneId;
 import java.util.Properties;
 import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.db.writelog.node.WalSyncMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -134,8 +135,23 @@ public class IoTDBDescriptor {
           Boolean.parseBoolean(properties.getProperty("meta_data_cache_enable",
               Boolean.toString(conf.isMetaDataCacheEnable()))));
 
+      conf.setChunkCacheEnable(
+          Boolean.parseBoolean(properties.getProperty("chunk_cache_enable",
+              Boolean.toString(conf.isChunkCacheEnable()))));
+
+      conf.setLastValueCacheSize(Integer.parseInt(properties.getProperty("last_value_cache_size",
+          Integer.toString(conf.getLastValueCacheSize())).trim()));
+
       initMemoryAllocate(properties);
 
+      conf.setEnableOffHeapMemtable(
+          Boolean.parseBoolean(properties.getProperty("enable_off_heap_memtable",
+              Boolean.toString(conf.isEnableOffHeapMemtable()))));
+
+      conf.setAllocateMemoryForOffHeapMemtable(Long.parseLong(properties
+          .getProperty("off_heap_memtable_memory_in_byte",
+              Long.toString(conf.getAllocateMemoryForOffHeapMemtable()))));
+
       conf.setEnableWal(Boolean.parseBoolean(properties.getProperty("enable_wal",
           Boolean.toString(conf.isEnableWal()))));
 
@@ -158,6 +174,9 @@ public class IoTDBDescriptor {
           .parseLong(properties.getProperty("force_wal_period_in_ms",
               Long.toString(conf.getForceWalPeriodInMs()))));
 
+      conf.setWalSyncMode(WalSyncMode.valueOf(properties.getProperty("wal_sync_mode",
+          conf.getWalSyncMode().name()).trim().toUpperCase()));
+
       int walBufferSize = Integer.parseInt(properties.getProperty("wal_buffer_size",
           Integer.toString(conf.getWalBufferSize())));
       if (walBufferSize > 0) {
@@ -175,6 +194,20 @@ public class IoTDBDescriptor {
         conf.setMergeConcurrentThreads(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setMergeIntervalSec(Long.parseLong(properties.getProperty("merge_interval_sec",
+          Long.toString(conf.getMergeIntervalSec())).trim()));
+
+      conf.setMergeThroughputBytePerSec(Long.parseLong(properties
+          .getProperty("merge_throughput_byte_per_sec",
+              Long.toString(conf.getMergeThroughputBytePerSec())).trim()));
+
+      int mergeChunkPointNumber = Integer.parseInt(properties
+          .getProperty("merge_chunk_point_number",
+              Integer.toString(conf.getMergeChunkPointNumber())).trim());
+      if (mergeChunkPointNumber > 0) {
+        conf.setMergeChunkPointNumber(mergeChunkPointNumber);
+      }
+
       conf.setFetchSize(Integer.parseInt(properties.getProperty("fetch_size",
           Integer.toString(conf.getFetchSize()))));
 
@@ -185,6 +218,9 @@ public class IoTDBDescriptor {
         conf.setTsFileSizeThreshold(tsfileSizeThreshold);
       }
 
+      conf.setPartitionInterval(Long.parseLong(properties
+          .getProperty("partition_interval", Long.toString(conf.getPartitionInterval())).trim()));
+
       long memTableSizeThreshold = Long.parseLong(properties
           .getProperty("memtable_size_threshold",
               Long.toString(conf.getMemtableSizeThreshold())).trim());
@@ -213,10 +249,34 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setConcurrentQueryThread(Integer
+          .parseInt(properties.getProperty("concurrent_query_thread",
+              Integer.toString(conf.getConcurrentQueryThread()))));
+
+      if (conf.getConcurrentQueryThread() <= 0) {
+        conf.setConcurrentQueryThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setMaxParallelismPerQuery(Integer
+          .parseInt(properties.getProperty("max_parallelism_per_query",
+              Integer.toString(conf.getMaxParallelismPerQuery()))));
+
+      conf.setConcurrentRecoveryThread(Integer
+          .parseInt(properties.getProperty("concurrent_recovery_thread",
+              Integer.toString(conf.getConcurrentRecoveryThread()))));
+
+      if (conf.getConcurrentRecoveryThread() <= 0) {
+        conf.setConcurrentRecoveryThread(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("schema_manager_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setSchemaSnapshotInterval(Integer
+          .parseInt(properties.getProperty("schema_snapshot_interval",
+              Integer.toString(conf.getSchemaSnapshotInterval())).trim()));
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -267,8 +327,10 @@ public class IoTDBDescriptor {
       conf.setAllocateMemoryForRead(
           maxMemoryAvailable * Integer.parseInt(proportions[1].trim()) / proportionSum);
     }
+    // the default share of the chunk cache, as in 3:6:3:10, of the configured read memory
+    conf.setAllocateMemoryForChunkCache(conf.getAllocateMemoryForRead() * 3 / 22);
 
-    if (!conf.isMetaDataCacheEnable()) {
+    if (!conf.isMetaDataCacheEnable() && !conf.isChunkCacheEnable()) {
       return;
     }
 
@@ -286,6 +348,15 @@ public class IoTDBDescriptor {
             maxMemoryAvailable * Integer.parseInt(proportions[0].trim()) / proportionSum);
         conf.setAllocateMemoryForChumkMetaDataCache(
             maxMemoryAvailable * Integer.parseInt(proportions[1].trim()) / proportionSum);
+        long thirdSubsection =
+            maxMemoryAvailable * Integer.parseInt(proportions[2].trim()) / proportionSum;
+        if (proportions.length > 3) {
+          conf.setAllocateMemoryForChunkCache(thirdSubsection);
+        } else {
+          // a:b:c keeps the default share of the chunk cache, taken out of the free memory c
+          conf.setAllocateMemoryForChunkCache(
+              Math.min(conf.getAllocateMemoryForChunkCache(), thirdSubsection));
+        }
       } catch (Exception e) {
         throw new RuntimeException(
             "Each subsection of configuration item filemeta_chunkmeta_free_memory_proportion should be an integer, which is "
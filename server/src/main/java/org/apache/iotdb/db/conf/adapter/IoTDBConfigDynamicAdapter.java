@@ -66,6 +66,10 @@ import org.slf4j.LoggerFactory;
  * The equation: m * Nm + Nm * Ns * Sf * a * c / m + b = S
  * Namely: MemTable data memory size + chunk metadata memory size + static memory size = memory size for write
  *
+ * When the memtables are kept off-heap (enable_off_heap_memtable), their data takes the direct
+ * memory allocated for them (O) instead of the memory for write, so the equation is split into:
+ * m * Nm = O and Nm * Ns * Sf * a * c / m + b <= S, and Sf is lowered if the latter fails.
+ *
  */
 public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
 
@@ -128,7 +132,15 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
     long memtableSizeInByte = calcMemTableSize(ratio);
     long memTableSizeFloorThreshold = getMemTableSizeFloorThreshold();
     long tsFileSizeThreshold = CONFIG.getTsFileSizeThreshold();
-    if (memtableSizeInByte < memTableSizeFloorThreshold) {
+    if (CONFIG.isEnableOffHeapMemtable()) {
+      // the memtable size is fixed by the off-heap memory, the heap only limits the tsfile size
+      tsFileSizeThreshold = Math.min(tsFileSizeThreshold,
+          calcTsFileSizeThreshold(memtableSizeInByte, ratio));
+      if (memtableSizeInByte < memTableSizeFloorThreshold
+          || (long) (tsFileSizeThreshold * ratio) < memTableSizeFloorThreshold) {
+        canAdjust = false;
+      }
+    } else if (memtableSizeInByte < memTableSizeFloorThreshold) {
       if(LOGGER.isDebugEnabled()) {
         LOGGER.debug("memtableSizeInByte {} is smaller than memTableSizeFloorThreshold {}",
             memtableSizeInByte, memTableSizeFloorThreshold);
@@ -169,6 +181,10 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
    * @return MemTable byte size. If the value is -1, there is no valid solution.
    */
   private int calcMemTableSize(double ratio) {
+    if (CONFIG.isEnableOffHeapMemtable()) {
+      return (int) Math.min(Integer.MAX_VALUE,
+          CONFIG.getAllocateMemoryForOffHeapMemtable() / maxMemTableNum);
+    }
     // when unit is byte, it's likely to cause Long type overflow.
     // so when b is larger than Integer.MAC_VALUE use the unit KB.
     double a = maxMemTableNum;
@@ -192,8 +208,9 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
    * @return Tsfile byte threshold
    */
   private long calcTsFileSizeThreshold(long memTableSize, double ratio) {
+    long memTableHeapSize = CONFIG.isEnableOffHeapMemtable() ? 0 : maxMemTableNum * memTableSize;
     return (long) (
-        (allocateMemoryForWrite - maxMemTableNum * memTableSize - staticMemory) * memTableSize / (
+        (allocateMemoryForWrite - memTableHeapSize - staticMemory) * memTableSize / (
             ratio * maxMemTableNum * CHUNK_METADATA_SIZE_IN_BYTE * MManager.getInstance()
                 .getMaximalSeriesNumberAmongStorageGroups()));
   }
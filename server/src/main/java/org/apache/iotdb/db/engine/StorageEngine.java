@@ -25,7 +25,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
@@ -37,6 +44,7 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.StorageEngineFailureException;
 import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.service.IService;
@@ -66,6 +74,13 @@ public class StorageEngine implements IService {
    */
   private final ConcurrentHashMap<String, StorageGroupProcessor> processorMap = new ConcurrentHashMap<>();
 
+  /**
+   * storage group name -> recovery of its processor, a storage group is removed from it once it is
+   * put into processorMap, so a storage group that fails to recover stays here
+   */
+  private final ConcurrentHashMap<String, Future<StorageGroupProcessor>> recoveringProcessors =
+      new ConcurrentHashMap<>();
+
   private static final StorageEngine INSTANCE = new StorageEngine();
 
   public static StorageEngine getInstance() {
@@ -85,18 +100,99 @@ public class StorageEngine implements IService {
      * recover all storage group processors.
      */
     try {
-      List<String> storageGroups = MManager.getInstance().getAllStorageGroupNames();
-      for (String storageGroup : storageGroups) {
-        StorageGroupProcessor processor = new StorageGroupProcessor(systemDir, storageGroup);
-        logger.info("Storage Group Processor {} is recovered successfully", storageGroup);
-        processorMap.put(storageGroup, processor);
-      }
-    } catch (ProcessorException | MetadataErrorException e) {
+      recoverStorageGroups(MManager.getInstance().getAllStorageGroupNames());
+    } catch (MetadataErrorException e) {
       logger.error("init a storage group processor failed. ", e);
       throw new StorageEngineFailureException(e);
     }
   }
 
+  /**
+   * recover the storage groups concurrently without waiting for them. A storage group serves as
+   * soon as it is recovered, and the requests to a storage group under recovery wait for it.
+   */
+  private void recoverStorageGroups(List<String> storageGroups) {
+    if (storageGroups.isEmpty()) {
+      return;
+    }
+    int threadNum = config.getConcurrentRecoveryThread();
+    ExecutorService storageGroupPool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(Math.min(threadNum, storageGroups.size()),
+            ThreadName.STORAGE_GROUP_RECOVER.getName());
+    // the TsFiles are recovered on another pool, as the storage groups wait for them
+    ExecutorService tsFilePool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadNum, ThreadName.TSFILE_RECOVER.getName());
+    long startTime = System.currentTimeMillis();
+    AtomicInteger finishedNum = new AtomicInteger();
+
+    for (String storageGroup : storageGroups) {
+      FutureTask<StorageGroupProcessor> recoverTask = new FutureTask<>(() -> {
+        try {
+          StorageGroupProcessor processor = new StorageGroupProcessor(systemDir, storageGroup,
+              tsFilePool);
+          processorMap.put(storageGroup, processor);
+          recoveringProcessors.remove(storageGroup);
+          logger.info("Storage Group Processor {} is recovered successfully", storageGroup);
+          return processor;
+        } catch (ProcessorException | RuntimeException e) {
+          logger.error("Storage group {} failed to recover", storageGroup, e);
+          throw e;
+        } finally {
+          int finished = finishedNum.incrementAndGet();
+          logger.info("Recovery of storage groups: {}/{} finished", finished,
+              storageGroups.size());
+          if (finished == storageGroups.size()) {
+            tsFilePool.shutdown();
+            logger.info("All {} storage groups finished recovery in {}ms", storageGroups.size(),
+                System.currentTimeMillis() - startTime);
+          }
+        }
+      });
+      recoveringProcessors.put(storageGroup, recoverTask);
+      storageGroupPool.execute(recoverTask);
+    }
+    storageGroupPool.shutdown();
+  }
+
+  /**
+   * wait for the recovery of a storage group if it is under recovery.
+   *
+   * @return the processor of the storage group or null if it does not exist
+   */
+  private StorageGroupProcessor waitForRecovery(String storageGroupName)
+      throws StorageEngineException {
+    Future<StorageGroupProcessor> recoverTask = recoveringProcessors.get(storageGroupName);
+    if (recoverTask == null) {
+      // a recovered processor is put into processorMap before its task is removed
+      return processorMap.get(storageGroupName);
+    }
+    try {
+      return recoverTask.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StorageEngineException(e);
+    } catch (ExecutionException e) {
+      throw new StorageEngineException(
+          String.format("Storage group %s failed to recover", storageGroupName), e.getCause());
+    }
+  }
+
+  /**
+   * wait until no storage group is under recovery, those failing to recover are skipped.
+   */
+  private void waitForAllRecovery() {
+    for (Future<StorageGroupProcessor> recoverTask : recoveringProcessors.values()) {
+      try {
+        recoverTask.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        // logged by the recovery
+      }
+    }
+  }
+
   @Override
   public void start() {
     // nothing to be done
@@ -119,6 +215,9 @@ public class StorageEngine implements IService {
       storageGroupName = MManager.getInstance().getStorageGroupNameByPath(path);
       StorageGroupProcessor processor;
       processor = processorMap.get(storageGroupName);
+      if (processor == null) {
+        processor = waitForRecovery(storageGroupName);
+      }
       if (processor == null) {
         storageGroupName = storageGroupName.intern();
         synchronized (storageGroupName) {
@@ -143,6 +242,8 @@ public class StorageEngine implements IService {
    * This function is just for unit test.
    */
   public synchronized void reset() {
+    waitForAllRecovery();
+    recoveringProcessors.clear();
     processorMap.clear();
   }
 
@@ -169,10 +270,31 @@ public class StorageEngine implements IService {
     return storageGroupProcessor.insert(insertPlan);
   }
 
+  /**
+   * insert a BatchInsertPlan to a storage group
+   *
+   * @return true if all the rows are inserted
+   */
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan) throws StorageEngineException {
+
+    StorageGroupProcessor storageGroupProcessor;
+    try {
+      storageGroupProcessor = getProcessor(batchInsertPlan.getDeviceId());
+    } catch (Exception e) {
+      logger.warn("get StorageGroupProcessor of device {} failed, because {}",
+          batchInsertPlan.getDeviceId(),
+          e.getMessage(), e);
+      throw new StorageEngineException(e);
+    }
+
+    return storageGroupProcessor.insertBatch(batchInsertPlan);
+  }
+
   /**
    * only for unit test
    */
   public void asyncFlushAndSealAllFiles() {
+    waitForAllRecovery();
     for (StorageGroupProcessor storageGroupProcessor : processorMap.values()) {
       storageGroupProcessor.putAllWorkingTsFileProcessorIntoClosingList();
     }
@@ -183,6 +305,7 @@ public class StorageEngine implements IService {
    */
   public void syncCloseAllProcessor() {
     logger.info("Start closing all storage group processor");
+    waitForAllRecovery();
     for (StorageGroupProcessor processor : processorMap.values()) {
       processor.waitForAllCurrentTsFileProcessorsClosed();
     }
@@ -218,8 +341,7 @@ public class StorageEngine implements IService {
    * @return a token for the query.
    */
   public int beginQuery(String deviceId) throws StorageEngineException {
-    // TODO implement it when developing the merge function
-    return -1;
+    return getProcessor(deviceId).beginQuery();
   }
 
   /**
@@ -227,11 +349,14 @@ public class StorageEngine implements IService {
    * using it, the TsFile can be deleted safely.
    */
   public void endQuery(String deviceId, int token) throws StorageEngineException {
-    // TODO  implement it when developing the merge function
+    getProcessor(deviceId).endQuery(token);
   }
 
   /**
    * query data.
+   *
+   * @param seriesExpression its filter must be a time filter or null, the files out of the time
+   * range of the filter are excluded
    */
   public QueryDataSource query(SingleSeriesExpression seriesExpression, QueryContext context)
       throws StorageEngineException {
@@ -239,7 +364,8 @@ public class StorageEngine implements IService {
     String deviceId = seriesExpression.getSeriesPath().getDevice();
     String measurementId = seriesExpression.getSeriesPath().getMeasurement();
     StorageGroupProcessor storageGroupProcessor = getProcessor(deviceId);
-    return storageGroupProcessor.query(deviceId, measurementId, context);
+    return storageGroupProcessor
+        .query(deviceId, measurementId, context, seriesExpression.getFilter());
   }
 
   /**
@@ -285,7 +411,11 @@ public class StorageEngine implements IService {
    * @throws StorageEngineException StorageEngineException
    */
   public void mergeAll() throws StorageEngineException {
-    // TODO
+    logger.info("Start merging all storage groups");
+    waitForAllRecovery();
+    for (StorageGroupProcessor processor : processorMap.values()) {
+      processor.merge();
+    }
   }
 
   /**
@@ -293,11 +423,29 @@ public class StorageEngine implements IService {
    * there is no timeseries (which are all deleted) in this storage group)
    */
   public void deleteAllDataFilesInOneStorageGroup(String storageGroupName) {
+    try {
+      waitForRecovery(storageGroupName);
+    } catch (StorageEngineException e) {
+      logger.warn("Storage group {} is not recovered, its data files are not deleted",
+          storageGroupName, e);
+    }
     if (processorMap.containsKey(storageGroupName)) {
       syncDeleteDataFiles(storageGroupName);
     }
   }
 
+  /**
+   * remove all data files of a time partition in a storage group.
+   */
+  public void dropTimePartition(String storageGroupName, long timePartition)
+      throws StorageEngineException {
+    StorageGroupProcessor processor = waitForRecovery(storageGroupName);
+    if (processor != null) {
+      logger.info("Drop time partition {} of storage group {}", timePartition, storageGroupName);
+      processor.dropTimePartition(timePartition);
+    }
+  }
+
   private void syncDeleteDataFiles(String storageGroupName) {
     logger.info("Force to delete the data in storage group processor {}", storageGroupName);
     StorageGroupProcessor processor = processorMap.get(storageGroupName);
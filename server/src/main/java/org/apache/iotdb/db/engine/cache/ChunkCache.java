@@ -0,0 +1,387 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class caches the chunks read from TsFiles for all queries. A chunk is identified by the
+ * path of its file and the offset of its header, which never change once the chunk is written.
+ * <p>
+ * The cache is split into segments by the hash of the key, each guarded by its own lock and
+ * holding an equal share of the memory budget. A segment is a segmented LRU: a chunk enters the
+ * probation part and is only promoted to the protected part when it is requested again, so a large
+ * scan that reads every chunk once only evicts other chunks in probation and leaves the frequently
+ * read ones alone. The protected part takes at most 80% of a segment, its least recently used
+ * chunks are moved back to probation when it overflows, and the least recently used chunks of
+ * probation are evicted first.
+ * <p>
+ * The chunks of a file must be removed when the file is removed. A removal increases the version
+ * of the cache, and a chunk read from disk is only put into the cache if the version has not
+ * changed since the read started, so a query racing with the removal never brings a removed chunk
+ * back.
+ */
+public class ChunkCache implements ChunkCacheMBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChunkCache.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private static final int SEGMENT_NUM = 16;
+  private static final int PROTECTED_PERCENT = 80;
+
+  private final boolean cacheEnable = config.isChunkCacheEnable();
+  private final long memoryThreshold;
+
+  private final Segment[] segments;
+
+  private AtomicLong cacheHitNum = new AtomicLong();
+  private AtomicLong cacheRequestNum = new AtomicLong();
+  private AtomicLong evictionNum = new AtomicLong();
+  private AtomicLong version = new AtomicLong();
+
+  ChunkCache(long memoryThreshold, int segmentNum) {
+    this.memoryThreshold = memoryThreshold;
+    segments = new Segment[segmentNum];
+    for (int i = 0; i < segmentNum; i++) {
+      segments[i] = new Segment(memoryThreshold / segmentNum);
+    }
+  }
+
+  public static ChunkCache getInstance() {
+    return ChunkCacheHolder.INSTANCE;
+  }
+
+  /**
+   * get the chunk described by chunkMetaData, reading it with reader if it is not cached. The
+   * returned chunk owns its buffer, so the caller may consume it freely. THREAD SAFE.
+   */
+  public Chunk get(ChunkMetaData chunkMetaData, TsFileSequenceReader reader) throws IOException {
+    Chunk chunk;
+    if (!cacheEnable) {
+      chunk = reader.readMemChunk(chunkMetaData);
+    } else {
+      ChunkKey key = new ChunkKey(reader.getFileName(), chunkMetaData.getOffsetOfChunkHeader());
+      Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+      cacheRequestNum.incrementAndGet();
+      chunk = segment.get(key);
+      if (chunk != null) {
+        cacheHitNum.incrementAndGet();
+      } else {
+        long startVersion = version.get();
+        chunk = reader.readMemChunk(chunkMetaData);
+        synchronized (segment) {
+          if (startVersion == version.get()) {
+            segment.put(key, chunk);
+          }
+        }
+      }
+    }
+    Chunk chunkRet = new Chunk(chunk.getHeader(), chunk.getData().duplicate());
+    chunkRet.setDeletedAt(chunkMetaData.getDeletedAt());
+    return chunkRet;
+  }
+
+  /**
+   * remove the chunks of a file, must be called when the file is removed.
+   */
+  public void remove(String filePath) {
+    remove(Collections.singleton(filePath));
+  }
+
+  /**
+   * remove the chunks of the given files, must be called when the files are removed.
+   */
+  public void remove(Collection<String> filePaths) {
+    if (!cacheEnable || filePaths.isEmpty()) {
+      return;
+    }
+    Set<String> paths = filePaths instanceof Set ? (Set<String>) filePaths
+        : new HashSet<>(filePaths);
+    version.incrementAndGet();
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.removeIf(paths);
+      }
+    }
+  }
+
+  /**
+   * clear the cache and its statistics.
+   */
+  public void clear() {
+    version.incrementAndGet();
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+    cacheHitNum.set(0);
+    cacheRequestNum.set(0);
+    evictionNum.set(0);
+  }
+
+  @Override
+  public double getHitRatio() {
+    long requestNum = cacheRequestNum.get();
+    return requestNum == 0 ? 0 : (double) cacheHitNum.get() / requestNum;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return cacheRequestNum.get();
+  }
+
+  @Override
+  public long getHitCount() {
+    return cacheHitNum.get();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictionNum.get();
+  }
+
+  @Override
+  public long getEntryNumber() {
+    long entryNum = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        entryNum += segment.probation.size() + segment.protect.size();
+      }
+    }
+    return entryNum;
+  }
+
+  @Override
+  public long getUsedMemory() {
+    long usedMemory = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        usedMemory += segment.probationSize + segment.protectedSize;
+      }
+    }
+    return usedMemory;
+  }
+
+  @Override
+  public long getMaxMemory() {
+    return memoryThreshold;
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(this, ServiceType.CHUNK_CACHE_SERVICE.getJmxName());
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(ServiceType.CHUNK_CACHE_SERVICE.getJmxName());
+    if (logger.isInfoEnabled()) {
+      logger.info("Chunk cache stops, hit ratio {}, {} requests, {} evictions", getHitRatio(),
+          getRequestCount(), getEvictionCount());
+    }
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.CHUNK_CACHE_SERVICE;
+  }
+
+  /**
+   * approximate memory taken by a cached chunk and its key.
+   */
+  static long calEntrySize(Chunk chunk) {
+    return RamUsageEstimator.shallowSizeOfInstance(ChunkKey.class)
+        + RamUsageEstimator.shallowSizeOf(chunk)
+        + RamUsageEstimator.sizeOf(chunk.getHeader())
+        + RamUsageEstimator.shallowSizeOf(chunk.getData()) + chunk.getData().capacity();
+  }
+
+  private static class ChunkKey {
+
+    private final String filePath;
+    private final long offset;
+
+    ChunkKey(String filePath, long offset) {
+      this.filePath = filePath;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ChunkKey)) {
+        return false;
+      }
+      ChunkKey that = (ChunkKey) o;
+      return offset == that.offset && filePath.equals(that.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * filePath.hashCode() + Long.hashCode(offset);
+    }
+  }
+
+  private static class CachedChunk {
+
+    private final Chunk chunk;
+    private final long size;
+
+    CachedChunk(Chunk chunk, long size) {
+      this.chunk = chunk;
+      this.size = size;
+    }
+  }
+
+  /**
+   * a segmented LRU holding a share of the cache, NOT THREAD SAFE, callers lock it.
+   */
+  private class Segment {
+
+    private final long capacity;
+    private final long protectedCapacity;
+
+    /**
+     * both in access order, the eldest entry is the least recently used one
+     */
+    private final LinkedHashMap<ChunkKey, CachedChunk> probation =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<ChunkKey, CachedChunk> protect =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private long probationSize;
+    private long protectedSize;
+
+    Segment(long capacity) {
+      this.capacity = capacity;
+      this.protectedCapacity = capacity * PROTECTED_PERCENT / 100;
+    }
+
+    synchronized Chunk get(ChunkKey key) {
+      CachedChunk cachedChunk = protect.get(key);
+      if (cachedChunk != null) {
+        return cachedChunk.chunk;
+      }
+      cachedChunk = probation.remove(key);
+      if (cachedChunk == null) {
+        return null;
+      }
+      // requested again, promote it and demote the least recently used protected chunks
+      probationSize -= cachedChunk.size;
+      protect.put(key, cachedChunk);
+      protectedSize += cachedChunk.size;
+      Iterator<Map.Entry<ChunkKey, CachedChunk>> iterator = protect.entrySet().iterator();
+      while (protectedSize > protectedCapacity && iterator.hasNext()) {
+        Map.Entry<ChunkKey, CachedChunk> eldest = iterator.next();
+        iterator.remove();
+        protectedSize -= eldest.getValue().size;
+        probation.put(eldest.getKey(), eldest.getValue());
+        probationSize += eldest.getValue().size;
+      }
+      return cachedChunk.chunk;
+    }
+
+    void put(ChunkKey key, Chunk chunk) {
+      if (probation.containsKey(key) || protect.containsKey(key)) {
+        return;
+      }
+      long size = calEntrySize(chunk);
+      if (size > capacity) {
+        return;
+      }
+      probation.put(key, new CachedChunk(chunk, size));
+      probationSize += size;
+      evict(probation);
+      evict(protect);
+    }
+
+    private void evict(LinkedHashMap<ChunkKey, CachedChunk> part) {
+      Iterator<CachedChunk> iterator = part.values().iterator();
+      while (probationSize + protectedSize > capacity && iterator.hasNext()) {
+        CachedChunk eldest = iterator.next();
+        iterator.remove();
+        if (part == probation) {
+          probationSize -= eldest.size;
+        } else {
+          protectedSize -= eldest.size;
+        }
+        evictionNum.incrementAndGet();
+      }
+    }
+
+    void removeIf(Set<String> filePaths) {
+      probationSize -= removeIf(probation, filePaths);
+      protectedSize -= removeIf(protect, filePaths);
+    }
+
+    private long removeIf(LinkedHashMap<ChunkKey, CachedChunk> part, Set<String> filePaths) {
+      long removedSize = 0;
+      Iterator<Map.Entry<ChunkKey, CachedChunk>> iterator = part.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<ChunkKey, CachedChunk> entry = iterator.next();
+        if (filePaths.contains(entry.getKey().filePath)) {
+          removedSize += entry.getValue().size;
+          iterator.remove();
+        }
+      }
+      return removedSize;
+    }
+
+    void clear() {
+      probation.clear();
+      protect.clear();
+      probationSize = 0;
+      protectedSize = 0;
+    }
+  }
+
+  private static class ChunkCacheHolder {
+
+    private static final ChunkCache INSTANCE = new ChunkCache(
+        config.getAllocateMemoryForChunkCache(), SEGMENT_NUM);
+  }
+}
@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.MathUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * This class caches the latest point of each series, so that the latest value, last, max_time and
+ * previous fill of a series can be answered without reading its data.
+ * <p>
+ * Every insertion records its point here, creating an entry if the series has none, so an entry
+ * always knows the latest point inserted since it was created. Such an entry is only trusted after
+ * a query has read the latest point of the series from its data and completed the entry with it.
+ * A deletion or an eviction increases the version of the cache, and a query only completes entries
+ * if the version has not changed since it started to read, so it never completes an entry with a
+ * point that has been deleted or with a point older than one evicted meanwhile.
+ * <p>
+ * The values of the insertions are kept as they are, e.g. the strings of an InsertPlan, and only
+ * converted when they are read. Float and double values are rounded to the precision of their
+ * series when converted, as the memtable read path does, so that the cache answers the same value
+ * as the data.
+ */
+public class LastValueCache {
+
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /**
+   * deviceId -> measurementId -> latest point
+   */
+  private Map<String, Map<String, Entry>> deviceEntries = new ConcurrentHashMap<>();
+  private AtomicInteger size = new AtomicInteger();
+  private AtomicLong version = new AtomicLong();
+
+  private LastValueCache() {
+  }
+
+  public static LastValueCache getInstance() {
+    return LastValueCacheHolder.INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return config.getLastValueCacheSize() > 0;
+  }
+
+  /**
+   * record an inserted point. THREAD SAFE.
+   *
+   * @param floatPrecision the number of digits after the point that the float and double values of
+   * the series are kept, only used for these types
+   * @param value a String to be parsed, a boxed primitive or a Binary
+   */
+  public void update(String deviceId, String measurementId, TSDataType dataType,
+      int floatPrecision, long time, Object value) {
+    if (!isEnabled() || value == null) {
+      return;
+    }
+    Entry entry = getOrCreateEntry(deviceId, measurementId, dataType);
+    entry.update(dataType, time, value, floatPrecision);
+  }
+
+  /**
+   * @return the latest point of the series, whose value is null if the series has no data. Null if
+   * the latest point is unknown.
+   */
+  public TimeValuePair get(Path path) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Map<String, Entry> entries = deviceEntries.get(path.getDevice());
+    Entry entry = entries == null ? null : entries.get(path.getMeasurement());
+    return entry == null ? null : entry.get();
+  }
+
+  /**
+   * @return the version to be given to complete() after reading the latest point of a series
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * complete the entry of a series with its latest point read from its data, unless a deletion or
+   * an eviction has happened since the version was got. THREAD SAFE.
+   *
+   * @param lastPair the latest point read, whose value is null if the series has no data
+   */
+  public void complete(Path path, TSDataType dataType, TimeValuePair lastPair, long readVersion) {
+    if (!isEnabled() || version.get() != readVersion) {
+      return;
+    }
+    Entry entry = getOrCreateEntry(path.getDevice(), path.getMeasurement(), dataType);
+    synchronized (entry) {
+      // check again, a deletion changes the version before it removes the entries
+      if (version.get() != readVersion) {
+        return;
+      }
+      if (lastPair.getValue() != null) {
+        // the value read from the data is already rounded
+        entry.update(dataType, lastPair.getTimestamp(), lastPair.getValue(), -1);
+      }
+      entry.complete = true;
+    }
+  }
+
+  /**
+   * forget the latest point of a series whose data is deleted.
+   */
+  public void invalidate(String deviceId, String measurementId) {
+    version.incrementAndGet();
+    Map<String, Entry> entries = deviceEntries.get(deviceId);
+    if (entries != null && entries.remove(measurementId) != null) {
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * forget the latest points of all series in a storage group whose data is deleted.
+   */
+  public void invalidateStorageGroup(String storageGroupName) {
+    version.incrementAndGet();
+    Iterator<Map.Entry<String, Map<String, Entry>>> iterator = deviceEntries.entrySet()
+        .iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Map<String, Entry>> device = iterator.next();
+      if (device.getKey().startsWith(storageGroupName + ".")) {
+        size.addAndGet(-device.getValue().size());
+        iterator.remove();
+      }
+    }
+  }
+
+  public void clear() {
+    version.incrementAndGet();
+    deviceEntries.clear();
+    size.set(0);
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  private Entry getOrCreateEntry(String deviceId, String measurementId, TSDataType dataType) {
+    Map<String, Entry> entries = deviceEntries.get(deviceId);
+    if (entries == null) {
+      entries = deviceEntries.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
+    }
+    Entry entry = entries.get(measurementId);
+    if (entry != null) {
+      return entry;
+    }
+    if (size.get() >= config.getLastValueCacheSize()) {
+      evictOne();
+    }
+    Entry newEntry = new Entry(dataType);
+    entry = entries.putIfAbsent(measurementId, newEntry);
+    if (entry == null) {
+      size.incrementAndGet();
+      entry = newEntry;
+    }
+    return entry;
+  }
+
+  /**
+   * remove an arbitrary entry, as RandomDeleteCache does.
+   */
+  private void evictOne() {
+    version.incrementAndGet();
+    for (Map<String, Entry> entries : deviceEntries.values()) {
+      Iterator<String> iterator = entries.keySet().iterator();
+      if (iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        size.decrementAndGet();
+        return;
+      }
+    }
+  }
+
+  private static class Entry {
+
+    private TSDataType dataType;
+    private long time = Long.MIN_VALUE;
+    // null if no point has been recorded
+    private Object value;
+    // the precision to round a float or double value with, negative if it is already rounded
+    private int floatPrecision;
+    // value converted into a TsPrimitiveType, null until it is read
+    private TsPrimitiveType convertedValue;
+    // whether the latest point of the series has been read from its data
+    private boolean complete;
+
+    private Entry(TSDataType dataType) {
+      this.dataType = dataType;
+    }
+
+    private synchronized void update(TSDataType dataType, long time, Object value,
+        int floatPrecision) {
+      // a later insertion overwrites the point at the same time
+      if (time >= this.time) {
+        this.dataType = dataType;
+        this.time = time;
+        this.value = value;
+        this.floatPrecision = floatPrecision;
+        this.convertedValue = null;
+      }
+    }
+
+    private synchronized TimeValuePair get() {
+      if (!complete) {
+        return null;
+      }
+      if (value == null) {
+        return new TimeValuePair(time, null);
+      }
+      if (convertedValue == null) {
+        convertedValue = convert(dataType, value, floatPrecision);
+      }
+      return new TimeValuePair(time, convertedValue);
+    }
+
+    private static TsPrimitiveType convert(TSDataType dataType, Object value,
+        int floatPrecision) {
+      if (value instanceof TsPrimitiveType) {
+        return (TsPrimitiveType) value;
+      }
+      boolean isString = value instanceof String;
+      String str = isString ? (String) value : null;
+      switch (dataType) {
+        case BOOLEAN:
+          return new TsPrimitiveType.TsBoolean(
+              isString ? Boolean.parseBoolean(str) : (boolean) value);
+        case INT32:
+          return new TsPrimitiveType.TsInt(isString ? Integer.parseInt(str) : (int) value);
+        case INT64:
+          return new TsPrimitiveType.TsLong(isString ? Long.parseLong(str) : (long) value);
+        case FLOAT:
+          float floatValue = isString ? Float.parseFloat(str) : (float) value;
+          return new TsPrimitiveType.TsFloat(floatPrecision < 0 ? floatValue
+              : MathUtils.roundWithGivenPrecision(floatValue, floatPrecision));
+        case DOUBLE:
+          double doubleValue = isString ? Double.parseDouble(str) : (double) value;
+          return new TsPrimitiveType.TsDouble(floatPrecision < 0 ? doubleValue
+              : MathUtils.roundWithGivenPrecision(doubleValue, floatPrecision));
+        case TEXT:
+          return new TsPrimitiveType.TsBinary(isString ? Binary.valueOf(str) : (Binary) value);
+        default:
+          throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+      }
+    }
+  }
+
+  private static class LastValueCacheHolder {
+
+    private static final LastValueCache INSTANCE = new LastValueCache();
+  }
+}
@@ -63,17 +63,24 @@ public class TsFileMetaDataCache {
     cache = new LRULinkedHashMap<String, TsFileMetaData>(MEMORY_THRESHOLD_IN_B, true) {
       @Override
       protected long calEntrySize(String key, TsFileMetaData value) {
-        if (deviceIndexMapEntrySize == 0 && value.getDeviceMap().size() > 0) {
-          deviceIndexMapEntrySize = RamUsageEstimator
-              .sizeOf(value.getDeviceMap().entrySet().iterator().next());
-        }
         if (measurementSchemaEntrySize == 0 && value.getMeasurementSchema().size() > 0) {
           measurementSchemaEntrySize = RamUsageEstimator
               .sizeOf(value.getMeasurementSchema().entrySet().iterator().next());
         }
-        long valueSize = value.getDeviceMap().size() * deviceIndexMapEntrySize
-            + measurementSchemaEntrySize * value.getMeasurementSchema().size()
+        long valueSize = measurementSchemaEntrySize * value.getMeasurementSchema().size()
             + versionAndCreatebySize;
+        int serializedDeviceIndexSize = value.getSerializedDeviceIndexSize();
+        if (serializedDeviceIndexSize > 0) {
+          // the device indexes are kept serialized with the positions of their entries, the
+          // decoded ones are few and not counted
+          valueSize += serializedDeviceIndexSize + (long) Integer.BYTES * value.getDeviceNum();
+        } else {
+          if (deviceIndexMapEntrySize == 0 && value.getDeviceNum() > 0) {
+            deviceIndexMapEntrySize = RamUsageEstimator
+                .sizeOf(value.getDeviceMap().entrySet().iterator().next());
+          }
+          valueSize += value.getDeviceNum() * deviceIndexMapEntrySize;
+        }
         return key.length() * 2 + valueSize;
       }
     };
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.engine.flush;
 
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.flush.pool.FlushTaskPoolManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileProcessor;
@@ -38,6 +39,10 @@ public class FlushManager implements FlushManagerMBean, IService {
 
   private FlushTaskPoolManager flushPool = FlushTaskPoolManager.getInstance();
 
+  private AtomicLong totalSortTime = new AtomicLong();
+  private AtomicLong totalEncodingTime = new AtomicLong();
+  private AtomicLong totalIoTime = new AtomicLong();
+
   @Override
   public void start() throws StartupException {
     FlushSubTaskPoolManager.getInstance().start();
@@ -84,6 +89,30 @@ public class FlushManager implements FlushManagerMBean, IService {
     return FlushSubTaskPoolManager.getInstance().getWaitingTasksNumber();
   }
 
+  @Override
+  public long getTotalSortTime() {
+    return totalSortTime.get();
+  }
+
+  @Override
+  public long getTotalEncodingTime() {
+    return totalEncodingTime.get();
+  }
+
+  @Override
+  public long getTotalIoTime() {
+    return totalIoTime.get();
+  }
+
+  /**
+   * add the time cost of each stage of flushing a memtable, in ms.
+   */
+  public void recordStageTimeCost(long sortTime, long encodingTime, long ioTime) {
+    totalSortTime.addAndGet(sortTime);
+    totalEncodingTime.addAndGet(encodingTime);
+    totalIoTime.addAndGet(ioTime);
+  }
+
   class FlushThread implements Runnable {
 
     @Override
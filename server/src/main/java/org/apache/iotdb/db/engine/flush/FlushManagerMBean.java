@@ -29,4 +29,19 @@ public interface FlushManagerMBean {
 
   public int getNumberOfPendingSubTasks();
 
+  /**
+   * @return total time of sorting the series of the flushed memtables in ms
+   */
+  public long getTotalSortTime();
+
+  /**
+   * @return total time of encoding the series of the flushed memtables in ms
+   */
+  public long getTotalEncodingTime();
+
+  /**
+   * @return total time of writing the flushed memtables into files in ms
+   */
+  public long getTotalIoTime();
+
 }
@@ -15,9 +15,13 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.memtable.ChunkBufferPool;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
@@ -26,7 +30,6 @@ import org.apache.iotdb.db.exception.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkBuffer;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
@@ -36,31 +39,49 @@ import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * MemTableFlushTask flushes a memtable into a TsFile in a pipeline. Each series is sorted and
+ * encoded by its own task on {@link FlushSubTaskPoolManager}, so the series of a memtable are
+ * encoded in parallel, while a single io task writes the encoded chunks in the order the series are
+ * submitted, so the chunk groups are written into the RestorableTsFileIOWriter one by one.
+ * <p>
+ * The stages hand over through a bounded blocking queue: the flushing thread blocks when the io
+ * task falls behind, and the io task blocks until the next chunk is encoded.
+ */
 public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final int PAGE_SIZE_THRESHOLD = TSFileConfig.pageSizeInByte;
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
+  /**
+   * bounds both the series being encoded and the encoded chunks waiting for the io task.
+   */
+  private static final int IO_TASK_QUEUE_CAPACITY = Runtime.getRuntime().availableProcessors();
+  private static final Object NO_MORE_IO_TASK = new Object();
+
   private Future ioTaskFuture;
   private RestorableTsFileIOWriter writer;
 
-  private ConcurrentLinkedQueue ioTaskQueue = new ConcurrentLinkedQueue();
-  private ConcurrentLinkedQueue encodingTaskQueue = new ConcurrentLinkedQueue();
+  /**
+   * StartFlushGroupIOTasks, EndChunkGroupIoTasks and the Futures of the encoding tasks, in the
+   * order they are written.
+   */
+  private BlockingQueue<Object> ioTaskQueue = new ArrayBlockingQueue<>(IO_TASK_QUEUE_CAPACITY);
   private String storageGroup;
 
   private IMemTable memTable;
   private FileSchema fileSchema;
 
-  private volatile boolean noMoreEncodingTask = false;
-  private volatile boolean noMoreIOTask = false;
+  private AtomicLong sortTime = new AtomicLong();
+  private AtomicLong encodingTime = new AtomicLong();
+  private volatile long ioTime = 0;
 
   public MemTableFlushTask(IMemTable memTable, FileSchema fileSchema, RestorableTsFileIOWriter writer, String storageGroup) {
     this.memTable = memTable;
     this.fileSchema = fileSchema;
     this.writer = writer;
     this.storageGroup = storageGroup;
-    subTaskPoolManager.submit(encodingTask);
     this.ioTaskFuture = subTaskPoolManager.submit(ioTask);
     logger.debug("flush task of Storage group {} memtable {} is created ",
         storageGroup, memTable.getVersion());
@@ -72,33 +93,68 @@ public class MemTableFlushTask {
    */
   public void syncFlushMemTable() throws ExecutionException, InterruptedException {
     long start = System.currentTimeMillis();
-    long sortTime = 0;
-    for (String deviceId : memTable.getMemTableMap().keySet()) {
-      encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
-      for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
-        long startTime = System.currentTimeMillis();
-        IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = fileSchema.getMeasurementSchema(measurementId);
-        TVList tvList = series.getSortedTVList();
-        sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
+    for (Map.Entry<String, Map<String, IWritableMemChunk>> deviceEntry : memTable.getMemTableMap()
+        .entrySet()) {
+      ioTaskQueue.put(new StartFlushGroupIOTask(deviceEntry.getKey()));
+      for (Map.Entry<String, IWritableMemChunk> seriesEntry : deviceEntry.getValue().entrySet()) {
+        MeasurementSchema desc = fileSchema.getMeasurementSchema(seriesEntry.getKey());
+        ioTaskQueue.put(subTaskPoolManager.submit(new EncodingTask(seriesEntry.getValue(), desc)));
       }
-      encodingTaskQueue.add(new EndChunkGroupIoTask(memTable.getVersion()));
+      ioTaskQueue.put(new EndChunkGroupIoTask(memTable.getVersion()));
     }
-    noMoreEncodingTask = true;
-    logger.debug(
-        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms.",
-        storageGroup, memTable.getVersion(), sortTime);
+    ioTaskQueue.put(NO_MORE_IO_TASK);
 
     ioTaskFuture.get();
 
+    FlushManager.getInstance().recordStageTimeCost(sortTime.get(), encodingTime.get(), ioTime);
     logger.info(
-        "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms",
-        storageGroup, memTable, System.currentTimeMillis() - start);
+        "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms, "
+            + "sort: {}ms, encoding: {}ms, io: {}ms", storageGroup, memTable,
+        System.currentTimeMillis() - start, sortTime.get(), encodingTime.get(), ioTime);
+  }
+
+  /**
+   * @return total time of sorting the series in ms, the series are sorted in parallel
+   */
+  public long getSortTime() {
+    return sortTime.get();
   }
 
+  /**
+   * @return total time of encoding the series in ms, the series are encoded in parallel
+   */
+  public long getEncodingTime() {
+    return encodingTime.get();
+  }
+
+  public long getIoTime() {
+    return ioTime;
+  }
+
+  private class EncodingTask implements Callable<IChunkWriter> {
+
+    private IWritableMemChunk series;
+    private MeasurementSchema schema;
+
+    private EncodingTask(IWritableMemChunk series, MeasurementSchema schema) {
+      this.series = series;
+      this.schema = schema;
+    }
+
+    @Override
+    public IChunkWriter call() {
+      long startTime = System.currentTimeMillis();
+      TVList tvList = series.getSortedTVList();
+      long sortEndTime = System.currentTimeMillis();
+      sortTime.addAndGet(sortEndTime - startTime);
+
+      ChunkBuffer chunkBuffer = ChunkBufferPool.getInstance().getEmptyChunkBuffer(this, schema);
+      IChunkWriter seriesWriter = new ChunkWriterImpl(schema, chunkBuffer, PAGE_SIZE_THRESHOLD);
+      writeOneSeries(tvList, seriesWriter, schema.getType());
+      encodingTime.addAndGet(System.currentTimeMillis() - sortEndTime);
+      return seriesWriter;
+    }
 
-  private Runnable encodingTask = new Runnable() {
     private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
         TSDataType dataType){
       for (int i = 0; i < tvPairs.size(); i++) {
@@ -135,98 +191,71 @@ public class MemTableFlushTask {
         }
       }
     }
+  }
 
-    @Override
-    public void run() {
-      long memSerializeTime = 0;
-      boolean noMoreMessages = false;
-      logger.debug("Storage group {} memtable {}, starts to encoding data.", storageGroup,
-          memTable.getVersion());
-      while (true) {
-        if (noMoreEncodingTask) {
-          noMoreMessages = true;
+  /**
+   * After a failure the io task keeps taking the messages until the last one, so that the flushing
+   * thread is never blocked on a full queue, and then throws the failure.
+   */
+  @SuppressWarnings("unchecked")
+  private Runnable ioTask = () -> {
+    long ioTimeCost = 0;
+    Exception failure = null;
+    logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
+    while (true) {
+      Object ioMessage;
+      try {
+        ioMessage = ioTaskQueue.take();
+        if (ioMessage == NO_MORE_IO_TASK) {
+          break;
         }
-        Object task = encodingTaskQueue.poll();
-        if (task == null) {
-          if (noMoreMessages) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable {}, encoding task is interrupted.",
-                storageGroup, memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          if (task instanceof StartFlushGroupIOTask) {
-            ioTaskQueue.add(task);
-          } else if (task instanceof EndChunkGroupIoTask) {
-            ioTaskQueue.add(task);
-          } else {
-            long starTime = System.currentTimeMillis();
-            Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
-            ChunkBuffer chunkBuffer = ChunkBufferPool.getInstance()
-                .getEmptyChunkBuffer(this, encodingMessage.right);
-            IChunkWriter seriesWriter = new ChunkWriterImpl(encodingMessage.right, chunkBuffer,
-                PAGE_SIZE_THRESHOLD);
-            writeOneSeries(encodingMessage.left, seriesWriter, encodingMessage.right.getType());
-            ioTaskQueue.add(seriesWriter);
-            memSerializeTime += System.currentTimeMillis() - starTime;
+        if (failure != null) {
+          if (ioMessage instanceof Future) {
+            ((Future<IChunkWriter>) ioMessage).cancel(false);
           }
+          continue;
+        }
+        if (ioMessage instanceof Future) {
+          ioMessage = ((Future<IChunkWriter>) ioMessage).get();
         }
+      } catch (InterruptedException e) {
+        logger.error("Storage group {} memtable {}, io task is interrupted.", storageGroup,
+            memTable.getVersion(), e);
+        Thread.currentThread().interrupt();
+        throw new FlushRunTimeException(e);
+      } catch (ExecutionException e) {
+        logger.error("Storage group {} memtable {}, encoding task meets error.", storageGroup,
+            memTable.getVersion(), e);
+        failure = e;
+        continue;
       }
-      noMoreIOTask = true;
-      logger.debug("Storage group {}, flushing memtable {} into disk: Encoding data cost "
-              + "{} ms.",
-          storageGroup, memTable.getVersion(), memSerializeTime);
-    }
-  };
 
-  private Runnable ioTask = () -> {
-      long ioTime = 0;
-      boolean returnWhenNoTask = false;
-      logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
-      while (true) {
-        if (noMoreIOTask) {
-          returnWhenNoTask = true;
-        }
-        Object ioMessage = ioTaskQueue.poll();
-        if (ioMessage == null) {
-          if (returnWhenNoTask) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable, io task is interrupted.", storageGroup
-                , memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
+      long starTime = System.currentTimeMillis();
+      try {
+        if (ioMessage instanceof StartFlushGroupIOTask) {
+          writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
+        } else if (ioMessage instanceof IChunkWriter) {
+          ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
+          chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
+          ChunkBufferPool.getInstance().putBack(chunkWriter.getChunkBuffer());
         } else {
-          long starTime = System.currentTimeMillis();
-          try {
-            if (ioMessage instanceof StartFlushGroupIOTask) {
-              writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
-            } else if (ioMessage instanceof IChunkWriter) {
-              ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
-              chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
-              ChunkBufferPool.getInstance().putBack(chunkWriter.getChunkBuffer());
-            } else {
-              EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
-              writer.endChunkGroup(endGroupTask.version);
-            }
-          } catch (IOException e) {
-            logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
-                memTable.getVersion(), e);
-            throw new FlushRunTimeException(e);
-          }
-          ioTime += System.currentTimeMillis() - starTime;
+          EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
+          writer.endChunkGroup(endGroupTask.version);
         }
+      } catch (IOException e) {
+        logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
+            memTable.getVersion(), e);
+        failure = e;
       }
-      logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
-          storageGroup, ioTime);
-    };
+      ioTimeCost += System.currentTimeMillis() - starTime;
+    }
+    ioTime = ioTimeCost;
+    if (failure != null) {
+      throw new FlushRunTimeException(failure);
+    }
+    logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
+        storageGroup, ioTimeCost);
+  };
 
   static class EndChunkGroupIoTask {
     private long version;
@@ -23,12 +23,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.rescon.TVListAllocator;
 import org.apache.iotdb.db.utils.MemUtils;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
 public abstract class AbstractMemTable implements IMemTable {
@@ -37,12 +41,16 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private List<Modification> modifications = new ArrayList<>();
 
+  /**
+   * devices are inserted concurrently, while the series of a device are only inserted by one
+   * thread at a time
+   */
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
-  private long memSize = 0;
+  private final AtomicLong memSize = new AtomicLong();
 
   public AbstractMemTable() {
-    this.memTableMap = new HashMap<>();
+    this.memTableMap = new ConcurrentHashMap<>();
   }
 
   public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
@@ -65,10 +73,8 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private IWritableMemChunk createIfNotExistAndGet(String deviceId, String measurement,
       TSDataType dataType) {
-    if (!memTableMap.containsKey(deviceId)) {
-      memTableMap.put(deviceId, new HashMap<>());
-    }
-    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
+    Map<String, IWritableMemChunk> memSeries = memTableMap
+        .computeIfAbsent(deviceId, k -> new HashMap<>());
     if (!memSeries.containsKey(measurement)) {
       memSeries.put(measurement, genMemSeries(dataType));
     }
@@ -85,7 +91,20 @@ public abstract class AbstractMemTable implements IMemTable {
           insertPlan.getDataTypes()[i], insertPlan.getTime(), insertPlan.getValues()[i]);
     }
     long recordSizeInByte = MemUtils.getRecordSize(insertPlan);
-    memSize += recordSizeInByte;
+    memSize.addAndGet(recordSizeInByte);
+  }
+
+  @Override
+  public void insertBatch(BatchInsertPlan batchInsertPlan) {
+    String[] measurements = batchInsertPlan.getMeasurements();
+    TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
+    for (int i = 0; i < measurements.length; i++) {
+      IWritableMemChunk memSeries = createIfNotExistAndGet(batchInsertPlan.getDeviceId(),
+          measurements[i], dataTypes[i]);
+      memSeries.write(batchInsertPlan.getTimes(), batchInsertPlan.getColumns()[i],
+          batchInsertPlan.getStart(), batchInsertPlan.getEnd());
+    }
+    memSize.addAndGet(MemUtils.getRecordSize(batchInsertPlan));
   }
 
   @Override
@@ -116,14 +135,14 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public long memSize() {
-    return memSize;
+    return memSize.get();
   }
 
   @Override
   public void clear() {
     memTableMap.clear();
     modifications.clear();
-    memSize = 0;
+    memSize.set(0);
   }
 
   @Override
@@ -134,17 +153,14 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public ReadOnlyMemChunk query(String deviceId, String measurement, TSDataType dataType,
       Map<String, String> props) {
-    TimeValuePairSorter sorter;
     if (!checkPath(deviceId, measurement)) {
       return null;
-    } else {
-      long undeletedTime = findUndeletedTime(deviceId, measurement);
-      IWritableMemChunk memChunk = memTableMap.get(deviceId).get(measurement);
-      IWritableMemChunk chunkCopy = new WritableMemChunk(dataType, memChunk.getTVList().clone());
-      chunkCopy.setTimeOffset(undeletedTime);
-      sorter = chunkCopy;
     }
-    return new ReadOnlyMemChunk(dataType, sorter, props);
+    long undeletedTime = findUndeletedTime(deviceId, measurement);
+    IWritableMemChunk memChunk = memTableMap.get(deviceId).get(measurement);
+    TVList snapshot = memChunk.getSortedSnapshot();
+    snapshot.setTimeOffset(undeletedTime);
+    return new ReadOnlyMemChunk(dataType, snapshot, props);
   }
 
 
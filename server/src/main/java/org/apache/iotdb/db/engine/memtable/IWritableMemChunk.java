@@ -40,6 +40,11 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   void write(long insertTime, Object insertValue);
 
+  /**
+   * append the values in [start, end) of a primitive array whose type matches getType().
+   */
+  void write(long[] times, Object valueList, int start, int end);
+
   long count();
 
   TSDataType getType();
@@ -59,6 +64,11 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   default TVList getTVList(){return null;}
 
+  /**
+   * served for query requests, the snapshot is sorted and not affected by later writes.
+   */
+  default TVList getSortedSnapshot(){return null;}
+
   default long getMinTime() {
     return Long.MIN_VALUE;
   }
@@ -100,6 +100,32 @@ public class WritableMemChunk implements IWritableMemChunk {
     sortedList = null;
   }
 
+  @Override
+  public void write(long[] times, Object valueList, int start, int end) {
+    switch (dataType) {
+      case BOOLEAN:
+        list.putBooleans(times, (boolean[]) valueList, start, end);
+        break;
+      case INT32:
+        list.putInts(times, (int[]) valueList, start, end);
+        break;
+      case INT64:
+        list.putLongs(times, (long[]) valueList, start, end);
+        break;
+      case FLOAT:
+        list.putFloats(times, (float[]) valueList, start, end);
+        break;
+      case DOUBLE:
+        list.putDoubles(times, (double[]) valueList, start, end);
+        break;
+      case TEXT:
+        list.putBinaries(times, (Binary[]) valueList, start, end);
+        break;
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
+    sortedList = null;
+  }
 
   @Override
   public void putLong(long t, long v) {
@@ -137,6 +163,16 @@ public class WritableMemChunk implements IWritableMemChunk {
     return list;
   }
 
+  /**
+   * sort the list, which only sorts the points appended since the last sorting, and take a
+   * snapshot of it, which shares the arrays of the list instead of copying them.
+   */
+  @Override
+  public synchronized TVList getSortedSnapshot() {
+    list.sort();
+    return list.snapshot();
+  }
+
   @Override
   public TVList getTVList() {
     return list;
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MergeLogger records a merge in a text file under the system directory of the storage group, so
+ * that a merge interrupted by a crash can be rolled back or finished when the storage group
+ * recovers. The log looks like:
+ * <pre>
+ * seq {path of a sequence TsFile to be merged}
+ * unseq {path of an unsequence TsFile to be merged}
+ * target {path of the temporary file replacing the i-th sequence TsFile}
+ * end
+ * </pre>
+ * The "end" line is only written after all the target files are complete and synced, so a log
+ * without it means the merge must be rolled back, and a log with it means the merge must be
+ * finished.
+ */
+public class MergeLogger {
+
+  public static final String MERGE_LOG_SUFFIX = ".merge.log";
+
+  static final String SEQ_PREFIX = "seq ";
+  static final String UNSEQ_PREFIX = "unseq ";
+  static final String TARGET_PREFIX = "target ";
+  static final String END_MARK = "end";
+
+  private File logFile;
+  private FileOutputStream outputStream;
+  private BufferedWriter writer;
+
+  MergeLogger(File logFile) throws IOException {
+    this.logFile = logFile;
+    this.outputStream = new FileOutputStream(logFile, true);
+    this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+  }
+
+  void logFiles(List<File> seqFiles, List<File> unseqFiles, List<File> targetFiles)
+      throws IOException {
+    for (File file : seqFiles) {
+      writeLine(SEQ_PREFIX + file.getPath());
+    }
+    for (File file : unseqFiles) {
+      writeLine(UNSEQ_PREFIX + file.getPath());
+    }
+    for (File file : targetFiles) {
+      writeLine(TARGET_PREFIX + file.getPath());
+    }
+    sync();
+  }
+
+  void logEnd() throws IOException {
+    writeLine(END_MARK);
+    sync();
+  }
+
+  void close() throws IOException {
+    writer.close();
+  }
+
+  public File getLogFile() {
+    return logFile;
+  }
+
+  private void writeLine(String line) throws IOException {
+    writer.write(line);
+    writer.newLine();
+  }
+
+  private void sync() throws IOException {
+    writer.flush();
+    outputStream.getFD().sync();
+  }
+
+  /**
+   * read a merge log written by MergeLogger. A truncated last line is ignored.
+   */
+  public static MergeLog read(File logFile) throws IOException {
+    MergeLog log = new MergeLog();
+    try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(SEQ_PREFIX)) {
+          log.seqFiles.add(new File(line.substring(SEQ_PREFIX.length())));
+        } else if (line.startsWith(UNSEQ_PREFIX)) {
+          log.unseqFiles.add(new File(line.substring(UNSEQ_PREFIX.length())));
+        } else if (line.startsWith(TARGET_PREFIX)) {
+          log.targetFiles.add(new File(line.substring(TARGET_PREFIX.length())));
+        } else if (line.equals(END_MARK)) {
+          log.completed = true;
+        }
+      }
+    }
+    return log;
+  }
+
+  public static class MergeLog {
+
+    private List<File> seqFiles = new ArrayList<>();
+    private List<File> unseqFiles = new ArrayList<>();
+    private List<File> targetFiles = new ArrayList<>();
+    private boolean completed = false;
+
+    public List<File> getSeqFiles() {
+      return seqFiles;
+    }
+
+    public List<File> getUnseqFiles() {
+      return unseqFiles;
+    }
+
+    public List<File> getTargetFiles() {
+      return targetFiles;
+    }
+
+    public boolean isCompleted() {
+      return completed;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergeManager runs the MergeTasks of all storage groups on a bounded thread pool
+ * (merge_concurrent_threads), throttles their writes with a shared MergeRateLimiter and, if
+ * merge_interval_sec > 0, merges all storage groups periodically.
+ */
+public class MergeManager implements MergeManagerMBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(MergeManager.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private static final int WAIT_TIMEOUT = 2000;
+
+  private ExecutorService mergeTaskPool;
+  private ScheduledExecutorService timedMergeThreadPool;
+  private MergeRateLimiter rateLimiter = new MergeRateLimiter(
+      config.getMergeThroughputBytePerSec());
+
+  private MergeManager() {
+    initMergeTaskPool();
+  }
+
+  private void initMergeTaskPool() {
+    mergeTaskPool = IoTDBThreadPoolFactory.newFixedThreadPool(config.getMergeConcurrentThreads(),
+        ThreadName.MERGE_SERVICE.getName());
+  }
+
+  public static MergeManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  public synchronized Future<Void> submit(MergeTask task) {
+    if (mergeTaskPool == null) {
+      initMergeTaskPool();
+    }
+    return mergeTaskPool.submit(task);
+  }
+
+  MergeRateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  @Override
+  public synchronized void start() throws StartupException {
+    if (mergeTaskPool == null) {
+      initMergeTaskPool();
+    }
+    long mergeInterval = config.getMergeIntervalSec();
+    if (mergeInterval > 0) {
+      timedMergeThreadPool = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor(ThreadName.MERGE_DAEMON.getName());
+      timedMergeThreadPool.scheduleAtFixedRate(this::mergeAll, mergeInterval, mergeInterval,
+          TimeUnit.SECONDS);
+    }
+    try {
+      JMXService.registerMBean(this, ServiceType.MERGE_SERVICE.getJmxName());
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
+    }
+    logger.info("Merge manager started.");
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (timedMergeThreadPool != null) {
+      timedMergeThreadPool.shutdownNow();
+      timedMergeThreadPool = null;
+    }
+    if (mergeTaskPool != null) {
+      // running merges are interrupted and rolled back, they will be redone by the next merge
+      mergeTaskPool.shutdownNow();
+      logger.info("Waiting for merge task pool to shut down.");
+      try {
+        while (!mergeTaskPool.awaitTermination(WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+          logger.info("Merge task pool doesn't exit after {}ms.", WAIT_TIMEOUT);
+        }
+      } catch (InterruptedException e) {
+        logger.error("Interrupted while waiting merge task pool to exit.", e);
+        Thread.currentThread().interrupt();
+      }
+      mergeTaskPool = null;
+    }
+    JMXService.deregisterMBean(ServiceType.MERGE_SERVICE.getJmxName());
+    logger.info("Merge manager stopped.");
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.MERGE_SERVICE;
+  }
+
+  @Override
+  public int getNumberOfWorkingTasks() {
+    return ((ThreadPoolExecutor) mergeTaskPool).getActiveCount();
+  }
+
+  @Override
+  public int getNumberOfPendingTasks() {
+    return ((ThreadPoolExecutor) mergeTaskPool).getQueue().size();
+  }
+
+  @Override
+  public long getMergeThroughputBytePerSec() {
+    return rateLimiter.getBytesPerSec();
+  }
+
+  @Override
+  public void setMergeThroughputBytePerSec(long bytesPerSec) {
+    rateLimiter.setBytesPerSec(bytesPerSec);
+  }
+
+  @Override
+  public void mergeAll() {
+    try {
+      StorageEngine.getInstance().mergeAll();
+    } catch (StorageEngineException e) {
+      logger.error("Cannot merge all storage groups", e);
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static MergeManager instance = new MergeManager();
+  }
+}
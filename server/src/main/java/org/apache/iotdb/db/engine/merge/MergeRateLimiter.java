@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MergeRateLimiter limits the bytes written by all the merge tasks together. A task reports how
+ * many bytes it has just written and sleeps until the written bytes fit in the configured
+ * throughput again.
+ */
+public class MergeRateLimiter {
+
+  private volatile long bytesPerSec;
+
+  /**
+   * the time (in nanosecond) when the bytes acquired so far are all paid for.
+   */
+  private long nextFreeTime = System.nanoTime();
+
+  MergeRateLimiter(long bytesPerSec) {
+    this.bytesPerSec = bytesPerSec;
+  }
+
+  /**
+   * record that the caller has written "bytes" bytes and block it as long as the merges are ahead
+   * of the throughput limit.
+   */
+  public void acquire(long bytes) throws InterruptedException {
+    long limit = bytesPerSec;
+    if (limit <= 0 || bytes <= 0) {
+      return;
+    }
+    long waitTime;
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (nextFreeTime < now) {
+        nextFreeTime = now;
+      }
+      nextFreeTime += TimeUnit.SECONDS.toNanos(1) * bytes / limit;
+      waitTime = nextFreeTime - now;
+    }
+    if (waitTime > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitTime);
+    }
+  }
+
+  public long getBytesPerSec() {
+    return bytesPerSec;
+  }
+
+  public void setBytesPerSec(long bytesPerSec) {
+    this.bytesPerSec = bytesPerSec;
+  }
+}
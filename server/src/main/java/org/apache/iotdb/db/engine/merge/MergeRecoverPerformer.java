@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.iotdb.db.engine.merge.MergeLogger.MergeLog;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergeRecoverPerformer brings the files of a merge found in a merge log back to a consistent
+ * state before the TsFiles of the storage group are recovered. An incomplete merge is rolled back
+ * by removing its temporary files, a complete merge is finished by renaming its temporary files,
+ * applying the deletions issued during the merge to the new files and removing the merged files.
+ */
+public class MergeRecoverPerformer {
+
+  private static final Logger logger = LoggerFactory.getLogger(MergeRecoverPerformer.class);
+
+  private File logFile;
+
+  public MergeRecoverPerformer(File logFile) {
+    this.logFile = logFile;
+  }
+
+  public void recover() throws IOException {
+    MergeLog log = MergeLogger.read(logFile);
+    ModificationFile mergingModification = new ModificationFile(
+        getMergingModsFile(logFile).getPath());
+    if (!log.isCompleted()) {
+      logger.info("Merge logged in {} is not complete, roll it back", logFile);
+      for (File tempFile : log.getTargetFiles()) {
+        deleteFile(tempFile);
+      }
+    } else {
+      logger.info("Merge logged in {} is complete, finish it", logFile);
+      for (File tempFile : log.getTargetFiles()) {
+        File mergedFile = getMergedFile(tempFile);
+        if (tempFile.exists() && !tempFile.renameTo(mergedFile)) {
+          throw new IOException(
+              String.format("Cannot rename %s to %s", tempFile, mergedFile));
+        }
+        if (!mergedFile.exists()) {
+          // the merged file has been merged again and removed
+          continue;
+        }
+        ModificationFile modFile = new TsFileResource(mergedFile).getModFile();
+        for (Modification modification : mergingModification.getModifications()) {
+          modFile.write(modification);
+        }
+        modFile.close();
+      }
+      for (File seqFile : log.getSeqFiles()) {
+        new TsFileResource(seqFile).remove();
+      }
+      for (File unseqFile : log.getUnseqFiles()) {
+        new TsFileResource(unseqFile).remove();
+      }
+    }
+    mergingModification.close();
+    deleteFile(getMergingModsFile(logFile));
+    deleteFile(logFile);
+  }
+
+  /**
+   * @return the file recording the deletions issued during the merge logged in logFile
+   */
+  public static File getMergingModsFile(File logFile) {
+    String logPath = logFile.getPath();
+    return new File(logPath.substring(0, logPath.length() - MergeLogger.MERGE_LOG_SUFFIX.length())
+        + MergeTask.MERGE_TEMP_SUFFIX + ModificationFile.FILE_SUFFIX);
+  }
+
+  private static File getMergedFile(File tempFile) {
+    String tempPath = tempFile.getPath();
+    return new File(tempPath.substring(0, tempPath.length() - MergeTask.MERGE_TEMP_SUFFIX.length()));
+  }
+
+  private static void deleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      logger.warn("Cannot delete {}", file);
+    }
+  }
+}
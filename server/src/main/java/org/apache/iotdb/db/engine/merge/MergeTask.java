@@ -0,0 +1,390 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.write.chunk.ChunkBuffer;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergeTask rewrites some sealed sequence TsFiles of a storage group together with the data of
+ * some sealed unsequence TsFiles that falls into their time ranges. Each sequence TsFile is
+ * rewritten into a new TsFile which contains its own data overwritten by the unsequence data, with
+ * the deletions in the .mods files of both applied.
+ *
+ * The data of a device in the unsequence files goes to the first selected sequence file whose end
+ * time of the device is not smaller than it, so the selection guarantees that the lower bound of
+ * the device in that file (the end time of the device in the previous sequence file) is smaller
+ * than the data. The chunks of the new files get the version assigned when the merge starts, so
+ * deletions issued during the merge still apply to them.
+ *
+ * The new files are written to temporary files, which are renamed by the StorageGroupProcessor
+ * when it swaps the resources in the callback. See {@link MergeLogger} for crash recovery.
+ */
+public class MergeTask implements Callable<Void> {
+
+  private static final Logger logger = LoggerFactory.getLogger(MergeTask.class);
+
+  public static final String MERGE_TEMP_SUFFIX = ".merge";
+
+  private String storageGroupName;
+  private List<TsFileResource> seqFiles;
+  /**
+   * the i-th map records the exclusive lower bound of each device in the i-th sequence file, a
+   * device without a lower bound is the first sequence file of it.
+   */
+  private List<Map<String, Long>> seqLowerBounds;
+  private List<TsFileResource> unseqFiles;
+  private FileSchema fileSchema;
+  private long mergeVersion;
+  private File logFile;
+  private MergeCallBack callBack;
+
+  private List<File> tempFiles = new ArrayList<>();
+  private List<TsFileResource> newResources = new ArrayList<>();
+
+  private MergeRateLimiter rateLimiter = MergeManager.getInstance().getRateLimiter();
+  private int chunkPointNumber = IoTDBDescriptor.getInstance().getConfig()
+      .getMergeChunkPointNumber();
+
+  private boolean chunkGroupStarted;
+
+  public MergeTask(String storageGroupName, List<TsFileResource> seqFiles,
+      List<Map<String, Long>> seqLowerBounds, List<TsFileResource> unseqFiles,
+      FileSchema fileSchema, long mergeVersion, File logFile, MergeCallBack callBack) {
+    this.storageGroupName = storageGroupName;
+    this.seqFiles = seqFiles;
+    this.seqLowerBounds = seqLowerBounds;
+    this.unseqFiles = unseqFiles;
+    this.fileSchema = fileSchema;
+    this.mergeVersion = mergeVersion;
+    this.logFile = logFile;
+    this.callBack = callBack;
+    for (TsFileResource seqFile : seqFiles) {
+      File mergedFile = getMergedFile(seqFile.getFile());
+      tempFiles.add(new File(mergedFile.getPath() + MERGE_TEMP_SUFFIX));
+      newResources.add(new TsFileResource(mergedFile, new HashMap<>(seqFile.getStartTimeMap()),
+          new HashMap<>(seqFile.getEndTimeMap())));
+    }
+  }
+
+  @Override
+  public Void call() {
+    boolean merged = false;
+    try {
+      long startTime = System.currentTimeMillis();
+      doMerge();
+      merged = true;
+      logger.info("Storage group {} merged {} sequence files and {} unsequence files in {}ms",
+          storageGroupName, seqFiles.size(), unseqFiles.size(),
+          System.currentTimeMillis() - startTime);
+    } catch (IOException e) {
+      logger.error("Storage group {} failed to merge, the merge is rolled back", storageGroupName,
+          e);
+    } catch (InterruptedException e) {
+      logger.warn("Merge of storage group {} is interrupted, the merge is rolled back",
+          storageGroupName);
+      Thread.currentThread().interrupt();
+    } finally {
+      if (!merged) {
+        cleanUp();
+      }
+      callBack.call(this, merged);
+    }
+    return null;
+  }
+
+  private void doMerge() throws IOException, InterruptedException {
+    List<File> seqPaths = new ArrayList<>();
+    for (TsFileResource seqFile : seqFiles) {
+      seqPaths.add(seqFile.getFile());
+      FileReaderManager.getInstance().increaseFileReaderReference(seqFile.getFile().getPath(),
+          true);
+    }
+    List<File> unseqPaths = new ArrayList<>();
+    for (TsFileResource unseqFile : unseqFiles) {
+      unseqPaths.add(unseqFile.getFile());
+      FileReaderManager.getInstance().increaseFileReaderReference(unseqFile.getFile().getPath(),
+          true);
+    }
+
+    MergeLogger mergeLogger = new MergeLogger(logFile);
+    try {
+      mergeLogger.logFiles(seqPaths, unseqPaths, tempFiles);
+      QueryContext context = new QueryContext();
+      for (int i = 0; i < seqFiles.size(); i++) {
+        mergeOneFile(i, context);
+      }
+      mergeLogger.logEnd();
+    } finally {
+      mergeLogger.close();
+      for (File file : seqPaths) {
+        FileReaderManager.getInstance().decreaseFileReaderReference(file.getPath(), true);
+      }
+      for (File file : unseqPaths) {
+        FileReaderManager.getInstance().decreaseFileReaderReference(file.getPath(), true);
+      }
+    }
+  }
+
+  private void mergeOneFile(int index, QueryContext context)
+      throws IOException, InterruptedException {
+    TsFileResource seqFile = seqFiles.get(index);
+    Map<String, Long> lowerBounds = seqLowerBounds.get(index);
+    TsFileResource newResource = newResources.get(index);
+    File tempFile = tempFiles.get(index);
+
+    TsFileIOWriter writer = new TsFileIOWriter(tempFile);
+    try {
+      for (String deviceId : seqFile.getStartTimeMap().keySet()) {
+        List<TsFileResource> unseqFilesOfDevice = new ArrayList<>();
+        for (TsFileResource unseqFile : unseqFiles) {
+          if (unseqFile.containsDevice(deviceId)) {
+            unseqFilesOfDevice.add(unseqFile);
+          }
+        }
+        Filter unseqFilter = TimeFilter.ltEq(seqFile.getEndTimeMap().get(deviceId));
+        Long lowerBound = lowerBounds.get(deviceId);
+        if (lowerBound != null) {
+          unseqFilter = FilterFactory.and(TimeFilter.gt(lowerBound), unseqFilter);
+        }
+
+        Set<String> measurements = new TreeSet<>();
+        collectMeasurements(seqFile, deviceId, measurements);
+        for (TsFileResource unseqFile : unseqFilesOfDevice) {
+          collectMeasurements(unseqFile, deviceId, measurements);
+        }
+
+        chunkGroupStarted = false;
+        for (String measurementId : measurements) {
+          MeasurementSchema schema = fileSchema.getMeasurementSchema(measurementId);
+          if (schema == null) {
+            // the timeseries has been deleted from the metadata
+            continue;
+          }
+          mergeSeries(writer, seqFile, unseqFilesOfDevice, unseqFilter,
+              new Path(deviceId, measurementId), schema, newResource, context);
+        }
+        if (chunkGroupStarted) {
+          writer.endChunkGroup(mergeVersion);
+        } else {
+          // all data of the device in this file is deleted
+          newResource.getStartTimeMap().remove(deviceId);
+          newResource.getEndTimeMap().remove(deviceId);
+        }
+      }
+      writer.endFile(fileSchema);
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      writer.close();
+      throw e;
+    }
+    // the end mark of the log must not be written before the new files are persistent
+    try (FileOutputStream outputStream = new FileOutputStream(tempFile, true)) {
+      outputStream.getFD().sync();
+    }
+  }
+
+  private void mergeSeries(TsFileIOWriter writer, TsFileResource seqFile,
+      List<TsFileResource> unseqFilesOfDevice, Filter unseqFilter, Path path,
+      MeasurementSchema schema, TsFileResource newResource, QueryContext context)
+      throws IOException, InterruptedException {
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, Collections.singletonList(seqFile), null, context),
+        new UnseqResourceMergeReader(path, unseqFilesOfDevice, context, unseqFilter));
+    try {
+      ChunkWriterImpl chunkWriter = null;
+      int pointNum = 0;
+      while (reader.hasNext()) {
+        TimeValuePair timeValuePair = reader.next();
+        if (chunkWriter == null) {
+          chunkWriter = new ChunkWriterImpl(schema, new ChunkBuffer(schema),
+              TSFileConfig.pageSizeInByte);
+        }
+        writeTimeValuePair(chunkWriter, timeValuePair, schema);
+        newResource.updateStartTime(path.getDevice(), timeValuePair.getTimestamp());
+        if (++pointNum >= chunkPointNumber) {
+          flushChunk(writer, chunkWriter, path.getDevice());
+          chunkWriter = null;
+          pointNum = 0;
+        }
+      }
+      if (chunkWriter != null) {
+        flushChunk(writer, chunkWriter, path.getDevice());
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void flushChunk(TsFileIOWriter writer, ChunkWriterImpl chunkWriter, String deviceId)
+      throws IOException, InterruptedException {
+    if (!chunkGroupStarted) {
+      writer.startChunkGroup(deviceId);
+      chunkGroupStarted = true;
+    }
+    long startPos = writer.getPos();
+    chunkWriter.writeToFileWriter(writer);
+    rateLimiter.acquire(writer.getPos() - startPos);
+  }
+
+  private void writeTimeValuePair(ChunkWriterImpl chunkWriter, TimeValuePair timeValuePair,
+      MeasurementSchema schema) {
+    long time = timeValuePair.getTimestamp();
+    switch (schema.getType()) {
+      case BOOLEAN:
+        chunkWriter.write(time, timeValuePair.getValue().getBoolean());
+        break;
+      case INT32:
+        chunkWriter.write(time, timeValuePair.getValue().getInt());
+        break;
+      case INT64:
+        chunkWriter.write(time, timeValuePair.getValue().getLong());
+        break;
+      case FLOAT:
+        chunkWriter.write(time, timeValuePair.getValue().getFloat());
+        break;
+      case DOUBLE:
+        chunkWriter.write(time, timeValuePair.getValue().getDouble());
+        break;
+      case TEXT:
+        chunkWriter.write(time, timeValuePair.getValue().getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", schema.getType()));
+    }
+  }
+
+  /**
+   * add the measurements of the device that have chunks in the file to "measurements".
+   */
+  private void collectMeasurements(TsFileResource resource, String deviceId,
+      Set<String> measurements) throws IOException {
+    String filePath = resource.getFile().getPath();
+    TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(filePath);
+    if (!fileMetaData.containsDevice(deviceId)) {
+      return;
+    }
+    TsDeviceMetadataIndex index = fileMetaData.getDeviceMetadataIndex(deviceId);
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(filePath, true);
+    TsDeviceMetadata deviceMetadata = reader.readTsDeviceMetaData(index);
+    for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata.getChunkGroupMetaDataList()) {
+      for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+        measurements.add(chunkMetaData.getMeasurementUid());
+      }
+    }
+  }
+
+  /**
+   * remove the temporary files and the log of a merge that is rolled back.
+   */
+  public void cleanUp() {
+    for (File tempFile : tempFiles) {
+      deleteFile(tempFile);
+    }
+    deleteFile(logFile);
+  }
+
+  private static void deleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      logger.warn("Cannot delete {}", file);
+    }
+  }
+
+  /**
+   * the new file of a merged sequence file sorts right after it: {systemTime}-{version}.tsfile is
+   * merged into {systemTime}-{version}-1.tsfile, which is merged into
+   * {systemTime}-{version}-2.tsfile and so on.
+   */
+  public static File getMergedFile(File seqFile) {
+    String[] items = seqFile.getName().replace(TSFILE_SUFFIX, "").split("-");
+    long mergeCount = items.length > 2 ? Long.parseLong(items[2]) : 0;
+    return new File(seqFile.getParentFile(),
+        items[0] + "-" + items[1] + "-" + (mergeCount + 1) + TSFILE_SUFFIX);
+  }
+
+  public List<TsFileResource> getSeqFiles() {
+    return seqFiles;
+  }
+
+  public List<TsFileResource> getUnseqFiles() {
+    return unseqFiles;
+  }
+
+  public List<File> getTempFiles() {
+    return tempFiles;
+  }
+
+  /**
+   * @return the resources of the new files, whose files only exist after they are renamed from the
+   * temporary files
+   */
+  public List<TsFileResource> getNewResources() {
+    return newResources;
+  }
+
+  public File getLogFile() {
+    return logFile;
+  }
+
+  @FunctionalInterface
+  public interface MergeCallBack {
+
+    void call(MergeTask task, boolean merged);
+  }
+}
@@ -18,93 +18,110 @@
  */
 package org.apache.iotdb.db.engine.querycontext;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.memtable.TimeValuePairSorter;
-import org.apache.iotdb.db.utils.MathUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
-import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
-import org.apache.iotdb.db.utils.TsPrimitiveType.TsFloat;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
+/**
+ * The data of a series in memtables for a query. It holds sorted snapshots of the TVLists, which
+ * are not affected by later writes, and reads them through {@link ReadOnlyMemChunkIterator}
+ * without creating an object per point.
+ */
 //TODO: merge ReadOnlyMemChunk and WritableMemChunk and IWritableMemChunk
 public class ReadOnlyMemChunk implements TimeValuePairSorter {
 
-  private boolean initialized;
-
   private TSDataType dataType;
-  private TimeValuePairSorter memSeries;
-  private List<TimeValuePair> sortedTimeValuePairList;
+  private List<TVList> sortedLists;
 
-  Map<String, String> props;
   private int floatPrecision = TSFileConfig.floatPrecision;
 
   /**
-   * init by TSDataType and TimeValuePairSorter.
+   * @param sortedList a sorted snapshot of the TVList of a memtable, its time offset marks the
+   * deleted data
    */
-  public ReadOnlyMemChunk(TSDataType dataType, TimeValuePairSorter memSeries, Map<String, String> props) {
+  public ReadOnlyMemChunk(TSDataType dataType, TVList sortedList, Map<String, String> props) {
     this.dataType = dataType;
-    this.memSeries = memSeries;
-    this.initialized = false;
-    this.props = props;
+    this.sortedLists = Collections.singletonList(sortedList);
     if (props.containsKey(Encoder.MAX_POINT_NUMBER)) {
       this.floatPrecision = Integer.parseInt(props.get(Encoder.MAX_POINT_NUMBER));
     }
   }
 
-  private void checkInitialized() {
-    if (!initialized) {
-      init();
-    }
-  }
-
-  private void init() {
-    sortedTimeValuePairList = memSeries.getSortedTimeValuePairList();
-    if (!(memSeries instanceof MemSeriesLazyMerger)) {
-      switch (dataType) {
-        case FLOAT:
-          sortedTimeValuePairList.replaceAll(x -> new TimeValuePair(x.getTimestamp(),
-              new TsFloat(
-                  MathUtils.roundWithGivenPrecision(x.getValue().getFloat(), floatPrecision))));
-          break;
-        case DOUBLE:
-          sortedTimeValuePairList.replaceAll(x -> new TimeValuePair(x.getTimestamp(),
-              new TsDouble(
-                  MathUtils.roundWithGivenPrecision(x.getValue().getDouble(), floatPrecision))));
-          break;
-        default:
-          break;
-      }
+  /**
+   * combine the chunks of the same series in several memtables, the chunks of memtables written
+   * later come later.
+   */
+  public ReadOnlyMemChunk(TSDataType dataType, List<ReadOnlyMemChunk> memChunks) {
+    this.dataType = dataType;
+    this.sortedLists = new ArrayList<>();
+    for (ReadOnlyMemChunk memChunk : memChunks) {
+      sortedLists.addAll(memChunk.sortedLists);
+      floatPrecision = memChunk.floatPrecision;
     }
-    //putBack memory
-    memSeries = null;
-    initialized = true;
   }
 
   public TSDataType getDataType() {
     return dataType;
   }
 
+  /**
+   * @return a new iterator over the points of this chunk, the chunk itself is not changed by
+   * reading so it can be read by several readers
+   */
+  public ReadOnlyMemChunkIterator getPointIterator() {
+    return getPointIterator(false);
+  }
+
+  /**
+   * @param isReverse true to iterate over the points in descending time order
+   */
+  public ReadOnlyMemChunkIterator getPointIterator(boolean isReverse) {
+    return new ReadOnlyMemChunkIterator(dataType, sortedLists, floatPrecision, isReverse);
+  }
+
+  /**
+   * create a TimeValuePair for each point, use {@link #getPointIterator()} instead when reading
+   * many points.
+   */
   @Override
   public List<TimeValuePair> getSortedTimeValuePairList() {
-    checkInitialized();
-    return Collections.unmodifiableList(sortedTimeValuePairList);
+    List<TimeValuePair> sortedTimeValuePairList = new ArrayList<>();
+    ReadOnlyMemChunkIterator iterator = getPointIterator();
+    while (iterator.hasNext()) {
+      sortedTimeValuePairList.add(iterator.currentTimeValuePair());
+      iterator.next();
+    }
+    return sortedTimeValuePairList;
   }
 
   @Override
   public Iterator<TimeValuePair> getIterator() {
-    checkInitialized();
-    return sortedTimeValuePairList.iterator();
+    ReadOnlyMemChunkIterator iterator = getPointIterator();
+    return new Iterator<TimeValuePair>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public TimeValuePair next() {
+        TimeValuePair timeValuePair = iterator.currentTimeValuePair();
+        iterator.next();
+        return timeValuePair;
+      }
+    };
   }
 
   @Override
   public boolean isEmpty() {
-    checkInitialized();
-    return sortedTimeValuePairList.isEmpty();
+    return !getPointIterator().hasNext();
   }
 }
@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.querycontext;
+
+import java.util.List;
+import org.apache.iotdb.db.utils.MathUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsBinary;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsBoolean;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsFloat;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsInt;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsLong;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * Iterates the points of a {@link ReadOnlyMemChunk} in ascending time order by reading its sorted
+ * TVList snapshots directly, so that points are copied into a {@link BatchData} as primitives
+ * instead of being wrapped in a {@link TimeValuePair} each.
+ * <p>
+ * The lists come from different memtables and may overlap. If several points have the same
+ * timestamp, only the one written last is returned, i.e., the last one in the last list. Points
+ * whose timestamps are less than the time offset of their list are deleted and skipped. The
+ * precision of float and double values is rounded when they are read.
+ * <p>
+ * In reverse order, the points are iterated in descending time order instead, while each batch
+ * returned by {@link #nextBatch(Filter, int)} holds the newest points not read yet in ascending
+ * time order.
+ */
+public class ReadOnlyMemChunkIterator {
+
+  private final TSDataType dataType;
+  private final TVList[] lists;
+  private final int floatPrecision;
+  private final boolean reverse;
+
+  /**
+   * the position of the next point of each list, which is always the last one of the points with
+   * the same timestamp and not deleted, or the size of the list (-1 in reverse order) if the list
+   * is exhausted
+   */
+  private final int[] positions;
+  /**
+   * the list holding the current point, -1 if all the lists are exhausted
+   */
+  private int currentList;
+
+  ReadOnlyMemChunkIterator(TSDataType dataType, List<TVList> lists, int floatPrecision,
+      boolean reverse) {
+    this.dataType = dataType;
+    this.lists = lists.toArray(new TVList[0]);
+    this.floatPrecision = floatPrecision;
+    this.reverse = reverse;
+    this.positions = new int[this.lists.length];
+    for (int i = 0; i < this.lists.length; i++) {
+      if (reverse) {
+        positions[i] = this.lists[i].size() - 1;
+        skipDeletedInReverse(i);
+      } else {
+        positions[i] = lowerBound(this.lists[i], 0, this.lists[i].getTimeOffset());
+        skipDuplicates(i);
+      }
+    }
+    findCurrentList();
+  }
+
+  public boolean hasNext() {
+    return currentList >= 0;
+  }
+
+  public long currentTime() {
+    return lists[currentList].getTime(positions[currentList]);
+  }
+
+  /**
+   * @return the boxed value of the current point, only used where a point has to be an object
+   */
+  public Object currentValue() {
+    return getValue(lists[currentList], positions[currentList]);
+  }
+
+  /**
+   * @return whether the current point satisfies the filter, the value is not boxed
+   */
+  public boolean currentSatisfy(Filter filter) {
+    return satisfy(filter, currentTime(), lists[currentList], positions[currentList]);
+  }
+
+  public TimeValuePair currentTimeValuePair() {
+    return new TimeValuePair(currentTime(),
+        getTsPrimitiveType(lists[currentList], positions[currentList]));
+  }
+
+  /**
+   * move to the next distinct timestamp.
+   */
+  public void next() {
+    long time = currentTime();
+    for (int i = 0; i < lists.length; i++) {
+      if (!hasPoint(i) || lists[i].getTime(positions[i]) != time) {
+        continue;
+      }
+      if (reverse) {
+        // the point written last is the first one met, the others with its timestamp are skipped
+        while (positions[i] >= 0 && lists[i].getTime(positions[i]) == time) {
+          positions[i]--;
+        }
+        skipDeletedInReverse(i);
+      } else {
+        positions[i]++;
+        skipDuplicates(i);
+      }
+    }
+    findCurrentList();
+  }
+
+  /**
+   * copy at most batchSize of the following points that satisfy the filter into a new BatchData.
+   * The iterator stops after the last point copied, or at the end if fewer points are found.
+   *
+   * @param filter null if all the points are needed
+   */
+  public BatchData nextBatch(Filter filter, int batchSize) {
+    if (reverse) {
+      return previousBatch(filter, batchSize);
+    }
+    BatchData batchData = new BatchData(dataType, true);
+    while (hasNext() && batchData.length() < batchSize) {
+      TVList list = lists[currentList];
+      int position = positions[currentList];
+      long time = list.getTime(position);
+      if (filter == null || satisfy(filter, time, list, position)) {
+        batchData.putTime(time);
+        putValue(batchData, list, position);
+      }
+      next();
+    }
+    return batchData;
+  }
+
+  /**
+   * collect the newest points not read yet in descending time order, then copy them into the
+   * batch in ascending time order.
+   */
+  private BatchData previousBatch(Filter filter, int batchSize) {
+    int[] batchLists = new int[batchSize];
+    int[] batchPositions = new int[batchSize];
+    int size = 0;
+    while (hasNext() && size < batchSize) {
+      TVList list = lists[currentList];
+      int position = positions[currentList];
+      if (filter == null || satisfy(filter, list.getTime(position), list, position)) {
+        batchLists[size] = currentList;
+        batchPositions[size] = position;
+        size++;
+      }
+      next();
+    }
+    BatchData batchData = new BatchData(dataType, true);
+    for (int i = size - 1; i >= 0; i--) {
+      TVList list = lists[batchLists[i]];
+      batchData.putTime(list.getTime(batchPositions[i]));
+      putValue(batchData, list, batchPositions[i]);
+    }
+    return batchData;
+  }
+
+  /**
+   * get the value at the given timestamp. The timestamps of successive calls must increase,
+   * because the points up to the given timestamp are skipped. Only supported in ascending order.
+   *
+   * @return the boxed value, or null if there is no point at the timestamp
+   */
+  public Object getValueInTimestamp(long timestamp) {
+    if (reverse) {
+      throw new UnsupportedOperationException("Cannot get values by timestamp in reverse order");
+    }
+    if (!hasNext()) {
+      return null;
+    }
+    if (currentTime() < timestamp) {
+      for (int i = 0; i < lists.length; i++) {
+        positions[i] = lowerBound(lists[i], positions[i], timestamp);
+        skipDuplicates(i);
+      }
+      findCurrentList();
+    }
+    if (!hasNext() || currentTime() != timestamp) {
+      return null;
+    }
+    Object value = currentValue();
+    next();
+    return value;
+  }
+
+  /**
+   * @return the first position not less than from whose timestamp is not less than time
+   */
+  private static int lowerBound(TVList list, int from, long time) {
+    int low = from;
+    int high = list.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (list.getTime(mid) < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void skipDuplicates(int listIndex) {
+    TVList list = lists[listIndex];
+    int position = positions[listIndex];
+    while (position + 1 < list.size() && list.getTime(position + 1) == list.getTime(position)) {
+      position++;
+    }
+    positions[listIndex] = position;
+  }
+
+  /**
+   * the points before the time offset are deleted, so a list is exhausted in reverse order once
+   * its position reaches them.
+   */
+  private void skipDeletedInReverse(int listIndex) {
+    TVList list = lists[listIndex];
+    if (positions[listIndex] >= 0 && list.getTime(positions[listIndex]) < list.getTimeOffset()) {
+      positions[listIndex] = -1;
+    }
+  }
+
+  private boolean hasPoint(int listIndex) {
+    return reverse ? positions[listIndex] >= 0 : positions[listIndex] < lists[listIndex].size();
+  }
+
+  /**
+   * the current point is the one with the minimum timestamp (the maximum in reverse order), and a
+   * later list wins a tie.
+   */
+  private void findCurrentList() {
+    currentList = -1;
+    long currentTime = 0;
+    for (int i = 0; i < lists.length; i++) {
+      if (!hasPoint(i)) {
+        continue;
+      }
+      long time = lists[i].getTime(positions[i]);
+      if (currentList < 0 || (reverse ? time >= currentTime : time <= currentTime)) {
+        currentList = i;
+        currentTime = time;
+      }
+    }
+  }
+
+  private void putValue(BatchData batchData, TVList list, int position) {
+    switch (dataType) {
+      case BOOLEAN:
+        batchData.putBoolean(list.getBoolean(position));
+        break;
+      case INT32:
+        batchData.putInt(list.getInt(position));
+        break;
+      case INT64:
+        batchData.putLong(list.getLong(position));
+        break;
+      case FLOAT:
+        batchData.putFloat(
+            MathUtils.roundWithGivenPrecision(list.getFloat(position), floatPrecision));
+        break;
+      case DOUBLE:
+        batchData.putDouble(
+            MathUtils.roundWithGivenPrecision(list.getDouble(position), floatPrecision));
+        break;
+      case TEXT:
+        batchData.putBinary(list.getBinary(position));
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private boolean satisfy(Filter filter, long time, TVList list, int position) {
+    switch (dataType) {
+      case BOOLEAN:
+        return filter.satisfy(time, list.getBoolean(position));
+      case INT32:
+        return filter.satisfy(time, list.getInt(position));
+      case INT64:
+        return filter.satisfy(time, list.getLong(position));
+      case FLOAT:
+        return filter.satisfy(time,
+            MathUtils.roundWithGivenPrecision(list.getFloat(position), floatPrecision));
+      case DOUBLE:
+        return filter.satisfy(time,
+            MathUtils.roundWithGivenPrecision(list.getDouble(position), floatPrecision));
+      case TEXT:
+        return filter.satisfy(time, list.getBinary(position));
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private Object getValue(TVList list, int position) {
+    switch (dataType) {
+      case BOOLEAN:
+        return list.getBoolean(position);
+      case INT32:
+        return list.getInt(position);
+      case INT64:
+        return list.getLong(position);
+      case FLOAT:
+        return MathUtils.roundWithGivenPrecision(list.getFloat(position), floatPrecision);
+      case DOUBLE:
+        return MathUtils.roundWithGivenPrecision(list.getDouble(position), floatPrecision);
+      case TEXT:
+        return list.getBinary(position);
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private TsPrimitiveType getTsPrimitiveType(TVList list, int position) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new TsBoolean(list.getBoolean(position));
+      case INT32:
+        return new TsInt(list.getInt(position));
+      case INT64:
+        return new TsLong(list.getLong(position));
+      case FLOAT:
+        return new TsFloat(
+            MathUtils.roundWithGivenPrecision(list.getFloat(position), floatPrecision));
+      case DOUBLE:
+        return new TsDouble(
+            MathUtils.roundWithGivenPrecision(list.getDouble(position), floatPrecision));
+      case TEXT:
+        return new TsBinary(list.getBinary(position));
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+}
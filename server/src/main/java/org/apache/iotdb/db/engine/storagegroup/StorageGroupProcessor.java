@@ -22,6 +22,7 @@ import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFF
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,13 +34,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.engine.cache.LastValueCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.merge.MergeLogger;
+import org.apache.iotdb.db.engine.merge.MergeManager;
+import org.apache.iotdb.db.engine.merge.MergeRecoverPerformer;
+import org.apache.iotdb.db.engine.merge.MergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -50,16 +64,21 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.utils.CopyOnReadLinkedList;
 import org.apache.iotdb.db.writelog.recover.TsFileRecoverPerformer;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.schema.FileSchema;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -68,7 +87,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * For sequence data, a StorageGroupProcessor has some TsFileProcessors, in which there is only one
- * TsFileProcessor in the working status. <br/>
+ * TsFileProcessor in the working status in each time partition. <br/>
+ *
+ * If partition_interval is set, the data of a storage group is divided into time partitions by
+ * their timestamps, each partition has its own working TsFileProcessors, its TsFiles are put in a
+ * sub folder named by the partition, and whether a point is sequential is decided by the flushed
+ * time of the device in the partition of the point. <br/>
  *
  * There are two situations to set the working TsFileProcessor to closing status:<br/>
  *
@@ -91,11 +115,16 @@ public class StorageGroupProcessor {
   private static final Logger logger = LoggerFactory.getLogger(StorageGroupProcessor.class);
   /**
    * a read write lock for guaranteeing concurrent safety when accessing all fields in this class
-   * (i.e., fileSchema, (un)sequenceFileList, work(un)SequenceTsFileProcessor,
+   * (i.e., fileSchema, (un)sequenceFileList, work(un)SequenceTsFileProcessors,
    * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice, and
-   * latestFlushedTimeForEachDevice)
+   * latestFlushedTimeForEachDevice). Insertions and queries hold the read lock together with the
+   * lock of their device, so only the data of one device is changed by them at a time.
    */
   private final ReadWriteLock insertLock = new ReentrantReadWriteLock();
+  /**
+   * the device locks, a device is guarded by one of them chosen by its hash code
+   */
+  private final ReentrantLock[] deviceLocks = new ReentrantLock[DEVICE_LOCK_NUM];
   /**
    *
    */
@@ -108,27 +137,42 @@ public class StorageGroupProcessor {
    * the schema of time series that belong this storage group
    */
   private FileSchema fileSchema;
-  // includes sealed and unsealed sequence TsFiles
+  // includes sealed and unsealed sequence TsFiles, ordered by time partition and then by version
   private List<TsFileResource> sequenceFileList = new ArrayList<>();
-  private TsFileProcessor workSequenceTsFileProcessor = null;
+  // time partition -> the working sequence TsFileProcessor of the partition
+  private Map<Long, TsFileProcessor> workSequenceTsFileProcessors = new HashMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
   // includes sealed and unsealed unSequence TsFiles
   private List<TsFileResource> unSequenceFileList = new ArrayList<>();
-  private TsFileProcessor workUnSequenceTsFileProcessor = null;
+  // time partition -> the working unsequence TsFileProcessor of the partition
+  private Map<Long, TsFileProcessor> workUnSequenceTsFileProcessors = new HashMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingUnSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
   /**
-   * device -> global latest timestamp of each device latestTimeForEachDevice caches non-flushed
-   * changes upon timestamps of each device, and is used to update latestFlushedTimeForEachDevice
-   * when a flush is issued.
+   * time range indexes over the sequence and unsequence files for queries, they must be
+   * invalidated whenever the lists are changed
    */
-  private Map<String, Long> latestTimeForEachDevice = new HashMap<>();
+  private TsFileResourceTimeIndex sequenceFileIndex = new TsFileResourceTimeIndex(
+      sequenceFileList);
+  private TsFileResourceTimeIndex unSequenceFileIndex = new TsFileResourceTimeIndex(
+      unSequenceFileList);
   /**
-   * device -> largest timestamp of the latest memtable to be submitted to asyncTryToFlush
-   * latestFlushedTimeForEachDevice determines whether a data point should be put into a sequential
-   * file or an unsequential file. Data of some device with timestamp less than or equals to the
-   * device's latestFlushedTime should go into an unsequential file.
+   * time partition -> device -> latest timestamp of each device in the partition
+   * latestTimeForEachDevice caches non-flushed changes upon timestamps of each device, and is used
+   * to update latestFlushedTimeForEachDevice when a flush is issued.
    */
-  private Map<String, Long> latestFlushedTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> latestTimeForEachDevice = new ConcurrentHashMap<>();
+  /**
+   * time partition -> device -> largest timestamp of the latest memtable of the partition to be
+   * submitted to asyncTryToFlush. latestFlushedTimeForEachDevice determines whether a data point
+   * should be put into a sequential file or an unsequential file. Data of some device with
+   * timestamp less than or equals to the device's latestFlushedTime in the partition of the data
+   * should go into an unsequential file.
+   */
+  private Map<Long, Map<String, Long>> latestFlushedTimeForEachDevice = new ConcurrentHashMap<>();
+  /**
+   * the time range covered by a time partition, the storage group is not partitioned if it is <= 0
+   */
+  private final long partitionInterval;
   private String storageGroupName;
   /**
    * versionController assigns a version for each MemTable and deletion/update such that after they
@@ -137,11 +181,10 @@ public class StorageGroupProcessor {
   private VersionController versionController;
 
   /**
-   * mergeDeleteLock is to be used in the merge process. Concurrent deletion and merge may result in
-   * losing some deletion in the merged new file, so a lock is necessary. TODO reconsidering this
-   * when implementing the merge process.
+   * mergeDeleteLock guards mergingModification. Concurrent deletion and merge may result in losing
+   * some deletion in the merged new file, so a deletion must either be recorded in
+   * mergingModification or happen after the new files are visible.
    */
-  @SuppressWarnings("unused") // to be used in merge
   private ReentrantLock mergeDeleteLock = new ReentrantLock();
 
   /**
@@ -150,22 +193,67 @@ public class StorageGroupProcessor {
    */
   private ModificationFile mergingModification;
 
+  /**
+   * whether a MergeTask of this storage group is submitted and not ended. Only one merge runs in a
+   * storage group at a time.
+   */
+  private volatile boolean isMerging = false;
+
+  /**
+   * the tokens of the queries that have begun and not ended, see beginQuery() and endQuery().
+   */
+  private final Set<Integer> runningQueryTokens = new HashSet<>();
+  private int nextQueryToken = 0;
+
+  /**
+   * the merges whose merged files can not be removed before the queries with the tokens end.
+   */
+  private final List<Pair<MergeTask, Set<Integer>>> mergedFilesToRemove = new ArrayList<>();
+
+  /**
+   * the files of the dropped time partitions that can not be removed before the queries with the
+   * tokens end.
+   */
+  private final List<Pair<List<TsFileResource>, Set<Integer>>> droppedFilesToRemove =
+      new ArrayList<>();
+
+  /**
+   * the system directory of this storage group, which holds the version files and the merge logs.
+   */
+  private File storageGroupSysDir;
+
   /**
    * This linked list records the access order of measurements used by query.
    */
   private LinkedList<String> lruForSensorUsedInQuery = new LinkedList<>();
   private static final int MAX_CACHE_SENSORS = 5000;
+  private static final int DEVICE_LOCK_NUM = 1024;
+
+  private static final Pattern PARTITION_FOLDER_PATTERN = Pattern.compile("-?\\d+");
 
 
   public StorageGroupProcessor(String systemInfoDir, String storageGroupName)
       throws ProcessorException {
+    this(systemInfoDir, storageGroupName, null);
+  }
+
+  /**
+   * @param recoveryPool the TsFiles of the storage group are recovered concurrently on it, or one
+   * by one in the calling thread if it is null
+   */
+  public StorageGroupProcessor(String systemInfoDir, String storageGroupName,
+      ExecutorService recoveryPool) throws ProcessorException {
     this.storageGroupName = storageGroupName;
+    this.partitionInterval = IoTDBDescriptor.getInstance().getConfig().getPartitionInterval();
+    for (int i = 0; i < deviceLocks.length; i++) {
+      deviceLocks[i] = new ReentrantLock();
+    }
 
     // construct the file schema
     this.fileSchema = constructFileSchema(storageGroupName);
 
     try {
-      File storageGroupSysDir = new File(systemInfoDir, storageGroupName);
+      storageGroupSysDir = new File(systemInfoDir, storageGroupName);
       if (storageGroupSysDir.mkdirs()) {
         logger.info("Storage Group system Directory {} doesn't exist, create it",
             storageGroupSysDir.getPath());
@@ -179,26 +267,60 @@ public class StorageGroupProcessor {
       throw new StorageGroupProcessorException(e);
     }
 
-    recover();
+    recover(recoveryPool);
   }
 
-  private void recover() throws ProcessorException {
+  private void recover(ExecutorService recoveryPool) throws ProcessorException {
     logger.info("recover Storage Group  {}", storageGroupName);
 
+    // finish or roll back the merges interrupted by a crash before the TsFiles are collected
+    recoverMerges();
+
+    List<TsFileRecoverPerformer> recoverPerformers = new ArrayList<>();
     // collect TsFiles from sequential data directory
     List<File> tsFiles = getAllFiles(DirectoryManager.getInstance().getAllSequenceFileFolders());
-    recoverSeqFiles(tsFiles);
+    recoverSeqFiles(tsFiles, recoverPerformers);
 
     // collect TsFiles from unsequential data directory
     tsFiles = getAllFiles(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
-    recoverUnseqFiles(tsFiles);
+    recoverUnseqFiles(tsFiles, recoverPerformers);
+
+    // each TsFile has its own WAL node, so the files are independent of each other
+    if (recoveryPool == null || recoverPerformers.size() <= 1) {
+      for (TsFileRecoverPerformer recoverPerformer : recoverPerformers) {
+        recoverPerformer.recover();
+      }
+    } else {
+      recoverConcurrently(recoverPerformers, recoveryPool);
+    }
 
     for (TsFileResource resource : sequenceFileList) {
-      latestTimeForEachDevice.putAll(resource.getEndTimeMap());
-      latestFlushedTimeForEachDevice.putAll(resource.getEndTimeMap());
+      long timePartition = getTimePartition(resource.getFile());
+      latestTimeForEachDevice.computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+          .putAll(resource.getEndTimeMap());
+      latestFlushedTimeForEachDevice.computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+          .putAll(resource.getEndTimeMap());
+    }
+  }
+
+  private void recoverMerges() throws ProcessorException {
+    File[] mergeLogs = storageGroupSysDir
+        .listFiles(file -> file.getName().endsWith(MergeLogger.MERGE_LOG_SUFFIX));
+    if (mergeLogs == null) {
+      return;
+    }
+    for (File mergeLog : mergeLogs) {
+      try {
+        new MergeRecoverPerformer(mergeLog).recover();
+      } catch (IOException e) {
+        throw new StorageGroupProcessorException(e);
+      }
     }
   }
 
+  /**
+   * @return the TsFiles in the storage group folders and in the time partition folders under them
+   */
   private List<File> getAllFiles(List<String> folders) {
     List<File> tsFiles = new ArrayList<>();
     for (String baseDir : folders) {
@@ -208,45 +330,116 @@ public class StorageGroupProcessor {
       }
       Collections
           .addAll(tsFiles, fileFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      File[] partitionFolders = fileFolder.listFiles(
+          file -> file.isDirectory() && PARTITION_FOLDER_PATTERN.matcher(file.getName()).matches());
+      for (File partitionFolder : partitionFolders) {
+        Collections.addAll(tsFiles,
+            partitionFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      }
     }
     return tsFiles;
   }
 
-  private void recoverSeqFiles(List<File> tsFiles) throws ProcessorException {
-    tsFiles.sort(this::compareFileName);
+  private void recoverSeqFiles(List<File> tsFiles,
+      List<TsFileRecoverPerformer> recoverPerformers) {
+    // the sequence files of different partitions never overlap, so they are ordered by partition
+    tsFiles.sort((o1, o2) -> {
+      int cmp = Long.compare(getTimePartition(o1), getTimePartition(o2));
+      return cmp != 0 ? cmp : compareFileName(o1, o2);
+    });
     for (File tsFile : tsFiles) {
       TsFileResource tsFileResource = new TsFileResource(tsFile);
       sequenceFileList.add(tsFileResource);
-      TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-"
-          , fileSchema, versionController, tsFileResource, false);
-      recoverPerformer.recover();
+      recoverPerformers.add(new TsFileRecoverPerformer(storageGroupName + "-"
+          , fileSchema, versionController, tsFileResource, false));
     }
   }
 
-  private void recoverUnseqFiles(List<File> tsFiles) throws ProcessorException {
+  private void recoverUnseqFiles(List<File> tsFiles,
+      List<TsFileRecoverPerformer> recoverPerformers) {
     tsFiles.sort(this::compareFileName);
     for (File tsFile : tsFiles) {
       TsFileResource tsFileResource = new TsFileResource(tsFile);
       unSequenceFileList.add(tsFileResource);
-      TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-",
+      recoverPerformers.add(new TsFileRecoverPerformer(storageGroupName + "-",
           fileSchema,
-          versionController, tsFileResource, true);
-      recoverPerformer.recover();
+          versionController, tsFileResource, true));
+    }
+  }
+
+  /**
+   * run the recoverPerformers on recoveryPool and wait for all of them, even if some fail, so
+   * that no file is still being recovered when this returns.
+   */
+  private void recoverConcurrently(List<TsFileRecoverPerformer> recoverPerformers,
+      ExecutorService recoveryPool) throws ProcessorException {
+    List<Future<Void>> futures = new ArrayList<>();
+    for (TsFileRecoverPerformer recoverPerformer : recoverPerformers) {
+      futures.add(recoveryPool.submit(() -> {
+        recoverPerformer.recover();
+        return null;
+      }));
+    }
+    ProcessorException failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StorageGroupProcessorException(e);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof ProcessorException ? (ProcessorException) e.getCause()
+              : new StorageGroupProcessorException(e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
     }
   }
 
   // TsFileNameComparator compares TsFiles by the version number in its name
-  // ({systemTime}-{versionNum}.tsfile)
+  // ({systemTime}-{versionNum}.tsfile, or {systemTime}-{versionNum}-{mergeCnt}.tsfile if the file
+  // is the result of merges, which replaces {systemTime}-{versionNum}.tsfile at the same position)
   public int compareFileName(File o1, File o2) {
     String[] items1 = o1.getName().replace(TSFILE_SUFFIX, "").split("-");
     String[] items2 = o2.getName().replace(TSFILE_SUFFIX, "").split("-");
     if (Long.valueOf(items1[0]) - Long.valueOf(items2[0]) == 0) {
+      if (Long.valueOf(items1[1]) - Long.valueOf(items2[1]) == 0) {
+        long mergeCnt1 = items1.length > 2 ? Long.valueOf(items1[2]) : 0;
+        long mergeCnt2 = items2.length > 2 ? Long.valueOf(items2[2]) : 0;
+        return Long.compare(mergeCnt1, mergeCnt2);
+      }
       return Long.compare(Long.valueOf(items1[1]), Long.valueOf(items2[1]));
     } else {
       return Long.compare(Long.valueOf(items1[0]), Long.valueOf(items2[0]));
     }
   }
 
+  /**
+   * @return the time partition of a timestamp, which is always 0 if the storage group is not
+   * partitioned
+   */
+  public long getTimePartition(long time) {
+    return partitionInterval > 0 ? Math.floorDiv(time, partitionInterval) : 0;
+  }
+
+  /**
+   * @return the time partition of a TsFile, which is the name of its folder, or 0 if the TsFile is
+   * directly in the storage group folder (i.e., it is written without partitioning)
+   */
+  private long getTimePartition(File tsFile) {
+    String folderName = tsFile.getParentFile().getName();
+    return folderName.equals(storageGroupName) ? 0 : Long.parseLong(folderName);
+  }
+
+  private File getPartitionFolder(String baseDir, long timePartition) {
+    File storageGroupFolder = new File(baseDir, storageGroupName);
+    return partitionInterval > 0 ? new File(storageGroupFolder, Long.toString(timePartition))
+        : storageGroupFolder;
+  }
+
   private FileSchema constructFileSchema(String storageGroupName) {
     List<MeasurementSchema> columnSchemaList;
     columnSchemaList = MManager.getInstance().getSchemaForStorageGroup(storageGroupName);
@@ -273,61 +466,300 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * insert a row. Insertions of different devices run concurrently under the read lock of
+   * insertLock, and those of the same device are serialized by its device lock. The working
+   * TsFileProcessors are created, flushed and closed under the write lock, so the flushed times
+   * which decide sequence or unsequence do not change during an insertion.
+   */
   public boolean insert(InsertPlan insertPlan) {
-    writeLock();
+    String deviceId = insertPlan.getDeviceId();
+    long timePartition = getTimePartition(insertPlan.getTime());
+    ReentrantLock deviceLock = getDeviceLock(deviceId);
+    while (true) {
+      boolean sequence;
+      TsFileProcessor tsFileProcessor;
+      boolean result = false;
+      insertLock.readLock().lock();
+      deviceLock.lock();
+      try {
+        initDeviceTimes(timePartition, deviceId);
+        // insert to sequence or unSequence file
+        sequence = insertPlan.getTime()
+            > latestFlushedTimeForEachDevice.get(timePartition).get(deviceId);
+        tsFileProcessor = getWorkTsFileProcessors(sequence).get(timePartition);
+        if (tsFileProcessor != null) {
+          result = insertToTsFileProcessor(insertPlan, tsFileProcessor, timePartition);
+        }
+      } finally {
+        deviceLock.unlock();
+        insertLock.readLock().unlock();
+      }
+
+      if (tsFileProcessor == null) {
+        // create the working TsFileProcessor and decide sequence or unsequence again
+        if (!createTsFileProcessorIfAbsent(timePartition, sequence)) {
+          return false;
+        }
+      } else {
+        if (result) {
+          flushIfNecessary(tsFileProcessor, timePartition, sequence);
+        }
+        return result;
+      }
+    }
+  }
+
+  /**
+   * insert a batch of rows of one device. The rows are split into runs that go to the same
+   * (sequence or unsequence) TsFileProcessor of the same time partition, each run is written to
+   * the WAL and the memtable as a whole under the locks of the device, see insert(). The runs are
+   * inserted in the order of the rows, and how many leading rows have been inserted is set into
+   * the plan, so the caller knows which rows are kept if it returns false.
+   */
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan) {
+    String deviceId = batchInsertPlan.getDeviceId();
+    long[] times = batchInsertPlan.getTimes();
+    int rowCount = batchInsertPlan.getRowCount();
+    ReentrantLock deviceLock = getDeviceLock(deviceId);
+    int start = 0;
     try {
-      // init map
-      latestTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
+      while (start < rowCount) {
+        long timePartition = getTimePartition(times[start]);
+        boolean sequence;
+        TsFileProcessor tsFileProcessor;
+        boolean result = false;
+        insertLock.readLock().lock();
+        deviceLock.lock();
+        try {
+          initDeviceTimes(timePartition, deviceId);
+          // the flushed time may be changed if the previous run closed a file
+          long latestFlushedTime = latestFlushedTimeForEachDevice.get(timePartition).get(deviceId);
+          sequence = times[start] > latestFlushedTime;
+          tsFileProcessor = getWorkTsFileProcessors(sequence).get(timePartition);
+          if (tsFileProcessor != null) {
+            int end = start + 1;
+            while (end < rowCount && getTimePartition(times[end]) == timePartition
+                && (times[end] > latestFlushedTime) == sequence) {
+              end++;
+            }
+            batchInsertPlan.setRange(start, end);
+            result = insertBatchToTsFileProcessor(batchInsertPlan, tsFileProcessor,
+                timePartition);
+            if (result) {
+              start = end;
+            }
+          }
+        } finally {
+          deviceLock.unlock();
+          insertLock.readLock().unlock();
+        }
+
+        if (tsFileProcessor == null) {
+          // create the working TsFileProcessor and decide sequence or unsequence again
+          if (!createTsFileProcessorIfAbsent(timePartition, sequence)) {
+            return false;
+          }
+        } else if (!result) {
+          return false;
+        } else {
+          flushIfNecessary(tsFileProcessor, timePartition, sequence);
+        }
+      }
+      return true;
+    } finally {
+      batchInsertPlan.setInsertedRowCount(start);
+      batchInsertPlan.setRange(0, rowCount);
+    }
+  }
 
-      // insert to sequence or unSequence file
-      return insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()));
+  private ReentrantLock getDeviceLock(String deviceId) {
+    return deviceLocks[Math.floorMod(deviceId.hashCode(), deviceLocks.length)];
+  }
+
+  private Map<Long, TsFileProcessor> getWorkTsFileProcessors(boolean sequence) {
+    return sequence ? workSequenceTsFileProcessors : workUnSequenceTsFileProcessors;
+  }
+
+  /**
+   * init the latest time and the flushed time of a device in a time partition
+   */
+  private void initDeviceTimes(long timePartition, String deviceId) {
+    latestTimeForEachDevice.computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+        .putIfAbsent(deviceId, Long.MIN_VALUE);
+    latestFlushedTimeForEachDevice.computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+        .putIfAbsent(deviceId, Long.MIN_VALUE);
+  }
+
+  /**
+   * only called by insert() and insertBatch() with the read lock and the device lock held
+   */
+  private boolean insertToTsFileProcessor(InsertPlan insertPlan, TsFileProcessor tsFileProcessor,
+      long timePartition) {
+    // insert TsFileProcessor
+    boolean result = tsFileProcessor.insert(insertPlan);
+
+    // try to update the latest time of the device of this tsRecord
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
+    if (result && latestTimes.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
+      latestTimes.put(insertPlan.getDeviceId(), insertPlan.getTime());
+    }
+    if (result) {
+      updateLastValueCache(insertPlan);
+    }
+    return result;
+  }
+
+  /**
+   * only called by insertBatch() with the read lock and the device lock held
+   */
+  private boolean insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan,
+      TsFileProcessor tsFileProcessor, long timePartition) {
+    boolean result = tsFileProcessor.insertBatch(batchInsertPlan);
+
+    // try to update the latest time of the device of this batch
+    String deviceId = batchInsertPlan.getDeviceId();
+    long maxTime = batchInsertPlan.getMaxTime();
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
+    if (result && latestTimes.get(deviceId) < maxTime) {
+      latestTimes.put(deviceId, maxTime);
+    }
+    if (result) {
+      updateLastValueCache(batchInsertPlan);
+    }
+    return result;
+  }
+
+  /**
+   * create the working TsFileProcessor of the time partition under the write lock if there is not.
+   *
+   * @return false if it cannot be created
+   */
+  private boolean createTsFileProcessorIfAbsent(long timePartition, boolean sequence) {
+    writeLock();
+    try {
+      return getOrCreateTsFileProcessor(timePartition, sequence) != null;
     } catch (IOException e) {
-      logger.error("insert tsRecord to unsealed data file failed, because {}", e.getMessage(), e);
+      logger.error("create TsFileProcessor in storage group {} failed, because {}",
+          storageGroupName, e.getMessage(), e);
       return false;
     } finally {
       writeUnlock();
     }
   }
 
-  private boolean insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence)
-      throws IOException {
-    TsFileProcessor tsFileProcessor;
-    boolean result;
+  /**
+   * flush or close the TsFileProcessor under the write lock if its memtable reaches the threshold
+   * and it is still working
+   */
+  private void flushIfNecessary(TsFileProcessor tsFileProcessor, long timePartition,
+      boolean sequence) {
+    if (!tsFileProcessor.shouldFlush()) {
+      return;
+    }
+    writeLock();
+    try {
+      if (getWorkTsFileProcessors(sequence).get(timePartition) == tsFileProcessor) {
+        checkMemTableAndMayFlush(tsFileProcessor, timePartition, sequence);
+      }
+    } finally {
+      writeUnlock();
+    }
+  }
 
+  private void updateLastValueCache(InsertPlan insertPlan) {
+    LastValueCache lastValueCache = LastValueCache.getInstance();
+    if (!lastValueCache.isEnabled()) {
+      return;
+    }
+    String[] measurements = insertPlan.getMeasurements();
+    TSDataType[] dataTypes = insertPlan.getDataTypes();
+    for (int i = 0; i < measurements.length; i++) {
+      lastValueCache.update(insertPlan.getDeviceId(), measurements[i], dataTypes[i],
+          getFloatPrecision(measurements[i], dataTypes[i]), insertPlan.getTime(),
+          insertPlan.getValues()[i]);
+    }
+  }
+
+  private void updateLastValueCache(BatchInsertPlan batchInsertPlan) {
+    LastValueCache lastValueCache = LastValueCache.getInstance();
+    if (!lastValueCache.isEnabled()) {
+      return;
+    }
+    int row = batchInsertPlan.getMaxTimeRow();
+    long time = batchInsertPlan.getTimes()[row];
+    String[] measurements = batchInsertPlan.getMeasurements();
+    TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
+    for (int i = 0; i < measurements.length; i++) {
+      lastValueCache.update(batchInsertPlan.getDeviceId(), measurements[i], dataTypes[i],
+          getFloatPrecision(measurements[i], dataTypes[i]), time,
+          batchInsertPlan.getValue(i, row));
+    }
+  }
+
+  /**
+   * @return the precision that the memtable read path rounds the float and double values of the
+   * series to
+   */
+  private int getFloatPrecision(String measurementId, TSDataType dataType) {
+    if (dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE) {
+      return 0;
+    }
+    MeasurementSchema schema = fileSchema.getMeasurementSchema(measurementId);
+    Map<String, String> props = schema == null ? null : schema.getProps();
+    if (props != null && props.containsKey(Encoder.MAX_POINT_NUMBER)) {
+      return Integer.parseInt(props.get(Encoder.MAX_POINT_NUMBER));
+    }
+    return TSFileConfig.floatPrecision;
+  }
+
+  /**
+   * only called with the write lock held
+   *
+   * @return the working TsFileProcessor of the time partition, a new one is created if there is
+   * not. Null if the disk space is insufficient.
+   */
+  private TsFileProcessor getOrCreateTsFileProcessor(long timePartition, boolean sequence)
+      throws IOException {
     try {
       if (sequence) {
-        if (workSequenceTsFileProcessor == null) {
+        TsFileProcessor tsFileProcessor = workSequenceTsFileProcessors.get(timePartition);
+        if (tsFileProcessor == null) {
           // create a new TsfileProcessor
-          workSequenceTsFileProcessor = createTsFileProcessor(true);
-          sequenceFileList.add(workSequenceTsFileProcessor.getTsFileResource());
+          tsFileProcessor = createTsFileProcessor(timePartition, true);
+          workSequenceTsFileProcessors.put(timePartition, tsFileProcessor);
+          // keep the sequence files ordered by partition, the new file is usually the last one
+          int index = sequenceFileList.size();
+          while (index > 0
+              && getTimePartition(sequenceFileList.get(index - 1).getFile()) > timePartition) {
+            index--;
+          }
+          sequenceFileList.add(index, tsFileProcessor.getTsFileResource());
+          sequenceFileIndex.invalidate();
         }
-        tsFileProcessor = workSequenceTsFileProcessor;
+        return tsFileProcessor;
       } else {
-        if (workUnSequenceTsFileProcessor == null) {
+        TsFileProcessor tsFileProcessor = workUnSequenceTsFileProcessors.get(timePartition);
+        if (tsFileProcessor == null) {
           // create a new TsfileProcessor
-          workUnSequenceTsFileProcessor = createTsFileProcessor(false);
-          unSequenceFileList.add(workUnSequenceTsFileProcessor.getTsFileResource());
+          tsFileProcessor = createTsFileProcessor(timePartition, false);
+          workUnSequenceTsFileProcessors.put(timePartition, tsFileProcessor);
+          unSequenceFileList.add(tsFileProcessor.getTsFileResource());
+          unSequenceFileIndex.invalidate();
         }
-        tsFileProcessor = workUnSequenceTsFileProcessor;
+        return tsFileProcessor;
       }
     } catch (DiskSpaceInsufficientException e) {
       logger.error(
           "disk space is insufficient when creating TsFile processor, change system mode to read-only",
           e);
       IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
-      return false;
-    }
-
-    // insert TsFileProcessor
-    result = tsFileProcessor.insert(insertPlan);
-
-    // try to update the latest time of the device of this tsRecord
-    if (result && latestTimeForEachDevice.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
-      latestTimeForEachDevice.put(insertPlan.getDeviceId(), insertPlan.getTime());
+      return null;
     }
+  }
 
+  private void checkMemTableAndMayFlush(TsFileProcessor tsFileProcessor, long timePartition,
+      boolean sequence) {
     // check memtable size and may asyncTryToFlush the work memtable
     if (tsFileProcessor.shouldFlush()) {
       logger.info("The memtable size {} reaches the threshold, async flush it to tsfile: {}",
@@ -335,15 +767,14 @@ public class StorageGroupProcessor {
           tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
 
       if (tsFileProcessor.shouldClose()) {
-        moveOneWorkProcessorToClosingList(sequence);
+        moveOneWorkProcessorToClosingList(timePartition, sequence);
       } else {
         tsFileProcessor.asyncFlush();
       }
     }
-    return result;
   }
 
-  private TsFileProcessor createTsFileProcessor(boolean sequence)
+  private TsFileProcessor createTsFileProcessor(long timePartition, boolean sequence)
       throws IOException, DiskSpaceInsufficientException {
     String baseDir;
     if (sequence) {
@@ -351,16 +782,17 @@ public class StorageGroupProcessor {
     } else {
       baseDir = DirectoryManager.getInstance().getNextFolderForUnSequenceFile();
     }
-    new File(baseDir, storageGroupName).mkdirs();
+    File partitionFolder = getPartitionFolder(baseDir, timePartition);
+    partitionFolder.mkdirs();
 
-    String filePath = Paths.get(baseDir, storageGroupName,
+    String filePath = Paths.get(partitionFolder.getPath(),
         System.currentTimeMillis() + "-" + versionController.nextVersion()).toString()
         + TSFILE_SUFFIX;
 
     if (sequence) {
       return new TsFileProcessor(storageGroupName, new File(filePath),
           fileSchema, versionController, this::closeUnsealedTsFileProcessor,
-          this::updateLatestFlushTimeCallback, sequence);
+          () -> updateLatestFlushTimeCallback(timePartition), sequence);
     } else {
       return new TsFileProcessor(storageGroupName, new File(filePath),
           fileSchema, versionController, this::closeUnsealedTsFileProcessor,
@@ -371,18 +803,18 @@ public class StorageGroupProcessor {
   /**
    * only called by insert(), thread-safety should be ensured by caller
    */
-  private void moveOneWorkProcessorToClosingList(boolean sequence) {
+  private void moveOneWorkProcessorToClosingList(long timePartition, boolean sequence) {
     //for sequence tsfile, we update the endTimeMap only when the file is prepared to be closed.
     //for unsequence tsfile, we have maintained the endTimeMap when an insertion comes.
     if (sequence) {
-      closingSequenceTsFileProcessor.add(workSequenceTsFileProcessor);
-      updateEndTimeMap(workSequenceTsFileProcessor);
-      workSequenceTsFileProcessor.asyncClose();
-      workSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workSequenceTsFileProcessors.remove(timePartition);
+      closingSequenceTsFileProcessor.add(tsFileProcessor);
+      updateEndTimeMap(tsFileProcessor, timePartition);
+      tsFileProcessor.asyncClose();
     } else {
-      closingUnSequenceTsFileProcessor.add(workUnSequenceTsFileProcessor);
-      workUnSequenceTsFileProcessor.asyncClose();
-      workUnSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workUnSequenceTsFileProcessors.remove(timePartition);
+      closingUnSequenceTsFileProcessor.add(tsFileProcessor);
+      tsFileProcessor.asyncClose();
     }
   }
 
@@ -396,7 +828,15 @@ public class StorageGroupProcessor {
       for (TsFileResource tsFileResource : sequenceFileList) {
         tsFileResource.close();
       }
-      List<String> folder = DirectoryManager.getInstance().getAllSequenceFileFolders();
+      List<String> removedFiles = new ArrayList<>();
+      for (TsFileResource tsFileResource : sequenceFileList) {
+        removedFiles.add(tsFileResource.getFile().getPath());
+      }
+      for (TsFileResource tsFileResource : unSequenceFileList) {
+        removedFiles.add(tsFileResource.getFile().getPath());
+      }
+      List<String> folder = new ArrayList<>(
+          DirectoryManager.getInstance().getAllSequenceFileFolders());
       folder.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
       for (String tsfilePath : folder) {
         File storageGroupFolder = new File(tsfilePath, storageGroupName);
@@ -408,12 +848,23 @@ public class StorageGroupProcessor {
           }
         }
       }
-      this.workSequenceTsFileProcessor = null;
-      this.workUnSequenceTsFileProcessor = null;
+      synchronized (runningQueryTokens) {
+        for (Pair<MergeTask, Set<Integer>> mergedFiles : mergedFilesToRemove) {
+          Files.deleteIfExists(mergedFiles.left.getLogFile().toPath());
+        }
+        mergedFilesToRemove.clear();
+        droppedFilesToRemove.clear();
+      }
+      this.workSequenceTsFileProcessors.clear();
+      this.workUnSequenceTsFileProcessors.clear();
       this.sequenceFileList.clear();
       this.unSequenceFileList.clear();
+      this.sequenceFileIndex.invalidate();
+      this.unSequenceFileIndex.invalidate();
       this.latestFlushedTimeForEachDevice.clear();
       this.latestTimeForEachDevice.clear();
+      LastValueCache.getInstance().invalidateStorageGroup(storageGroupName);
+      ChunkCache.getInstance().remove(removedFiles);
     } catch (IOException e) {
       logger.error("Cannot delete files in storage group {}, because", storageGroupName, e);
     } finally {
@@ -444,20 +895,142 @@ public class StorageGroupProcessor {
     writeLock();
     try {
       logger.info("async force close all files in storage group: {}", storageGroupName);
-      if (workSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(true);
+      for (Long timePartition : new ArrayList<>(workSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, true);
       }
-      if (workUnSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(false);
+      for (Long timePartition : new ArrayList<>(workUnSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, false);
       }
     } finally {
       writeUnlock();
     }
   }
 
-  // TODO need a read lock, please consider the concurrency with flush manager threads.
+  /**
+   * remove all the TsFiles of a time partition. The working TsFileProcessors of the partition are
+   * closed and the closing ones are waited for, then the files are removed as a whole without
+   * writing any modification. Data inserted into the partition during this call may be kept. The
+   * files are no longer given to new queries, but they are deleted only after the running queries
+   * end, like the merged files.
+   */
+  public void dropTimePartition(long timePartition) {
+    writeLock();
+    try {
+      if (workSequenceTsFileProcessors.containsKey(timePartition)) {
+        moveOneWorkProcessorToClosingList(timePartition, true);
+      }
+      if (workUnSequenceTsFileProcessors.containsKey(timePartition)) {
+        moveOneWorkProcessorToClosingList(timePartition, false);
+      }
+    } finally {
+      writeUnlock();
+    }
+    synchronized (closeStorageGroupCondition) {
+      try {
+        while (isClosingPartition(closingSequenceTsFileProcessor, timePartition)
+            || isClosingPartition(closingUnSequenceTsFileProcessor, timePartition)) {
+          closeStorageGroupCondition.wait();
+        }
+      } catch (InterruptedException e) {
+        logger.error("Interrupted when waiting for the files of time partition {} in storage group "
+            + "{} to be closed", timePartition, storageGroupName, e);
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+
+    writeLock();
+    try {
+      List<TsFileResource> droppedFiles = new ArrayList<>();
+      removePartitionFiles(sequenceFileList, timePartition, droppedFiles);
+      removePartitionFiles(unSequenceFileList, timePartition, droppedFiles);
+      sequenceFileIndex.invalidate();
+      unSequenceFileIndex.invalidate();
+      if (!workSequenceTsFileProcessors.containsKey(timePartition)) {
+        // there is no sequence data left in the partition
+        latestTimeForEachDevice.remove(timePartition);
+        latestFlushedTimeForEachDevice.remove(timePartition);
+      }
+      LastValueCache.getInstance().invalidateStorageGroup(storageGroupName);
+      synchronized (runningQueryTokens) {
+        if (runningQueryTokens.isEmpty()) {
+          removeDroppedFiles(droppedFiles);
+        } else {
+          droppedFilesToRemove.add(new Pair<>(droppedFiles, new HashSet<>(runningQueryTokens)));
+        }
+      }
+      logger.info("{} files of time partition {} in storage group {} are dropped",
+          droppedFiles.size(), timePartition, storageGroupName);
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  private boolean isClosingPartition(CopyOnReadLinkedList<TsFileProcessor> closingProcessors,
+      long timePartition) {
+    for (TsFileProcessor tsFileProcessor : closingProcessors.cloneList()) {
+      if (getTimePartition(tsFileProcessor.getTsFileResource().getFile()) == timePartition) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * take the closed files of the time partition out of the file list, only called by
+   * dropTimePartition(), thread-safety should be ensured by caller
+   */
+  private void removePartitionFiles(List<TsFileResource> tsFileResources, long timePartition,
+      List<TsFileResource> droppedFiles) {
+    Iterator<TsFileResource> iterator = tsFileResources.iterator();
+    while (iterator.hasNext()) {
+      TsFileResource tsFileResource = iterator.next();
+      if (tsFileResource.isClosed()
+          && getTimePartition(tsFileResource.getFile()) == timePartition) {
+        iterator.remove();
+        droppedFiles.add(tsFileResource);
+      }
+    }
+  }
+
+  /**
+   * delete the files of a dropped time partition and their partition folders once they are empty.
+   */
+  private void removeDroppedFiles(List<TsFileResource> droppedFiles) {
+    for (TsFileResource droppedFile : droppedFiles) {
+      File file = droppedFile.getFile();
+      String filePath = file.getPath();
+      try {
+        FileReaderManager.getInstance().closeFileAndRemoveReader(filePath);
+        TsFileMetaDataCache.getInstance().remove(filePath);
+        ChunkCache.getInstance().remove(filePath);
+        droppedFile.remove();
+      } catch (IOException e) {
+        logger.error("Cannot remove the dropped file {} of storage group {}", filePath,
+            storageGroupName, e);
+        continue;
+      }
+      if (partitionInterval > 0) {
+        // only succeeds if the partition folder is empty
+        file.getParentFile().delete();
+      }
+    }
+  }
+
   public QueryDataSource query(String deviceId, String measurementId, QueryContext context) {
+    return query(deviceId, measurementId, context, null);
+  }
+
+  /**
+   * @param timeFilter the filter on time of the query, the files out of its range are excluded.
+   * Null to include all the files of the device.
+   */
+  // TODO need a read lock, please consider the concurrency with flush manager threads.
+  public QueryDataSource query(String deviceId, String measurementId, QueryContext context,
+      Filter timeFilter) {
+    ReentrantLock deviceLock = getDeviceLock(deviceId);
     insertLock.readLock().lock();
+    deviceLock.lock();
     synchronized (lruForSensorUsedInQuery) {
       if (lruForSensorUsedInQuery.size() >= MAX_CACHE_SENSORS) {
         lruForSensorUsedInQuery.removeFirst();
@@ -465,12 +1038,13 @@ public class StorageGroupProcessor {
       lruForSensorUsedInQuery.add(measurementId);
     }
     try {
-      List<TsFileResource> seqResources = getFileReSourceListForQuery(sequenceFileList,
-          deviceId, measurementId, context);
-      List<TsFileResource> unseqResources = getFileReSourceListForQuery(unSequenceFileList,
-          deviceId, measurementId, context);
+      List<TsFileResource> seqResources = getFileReSourceListForQuery(
+          sequenceFileIndex.getResources(deviceId, timeFilter), deviceId, measurementId, context);
+      List<TsFileResource> unseqResources = getFileReSourceListForQuery(
+          unSequenceFileIndex.getResources(deviceId, timeFilter), deviceId, measurementId, context);
       return new QueryDataSource(new Path(deviceId, measurementId), seqResources, unseqResources);
     } finally {
+      deviceLock.unlock();
       insertLock.readLock().unlock();
     }
   }
@@ -506,7 +1080,8 @@ public class StorageGroupProcessor {
 
 
   /**
-   * @param tsFileResources includes sealed and unsealed tsfile resources
+   * @param tsFileResources includes sealed and unsealed tsfile resources that may contain the
+   * queried data
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
    */
   private List<TsFileResource> getFileReSourceListForQuery(List<TsFileResource> tsFileResources,
@@ -517,7 +1092,6 @@ public class StorageGroupProcessor {
 
     List<TsFileResource> tsfileResourcesForQuery = new ArrayList<>();
     for (TsFileResource tsFileResource : tsFileResources) {
-      // TODO: try filtering files if the query contains time filter
       if (!tsFileResource.containsDevice(deviceId)) {
         continue;
       }
@@ -562,31 +1136,34 @@ public class StorageGroupProcessor {
     List<ModificationFile> updatedModFiles = new ArrayList<>();
 
     try {
-      Long lastUpdateTime = latestTimeForEachDevice.get(deviceId);
       // no tsfile data, the delete operation is invalid
-      if (lastUpdateTime == null) {
+      if (latestTimeForEachDevice.values().stream()
+          .noneMatch(latestTimes -> latestTimes.containsKey(deviceId))) {
         logger.debug("No device {} in SG {}, deletion invalid", deviceId, storageGroupName);
         return;
       }
 
       // write log
       if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-        if (workSequenceTsFileProcessor != null) {
-          workSequenceTsFileProcessor.getLogNode()
-              .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
+        DeletePlan deletePlan = new DeletePlan(timestamp, new Path(deviceId, measurementId));
+        for (TsFileProcessor tsFileProcessor : workSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode().write(deletePlan);
         }
-        if (workUnSequenceTsFileProcessor != null) {
-          workUnSequenceTsFileProcessor.getLogNode()
-              .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
+        for (TsFileProcessor tsFileProcessor : workUnSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode().write(deletePlan);
         }
       }
 
       Path fullPath = new Path(deviceId, measurementId);
       Deletion deletion = new Deletion(fullPath, versionController.nextVersion(), timestamp);
-      if (mergingModification != null) {
-        //TODO check me when implementing the merge process.
-        mergingModification.write(deletion);
-        updatedModFiles.add(mergingModification);
+      mergeDeleteLock.lock();
+      try {
+        if (mergingModification != null) {
+          mergingModification.write(deletion);
+          updatedModFiles.add(mergingModification);
+        }
+      } finally {
+        mergeDeleteLock.unlock();
       }
 
       deleteDataInFiles(sequenceFileList, deletion, updatedModFiles);
@@ -599,6 +1176,8 @@ public class StorageGroupProcessor {
       }
       throw new IOException(e);
     } finally {
+      // the latest point may be deleted, it is read again by the next query
+      LastValueCache.getInstance().invalidate(deviceId, measurementId);
       writeUnlock();
     }
   }
@@ -628,24 +1207,301 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * Submit a MergeTask which merges the sealed unsequence files into the sealed sequence files
+   * overlapped by them.
+   *
+   * @return the future of the MergeTask, or null if the storage group is already merging or there
+   * is nothing to merge
+   */
+  public Future<Void> merge() {
+    writeLock();
+    try {
+      if (isMerging) {
+        logger.info("Storage group {} is merging, skip this merge", storageGroupName);
+        return null;
+      }
+      MergeTask mergeTask = selectMergeFiles();
+      if (mergeTask == null) {
+        logger.debug("Storage group {} has no unsequence file to merge", storageGroupName);
+        return null;
+      }
+      mergeDeleteLock.lock();
+      try {
+        mergingModification = new ModificationFile(
+            MergeRecoverPerformer.getMergingModsFile(mergeTask.getLogFile()).getPath());
+      } finally {
+        mergeDeleteLock.unlock();
+      }
+      isMerging = true;
+      logger.info("Storage group {} submits a merge of {} sequence files and {} unsequence files",
+          storageGroupName, mergeTask.getSeqFiles().size(), mergeTask.getUnseqFiles().size());
+      return MergeManager.getInstance().submit(mergeTask);
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  /**
+   * only called by merge(), thread-safety should be ensured by caller
+   */
+  private MergeTask selectMergeFiles() {
+    // only the leading sealed sequence files can be merged, otherwise the unsequence data of an
+    // unsealed file might be merged into a sealed file after it
+    List<TsFileResource> candidateSeqFiles = new ArrayList<>();
+    Map<String, Long> maxSeqEndTimes = new HashMap<>();
+    for (TsFileResource seqFile : sequenceFileList) {
+      if (!seqFile.isClosed()) {
+        break;
+      }
+      candidateSeqFiles.add(seqFile);
+      for (Entry<String, Long> entry : seqFile.getEndTimeMap().entrySet()) {
+        maxSeqEndTimes.merge(entry.getKey(), entry.getValue(), Math::max);
+      }
+    }
+
+    // only the leading unsequence files can be merged, because a newer unsequence file overwrites
+    // the older ones and must not be overwritten by them after they are merged
+    List<TsFileResource> unseqFiles = new ArrayList<>();
+    for (TsFileResource unseqFile : unSequenceFileList) {
+      if (!unseqFile.isClosed() || !isCoveredBySeqFiles(unseqFile, maxSeqEndTimes)) {
+        break;
+      }
+      unseqFiles.add(unseqFile);
+    }
+    if (unseqFiles.isEmpty()) {
+      return null;
+    }
+
+    List<TsFileResource> seqFiles = new ArrayList<>();
+    List<Map<String, Long>> seqLowerBounds = new ArrayList<>();
+    Map<String, Long> previousEndTimes = new HashMap<>();
+    for (TsFileResource seqFile : candidateSeqFiles) {
+      if (isOverlappedByUnseqFiles(seqFile, previousEndTimes, unseqFiles)) {
+        seqFiles.add(seqFile);
+        seqLowerBounds.add(new HashMap<>(previousEndTimes));
+      }
+      previousEndTimes.putAll(seqFile.getEndTimeMap());
+    }
+
+    long mergeVersion = versionController.nextVersion();
+    File logFile = new File(storageGroupSysDir, mergeVersion + MergeLogger.MERGE_LOG_SUFFIX);
+    return new MergeTask(storageGroupName, seqFiles, seqLowerBounds, unseqFiles,
+        new FileSchema(fileSchema.getMeasurementSchemaMap()), mergeVersion, logFile,
+        this::endMerge);
+  }
+
+  private boolean isCoveredBySeqFiles(TsFileResource unseqFile, Map<String, Long> maxSeqEndTimes) {
+    for (Entry<String, Long> entry : unseqFile.getEndTimeMap().entrySet()) {
+      Long maxSeqEndTime = maxSeqEndTimes.get(entry.getKey());
+      if (maxSeqEndTime == null || entry.getValue() > maxSeqEndTime) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param previousEndTimes the end time of each device in the sequence files before seqFile
+   */
+  private boolean isOverlappedByUnseqFiles(TsFileResource seqFile,
+      Map<String, Long> previousEndTimes, List<TsFileResource> unseqFiles) {
+    for (Entry<String, Long> entry : seqFile.getEndTimeMap().entrySet()) {
+      String deviceId = entry.getKey();
+      long lowerBound = previousEndTimes.getOrDefault(deviceId, Long.MIN_VALUE);
+      for (TsFileResource unseqFile : unseqFiles) {
+        if (unseqFile.containsDevice(deviceId)
+            && unseqFile.getStartTimeMap().get(deviceId) <= entry.getValue()
+            && unseqFile.getEndTimeMap().get(deviceId) > lowerBound) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * the callback of a MergeTask. If the task succeeds, the merged files are replaced by the new
+   * files atomically for queries, and are removed when the queries that may be using them end.
+   */
+  private void endMerge(MergeTask mergeTask, boolean merged) {
+    writeLock();
+    try {
+      if (merged) {
+        if (sequenceFileList.containsAll(mergeTask.getSeqFiles())
+            && unSequenceFileList.containsAll(mergeTask.getUnseqFiles())) {
+          swapMergedFiles(mergeTask);
+        } else {
+          logger.warn("The files of storage group {} are deleted during merge, discard the merge",
+              storageGroupName);
+          mergeTask.cleanUp();
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Storage group {} cannot replace the merged files, discard the merge",
+          storageGroupName, e);
+      mergeTask.cleanUp();
+    } finally {
+      mergeDeleteLock.lock();
+      try {
+        if (mergingModification != null) {
+          mergingModification.close();
+          Files.deleteIfExists(Paths.get(mergingModification.getFilePath()));
+          mergingModification = null;
+        }
+      } catch (IOException e) {
+        logger.error("Cannot remove the modification file of the merge in storage group {}",
+            storageGroupName, e);
+      } finally {
+        mergeDeleteLock.unlock();
+      }
+      isMerging = false;
+      writeUnlock();
+    }
+  }
+
+  /**
+   * only called by endMerge(), thread-safety should be ensured by caller
+   */
+  private void swapMergedFiles(MergeTask mergeTask) throws IOException {
+    List<TsFileResource> newResources = mergeTask.getNewResources();
+    List<File> tempFiles = mergeTask.getTempFiles();
+
+    // the .resource and .mods files are prepared before the new TsFiles are visible, so a failure
+    // can still be rolled back
+    try {
+      for (TsFileResource newResource : newResources) {
+        newResource.serialize();
+        for (Modification modification : mergingModification.getModifications()) {
+          newResource.getModFile().write(modification);
+        }
+        newResource.getModFile().close();
+      }
+    } catch (IOException e) {
+      for (TsFileResource newResource : newResources) {
+        newResource.remove();
+      }
+      throw e;
+    }
+    for (int i = 0; i < newResources.size(); i++) {
+      File newFile = newResources.get(i).getFile();
+      if (!tempFiles.get(i).renameTo(newFile)) {
+        for (int j = 0; j < i; j++) {
+          newResources.get(j).getFile().renameTo(tempFiles.get(j));
+        }
+        for (TsFileResource newResource : newResources) {
+          newResource.remove();
+        }
+        throw new IOException(
+            String.format("Cannot rename %s to %s", tempFiles.get(i), newFile));
+      }
+    }
+
+    for (int i = 0; i < newResources.size(); i++) {
+      int index = sequenceFileList.indexOf(mergeTask.getSeqFiles().get(i));
+      sequenceFileList.set(index, newResources.get(i));
+    }
+    unSequenceFileList.removeAll(mergeTask.getUnseqFiles());
+    sequenceFileIndex.invalidate();
+    unSequenceFileIndex.invalidate();
+
+    synchronized (runningQueryTokens) {
+      if (runningQueryTokens.isEmpty()) {
+        removeMergedFiles(mergeTask);
+      } else {
+        mergedFilesToRemove.add(new Pair<>(mergeTask, new HashSet<>(runningQueryTokens)));
+      }
+    }
+  }
+
+  /**
+   * remove the files merged by mergeTask and then its log, so that the merge will not be finished
+   * again in recovery.
+   */
+  private void removeMergedFiles(MergeTask mergeTask) {
+    List<TsFileResource> mergedFiles = new ArrayList<>(mergeTask.getSeqFiles());
+    mergedFiles.addAll(mergeTask.getUnseqFiles());
+    try {
+      for (TsFileResource mergedFile : mergedFiles) {
+        String filePath = mergedFile.getFile().getPath();
+        FileReaderManager.getInstance().closeFileAndRemoveReader(filePath);
+        TsFileMetaDataCache.getInstance().remove(filePath);
+        ChunkCache.getInstance().remove(filePath);
+        mergedFile.remove();
+      }
+      Files.deleteIfExists(mergeTask.getLogFile().toPath());
+    } catch (IOException e) {
+      logger.error("Cannot remove the merged files of storage group {}, they will be removed in "
+          + "the next recovery", storageGroupName, e);
+    }
+  }
+
+  /**
+   * begin a query on this storage group. The files merged after this call will not be removed
+   * before endQuery() is called with the returned token.
+   *
+   * @return a token for the query.
+   */
+  public int beginQuery() {
+    synchronized (runningQueryTokens) {
+      int token = nextQueryToken++;
+      runningQueryTokens.add(token);
+      return token;
+    }
+  }
+
+  /**
+   * end a query on this storage group. If some TsFile has been merged or dropped and this query is
+   * the last query that may use it, the TsFile is removed.
+   */
+  public void endQuery(int token) {
+    synchronized (runningQueryTokens) {
+      if (!runningQueryTokens.remove(token)) {
+        return;
+      }
+      Iterator<Pair<MergeTask, Set<Integer>>> iterator = mergedFilesToRemove.iterator();
+      while (iterator.hasNext()) {
+        Pair<MergeTask, Set<Integer>> mergedFiles = iterator.next();
+        mergedFiles.right.remove(token);
+        if (mergedFiles.right.isEmpty()) {
+          removeMergedFiles(mergedFiles.left);
+          iterator.remove();
+        }
+      }
+      Iterator<Pair<List<TsFileResource>, Set<Integer>>> droppedIterator =
+          droppedFilesToRemove.iterator();
+      while (droppedIterator.hasNext()) {
+        Pair<List<TsFileResource>, Set<Integer>> droppedFiles = droppedIterator.next();
+        droppedFiles.right.remove(token);
+        if (droppedFiles.right.isEmpty()) {
+          removeDroppedFiles(droppedFiles.left);
+          droppedIterator.remove();
+        }
+      }
+    }
+  }
+
   /**
    * when close an TsFileProcessor, update its EndTimeMap immediately
    *
    * @param tsFileProcessor processor to be closed
    */
-  private void updateEndTimeMap(TsFileProcessor tsFileProcessor) {
+  private void updateEndTimeMap(TsFileProcessor tsFileProcessor, long timePartition) {
     TsFileResource resource = tsFileProcessor.getTsFileResource();
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
     for (Entry<String, Long> startTime : resource.getStartTimeMap().entrySet()) {
       String deviceId = startTime.getKey();
-      resource.forceUpdateEndTime(deviceId, latestTimeForEachDevice.get(deviceId));
+      resource.forceUpdateEndTime(deviceId, latestTimes.get(deviceId));
     }
   }
 
 
-  private boolean updateLatestFlushTimeCallback() {
-    // update the largest timestamp in the last flushing memtable
-    for (Entry<String, Long> entry : latestTimeForEachDevice.entrySet()) {
-      latestFlushedTimeForEachDevice.put(entry.getKey(), entry.getValue());
+  private boolean updateLatestFlushTimeCallback(long timePartition) {
+    // update the largest timestamp in the last flushing memtable of the partition
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
+    if (latestTimes != null) {
+      latestFlushedTimeForEachDevice.computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+          .putAll(latestTimes);
     }
     return true;
   }
@@ -663,10 +1519,14 @@ public class StorageGroupProcessor {
       closeQueryLock.writeLock().unlock();
     }
     //closingSequenceTsFileProcessor is a thread safety class.
+    // the indexes are rebuilt so that the closed file is looked up by its time range, an index
+    // built concurrently may still treat it as unclosed, which is slower but correct
     if (closingSequenceTsFileProcessor.contains(tsFileProcessor)) {
       closingSequenceTsFileProcessor.remove(tsFileProcessor);
+      sequenceFileIndex.invalidate();
     } else {
       closingUnSequenceTsFileProcessor.remove(tsFileProcessor);
+      unSequenceFileIndex.invalidate();
     }
     logger.info("signal closing storage group condition in {}", storageGroupName);
     synchronized (closeStorageGroupCondition) {
@@ -675,8 +1535,8 @@ public class StorageGroupProcessor {
   }
 
 
-  public TsFileProcessor getWorkSequenceTsFileProcessor() {
-    return workSequenceTsFileProcessor;
+  public TsFileProcessor getWorkSequenceTsFileProcessor(long timePartition) {
+    return workSequenceTsFileProcessors.get(timePartition);
   }
 
   @FunctionalInterface
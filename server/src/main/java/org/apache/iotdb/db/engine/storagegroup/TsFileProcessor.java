@@ -20,7 +20,7 @@ package org.apache.iotdb.db.engine.storagegroup;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -35,7 +35,6 @@ import org.apache.iotdb.db.engine.flush.FlushManager;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.engine.flush.NotifyFlushMemTable;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
-import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
@@ -44,6 +43,7 @@ import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor.CloseTsFile
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.rescon.MemTablePool;
@@ -83,7 +83,12 @@ public class TsFileProcessor {
    */
   private volatile boolean shouldClose;
 
-  private IMemTable workMemTable;
+  /**
+   * It is created by the first insertion after the previous one is flushed. Insertions of different
+   * devices may run concurrently, while it is only switched when no insertion is running, which is
+   * ensured by the StorageGroupProcessor.
+   */
+  private volatile IMemTable workMemTable;
 
   /**
    * sync this object in query() and asyncTryToFlush()
@@ -103,7 +108,7 @@ public class TsFileProcessor {
    */
   private Supplier updateLatestFlushTimeCallback;
 
-  private WriteLogNode logNode;
+  private volatile WriteLogNode logNode;
 
   private boolean sequence;
 
@@ -133,14 +138,10 @@ public class TsFileProcessor {
    */
   public boolean insert(InsertPlan insertPlan) {
 
-    if (workMemTable == null) {
-      // TODO change the impl of getAvailableMemTable to non-blocking
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-
-      // no empty memtable, return failure
-      if (workMemTable == null) {
-        return false;
-      }
+    IMemTable memTable = getOrCreateWorkMemTable();
+    // no empty memtable, return failure
+    if (memTable == null) {
+      return false;
     }
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
@@ -160,11 +161,65 @@ public class TsFileProcessor {
     }
 
     // insert insertPlan to the work memtable
-    workMemTable.insert(insertPlan);
+    memTable.insert(insertPlan);
+
+    return true;
+  }
+
+  /**
+   * insert the rows of a batch plan in its current range into the workMemtable, with one WAL
+   * entry for all of them.
+   *
+   * @param batchInsertPlan physical plan of batch insertion
+   * @return succeed or fail
+   */
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan) {
+
+    IMemTable memTable = getOrCreateWorkMemTable();
+    // no empty memtable, return failure
+    if (memTable == null) {
+      return false;
+    }
+
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
+      try {
+        getLogNode().write(batchInsertPlan);
+      } catch (IOException e) {
+        logger.error("write WAL failed", e);
+        return false;
+      }
+    }
+    String deviceId = batchInsertPlan.getDeviceId();
+    tsFileResource.updateStartTime(deviceId, batchInsertPlan.getMinTime());
+    //for sequence tsfile, we update the endTime only when the file is prepared to be closed.
+    //for unsequence tsfile, we have to update the endTime for each insertion.
+    if (!sequence) {
+      tsFileResource.updateEndTime(deviceId, batchInsertPlan.getMaxTime());
+    }
+
+    memTable.insertBatch(batchInsertPlan);
 
     return true;
   }
 
+  /**
+   * @return the working memtable, which is taken from the MemTablePool if there is not, or null if
+   * no memtable is available
+   */
+  private IMemTable getOrCreateWorkMemTable() {
+    IMemTable memTable = workMemTable;
+    if (memTable == null) {
+      synchronized (this) {
+        if (workMemTable == null) {
+          // TODO change the impl of getAvailableMemTable to non-blocking
+          workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
+        }
+        memTable = workMemTable;
+      }
+    }
+    return memTable;
+  }
+
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
    * <= 'timestamp' in the deletion. <br/>
@@ -515,7 +570,7 @@ public class TsFileProcessor {
       String measurementId, TSDataType dataType, Map<String, String> props, QueryContext context) {
     flushQueryLock.readLock().lock();
     try {
-      MemSeriesLazyMerger memSeriesLazyMerger = new MemSeriesLazyMerger();
+      List<ReadOnlyMemChunk> memChunks = new ArrayList<>();
       for (IMemTable flushingMemTable : flushingMemTables) {
         if (flushingMemTable.isSignalMemTable()) {
           continue;
@@ -523,19 +578,16 @@ public class TsFileProcessor {
         ReadOnlyMemChunk memChunk = flushingMemTable
             .query(deviceId, measurementId, dataType, props);
         if (memChunk != null) {
-          memSeriesLazyMerger.addMemSeries(memChunk);
+          memChunks.add(memChunk);
         }
       }
       if (workMemTable != null) {
         ReadOnlyMemChunk memChunk = workMemTable.query(deviceId, measurementId, dataType, props);
         if (memChunk != null) {
-          memSeriesLazyMerger.addMemSeries(memChunk);
+          memChunks.add(memChunk);
         }
       }
-      // memSeriesLazyMerger has handled the props,
-      // so we do not need to handle it again in the following readOnlyMemChunk
-      ReadOnlyMemChunk timeValuePairSorter = new ReadOnlyMemChunk(dataType, memSeriesLazyMerger,
-          Collections.emptyMap());
+      ReadOnlyMemChunk timeValuePairSorter = new ReadOnlyMemChunk(dataType, memChunks);
 
       ModificationFile modificationFile = tsFileResource.getModFile();
       List<Modification> modifications = context.getPathModifications(modificationFile,
@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
@@ -78,8 +79,9 @@ public class TsFileResource {
 
   public TsFileResource(File file, TsFileProcessor processor) {
     this.file = file;
-    this.startTimeMap = new HashMap<>();
-    this.endTimeMap = new HashMap<>();
+    // the devices of an unsealed file are inserted concurrently and queried meanwhile
+    this.startTimeMap = new ConcurrentHashMap<>();
+    this.endTimeMap = new ConcurrentHashMap<>();
     this.processor = processor;
   }
 
@@ -217,6 +219,22 @@ public class TsFileResource {
     chunkMetaDatas = null;
   }
 
+  /**
+   * close this resource and delete the TsFile with its .resource and .mods files.
+   */
+  public void remove() throws IOException {
+    close();
+    deleteIfExists(file);
+    deleteIfExists(new File(file.getPath() + RESOURCE_SUFFIX));
+    deleteIfExists(new File(file.getPath() + ModificationFile.FILE_SUFFIX));
+  }
+
+  private static void deleteIfExists(File file) throws IOException {
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Cannot delete " + file);
+    }
+  }
+
   public TsFileProcessor getUnsealedFileProcessor() {
     return processor;
   }
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * TsFileResourceTimeIndex finds the TsFileResources in a list that may hold data of a device in
+ * the time range of a query, without checking every resource.
+ * <p>
+ * The index of a device is built on its first query. It sorts the closed resources that contain
+ * the device by their start times and keeps a running maximum of their end times. Both are
+ * non-decreasing, so binary search finds the entries that may satisfy the time filter. The time
+ * ranges of unclosed resources still change, so they are checked on each query.
+ * <p>
+ * The owner must call invalidate() after changing the list. The index must be read and
+ * invalidated under the same lock that guards the list. Closing a resource does not change the
+ * list. An index built while a resource was unclosed stays correct, it just checks that
+ * resource on each query.
+ */
+class TsFileResourceTimeIndex {
+
+  private final List<TsFileResource> resources;
+
+  private final Map<String, DeviceIndex> deviceIndexMap = new ConcurrentHashMap<>();
+
+  TsFileResourceTimeIndex(List<TsFileResource> resources) {
+    this.resources = resources;
+  }
+
+  void invalidate() {
+    deviceIndexMap.clear();
+  }
+
+  /**
+   * @param timeFilter a filter on time only, or null to select all the resources of the device
+   * @return the resources that may have data of the device satisfying timeFilter, in their order
+   * in the list
+   */
+  List<TsFileResource> getResources(String deviceId, Filter timeFilter) {
+    DeviceIndex deviceIndex = deviceIndexMap.computeIfAbsent(deviceId, this::buildDeviceIndex);
+    int[] positions = deviceIndex.select(timeFilter);
+    int selectedNum = positions.length;
+    int[] selected = Arrays.copyOf(positions, selectedNum + deviceIndex.unclosedPositions.length);
+    for (int position : deviceIndex.unclosedPositions) {
+      TsFileResource resource = resources.get(position);
+      Long startTime = resource.getStartTimeMap().get(deviceId);
+      if (startTime == null) {
+        continue;
+      }
+      // the end time of an unclosed sequence file is unknown
+      Long endTime = resource.getEndTimeMap().get(deviceId);
+      if (timeFilter == null || timeFilter.satisfyStartEndTime(startTime,
+          endTime == null ? Long.MAX_VALUE : endTime)) {
+        selected[selectedNum++] = position;
+      }
+    }
+    Arrays.sort(selected, 0, selectedNum);
+    List<TsFileResource> result = new ArrayList<>(selectedNum);
+    for (int i = 0; i < selectedNum; i++) {
+      result.add(resources.get(selected[i]));
+    }
+    return result;
+  }
+
+  private DeviceIndex buildDeviceIndex(String deviceId) {
+    List<Integer> unclosedPositions = new ArrayList<>();
+    List<long[]> entries = new ArrayList<>();
+    for (int i = 0; i < resources.size(); i++) {
+      TsFileResource resource = resources.get(i);
+      if (!resource.isClosed()) {
+        unclosedPositions.add(i);
+        continue;
+      }
+      Long startTime = resource.getStartTimeMap().get(deviceId);
+      if (startTime != null) {
+        Long endTime = resource.getEndTimeMap().get(deviceId);
+        entries.add(new long[]{startTime, endTime == null ? Long.MAX_VALUE : endTime, i});
+      }
+    }
+    entries.sort((e1, e2) -> Long.compare(e1[0], e2[0]));
+    return new DeviceIndex(entries, unclosedPositions);
+  }
+
+  private static class DeviceIndex {
+
+    private final long[] startTimes;
+    private final long[] endTimes;
+    /**
+     * maxEndTimes[i] is the max of endTimes[0..i]
+     */
+    private final long[] maxEndTimes;
+    private final int[] positions;
+    private final int[] unclosedPositions;
+
+    private DeviceIndex(List<long[]> entries, List<Integer> unclosedPositions) {
+      int size = entries.size();
+      startTimes = new long[size];
+      endTimes = new long[size];
+      maxEndTimes = new long[size];
+      positions = new int[size];
+      long maxEndTime = Long.MIN_VALUE;
+      for (int i = 0; i < size; i++) {
+        long[] entry = entries.get(i);
+        startTimes[i] = entry[0];
+        endTimes[i] = entry[1];
+        maxEndTime = Math.max(maxEndTime, entry[1]);
+        maxEndTimes[i] = maxEndTime;
+        positions[i] = (int) entry[2];
+      }
+      this.unclosedPositions = unclosedPositions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return positions of the closed resources that may satisfy timeFilter, not sorted
+     */
+    private int[] select(Filter timeFilter) {
+      if (timeFilter == null) {
+        return positions;
+      }
+      // entries after hi start after every time in the filter, which can be told by binary search
+      // as whether a filter has a time in [t, +inf) is monotonic in t
+      int lo = 0;
+      int hi = startTimes.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (timeFilter.satisfyStartEndTime(startTimes[mid], Long.MAX_VALUE)) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      int end = lo;
+      // likewise, entries before begin end before every time in the filter
+      lo = 0;
+      hi = end;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (timeFilter.satisfyStartEndTime(Long.MIN_VALUE, maxEndTimes[mid])) {
+          hi = mid;
+        } else {
+          lo = mid + 1;
+        }
+      }
+      int begin = lo;
+      int[] selected = new int[end - begin];
+      int selectedNum = 0;
+      for (int i = begin; i < end; i++) {
+        if (timeFilter.satisfyStartEndTime(startTimes[i], endTimes[i])) {
+          selected[selectedNum++] = positions[i];
+        }
+      }
+      return selectedNum == selected.length ? selected : Arrays.copyOf(selected, selectedNum);
+    }
+  }
+}
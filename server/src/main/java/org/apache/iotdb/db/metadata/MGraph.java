@@ -50,6 +50,19 @@ public class MGraph implements Serializable {
     ptreeMap = new HashMap<>();
   }
 
+  MGraph(MTree mtree, HashMap<String, PTree> ptreeMap) {
+    this.mtree = mtree;
+    this.ptreeMap = ptreeMap;
+  }
+
+  MTree getMTree() {
+    return mtree;
+  }
+
+  Map<String, PTree> getPTreeMap() {
+    return ptreeMap;
+  }
+
   /**
    * Add a {@code PTree} to current {@code MGraph}.
    */
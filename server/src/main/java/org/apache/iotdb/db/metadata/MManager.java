@@ -21,9 +21,11 @@ package org.apache.iotdb.db.metadata;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,7 +33,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
 import org.apache.iotdb.db.engine.StorageEngine;
@@ -65,7 +73,12 @@ public class MManager {
   private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   // the log file seriesPath
   private String logFilePath;
-  private MGraph mgraph;
+  private String snapshotFilePath;
+  // lines appended to the log since the last snapshot, guarded by lock
+  private int logLinesSinceSnapshot;
+  private AtomicBoolean snapshotRunning = new AtomicBoolean(false);
+  // modified with the write lock held, but paths are resolved through it without any lock
+  private volatile MGraph mgraph;
   private BufferedWriter logWriter;
   private boolean writeToLog;
   private String schemaDir;
@@ -91,6 +104,7 @@ public class MManager {
       }
     }
     logFilePath = schemaDir + File.separator + MetadataConstant.METADATA_LOG;
+    snapshotFilePath = schemaDir + File.separator + MetadataConstant.METADATA_SNAPSHOT;
     writeToLog = false;
 
     int cacheSize = IoTDBDescriptor.getInstance().getConfig().getmManagerCacheSize();
@@ -147,6 +161,15 @@ public class MManager {
             .max(Integer::compareTo).get();
       }
       writeToLog = true;
+      int snapshotInterval = IoTDBDescriptor.getInstance().getConfig().getSchemaSnapshotInterval();
+      if (snapshotInterval > 0 && logLinesSinceSnapshot >= snapshotInterval) {
+        // so that the next start does not have to replay the same lines again
+        try {
+          takeSnapshot();
+        } catch (IOException e) {
+          logger.error("Cannot take a snapshot of the metadata", e);
+        }
+      }
     } catch (PathErrorException | IOException | MetadataErrorException e) {
       mgraph = new MGraph(ROOT_NAME);
       logger.error("Cannot read MGraph from file, using an empty new one", e);
@@ -157,19 +180,118 @@ public class MManager {
   }
 
 
+  /**
+   * load the latest snapshot if there is one and then replay the log after it.
+   */
   private void initFromLog(File logFile)
       throws IOException, PathErrorException, MetadataErrorException {
-    // init the metadata from the operation log
     mgraph = new MGraph(ROOT_NAME);
+    long logLength = initFromSnapshot(logFile);
+    int replayedLines = 0;
+    // init the metadata from the operation log
     if (logFile.exists()) {
-      try (FileReader fr = new FileReader(logFile);
-          BufferedReader br = new BufferedReader(fr)) {
+      try (InputStream inputStream = new FileInputStream(logFile)) {
+        long skipped = 0;
+        while (skipped < logLength) {
+          skipped += inputStream.skip(logLength - skipped);
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
         String cmd;
         while ((cmd = br.readLine()) != null) {
           operation(cmd);
+          replayedLines++;
         }
       }
     }
+    logLinesSinceSnapshot = replayedLines;
+    logger.info("Replayed {} lines of the metadata log after {} bytes", replayedLines, logLength);
+  }
+
+  /**
+   * @return the length of the log covered by the snapshot, or 0 if there is no usable snapshot
+   */
+  private long initFromSnapshot(File logFile) throws PathErrorException, MetadataErrorException {
+    File snapshotFile = new File(snapshotFilePath);
+    if (!snapshotFile.exists()) {
+      return 0;
+    }
+    MetadataSnapshot snapshot;
+    try {
+      snapshot = MetadataSnapshot.read(snapshotFile);
+    } catch (IOException e) {
+      logger.warn("Cannot read the metadata snapshot {}, replay the whole log instead",
+          snapshotFile, e);
+      return 0;
+    }
+    if (snapshot.getLogLength() > logFile.length()) {
+      logger.warn("The metadata snapshot {} covers {} bytes but the log only has {}, replay the "
+          + "whole log instead", snapshotFile, snapshot.getLogLength(), logFile.length());
+      return 0;
+    }
+    mgraph = snapshot.getMGraph();
+    seriesNumberInStorageGroups = mgraph.countSeriesNumberInEachStorageGroup();
+    int seriesNum = 0;
+    for (int num : seriesNumberInStorageGroups.values()) {
+      seriesNum += num;
+    }
+    try {
+      IoTDBConfigDynamicAdapter.getInstance()
+          .addOrDeleteStorageGroup(seriesNumberInStorageGroups.size());
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(seriesNum);
+    } catch (ConfigAdjusterException e) {
+      throw new MetadataErrorException(e);
+    }
+    return snapshot.getLogLength();
+  }
+
+  /**
+   * Called after a line is appended to the log with the write lock held. A snapshot is taken in
+   * the background once enough lines have been appended since the last one.
+   */
+  private void onLogWritten() {
+    logLinesSinceSnapshot++;
+    int interval = IoTDBDescriptor.getInstance().getConfig().getSchemaSnapshotInterval();
+    if (interval > 0 && logLinesSinceSnapshot >= interval
+        && snapshotRunning.compareAndSet(false, true)) {
+      ExecutorService snapshotPool = IoTDBThreadPoolFactory
+          .newSingleThreadExecutor(ThreadName.METADATA_SNAPSHOT.getName());
+      snapshotPool.execute(this::snapshotInBackground);
+      // the thread exits once the snapshot is taken
+      snapshotPool.shutdown();
+    }
+  }
+
+  private void snapshotInBackground() {
+    lock.readLock().lock();
+    try {
+      // the metadata may have been cleared since the snapshot was triggered
+      if (logLinesSinceSnapshot > 0) {
+        takeSnapshot();
+      }
+    } catch (IOException e) {
+      logger.error("Cannot take a snapshot of the metadata", e);
+    } finally {
+      lock.readLock().unlock();
+      snapshotRunning.set(false);
+    }
+  }
+
+  /**
+   * write the current metadata and the length of the log it covers into the snapshot file.
+   * Modifications are blocked meanwhile, but queries are not.
+   */
+  void takeSnapshot() throws IOException {
+    lock.readLock().lock();
+    try {
+      long startTime = System.currentTimeMillis();
+      long logLength = new File(logFilePath).length();
+      MetadataSnapshot.write(mgraph, logLength, new File(snapshotFilePath));
+      logLinesSinceSnapshot = 0;
+      logger.info("Took a snapshot of the metadata covering {} bytes of the log in {} ms",
+          logLength, System.currentTimeMillis() - startTime);
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   /**
@@ -183,6 +305,7 @@ public class MManager {
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
+      this.logLinesSinceSnapshot = 0;
       if (logWriter != null) {
         logWriter.close();
         logWriter = null;
@@ -194,6 +317,18 @@ public class MManager {
     }
   }
 
+  /**
+   * drop the metadata in memory and load it again from the snapshot and the log, as a restart
+   * does.
+   */
+  void reload() {
+    clear();
+    // the log is replayed without being appended to again
+    writeToLog = false;
+    initialized = false;
+    init();
+  }
+
   private void operation(String cmd)
       throws PathErrorException, IOException, MetadataErrorException {
     //see addPathToMTree() to get the detailed format of the cmd
@@ -351,6 +486,7 @@ public class MManager {
     lock.writeLock().lock();
     try {
       mgraph.addPathToMTree(path, dataType, encoding, compressor, props);
+      checkAndGetDataTypeCache.remove(path);
       String storageName = mgraph.getStorageGroupNameByPath(path);
       int size = seriesNumberInStorageGroups.get(mgraph.getStorageGroupNameByPath(path));
       seriesNumberInStorageGroups
@@ -369,6 +505,7 @@ public class MManager {
         }
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -498,14 +635,14 @@ public class MManager {
   private String deletePathFromMTree(String path) throws PathErrorException, IOException {
     lock.writeLock().lock();
     try {
-      checkAndGetDataTypeCache.clear();
-      mNodeCache.clear();
       String dataFileName = mgraph.deletePath(path);
+      invalidateCache(path);
       if (writeToLog) {
         BufferedWriter writer = getLogWriter();
         writer.write(MetadataOperationType.DELETE_PATH_FROM_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
       String storageGroup = getStorageGroupNameByPath(path);
       int size = seriesNumberInStorageGroups.get(storageGroup);
@@ -533,16 +670,16 @@ public class MManager {
   public void setStorageLevelToMTree(String path) throws MetadataErrorException {
     lock.writeLock().lock();
     try {
-      checkAndGetDataTypeCache.clear();
-      mNodeCache.clear();
       IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(1);
       mgraph.setStorageLevel(path);
+      invalidateCache(path);
       seriesNumberInStorageGroups.put(path, 0);
       if (writeToLog) {
         BufferedWriter writer = getLogWriter();
         writer.write(MetadataOperationType.SET_STORAGE_LEVEL_TO_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } catch (IOException | ConfigAdjusterException e) {
       throw new MetadataErrorException(e);
@@ -558,6 +695,22 @@ public class MManager {
     }
   }
 
+  /**
+   * drop the cached entries of the path, its ancestors and its descendants, which are the only
+   * ones a modification of the path can affect. Must be called with the write lock held.
+   */
+  private void invalidateCache(String path) {
+    Predicate<String> related = key -> key.equals(path) || isAncestor(key, path)
+        || isAncestor(path, key);
+    checkAndGetDataTypeCache.removeIf(related);
+    mNodeCache.removeIf(related);
+  }
+
+  private static boolean isAncestor(String ancestor, String path) {
+    return path.length() > ancestor.length() && path.startsWith(ancestor)
+        && path.charAt(ancestor.length()) == IoTDBConstant.PATH_SEPARATOR;
+  }
+
   /**
    * function for checking if the given path is storage level of mTree or not.
    *
@@ -585,6 +738,7 @@ public class MManager {
         writer.write(MetadataOperationType.ADD_A_PTREE + "," + ptreeRootName);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -605,6 +759,7 @@ public class MManager {
         writer.write(MetadataOperationType.ADD_A_PATH_TO_PTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -624,6 +779,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_PATH_FROM_PTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -643,6 +799,7 @@ public class MManager {
         writer.write(MetadataOperationType.LINK_MNODE_TO_PTREE + "," + path + "," + mpath);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -663,6 +820,7 @@ public class MManager {
         writer.write(MetadataOperationType.UNLINK_MNODE_FROM_PTREE + "," + path + "," + mpath);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -675,52 +833,28 @@ public class MManager {
    * @return TSDataType
    */
   public TSDataType getSeriesType(String fullPath) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePath(fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePath(fullPath).getType();
   }
 
   /**
    * function for getting series type.
    */
   public TSDataType getSeriesType(MNode node, String fullPath) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePath(node, fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePath(node, fullPath).getType();
   }
 
   /**
    * function for getting series type with check.
    */
   TSDataType getSeriesTypeWithCheck(MNode node, String fullPath) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePathWithCheck(node, fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePathWithCheck(node, fullPath).getType();
   }
 
   /**
    * unction for getting series type with check.
    */
   TSDataType getSeriesTypeWithCheck(String fullPath) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePathWithCheck(fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePathWithCheck(fullPath).getType();
   }
 
   /**
@@ -1004,18 +1138,18 @@ public class MManager {
    * function for getting node by path.
    */
   MNode getNodeByPath(String path) throws PathErrorException {
-    lock.readLock().lock();
-    try {
-      return mgraph.getNodeByPath(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getNodeByPath(path);
   }
 
   /**
    * function for getting node by deviceId from cache.
    */
   public MNode getNodeByDeviceIdFromCache(String deviceId) throws PathErrorException {
+    MNode node = mNodeCache.getIfPresent(deviceId);
+    if (node != null) {
+      return node;
+    }
+    // the lock keeps a modification from invalidating the entry while it is being loaded
     lock.readLock().lock();
     try {
       return mNodeCache.get(deviceId);
@@ -1030,12 +1164,7 @@ public class MManager {
    * function for getting node by path with check.
    */
   MNode getNodeByPathWithCheck(String path) throws PathErrorException {
-    lock.readLock().lock();
-    try {
-      return mgraph.getNodeByPathWithCheck(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getNodeByPathWithCheck(path);
   }
 
   /**
@@ -1043,26 +1172,14 @@ public class MManager {
    * leaf node.
    */
   private MeasurementSchema getSchemaForOnePath(String path) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePath(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePath(path);
   }
 
   /**
    * function for getting schema for one path.
    */
   private MeasurementSchema getSchemaForOnePath(MNode node, String path) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePath(node, path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePath(node, path);
   }
 
   /**
@@ -1070,26 +1187,14 @@ public class MManager {
    */
   private MeasurementSchema getSchemaForOnePathWithCheck(MNode node, String path)
       throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePathWithCheck(node, path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePathWithCheck(node, path);
   }
 
   /**
    * function for getting schema for one path with check.
    */
   private MeasurementSchema getSchemaForOnePathWithCheck(String path) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePathWithCheck(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePathWithCheck(path);
   }
 
   /**
@@ -1170,10 +1275,17 @@ public class MManager {
    * @return {@link PathCheckRet}
    */
   PathCheckRet checkPathStorageLevelAndGetDataType(String path) throws PathErrorException {
+    PathCheckRet ret = checkAndGetDataTypeCache.getIfPresent(path);
+    if (ret != null) {
+      return ret;
+    }
+    lock.readLock().lock();
     try {
       return checkAndGetDataTypeCache.get(path);
     } catch (CacheException e) {
       throw new PathErrorException(e);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -19,9 +19,16 @@
 package org.apache.iotdb.db.metadata;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -30,27 +37,45 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 /**
  * This class is the implementation of Metadata Node where "MNode" is the shorthand of "Metadata
  * Node". One MNode instance represents one node in the Metadata Tree
+ *
+ * The children are kept in a small array while there are at most MAX_ARRAY_CHILDREN of them, which
+ * is replaced by a copy on every modification, and in a concurrent map once there are more. Either
+ * way a path can be resolved without any lock while the tree is being modified, as long as the
+ * modifications themselves are serialized. The order in which the children are added is
+ * remembered so that they are still listed in that order.
+ *
+ * The schema of a leaf is taken from {@link MeasurementSchemaPool} and shared with the other
+ * leaves of the same name and schema, so it must not be modified.
  */
 public class MNode implements Serializable {
 
   private static final long serialVersionUID = -770028375899514063L;
 
+  static final int MAX_ARRAY_CHILDREN = 8;
+  private static final MNode[] NO_CHILDREN = new MNode[0];
+
   // The name of the MNode
   private String name;
   // Whether current node is a leaf in the Metadata Tree
   private boolean isLeaf;
   // Whether current node is Storage Level in the Metadata Tree
-  private boolean isStorageLevel;
+  private volatile boolean isStorageLevel;
   // Map for the schema in this storage group
   private Map<String, MeasurementSchema> schemaMap;
   private Map<String, Integer> numSchemaMap;
   // Corresponding data file name for current node
-  private String dataFileName;
+  private volatile String dataFileName;
   // Column's Schema for one timeseries represented by current node if current
   // node is one leaf
   private MeasurementSchema schema;
   private MNode parent;
-  private Map<String, MNode> children;
+  // the children in the order they were added, null once they are moved into childMap
+  private volatile MNode[] childArray;
+  private volatile Map<String, MNode> childMap;
+  // the position of this node among the children of its parent, only used in childMap
+  private int order;
+  // the position of the next child added to childMap
+  private int nextChildOrder;
 
   /**
    * Constructor of MNode.
@@ -61,14 +86,23 @@ public class MNode implements Serializable {
     this.isLeaf = isLeaf;
     this.isStorageLevel = false;
     if (!isLeaf) {
-      children = new LinkedHashMap<>();
+      childArray = NO_CHILDREN;
     }
   }
 
   public MNode(String name, MNode parent, TSDataType dataType, TSEncoding encoding,
       CompressionType type) {
-    this(name, parent, true);
-    this.schema = new MeasurementSchema(name, dataType, encoding, type);
+    this(name, parent, dataType, encoding, type, null);
+  }
+
+  /**
+   * Constructor of a leaf, whose name is the measurement id shared with its schema.
+   */
+  public MNode(String name, MNode parent, TSDataType dataType, TSEncoding encoding,
+      CompressionType type, Map<String, String> props) {
+    this(null, parent, true);
+    this.schema = MeasurementSchemaPool.getInstance().get(name, dataType, encoding, type, props);
+    this.setName(schema.getMeasurementId());
   }
 
   public boolean isStorageLevel() {
@@ -109,31 +143,81 @@ public class MNode implements Serializable {
    * function for checking whether mnode's children contain the given key.
    */
   public boolean hasChild(String key) {
-    if (!isLeaf) {
-      return this.children.containsKey(key);
-    }
-    return false;
+    return getChild(key) != null;
   }
 
   /**
-   * function for adding the given key to the given child mnode.
+   * function for adding the given key to the given child mnode. The key must be the name of the
+   * child.
    */
   public void addChild(String key, MNode child) {
-    if (!isLeaf) {
-      this.children.put(key, child);
+    if (isLeaf) {
+      return;
+    }
+    MNode[] array = childArray;
+    if (array == null) {
+      child.order = nextChildOrder++;
+      childMap.put(key, child);
+      return;
     }
+    for (int i = 0; i < array.length; i++) {
+      if (array[i].getName().equals(key)) {
+        MNode[] newArray = array.clone();
+        newArray[i] = child;
+        childArray = newArray;
+        return;
+      }
+    }
+    if (array.length < MAX_ARRAY_CHILDREN) {
+      MNode[] newArray = Arrays.copyOf(array, array.length + 1);
+      newArray[array.length] = child;
+      childArray = newArray;
+      return;
+    }
+    Map<String, MNode> map = new ConcurrentHashMap<>(array.length * 4);
+    for (MNode node : array) {
+      node.order = nextChildOrder++;
+      map.put(node.getName(), node);
+    }
+    child.order = nextChildOrder++;
+    map.put(key, child);
+    // readers that still see the array keep resolving paths through it
+    childMap = map;
+    childArray = null;
   }
 
   public void deleteChild(String key) {
-    children.remove(key);
+    MNode[] array = childArray;
+    if (array == null) {
+      childMap.remove(key);
+      return;
+    }
+    for (int i = 0; i < array.length; i++) {
+      if (array[i].getName().equals(key)) {
+        MNode[] newArray = new MNode[array.length - 1];
+        System.arraycopy(array, 0, newArray, 0, i);
+        System.arraycopy(array, i + 1, newArray, i, array.length - i - 1);
+        childArray = newArray;
+        return;
+      }
+    }
   }
 
   /**
    * function for getting the child mnode under the given key.
    */
   public MNode getChild(String key) {
-    if (!isLeaf) {
-      return children.get(key);
+    if (isLeaf) {
+      return null;
+    }
+    MNode[] array = childArray;
+    if (array == null) {
+      return childMap.get(key);
+    }
+    for (MNode child : array) {
+      if (child.getName().equals(key)) {
+        return child;
+      }
     }
     return null;
   }
@@ -146,7 +230,7 @@ public class MNode implements Serializable {
       return 1;
     } else {
       int leafCount = 0;
-      for (MNode child : this.children.values()) {
+      for (MNode child : getChildNodes()) {
         leafCount += child.getLeafCount();
       }
       return leafCount;
@@ -182,12 +266,71 @@ public class MNode implements Serializable {
     this.parent = parent;
   }
 
+  /**
+   * function for getting the children in the order they were added. The returned map is a copy,
+   * so use getChild() to look up a single child, getOrderedChildNodes() to visit the children in
+   * order and getChildNodes() to visit them when their order does not matter.
+   */
   public Map<String, MNode> getChildren() {
-    return children;
+    if (isLeaf) {
+      return null;
+    }
+    List<MNode> orderedChildren = getOrderedChildNodes();
+    Map<String, MNode> ret = new LinkedHashMap<>(orderedChildren.size() * 2);
+    for (MNode child : orderedChildren) {
+      ret.put(child.getName(), child);
+    }
+    return ret;
+  }
+
+  /**
+   * function for getting the children in the order they were added. They are not copied while
+   * there are at most MAX_ARRAY_CHILDREN of them, otherwise they are copied and sorted.
+   */
+  public List<MNode> getOrderedChildNodes() {
+    if (isLeaf) {
+      return Collections.emptyList();
+    }
+    MNode[] array = childArray;
+    if (array != null) {
+      return Collections.unmodifiableList(Arrays.asList(array));
+    }
+    List<MNode> orderedChildren = new ArrayList<>(childMap.values());
+    orderedChildren.sort(Comparator.comparingInt(child -> child.order));
+    return orderedChildren;
+  }
+
+  /**
+   * function for getting the children without copying them. Once there are more than
+   * MAX_ARRAY_CHILDREN children, they are not in the order they were added.
+   */
+  public Collection<MNode> getChildNodes() {
+    if (isLeaf) {
+      return Collections.emptyList();
+    }
+    MNode[] array = childArray;
+    return array != null ? Collections.unmodifiableList(Arrays.asList(array))
+        : Collections.unmodifiableCollection(childMap.values());
+  }
+
+  /**
+   * function for getting the number of children without copying them.
+   */
+  public int getChildrenNum() {
+    if (isLeaf) {
+      return 0;
+    }
+    MNode[] array = childArray;
+    return array != null ? array.length : childMap.size();
   }
 
   public void setChildren(Map<String, MNode> children) {
-    this.children = children;
+    this.childMap = null;
+    this.childArray = NO_CHILDREN;
+    this.nextChildOrder = 0;
+    for (Map.Entry<String, MNode> entry : children.entrySet()) {
+      addChild(entry.getKey(), entry.getValue());
+    }
   }
 
   public String getName() {
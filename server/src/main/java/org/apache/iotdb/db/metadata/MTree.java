@@ -82,10 +82,8 @@ public class MTree implements Serializable {
     MNode cur = findLeafParent(nodeNames);
     String levelPath = cur.getDataFileName();
 
-    MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dataType, encoding, compressor);
-    if ( props != null && !props.isEmpty()) {
-      leaf.getSchema().setProps(props);
-    }
+    MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dataType, encoding, compressor,
+        props);
     leaf.setDataFileName(levelPath);
     if (cur.isLeaf()) {
       throw new PathErrorException(
@@ -252,20 +250,20 @@ public class MTree implements Serializable {
       throw new PathErrorException(
           String.format("The storage group %s has been set", node.getDataFileName()));
     }
-    if (node.getChildren() == null) {
+    if (node.isLeaf()) {
       return;
     }
-    for (MNode child : node.getChildren().values()) {
+    for (MNode child : node.getChildNodes()) {
       checkStorageGroup(child);
     }
   }
 
   private void setDataFileName(String path, MNode node) {
     node.setDataFileName(path);
-    if (node.getChildren() == null) {
+    if (node.isLeaf()) {
       return;
     }
-    for (MNode child : node.getChildren().values()) {
+    for (MNode child : node.getChildNodes()) {
       setDataFileName(path, child);
     }
   }
@@ -284,11 +282,12 @@ public class MTree implements Serializable {
 
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR,cur.getName(),nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
     }
 
     // if the storage group node is deleted, the dataFileName should be
@@ -299,7 +298,7 @@ public class MTree implements Serializable {
     }
     cur.getParent().deleteChild(cur.getName());
     cur = cur.getParent();
-    while (cur != null && !MetadataConstant.ROOT.equals(cur.getName()) && cur.getChildren().size() == 0) {
+    while (cur != null && !MetadataConstant.ROOT.equals(cur.getName()) && cur.getChildrenNum() == 0) {
       if (cur.isStorageLevel()) {
         dataFileName = cur.getDataFileName();
         return dataFileName;
@@ -328,7 +327,7 @@ public class MTree implements Serializable {
     }
     if (("*").equals(nodes[idx])) {
       boolean res = false;
-      for (MNode child : node.getChildren().values()) {
+      for (MNode child : node.getChildNodes()) {
         res |= hasPath(child, nodes, idx + 1);
       }
       return res;
@@ -366,12 +365,7 @@ public class MTree implements Serializable {
   }
 
   private MNode getLeafByPath(String path) throws PathErrorException {
-    checkPath(path);
-    String[] node = path.split(DOUB_SEPARATOR);
-    MNode cur = getRoot();
-    for (int i = 1; i < node.length; i++) {
-      cur = cur.getChild(node[i]);
-    }
+    MNode cur = checkPath(path);
     if (!cur.isLeaf()) {
       throw new PathErrorException(String.format(NOT_LEAF_NODE, path));
     }
@@ -379,12 +373,7 @@ public class MTree implements Serializable {
   }
 
   private MNode getLeafByPath(MNode node, String path) throws PathErrorException {
-    checkPath(node, path);
-    String[] nodes = path.split(DOUB_SEPARATOR);
-    MNode cur = node.getChild(nodes[0]);
-    for (int i = 1; i < nodes.length; i++) {
-      cur = cur.getChild(nodes[i]);
-    }
+    MNode cur = checkPath(node, path);
     if (!cur.isLeaf()) {
       throw new PathErrorException(String.format(NOT_LEAF_NODE, path));
     }
@@ -393,17 +382,18 @@ public class MTree implements Serializable {
 
   private MNode getLeafByPathWithCheck(MNode node, String path) throws PathErrorException {
     String[] nodes = path.split(DOUB_SEPARATOR);
-    if (nodes.length < 1 || !node.hasChild(nodes[0])) {
+    MNode cur = nodes.length < 1 ? null : node.getChild(nodes[0]);
+    if (cur == null) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, path));
     }
 
-    MNode cur = node.getChild(nodes[0]);
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR,cur.getName(),nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
     }
     if (!cur.isLeaf()) {
       throw new PathErrorException(String.format(NOT_LEAF_NODE, path));
@@ -419,11 +409,12 @@ public class MTree implements Serializable {
 
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR,cur.getName(),nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
     }
     if (!cur.isLeaf()) {
       throw new PathErrorException(String.format(NOT_LEAF_NODE, path));
@@ -435,13 +426,7 @@ public class MTree implements Serializable {
    * function for getting node by path.
    */
   MNode getNodeByPath(String path) throws PathErrorException {
-    checkPath(path);
-    String[] node = path.split(DOUB_SEPARATOR);
-    MNode cur = getRoot();
-    for (int i = 1; i < node.length; i++) {
-      cur = cur.getChild(node[i]);
-    }
-    return cur;
+    return checkPath(path);
   }
 
   /**
@@ -456,11 +441,12 @@ public class MTree implements Serializable {
 
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR,cur.getName(),nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
       if (cur.isStorageLevel()) {
         fileLevelChecked = true;
       }
@@ -498,28 +484,28 @@ public class MTree implements Serializable {
     }
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR,cur.getName(),nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
     }
     return cur;
   }
 
-  private void checkPath(MNode node, String path) throws PathErrorException {
+  private MNode checkPath(MNode node, String path) throws PathErrorException {
     String[] nodes = path.split(DOUB_SEPARATOR);
-    if (nodes.length < 1) {
-      return;
-    }
     MNode cur = node;
     for (String node1 : nodes) {
-      if (!cur.hasChild(node1)) {
+      MNode child = cur.getChild(node1);
+      if (child == null) {
         throw new PathErrorException(
             String.format(NO_CHILD_ERROR, cur.getName(), node1));
       }
-      cur = cur.getChild(node1);
+      cur = child;
     }
+    return cur;
   }
 
   /**
@@ -587,7 +573,7 @@ public class MTree implements Serializable {
         findFileName(node.getChild(nodeReg), nodes, idx + 1, parent + node.getName() + ".", paths);
       }
     } else {
-      for (MNode child : node.getChildren().values()) {
+      for (MNode child : node.getOrderedChildNodes()) {
         findFileName(child, nodes, idx + 1, parent + node.getName() + ".", paths);
       }
     }
@@ -677,7 +663,7 @@ public class MTree implements Serializable {
   List<String> getLeafNodePathInNextLevel(String path) throws PathErrorException {
     List<String> ret = new ArrayList<>();
     MNode cur = checkPath(path);
-    for (MNode child : cur.getChildren().values()) {
+    for (MNode child : cur.getOrderedChildNodes()) {
       if (child.isLeaf()) {
         ret.add(path + "." + child.getName());
       }
@@ -720,7 +706,7 @@ public class MTree implements Serializable {
     }
     int sum = 0;
     if (!node.isLeaf()) {
-      for (MNode child : node.getChildren().values()) {
+      for (MNode child : node.getChildNodes()) {
         sum += getFileCountForOneNode(child);
       }
     }
@@ -735,7 +721,9 @@ public class MTree implements Serializable {
   ArrayList<String> getAllType() {
     ArrayList<String> res = new ArrayList<>();
     if (getRoot() != null) {
-      res.addAll(getRoot().getChildren().keySet());
+      for (MNode child : getRoot().getOrderedChildNodes()) {
+        res.add(child.getName());
+      }
     }
     return res;
   }
@@ -759,7 +747,7 @@ public class MTree implements Serializable {
       res.add(path);
       return;
     }
-    for (MNode childNode : node.getChildren().values()) {
+    for (MNode childNode : node.getChildNodes()) {
       findStorageGroup(childNode, path + "." + childNode.toString(), res);
     }
   }
@@ -783,9 +771,9 @@ public class MTree implements Serializable {
     if (node.isLeaf()) {
       deviceMap.put(path, 1);
     } else {
-      for (String child : node.getChildren().keySet()) {
+      for (MNode child : node.getChildNodes()) {
         String newPath = path + "." + node.getName();
-        putDeviceToMap(newPath, node.getChildren().get(child), deviceMap);
+        putDeviceToMap(newPath, child, deviceMap);
       }
     }
   }
@@ -858,7 +846,7 @@ public class MTree implements Serializable {
       }
       return;
     }
-    for (MNode child : node.getChildren().values()) {
+    for (MNode child : node.getChildNodes()) {
       putLeafToLeafMap(child, leafMap);
     }
   }
@@ -885,7 +873,7 @@ public class MTree implements Serializable {
         findPath(node.getChild(nodeReg), nodes, idx + 1, parent + node.getName() + ".", paths);
       }
     } else {
-      for (MNode child : node.getChildren().values()) {
+      for (MNode child : node.getOrderedChildNodes()) {
         findPath(child, nodes, idx + 1, parent + node.getName() + ".", paths);
       }
     }
@@ -921,7 +909,7 @@ public class MTree implements Serializable {
         findPath(node.getChild(nodeReg), nodes, idx + 1, parent + node.getName() + ".", res);
       }
     } else {
-      for (MNode child : node.getChildren().values()) {
+      for (MNode child : node.getOrderedChildNodes()) {
         findPath(child, nodes, idx + 1, parent + node.getName() + ".", res);
       }
     }
@@ -955,8 +943,8 @@ public class MTree implements Serializable {
 
   private JSONObject mnodeToJSON(MNode node) {
     JSONObject jsonObject = new JSONObject();
-    if (!node.isLeaf() && node.getChildren().size() > 0) {
-      for (MNode child : node.getChildren().values()) {
+    if (!node.isLeaf() && node.getChildrenNum() > 0) {
+      for (MNode child : node.getOrderedChildNodes()) {
         jsonObject.put(child.getName(), mnodeToJSON(child));
       }
     } else if (node.isLeaf()) {
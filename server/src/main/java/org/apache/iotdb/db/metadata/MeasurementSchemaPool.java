@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * MeasurementSchemaPool keeps one MeasurementSchema for each distinct measurement id, data type,
+ * encoding, compressor and properties, so that the leaves of the MTree with the same name and
+ * schema, e.g. "s1" under thousands of devices, share both the schema and the name. The schemas in
+ * the pool must not be modified.
+ *
+ * Schemas are never removed from the pool, which is fine as long as the distinct schemas are far
+ * fewer than the timeseries.
+ */
+public class MeasurementSchemaPool {
+
+  private Map<SchemaKey, MeasurementSchema> schemas = new ConcurrentHashMap<>();
+
+  private MeasurementSchemaPool() {
+  }
+
+  public static MeasurementSchemaPool getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * @return the pooled schema of the given fields, which is created if absent
+   */
+  public MeasurementSchema get(String measurementId, TSDataType dataType, TSEncoding encoding,
+      CompressionType compressor, Map<String, String> props) {
+    Map<String, String> schemaProps = props == null || props.isEmpty() ? Collections.emptyMap()
+        : props;
+    SchemaKey key = new SchemaKey(measurementId, dataType, encoding, compressor, schemaProps);
+    MeasurementSchema schema = schemas.get(key);
+    if (schema != null) {
+      return schema;
+    }
+    if (!schemaProps.isEmpty()) {
+      // the caller may still modify its map
+      schemaProps = Collections.unmodifiableMap(new HashMap<>(schemaProps));
+      key = new SchemaKey(measurementId, dataType, encoding, compressor, schemaProps);
+    }
+    return schemas.computeIfAbsent(key, k -> new MeasurementSchema(measurementId, dataType,
+        encoding, compressor, k.props));
+  }
+
+  public int size() {
+    return schemas.size();
+  }
+
+  /**
+   * MeasurementSchema itself is not used as the key because its hash code changes once its encoder
+   * is created.
+   */
+  private static class SchemaKey {
+
+    private final String measurementId;
+    private final TSDataType dataType;
+    private final TSEncoding encoding;
+    private final CompressionType compressor;
+    private final Map<String, String> props;
+
+    private SchemaKey(String measurementId, TSDataType dataType, TSEncoding encoding,
+        CompressionType compressor, Map<String, String> props) {
+      this.measurementId = measurementId;
+      this.dataType = dataType;
+      this.encoding = encoding;
+      this.compressor = compressor;
+      this.props = props;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SchemaKey that = (SchemaKey) o;
+      return dataType == that.dataType && encoding == that.encoding
+          && compressor == that.compressor && measurementId.equals(that.measurementId)
+          && props.equals(that.props);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(measurementId, dataType, encoding, compressor, props);
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private static final MeasurementSchemaPool INSTANCE = new MeasurementSchemaPool();
+  }
+}
@@ -0,0 +1,394 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * A binary snapshot of an {@link MGraph} together with the length of the metadata log it covers,
+ * so that a restart only has to replay the log after that length.
+ *
+ * The file consists of a header and several sections, each written as [length, bytes, crc32]:
+ * <ul>
+ * <li>header: magic number, version and the covered log length</li>
+ * <li>the MTree above the storage groups and all the PTrees</li>
+ * <li>one section for the subtree of each storage group, in the order they appear in the MTree,
+ * so that the storage groups can be decoded in parallel</li>
+ * </ul>
+ * A node is written as its name, a flag byte and then either its schema (a leaf) or the number of
+ * its children followed by the children.
+ */
+class MetadataSnapshot {
+
+  private static final int MAGIC_NUMBER = 0x4d534e50;
+  private static final int VERSION = 1;
+  private static final String TEMP_SUFFIX = ".temp";
+
+  private static final byte LEAF_FLAG = 0x01;
+  private static final byte STORAGE_GROUP_FLAG = 0x02;
+
+  private final MGraph mgraph;
+  private final long logLength;
+
+  private MetadataSnapshot(MGraph mgraph, long logLength) {
+    this.mgraph = mgraph;
+    this.logLength = logLength;
+  }
+
+  MGraph getMGraph() {
+    return mgraph;
+  }
+
+  /**
+   * @return the length of the metadata log that has been applied to the snapshot
+   */
+  long getLogLength() {
+    return logLength;
+  }
+
+  /**
+   * Write the snapshot into a temporary file and then move it to the given file, so that a crash
+   * never leaves a partial snapshot. The caller must keep mgraph from being modified.
+   */
+  static void write(MGraph mgraph, long logLength, File file) throws IOException {
+    File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+    try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream))) {
+      out.writeInt(MAGIC_NUMBER);
+      out.writeInt(VERSION);
+      out.writeLong(logLength);
+
+      List<MNode> storageGroups = new ArrayList<>();
+      ByteArrayOutputStream section = new ByteArrayOutputStream();
+      DataOutputStream sectionOut = new DataOutputStream(section);
+      writeUpperNode(mgraph.getMTree().getRoot(), sectionOut, storageGroups);
+      Map<String, PTree> ptreeMap = mgraph.getPTreeMap();
+      sectionOut.writeInt(ptreeMap.size());
+      for (PTree ptree : ptreeMap.values()) {
+        writePNode(ptree.getRoot(), sectionOut);
+      }
+      writeSection(section, out);
+
+      out.writeInt(storageGroups.size());
+      for (MNode storageGroup : storageGroups) {
+        section.reset();
+        writeChildren(storageGroup, sectionOut);
+        writeSection(section, out);
+      }
+      out.flush();
+      fileOutputStream.getFD().sync();
+    }
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * @throws IOException if the file is broken or its checksums do not match
+   */
+  static MetadataSnapshot read(File file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC_NUMBER) {
+        throw new IOException("Not a metadata snapshot: " + file);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported metadata snapshot version " + version);
+      }
+      long logLength = in.readLong();
+
+      DataInputStream sectionIn = readSection(in);
+      List<MNode> storageGroups = new ArrayList<>();
+      List<String> storageGroupNames = new ArrayList<>();
+      MNode root = readUpperNode(sectionIn, null, null, storageGroups, storageGroupNames);
+      MTree mtree = new MTree(root);
+      HashMap<String, PTree> ptreeMap = new HashMap<>();
+      int ptreeNum = sectionIn.readInt();
+      for (int i = 0; i < ptreeNum; i++) {
+        PNode ptreeRoot = readPNode(sectionIn, null);
+        ptreeMap.put(ptreeRoot.getName(), new PTree(ptreeRoot.getName(), ptreeRoot, mtree));
+      }
+
+      int storageGroupNum = in.readInt();
+      if (storageGroupNum != storageGroups.size()) {
+        throw new IOException(String.format("Metadata snapshot has %d storage group sections but"
+            + " %d storage groups", storageGroupNum, storageGroups.size()));
+      }
+      readStorageGroups(in, storageGroups, storageGroupNames);
+      return new MetadataSnapshot(new MGraph(mtree, ptreeMap), logLength);
+    }
+  }
+
+  /**
+   * read the section of each storage group in turn and decode them in parallel.
+   */
+  private static void readStorageGroups(DataInputStream in, List<MNode> storageGroups,
+      List<String> storageGroupNames) throws IOException {
+    int threadNum = Math.min(storageGroups.size(), Runtime.getRuntime().availableProcessors());
+    if (threadNum <= 1) {
+      for (int i = 0; i < storageGroups.size(); i++) {
+        readStorageGroup(readSection(in), storageGroups.get(i), storageGroupNames.get(i));
+      }
+      return;
+    }
+    ExecutorService pool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadNum, ThreadName.METADATA_SNAPSHOT.getName());
+    try {
+      List<Future<Void>> futures = new ArrayList<>(storageGroups.size());
+      for (int i = 0; i < storageGroups.size(); i++) {
+        DataInputStream sectionIn = readSection(in);
+        MNode storageGroup = storageGroups.get(i);
+        String storageGroupName = storageGroupNames.get(i);
+        futures.add(pool.submit(() -> {
+          readStorageGroup(sectionIn, storageGroup, storageGroupName);
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * rebuild the subtree of a storage group as well as its schema map and schema count map.
+   */
+  private static void readStorageGroup(DataInputStream in, MNode storageGroup,
+      String storageGroupName) throws IOException {
+    readChildren(in, storageGroup, storageGroupName);
+    addLeavesToSchemaMap(storageGroup, storageGroup);
+  }
+
+  private static void addLeavesToSchemaMap(MNode node, MNode storageGroup) {
+    if (node.isLeaf()) {
+      storageGroup.getSchemaMap().putIfAbsent(node.getName(), node.getSchema());
+      storageGroup.getNumSchemaMap().merge(node.getName(), 1, Integer::sum);
+      return;
+    }
+    for (MNode child : node.getChildNodes()) {
+      addLeavesToSchemaMap(child, storageGroup);
+    }
+  }
+
+  private static void writeSection(ByteArrayOutputStream section, DataOutputStream out)
+      throws IOException {
+    byte[] bytes = section.toByteArray();
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes, 0, bytes.length);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+    out.writeLong(crc32.getValue());
+  }
+
+  private static DataInputStream readSection(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes, 0, bytes.length);
+    if (crc32.getValue() != in.readLong()) {
+      throw new IOException("Checksum of metadata snapshot section mismatches");
+    }
+    return new DataInputStream(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * write a node above the storage groups, the subtree of a storage group is left to its own
+   * section.
+   */
+  private static void writeUpperNode(MNode node, DataOutputStream out, List<MNode> storageGroups)
+      throws IOException {
+    if (node.isStorageLevel()) {
+      out.writeUTF(node.getName());
+      out.writeByte(STORAGE_GROUP_FLAG);
+      storageGroups.add(node);
+    } else if (node.isLeaf()) {
+      writeNode(node, out);
+    } else {
+      out.writeUTF(node.getName());
+      out.writeByte(0);
+      List<MNode> children = node.getOrderedChildNodes();
+      out.writeInt(children.size());
+      for (MNode child : children) {
+        writeUpperNode(child, out, storageGroups);
+      }
+    }
+  }
+
+  private static MNode readUpperNode(DataInputStream in, MNode parent, String parentPath,
+      List<MNode> storageGroups, List<String> storageGroupNames) throws IOException {
+    String name = in.readUTF();
+    byte flag = in.readByte();
+    String path = parentPath == null ? name : parentPath + "." + name;
+    if ((flag & STORAGE_GROUP_FLAG) != 0) {
+      MNode node = new MNode(name, parent, false);
+      node.setStorageLevel(true);
+      node.setDataFileName(path);
+      storageGroups.add(node);
+      storageGroupNames.add(path);
+      return node;
+    }
+    if ((flag & LEAF_FLAG) != 0) {
+      return readLeaf(in, name, parent, null);
+    }
+    MNode node = new MNode(name, parent, false);
+    int childNum = in.readInt();
+    for (int i = 0; i < childNum; i++) {
+      MNode child = readUpperNode(in, node, path, storageGroups, storageGroupNames);
+      node.addChild(child.getName(), child);
+    }
+    return node;
+  }
+
+  private static void writeNode(MNode node, DataOutputStream out) throws IOException {
+    out.writeUTF(node.getName());
+    if (node.isLeaf()) {
+      out.writeByte(LEAF_FLAG);
+      writeSchema(node.getSchema(), out);
+    } else {
+      out.writeByte(0);
+      writeChildren(node, out);
+    }
+  }
+
+  private static void writeChildren(MNode node, DataOutputStream out) throws IOException {
+    List<MNode> children = node.getOrderedChildNodes();
+    out.writeInt(children.size());
+    for (MNode child : children) {
+      writeNode(child, out);
+    }
+  }
+
+  private static void readChildren(DataInputStream in, MNode node, String dataFileName)
+      throws IOException {
+    int childNum = in.readInt();
+    for (int i = 0; i < childNum; i++) {
+      String name = in.readUTF();
+      MNode child;
+      if ((in.readByte() & LEAF_FLAG) != 0) {
+        child = readLeaf(in, name, node, dataFileName);
+      } else {
+        child = new MNode(name, node, false);
+        child.setDataFileName(dataFileName);
+        readChildren(in, child, dataFileName);
+      }
+      node.addChild(name, child);
+    }
+  }
+
+  private static MNode readLeaf(DataInputStream in, String name, MNode parent,
+      String dataFileName) throws IOException {
+    TSDataType dataType = TSDataType.deserialize(in.readByte());
+    TSEncoding encoding = TSEncoding.deserialize(in.readByte());
+    CompressionType compressor = CompressionType.deserialize(in.readByte());
+    int propNum = in.readInt();
+    Map<String, String> props = null;
+    if (propNum > 0) {
+      props = new HashMap<>(propNum);
+      for (int i = 0; i < propNum; i++) {
+        props.put(in.readUTF(), in.readUTF());
+      }
+    }
+    MNode leaf = new MNode(name, parent, dataType, encoding, compressor, props);
+    leaf.setDataFileName(dataFileName);
+    return leaf;
+  }
+
+  /**
+   * the measurement id is not written because it is the same as the name of the leaf.
+   */
+  private static void writeSchema(MeasurementSchema schema, DataOutputStream out)
+      throws IOException {
+    out.writeByte(schema.getType().serialize());
+    out.writeByte(schema.getEncodingType().serialize());
+    out.writeByte(schema.getCompressor().serialize());
+    Map<String, String> props = schema.getProps();
+    if (props == null) {
+      out.writeInt(0);
+      return;
+    }
+    out.writeInt(props.size());
+    for (Map.Entry<String, String> entry : props.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue());
+    }
+  }
+
+  private static void writePNode(PNode node, DataOutputStream out) throws IOException {
+    out.writeUTF(node.getName());
+    out.writeBoolean(node.isLeaf());
+    if (node.isLeaf()) {
+      out.writeInt(node.getLinkedMTreePathMap().size());
+      for (String mTreePath : node.getLinkedMTreePathMap().keySet()) {
+        out.writeUTF(mTreePath);
+      }
+    } else {
+      out.writeInt(node.getChildren().size());
+      for (PNode child : node.getChildren().values()) {
+        writePNode(child, out);
+      }
+    }
+  }
+
+  private static PNode readPNode(DataInputStream in, PNode parent) throws IOException {
+    String name = in.readUTF();
+    boolean isLeaf = in.readBoolean();
+    PNode node = new PNode(name, parent, isLeaf);
+    int num = in.readInt();
+    for (int i = 0; i < num; i++) {
+      if (isLeaf) {
+        node.getLinkedMTreePathMap().put(in.readUTF(), 1);
+      } else {
+        PNode child = readPNode(in, node);
+        node.addChild(child.getName(), child);
+      }
+    }
+    return node;
+  }
+}
@@ -39,6 +39,10 @@ public class MonitorConstants {
   private static final String FILE_SIZE = "file_size";
   public static final String FILE_SIZE_STORAGE_GROUP_NAME = STAT_STORAGE_GROUP_PREFIX
       + MONITOR_PATH_SEPARATOR + FILE_SIZE;
+  // statistic for wal module
+  private static final String WAL = "wal";
+  public static final String WAL_STORAGE_GROUP_NAME = STAT_STORAGE_GROUP_PREFIX
+      + MONITOR_PATH_SEPARATOR + WAL;
   // statistic for insert module
   static final String FILE_NODE_MANAGER_PATH = "write.global";
   public static final String FILE_NODE_PATH = "write";
@@ -91,6 +95,11 @@ public class MonitorConstants {
     DISK_WRITE_SPEED, DISK_TPS
   }
 
+  public enum WalStatConstants {
+    BUFFER_WRITE_NUM, BUFFER_WRITE_LOG_NUM, BUFFER_WRITE_BYTE_NUM, FORCE_NUM, FORCE_LOG_NUM,
+    SYNC_WRITE_NUM, SYNC_WRITE_LATENCY_IN_US
+  }
+
   public enum FileSizeConstants {
     // TODO add multi data dir monitor
     WAL(new File(config.getWalFolder()).getAbsolutePath()),
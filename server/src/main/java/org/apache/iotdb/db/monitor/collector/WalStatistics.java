@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.monitor.collector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.monitor.IStatistic;
+import org.apache.iotdb.db.monitor.MonitorConstants;
+import org.apache.iotdb.db.monitor.MonitorConstants.WalStatConstants;
+import org.apache.iotdb.db.monitor.StatMonitor;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class collects the statistics of all WAL nodes: how many logs each write of a log buffer
+ * and each force carries, and how long SYNC writes wait for their logs to be forced.
+ */
+public class WalStatistics implements IStatistic {
+
+  private static final Logger logger = LoggerFactory.getLogger(WalStatistics.class);
+
+  private final Map<String, AtomicLong> statParamsMap = new HashMap<>();
+
+  private WalStatistics() {
+    for (WalStatConstants kind : WalStatConstants.values()) {
+      statParamsMap.put(kind.name(), new AtomicLong(0));
+    }
+  }
+
+  public static WalStatistics getInstance() {
+    return WalStatisticsHolder.INSTANCE;
+  }
+
+  /**
+   * register the statistics into StatMonitor if it is enabled. Unlike the counters, this is not
+   * done in the constructor as the statistics of the WAL are updated while StatMonitor inserts.
+   */
+  public void register() {
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableStatMonitor()) {
+      registerStatMetadata();
+      StatMonitor.getInstance().registerStatistics(MonitorConstants.WAL_STORAGE_GROUP_NAME, this);
+    }
+  }
+
+  public void recordBufferWrite(int logNum, int byteNum) {
+    statParamsMap.get(WalStatConstants.BUFFER_WRITE_NUM.name()).incrementAndGet();
+    statParamsMap.get(WalStatConstants.BUFFER_WRITE_LOG_NUM.name()).addAndGet(logNum);
+    statParamsMap.get(WalStatConstants.BUFFER_WRITE_BYTE_NUM.name()).addAndGet(byteNum);
+  }
+
+  public void recordForce(long logNum) {
+    statParamsMap.get(WalStatConstants.FORCE_NUM.name()).incrementAndGet();
+    statParamsMap.get(WalStatConstants.FORCE_LOG_NUM.name()).addAndGet(logNum);
+  }
+
+  public void recordSyncWrite(long latencyInNs) {
+    statParamsMap.get(WalStatConstants.SYNC_WRITE_NUM.name()).incrementAndGet();
+    statParamsMap.get(WalStatConstants.SYNC_WRITE_LATENCY_IN_US.name())
+        .addAndGet(latencyInNs / 1000);
+  }
+
+  public long getValue(WalStatConstants kind) {
+    return statParamsMap.get(kind.name()).get();
+  }
+
+  @Override
+  public Map<String, TSRecord> getAllStatisticsValue() {
+    long curTime = System.currentTimeMillis();
+    TSRecord tsRecord = StatMonitor
+        .convertToTSRecord(getStatParamsHashMap(), MonitorConstants.WAL_STORAGE_GROUP_NAME,
+            curTime);
+    HashMap<String, TSRecord> ret = new HashMap<>();
+    ret.put(MonitorConstants.WAL_STORAGE_GROUP_NAME, tsRecord);
+    return ret;
+  }
+
+  @Override
+  public void registerStatMetadata() {
+    Map<String, String> hashMap = new HashMap<>();
+    for (String seriesPath : getAllPathForStatistic()) {
+      hashMap.put(seriesPath, MonitorConstants.DATA_TYPE_INT64);
+      try {
+        StorageEngine.getInstance().addTimeSeries(new Path(seriesPath),
+            TSDataType.valueOf(MonitorConstants.DATA_TYPE_INT64), TSEncoding.valueOf("RLE"),
+            CompressionType.valueOf(TSFileConfig.compressor), Collections.emptyMap());
+      } catch (StorageEngineException e) {
+        logger.error("Register WAL Stats into storageEngine Failed.", e);
+      }
+    }
+    StatMonitor.getInstance().registerStatStorageGroup(hashMap);
+  }
+
+  @Override
+  public List<String> getAllPathForStatistic() {
+    List<String> list = new ArrayList<>();
+    for (WalStatConstants kind : WalStatConstants.values()) {
+      list.add(MonitorConstants.WAL_STORAGE_GROUP_NAME + MonitorConstants.MONITOR_PATH_SEPARATOR
+          + kind.name());
+    }
+    return list;
+  }
+
+  @Override
+  public Map<String, AtomicLong> getStatParamsHashMap() {
+    return statParamsMap;
+  }
+
+  private static class WalStatisticsHolder {
+
+    private static final WalStatistics INSTANCE = new WalStatistics();
+  }
+}
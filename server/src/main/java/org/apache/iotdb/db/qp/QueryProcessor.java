@@ -33,6 +33,8 @@ import org.apache.iotdb.db.qp.logical.RootOperator;
 import org.apache.iotdb.db.qp.logical.crud.FilterOperator;
 import org.apache.iotdb.db.qp.logical.crud.SFWOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.strategy.FastInsertParser;
 import org.apache.iotdb.db.qp.strategy.LogicalGenerator;
 import org.apache.iotdb.db.qp.strategy.PhysicalGenerator;
 import org.apache.iotdb.db.qp.strategy.optimizer.ConcatPathOptimizer;
@@ -50,6 +52,7 @@ import org.apache.iotdb.db.sql.parse.ParseUtils;
 public class QueryProcessor {
 
   private IQueryProcessExecutor executor;
+  private FastInsertParser fastInsertParser = new FastInsertParser();
 
   public QueryProcessor(IQueryProcessExecutor executor) {
     this.executor = executor;
@@ -69,6 +72,11 @@ public class QueryProcessor {
   public PhysicalPlan parseSQLToPhysicalPlan(String sqlStr, ZoneId zoneId)
       throws QueryProcessorException, ArgsErrorException,
       MetadataErrorException {
+    // plain insert statements, which are most of the statements, skip the AST
+    PhysicalPlan insertPlan = fastInsertParser.parse(sqlStr);
+    if (insertPlan != null) {
+      return insertPlan;
+    }
     AstNode astNode = parseSQLToAST(sqlStr);
     Operator operator = parseASTToOperator(astNode, zoneId);
     operator = logicalOptimize(operator, executor);
@@ -77,6 +85,15 @@ public class QueryProcessor {
     return qp;
   }
 
+  /**
+   * parse a plain insert statement without the AST, see FastInsertParser.
+   *
+   * @return the InsertPlan of the statement, or null if it is not a plain insert statement
+   */
+  public InsertPlan parsePlainInsert(String sqlStr) {
+    return fastInsertParser.parse(sqlStr);
+  }
+
   /**
    * Convert ast tree to Operator which type maybe {@code SFWOperator} or {@code AuthorOperator}
    *
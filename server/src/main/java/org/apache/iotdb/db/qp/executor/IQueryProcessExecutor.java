@@ -27,6 +27,7 @@ import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.fill.IFill;
@@ -114,6 +115,21 @@ public interface IQueryProcessExecutor {
    */
   boolean insert(InsertPlan insertPlan) throws ProcessorException;
 
+  /**
+   * execute batch insert command and return whether the operator is successful.
+   *
+   * @return - Operate Type.
+   */
+  boolean insertBatch(BatchInsertPlan batchInsertPlan) throws ProcessorException;
+
+  /**
+   * merge insert plans of the same device and measurements into a batch insert plan, so that they
+   * are inserted at once. The values are checked and converted by the types of the series.
+   *
+   * @param insertPlans not empty, and all of the same device and measurements
+   */
+  BatchInsertPlan toBatchInsertPlan(List<InsertPlan> insertPlans) throws ProcessorException;
+
   boolean judgePathExists(Path fullPath);
 
   /**
@@ -47,6 +47,7 @@ import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
@@ -56,7 +57,9 @@ import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.dataset.AuthDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.utils.AuthUtils;
+import org.apache.iotdb.db.writelog.node.WalSyncMode;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -91,6 +94,8 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
         return flag;
       case INSERT:
         return insert((InsertPlan)plan);
+      case BATCHINSERT:
+        return insertBatch((BatchInsertPlan) plan);
       case CREATE_ROLE:
       case DELETE_ROLE:
       case CREATE_USER:
@@ -211,19 +216,7 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
       TSDataType[] dataTypes = new TSDataType[measurementList.length];
 
       for (int i = 0; i < measurementList.length; i++) {
-        if (!node.hasChild(measurementList[i])) {
-          throw new ProcessorException(
-              String.format("Current deviceId[%s] does not contains measurement:%s",
-                  deviceId, measurementList[i]));
-        }
-        MNode measurementNode = node.getChild(measurementList[i]);
-        if (!measurementNode.isLeaf()) {
-          throw new ProcessorException(
-              String.format("Current Path is not leaf node. %s.%s", deviceId,
-                  measurementList[i]));
-        }
-
-        dataTypes[i] = measurementNode.getSchema().getType();
+        dataTypes[i] = getMeasurementType(node, deviceId, measurementList[i]);
         values[i] = checkValue(dataTypes[i], values[i]);
       }
       insertPlan.setDataTypes(dataTypes);
@@ -234,6 +227,139 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     }
   }
 
+  @Override
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan) throws ProcessorException {
+    try {
+      String[] measurementList = batchInsertPlan.getMeasurements();
+      String deviceId = batchInsertPlan.getDeviceId();
+      MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
+      TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
+
+      for (int i = 0; i < measurementList.length; i++) {
+        TSDataType seriesType = getMeasurementType(node, deviceId, measurementList[i]);
+        if (seriesType != dataTypes[i]) {
+          throw new ProcessorException(
+              String.format("Data type of %s.%s is %s, but %s is given", deviceId,
+                  measurementList[i], seriesType, dataTypes[i]));
+        }
+      }
+      return storageEngine.insertBatch(batchInsertPlan);
+
+    } catch (PathErrorException | StorageEngineException e) {
+      throw new ProcessorException(e);
+    }
+  }
+
+  @Override
+  public BatchInsertPlan toBatchInsertPlan(List<InsertPlan> insertPlans)
+      throws ProcessorException {
+    String deviceId = insertPlans.get(0).getDeviceId();
+    String[] measurementList = insertPlans.get(0).getMeasurements();
+    TSDataType[] dataTypes = new TSDataType[measurementList.length];
+    try {
+      MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
+      for (int i = 0; i < measurementList.length; i++) {
+        dataTypes[i] = getMeasurementType(node, deviceId, measurementList[i]);
+      }
+    } catch (PathErrorException e) {
+      throw new ProcessorException(e);
+    }
+
+    int rowCount = insertPlans.size();
+    long[] times = new long[rowCount];
+    Object[] columns = new Object[measurementList.length];
+    for (int i = 0; i < measurementList.length; i++) {
+      columns[i] = createColumn(dataTypes[i], rowCount);
+    }
+    // the batch is logged as durably as the strictest of its plans asks
+    WalSyncMode walSyncMode = null;
+    for (int row = 0; row < rowCount; row++) {
+      InsertPlan insertPlan = insertPlans.get(row);
+      times[row] = insertPlan.getTime();
+      String[] values = insertPlan.getValues();
+      for (int i = 0; i < measurementList.length; i++) {
+        setColumnValue(columns[i], dataTypes[i], row, checkValue(dataTypes[i], values[i]));
+      }
+      WalSyncMode planSyncMode = insertPlan.getWalSyncMode();
+      if (planSyncMode != null
+          && (walSyncMode == null || planSyncMode.compareTo(walSyncMode) > 0)) {
+        walSyncMode = planSyncMode;
+      }
+    }
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(deviceId, measurementList, dataTypes);
+    batchInsertPlan.setRows(times, columns, rowCount);
+    batchInsertPlan.setWalSyncMode(walSyncMode);
+    return batchInsertPlan;
+  }
+
+  private static TSDataType getMeasurementType(MNode deviceNode, String deviceId,
+      String measurement) throws ProcessorException {
+    if (!deviceNode.hasChild(measurement)) {
+      throw new ProcessorException(
+          String.format("Current deviceId[%s] does not contains measurement:%s",
+              deviceId, measurement));
+    }
+    MNode measurementNode = deviceNode.getChild(measurement);
+    if (!measurementNode.isLeaf()) {
+      throw new ProcessorException(
+          String.format("Current Path is not leaf node. %s.%s", deviceId, measurement));
+    }
+    return measurementNode.getSchema().getType();
+  }
+
+  private static Object createColumn(TSDataType dataType, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[size];
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      case TEXT:
+        return new Binary[size];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * set a checked value into the column, parsing it as WritableMemChunk does for an InsertPlan.
+   */
+  private static void setColumnValue(Object column, TSDataType dataType, int row, String value)
+      throws ProcessorException {
+    try {
+      switch (dataType) {
+        case BOOLEAN:
+          ((boolean[]) column)[row] = Boolean.parseBoolean(value);
+          break;
+        case INT32:
+          ((int[]) column)[row] = Integer.parseInt(value);
+          break;
+        case INT64:
+          ((long[]) column)[row] = Long.parseLong(value);
+          break;
+        case FLOAT:
+          ((float[]) column)[row] = Float.parseFloat(value);
+          break;
+        case DOUBLE:
+          ((double[]) column)[row] = Double.parseDouble(value);
+          break;
+        case TEXT:
+          ((Binary[]) column)[row] = Binary.valueOf(value);
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+    } catch (NumberFormatException e) {
+      throw new ProcessorException(
+          String.format("The value %s can not be converted to %s", value, dataType));
+    }
+  }
+
   @Override
   public List<String> getAllPaths(String originPath) throws MetadataErrorException {
     return MManager.getInstance().getPaths(originPath);
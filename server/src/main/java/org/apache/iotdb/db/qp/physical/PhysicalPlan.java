@@ -23,8 +23,10 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.qp.logical.Operator;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.writelog.node.WalSyncMode;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -37,6 +39,12 @@ public abstract class PhysicalPlan {
   private Operator.OperatorType operatorType;
   private static final int NULL_VALUE_LEN = -1;
 
+  /**
+   * how the WAL write of this plan is acknowledged, null to follow wal_sync_mode. It is not
+   * serialized.
+   */
+  private WalSyncMode walSyncMode;
+
   protected PhysicalPlan(boolean isQuery) {
     this.isQuery = isQuery;
   }
@@ -72,6 +80,14 @@ public abstract class PhysicalPlan {
     isQuery = query;
   }
 
+  public WalSyncMode getWalSyncMode() {
+    return walSyncMode;
+  }
+
+  public void setWalSyncMode(WalSyncMode walSyncMode) {
+    this.walSyncMode = walSyncMode;
+  }
+
   public void serializeTo(ByteBuffer buffer) {
     throw new UnsupportedOperationException("serialize of unimplemented");
   }
@@ -118,6 +134,10 @@ public abstract class PhysicalPlan {
           plan = new DeletePlan();
           plan.deserializeFrom(buffer);
           break;
+        case BATCHINSERT:
+          plan = new BatchInsertPlan();
+          plan.deserializeFrom(buffer);
+          break;
         default:
           throw new IOException("unrecognized log type " + type);
       }
@@ -126,7 +146,7 @@ public abstract class PhysicalPlan {
   }
 
   public enum PhysicalPlanType {
-    INSERT, DELETE
+    INSERT, DELETE, BATCHINSERT
   }
 
 
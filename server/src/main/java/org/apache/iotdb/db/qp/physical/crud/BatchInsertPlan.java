@@ -0,0 +1,382 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.crud;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * BatchInsertPlan inserts many rows of one device at once. The timestamps are kept in a long[]
+ * and each column in a primitive array of its data type (boolean[], int[], long[], float[],
+ * double[] or Binary[]), so the rows can be appended to the memtable without boxing.
+ *
+ * Only the rows in [start, end) are serialized and inserted, so that one plan can be split
+ * between the sequence and the unsequence TsFileProcessor without copying the arrays.
+ */
+public class BatchInsertPlan extends PhysicalPlan {
+
+  private String deviceId;
+  private String[] measurements;
+  private TSDataType[] dataTypes;
+
+  private long[] times;
+  private Object[] columns;
+  private int rowCount;
+
+  private int start;
+  private int end;
+
+  // the rows before it have been inserted, set by the insertion so that the other rows can be
+  // retried if it fails halfway
+  private int insertedRowCount;
+
+  public BatchInsertPlan() {
+    super(false, OperatorType.BATCHINSERT);
+  }
+
+  public BatchInsertPlan(String deviceId, String[] measurements, TSDataType[] dataTypes) {
+    super(false, OperatorType.BATCHINSERT);
+    this.deviceId = deviceId;
+    this.measurements = measurements;
+    this.dataTypes = dataTypes;
+  }
+
+  @Override
+  public List<Path> getPaths() {
+    List<Path> ret = new ArrayList<>();
+    for (String m : measurements) {
+      ret.add(new Path(deviceId, m));
+    }
+    return ret;
+  }
+
+  public String getDeviceId() {
+    return deviceId;
+  }
+
+  public void setDeviceId(String deviceId) {
+    this.deviceId = deviceId;
+  }
+
+  public String[] getMeasurements() {
+    return measurements;
+  }
+
+  public void setMeasurements(String[] measurements) {
+    this.measurements = measurements;
+  }
+
+  public TSDataType[] getDataTypes() {
+    return dataTypes;
+  }
+
+  public void setDataTypes(TSDataType[] dataTypes) {
+    this.dataTypes = dataTypes;
+  }
+
+  public long[] getTimes() {
+    return times;
+  }
+
+  public Object[] getColumns() {
+    return columns;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * set the rows of this plan, the range to be inserted is reset to all the rows.
+   *
+   * @param times timestamps of the rows
+   * @param columns one primitive array for each measurement
+   * @param rowCount number of rows, the arrays may be longer than it
+   */
+  public void setRows(long[] times, Object[] columns, int rowCount) {
+    this.times = times;
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.start = 0;
+    this.end = rowCount;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * only the rows in [start, end) will be serialized and inserted.
+   */
+  public void setRange(int start, int end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  public int getInsertedRowCount() {
+    return insertedRowCount;
+  }
+
+  public void setInsertedRowCount(int insertedRowCount) {
+    this.insertedRowCount = insertedRowCount;
+  }
+
+  public long getMinTime() {
+    long minTime = Long.MAX_VALUE;
+    for (int i = start; i < end; i++) {
+      minTime = Math.min(minTime, times[i]);
+    }
+    return minTime;
+  }
+
+  public long getMaxTime() {
+    long maxTime = Long.MIN_VALUE;
+    for (int i = start; i < end; i++) {
+      maxTime = Math.max(maxTime, times[i]);
+    }
+    return maxTime;
+  }
+
+  /**
+   * @return the row of the max time in the range, the last one if several rows have the max time
+   */
+  public int getMaxTimeRow() {
+    int maxTimeRow = start;
+    for (int i = start + 1; i < end; i++) {
+      if (times[i] >= times[maxTimeRow]) {
+        maxTimeRow = i;
+      }
+    }
+    return maxTimeRow;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BatchInsertPlan that = (BatchInsertPlan) o;
+    if (!Objects.equals(deviceId, that.deviceId)
+        || !Arrays.equals(measurements, that.measurements)
+        || !Arrays.equals(dataTypes, that.dataTypes)
+        || end - start != that.end - that.start
+        || !Arrays.equals(Arrays.copyOfRange(times, start, end),
+        Arrays.copyOfRange(that.times, that.start, that.end))) {
+      return false;
+    }
+    for (int i = 0; i < measurements.length; i++) {
+      for (int j = 0; j < end - start; j++) {
+        if (!Objects.equals(getValue(i, start + j), that.getValue(i, that.start + j))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(deviceId, end - start);
+  }
+
+  /**
+   * get the boxed value of a cell, only used where performance does not matter.
+   */
+  public Object getValue(int column, int row) {
+    switch (dataTypes[column]) {
+      case BOOLEAN:
+        return ((boolean[]) columns[column])[row];
+      case INT32:
+        return ((int[]) columns[column])[row];
+      case INT64:
+        return ((long[]) columns[column])[row];
+      case FLOAT:
+        return ((float[]) columns[column])[row];
+      case DOUBLE:
+        return ((double[]) columns[column])[row];
+      case TEXT:
+        return ((Binary[]) columns[column])[row];
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataTypes[column]));
+    }
+  }
+
+  @Override
+  public void serializeTo(ByteBuffer buffer) {
+    int type = PhysicalPlanType.BATCHINSERT.ordinal();
+    buffer.put((byte) type);
+
+    putString(buffer, deviceId);
+
+    buffer.putInt(measurements.length);
+    for (String m : measurements) {
+      putString(buffer, m);
+    }
+    for (TSDataType dataType : dataTypes) {
+      buffer.putShort(dataType.serialize());
+    }
+
+    buffer.putInt(end - start);
+    for (int i = start; i < end; i++) {
+      buffer.putLong(times[i]);
+    }
+    for (int i = 0; i < measurements.length; i++) {
+      serializeColumn(buffer, i);
+    }
+  }
+
+  private void serializeColumn(ByteBuffer buffer, int column) {
+    switch (dataTypes[column]) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.put(booleans[i] ? (byte) 1 : (byte) 0);
+        }
+        break;
+      case INT32:
+        int[] ints = (int[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.putInt(ints[i]);
+        }
+        break;
+      case INT64:
+        long[] longs = (long[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.putLong(longs[i]);
+        }
+        break;
+      case FLOAT:
+        float[] floats = (float[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.putFloat(floats[i]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = (double[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.putDouble(doubles[i]);
+        }
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) columns[column];
+        for (int i = start; i < end; i++) {
+          buffer.putInt(binaries[i].getLength());
+          buffer.put(binaries[i].getValues());
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataTypes[column]));
+    }
+  }
+
+  @Override
+  public void deserializeFrom(ByteBuffer buffer) {
+    this.deviceId = readString(buffer);
+
+    int measurementSize = buffer.getInt();
+    this.measurements = new String[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      measurements[i] = readString(buffer);
+    }
+    this.dataTypes = new TSDataType[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      dataTypes[i] = TSDataType.deserialize(buffer.getShort());
+    }
+
+    int size = buffer.getInt();
+    long[] timeArray = new long[size];
+    for (int i = 0; i < size; i++) {
+      timeArray[i] = buffer.getLong();
+    }
+    Object[] columnArray = new Object[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      columnArray[i] = deserializeColumn(buffer, dataTypes[i], size);
+    }
+    setRows(timeArray, columnArray, size);
+  }
+
+  private static Object deserializeColumn(ByteBuffer buffer, TSDataType dataType, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[size];
+        for (int i = 0; i < size; i++) {
+          booleans[i] = buffer.get() == 1;
+        }
+        return booleans;
+      case INT32:
+        int[] ints = new int[size];
+        for (int i = 0; i < size; i++) {
+          ints[i] = buffer.getInt();
+        }
+        return ints;
+      case INT64:
+        long[] longs = new long[size];
+        for (int i = 0; i < size; i++) {
+          longs[i] = buffer.getLong();
+        }
+        return longs;
+      case FLOAT:
+        float[] floats = new float[size];
+        for (int i = 0; i < size; i++) {
+          floats[i] = buffer.getFloat();
+        }
+        return floats;
+      case DOUBLE:
+        double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+          doubles[i] = buffer.getDouble();
+        }
+        return doubles;
+      case TEXT:
+        Binary[] binaries = new Binary[size];
+        for (int i = 0; i < size; i++) {
+          byte[] bytes = new byte[buffer.getInt()];
+          buffer.get(bytes);
+          binaries[i] = new Binary(bytes);
+        }
+        return binaries;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "deviceId: " + deviceId + ", rows: " + (end - start);
+  }
+}
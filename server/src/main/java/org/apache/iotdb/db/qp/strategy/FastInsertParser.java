@@ -0,0 +1,385 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.strategy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.sql.parse.TSParser;
+import org.apache.iotdb.db.utils.RandomDeleteCache;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.exception.cache.CacheException;
+
+/**
+ * FastInsertParser parses the plain form of insert statements, e.g. "insert into
+ * root.sg.d1(timestamp, s1, s2) values(1, 2.0, 'text')", into InsertPlans without building the
+ * AST. The device and measurements of a statement, which are the same for most statements of a
+ * client, are parsed once per distinct statement prefix and cached.
+ *
+ * Only statements with a positive integer timestamp and integer, float, boolean or string values
+ * are accepted. For any other statement, including the invalid ones, parse() returns null and the
+ * statement should be given to the full parser, which also reports the errors.
+ */
+public class FastInsertParser {
+
+  static final int TEMPLATE_CACHE_SIZE = 1024;
+
+  /**
+   * cached for the prefixes that are not in the plain form, so that they are not parsed again.
+   */
+  private static final InsertTemplate INVALID_TEMPLATE = new InsertTemplate(null, null);
+
+  private static final Set<String> KEYWORDS = new HashSet<>();
+
+  static {
+    // the literal of every keyword token is its name without "KW_"
+    for (String tokenName : TSParser.tokenNames) {
+      if (tokenName.startsWith("KW_")) {
+        KEYWORDS.add(tokenName.substring(3).toLowerCase());
+      }
+    }
+    KEYWORDS.add(SQLConstant.BOOLEN_TRUE);
+    KEYWORDS.add(SQLConstant.BOOLEN_FALSE);
+  }
+
+  private RandomDeleteCache<String, InsertTemplate> templateCache =
+      new RandomDeleteCache<String, InsertTemplate>(TEMPLATE_CACHE_SIZE) {
+        @Override
+        public void beforeRemove(InsertTemplate object) {
+          //allowed to do nothing
+        }
+
+        @Override
+        public InsertTemplate loadObjectByKey(String key) {
+          return parseTemplate(key);
+        }
+      };
+
+  /**
+   * @return the InsertPlan of the statement, or null if the statement is not a plain insert
+   * statement.
+   */
+  public InsertPlan parse(String sql) {
+    Scanner scanner = new Scanner(sql);
+    scanner.skipWhitespace();
+    if (!scanner.nextKeyword("insert")) {
+      return null;
+    }
+    // the prefix ends with the measurement list, in which there is no other ')'
+    int prefixEnd = sql.indexOf(')', scanner.pos);
+    if (prefixEnd < 0) {
+      return null;
+    }
+    InsertTemplate template;
+    try {
+      template = templateCache.get(sql.substring(0, prefixEnd + 1));
+    } catch (CacheException e) {
+      return null;
+    }
+    if (template == INVALID_TEMPLATE) {
+      return null;
+    }
+
+    scanner.pos = prefixEnd + 1;
+    scanner.skipWhitespace();
+    if (!scanner.nextKeyword("values") || !scanner.nextSymbol('(')) {
+      return null;
+    }
+    long time = scanner.nextTime();
+    if (time <= 0) {
+      // leave the error of an invalid time to the full parser
+      return null;
+    }
+    String[] values = new String[template.measurements.length];
+    for (int i = 0; i < values.length; i++) {
+      if (!scanner.nextSymbol(',')) {
+        return null;
+      }
+      values[i] = scanner.nextValue();
+      if (values[i] == null) {
+        return null;
+      }
+    }
+    if (!scanner.nextSymbol(')')) {
+      return null;
+    }
+    scanner.nextSymbol(';');
+    scanner.skipWhitespace();
+    if (!scanner.isEnd()) {
+      return null;
+    }
+    return new InsertPlan(template.deviceId, time, template.measurements.clone(), values);
+  }
+
+  /**
+   * parse "insert into root.sg.d1(timestamp, s1, s2)" into the device and the measurements.
+   */
+  private static InsertTemplate parseTemplate(String prefix) {
+    Scanner scanner = new Scanner(prefix);
+    scanner.skipWhitespace();
+    if (!scanner.nextKeyword("insert") || !scanner.nextKeyword("into")
+        || !scanner.nextKeyword(SQLConstant.ROOT)) {
+      return INVALID_TEMPLATE;
+    }
+    StringBuilder deviceId = new StringBuilder(SQLConstant.ROOT);
+    while (scanner.nextSymbol('.')) {
+      String nodeName = scanner.nextIdentifier();
+      if (nodeName == null) {
+        return INVALID_TEMPLATE;
+      }
+      deviceId.append(TsFileConstant.PATH_SEPARATOR).append(nodeName);
+    }
+    if (deviceId.length() == SQLConstant.ROOT.length() || !scanner.nextSymbol('(')
+        || !scanner.nextKeyword("timestamp")) {
+      return INVALID_TEMPLATE;
+    }
+    List<String> measurements = new ArrayList<>();
+    while (scanner.nextSymbol(',')) {
+      String measurement = scanner.nextIdentifier();
+      if (measurement == null) {
+        return INVALID_TEMPLATE;
+      }
+      measurements.add(measurement);
+    }
+    if (measurements.isEmpty() || !scanner.nextSymbol(')') || !scanner.isEnd()) {
+      return INVALID_TEMPLATE;
+    }
+    return new InsertTemplate(deviceId.toString(), measurements.toArray(new String[0]));
+  }
+
+  private static class InsertTemplate {
+
+    private String deviceId;
+    private String[] measurements;
+
+    private InsertTemplate(String deviceId, String[] measurements) {
+      this.deviceId = deviceId;
+      this.measurements = measurements;
+    }
+  }
+
+  /**
+   * Scanner reads the tokens of an insert statement by the rules of TSLexer.
+   */
+  private static class Scanner {
+
+    private String sql;
+    private int pos;
+
+    private Scanner(String sql) {
+      this.sql = sql;
+    }
+
+    private boolean isEnd() {
+      return pos == sql.length();
+    }
+
+    private void skipWhitespace() {
+      while (pos < sql.length()) {
+        char c = sql.charAt(pos);
+        if (c != ' ' && c != '\r' && c != '\t' && c != '\n') {
+          return;
+        }
+        pos++;
+      }
+    }
+
+    /**
+     * read the symbol and the whitespaces after it.
+     */
+    private boolean nextSymbol(char symbol) {
+      if (pos < sql.length() && sql.charAt(pos) == symbol) {
+        pos++;
+        skipWhitespace();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * read the keyword, which is case insensitive, and the whitespaces after it.
+     */
+    private boolean nextKeyword(String keyword) {
+      String word = nextWord();
+      if (word == null || !word.equalsIgnoreCase(keyword)) {
+        return false;
+      }
+      skipWhitespace();
+      return true;
+    }
+
+    /**
+     * read an identifier which is not a keyword and the whitespaces after it.
+     */
+    private String nextIdentifier() {
+      String word = nextWord();
+      if (word == null || KEYWORDS.contains(word.toLowerCase())) {
+        return null;
+      }
+      skipWhitespace();
+      return word;
+    }
+
+    private String nextWord() {
+      int start = pos;
+      if (pos < sql.length() && (isLetter(sql.charAt(pos)) || sql.charAt(pos) == '_')) {
+        pos++;
+        while (pos < sql.length() && (isLetter(sql.charAt(pos)) || isDigit(sql.charAt(pos))
+            || sql.charAt(pos) == '_' || sql.charAt(pos) == '-')) {
+          pos++;
+        }
+        return sql.substring(start, pos);
+      }
+      return null;
+    }
+
+    /**
+     * @return the unsigned integer time and read the whitespaces after it, or -1 if the time is
+     * in another form.
+     */
+    private long nextTime() {
+      int start = pos;
+      skipDigits();
+      if (pos == start || !isTokenEnd()) {
+        return -1;
+      }
+      try {
+        long time = Long.parseLong(sql.substring(start, pos));
+        skipWhitespace();
+        return time;
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+
+    /**
+     * @return the text of a number, boolean or string value as the full parser gives it and read
+     * the whitespaces after it, or null if the value is in another form.
+     */
+    private String nextValue() {
+      if (pos == sql.length()) {
+        return null;
+      }
+      int start = pos;
+      char c = sql.charAt(pos);
+      String value;
+      if (c == '\'' || c == '"') {
+        value = skipString(c) ? sql.substring(start, pos) : null;
+      } else if (isLetter(c)) {
+        value = nextWord();
+        if (!SQLConstant.BOOLEN_TRUE.equalsIgnoreCase(value)
+            && !SQLConstant.BOOLEN_FALSE.equalsIgnoreCase(value)) {
+          value = null;
+        }
+      } else {
+        value = skipNumber() ? sql.substring(start, pos) : null;
+      }
+      if (value == null || !isTokenEnd()) {
+        return null;
+      }
+      skipWhitespace();
+      return value;
+    }
+
+    /**
+     * skip a quoted string, in which a quote is escaped by doubling it or by a backslash.
+     */
+    private boolean skipString(char quote) {
+      pos++;
+      while (pos < sql.length()) {
+        char c = sql.charAt(pos);
+        if (c == '\\' && pos + 1 < sql.length()
+            && (sql.charAt(pos + 1) == '\\' || sql.charAt(pos + 1) == quote)) {
+          pos += 2;
+        } else if (c == quote) {
+          if (pos + 1 < sql.length() && sql.charAt(pos + 1) == quote) {
+            pos += 2;
+          } else {
+            pos++;
+            return true;
+          }
+        } else {
+          pos++;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * skip a number like "-12", "+1.5" or "1.5e-3".
+     */
+    private boolean skipNumber() {
+      if (sql.charAt(pos) == '+' || sql.charAt(pos) == '-') {
+        pos++;
+      }
+      int start = pos;
+      skipDigits();
+      if (pos == start) {
+        return false;
+      }
+      if (pos < sql.length() && sql.charAt(pos) == '.') {
+        pos++;
+        start = pos;
+        skipDigits();
+        if (pos == start) {
+          return false;
+        }
+        if (pos < sql.length() && (sql.charAt(pos) == 'e' || sql.charAt(pos) == 'E')) {
+          pos++;
+          if (pos < sql.length() && (sql.charAt(pos) == '+' || sql.charAt(pos) == '-')) {
+            pos++;
+          }
+          start = pos;
+          skipDigits();
+          return pos != start;
+        }
+      }
+      return true;
+    }
+
+    private void skipDigits() {
+      while (pos < sql.length() && isDigit(sql.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    /**
+     * a value or the time must be followed by a whitespace, ',' or ')', otherwise it may be a
+     * datetime or another form which is left to the full parser.
+     */
+    private boolean isTokenEnd() {
+      if (pos == sql.length()) {
+        return true;
+      }
+      char c = sql.charAt(pos);
+      return c == ',' || c == ')' || c == ' ' || c == '\r' || c == '\t' || c == '\n';
+    }
+
+    private static boolean isLetter(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+    }
+  }
+}
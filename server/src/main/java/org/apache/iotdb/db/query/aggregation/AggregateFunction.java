@@ -24,7 +24,9 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
 public abstract class AggregateFunction {
@@ -56,6 +58,26 @@ public abstract class AggregateFunction {
   public abstract void calculateValueFromPageHeader(PageHeader pageHeader)
       throws ProcessorException;
 
+  /**
+   * <p>
+   * Calculate the aggregation using the statistics of a whole chunk in <code>ChunkMetaData</code>.
+   * They are the same kind of statistics as in a <code>PageHeader</code>, so the chunk is
+   * calculated as one big page.
+   * </p>
+   *
+   * @param chunkMetaData <code>ChunkMetaData</code> whose digest contains the statistics
+   */
+  public void calculateValueFromChunkMetaData(ChunkMetaData chunkMetaData)
+      throws IOException, ProcessorException {
+    Statistics statistics = Statistics
+        .deserialize(chunkMetaData.getDigest(), chunkMetaData.getTsDataType());
+    if (statistics == null) {
+      throw new ProcessorException("ChunkMetaData contains no statistics");
+    }
+    calculateValueFromPageHeader(new PageHeader(0, 0, (int) chunkMetaData.getNumOfPoints(),
+        statistics, chunkMetaData.getEndTime(), chunkMetaData.getStartTime()));
+  }
+
   /**
    * <p>
    * Could not calculate using <method>calculateValueFromPageHeader</method> directly. Calculate the
@@ -31,6 +31,11 @@ import org.apache.iotdb.tsfile.read.common.BatchData;
 
 public class LastAggrFunc extends AggregateFunction {
 
+  /**
+   * the time of the last value, kept as getResult() hides it.
+   */
+  private long lastTime = Long.MIN_VALUE;
+
   public LastAggrFunc(TSDataType dataType) {
     super(dataType);
   }
@@ -38,6 +43,7 @@ public class LastAggrFunc extends AggregateFunction {
   @Override
   public void init() {
     resultData.reset();
+    lastTime = Long.MIN_VALUE;
   }
 
   @Override
@@ -138,12 +144,18 @@ public class LastAggrFunc extends AggregateFunction {
     return false;
   }
 
+  public long getLastTime() {
+    return lastTime;
+  }
+
   private void updateLastResult(long time, Object value) {
     if (!resultData.isSetTime()) {
       resultData.putTimeAndValue(time, value);
+      lastTime = time;
     } else {
       if (time >= resultData.getTimestamp()) {
         resultData.putTimeAndValue(time, value);
+        lastTime = time;
       }
     }
   }
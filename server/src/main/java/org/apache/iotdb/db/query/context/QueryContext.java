@@ -54,9 +54,11 @@ public class QueryContext {
 
   /**
    * Find the modifications of timeseries 'path' in 'modFile'. If they are not in the cache, read
-   * them from 'modFile' and put then into the cache.
+   * them from 'modFile' and put then into the cache. Synchronized as the series of a query may be
+   * read by several threads.
    */
-  public List<Modification> getPathModifications(ModificationFile modFile, String path) {
+  public synchronized List<Modification> getPathModifications(ModificationFile modFile,
+      String path) {
 
     Map<String, List<Modification>> fileModifications =
         filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new HashMap<>());
@@ -29,11 +29,13 @@ import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.executor.QueryTaskExecutor;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.expression.ExpressionType;
 import org.apache.iotdb.tsfile.read.expression.IBinaryExpression;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
  * <p>
@@ -45,6 +47,8 @@ import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
  *     - remind StorageEngine that some files are being used
  * 4. getQueryDataSource - open files for the job or reuse existing readers.
  * 5. endQueryForGivenJob - putBack the resource used by this job.
+ * Tasks that read series of a job in parallel are submitted through getQueryTaskExecutor and are
+ * cancelled by endQueryForGivenJob.
  * </p>
  */
 public class QueryResourceManager {
@@ -88,8 +92,14 @@ public class QueryResourceManager {
   private ConcurrentHashMap<Long, ConcurrentHashMap<String, List<Integer>>> queryTokensMap;
   private JobFileManager filePathsManager;
   private AtomicLong maxJobId;
+  /**
+   * Map&lt;jobId, QueryTaskExecutor&gt;, only the jobs that have submitted parallel tasks are
+   * contained.
+   */
+  private ConcurrentHashMap<Long, QueryTaskExecutor> queryTaskExecutorMap;
   private QueryResourceManager() {
     queryTokensMap = new ConcurrentHashMap<>();
+    queryTaskExecutorMap = new ConcurrentHashMap<>();
     filePathsManager = new JobFileManager();
     maxJobId = new AtomicLong(0);
   }
@@ -158,8 +168,18 @@ public class QueryResourceManager {
 
   public QueryDataSource getQueryDataSource(Path selectedPath,
       QueryContext context) throws StorageEngineException {
+    return getQueryDataSource(selectedPath, context, null);
+  }
+
+  /**
+   * @param timeFilter the filter on time of the query, only the files that may have data in its
+   * range are returned. Null to get all the files of the series.
+   */
+  public QueryDataSource getQueryDataSource(Path selectedPath,
+      QueryContext context, Filter timeFilter) throws StorageEngineException {
 
-    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath, null);
+    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath,
+        timeFilter);
     QueryDataSource queryDataSource = StorageEngine
         .getInstance().query(singleSeriesExpression, context);
 
@@ -169,11 +189,28 @@ public class QueryResourceManager {
     return queryDataSource;
   }
 
+  /**
+   * Get the executor through which the tasks reading series of the given job are run in parallel.
+   */
+  public QueryTaskExecutor getQueryTaskExecutor(long jobId) {
+    return queryTaskExecutorMap.computeIfAbsent(jobId, k -> new QueryTaskExecutor());
+  }
+
   /**
    * Whenever the jdbc request is closed normally or abnormally, this method must be invoked. All
    * query tokens created by this jdbc request must be cleared.
    */
   public void endQueryForGivenJob(long jobId) throws StorageEngineException {
+    // stop the tasks of the job before the files they read are released
+    QueryTaskExecutor queryTaskExecutor = queryTaskExecutorMap.remove(jobId);
+    if (queryTaskExecutor != null) {
+      try {
+        queryTaskExecutor.cancel();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StorageEngineException(e);
+      }
+    }
     if (queryTokensMap.get(jobId) == null) {
       // no resource need to be released.
       return;
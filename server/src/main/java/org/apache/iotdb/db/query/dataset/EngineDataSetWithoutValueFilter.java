@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.query.dataset;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
@@ -58,14 +59,24 @@ public class EngineDataSetWithoutValueFilter extends QueryDataSet {
   public EngineDataSetWithoutValueFilter(List<Path> paths, List<TSDataType> dataTypes,
                                          List<IPointReader> readers)
       throws IOException {
+    this(paths, dataTypes, readers, false);
+  }
+
+  /**
+   * @param isReverse true if the readers return their points in descending time order, then the
+   * rows are also returned in descending time order
+   */
+  public EngineDataSetWithoutValueFilter(List<Path> paths, List<TSDataType> dataTypes,
+      List<IPointReader> readers, boolean isReverse) throws IOException {
     super(paths, dataTypes);
     this.seriesReaderWithoutValueFilterList = readers;
-    initHeap();
+    initHeap(isReverse);
   }
 
-  private void initHeap() throws IOException {
+  private void initHeap(boolean isReverse) throws IOException {
     timeSet = new HashSet<>();
-    timeHeap = new PriorityQueue<>();
+    timeHeap = isReverse ? new PriorityQueue<>(Collections.reverseOrder())
+        : new PriorityQueue<>();
     cacheTimeValueList = new TimeValuePair[seriesReaderWithoutValueFilterList.size()];
 
     for (int i = 0; i < seriesReaderWithoutValueFilterList.size(); i++) {
@@ -85,6 +96,7 @@ public class EngineDataSetWithoutValueFilter extends QueryDataSet {
 
   @Override
   public RowRecord next() throws IOException {
+    // the min time, or the max time in reverse order
     long minTime = timeHeapGet();
 
     RowRecord record = new RowRecord(minTime);
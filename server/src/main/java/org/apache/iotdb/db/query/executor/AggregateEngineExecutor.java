@@ -22,7 +22,11 @@ package org.apache.iotdb.db.query.executor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.LastValueCache;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
@@ -44,7 +48,10 @@ import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader
 import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -92,6 +99,8 @@ public class AggregateEngineExecutor {
     List<IAggregateReader> readersOfSequenceData = new ArrayList<>();
     List<IPointReader> readersOfUnSequenceData = new ArrayList<>();
     List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+    // results answered by the latest points of the series, null if the series must be read
+    AggreResultData[] resultsOfLastPair = new AggreResultData[selectedSeries.size()];
     for (int i = 0; i < selectedSeries.size(); i++) {
       // construct AggregateFunction
       TSDataType tsDataType = MManager.getInstance()
@@ -100,8 +109,18 @@ public class AggregateEngineExecutor {
       function.init();
       aggregateFunctions.add(function);
 
+      if (timeFilter == null && LastValueCache.getInstance().isEnabled()
+          && (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc)) {
+        TimeValuePair lastPair = LastQueryExecutor
+            .calculateLastPair(selectedSeries.get(i), tsDataType, context);
+        resultsOfLastPair[i] = getResultOfLastPair(function, lastPair);
+        readersOfSequenceData.add(null);
+        readersOfUnSequenceData.add(null);
+        continue;
+      }
+
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(selectedSeries.get(i), context);
+          .getQueryDataSource(selectedSeries.get(i), context, timeFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       IAggregateReader seqResourceIterateReader;
@@ -121,15 +140,109 @@ public class AggregateEngineExecutor {
       readersOfUnSequenceData.add(unseqResourceMergeReader);
     }
     List<AggreResultData> aggreResultDataList = new ArrayList<>();
-    //TODO use multi-thread
-    for (int i = 0; i < selectedSeries.size(); i++) {
-      AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
-      aggreResultDataList.add(aggreResultData);
+    if (selectedSeries.size() > 1
+        && IoTDBDescriptor.getInstance().getConfig().getMaxParallelismPerQuery() > 1) {
+      // the series are independent, aggregate them in the query threads
+      QueryTaskExecutor taskExecutor = QueryResourceManager.getInstance()
+          .getQueryTaskExecutor(context.getJobId());
+      List<Future<AggreResultData>> futures = new ArrayList<>();
+      for (int i = 0; i < selectedSeries.size(); i++) {
+        if (resultsOfLastPair[i] != null) {
+          continue;
+        }
+        AggregateFunction function = aggregateFunctions.get(i);
+        IAggregateReader sequenceReader = readersOfSequenceData.get(i);
+        IPointReader unSequenceReader = readersOfUnSequenceData.get(i);
+        Filter filter = timeFilter;
+        futures.add(taskExecutor.submit(
+            () -> aggregateWithoutValueFilter(function, sequenceReader, unSequenceReader, filter)));
+      }
+      int futureIndex = 0;
+      for (AggreResultData resultOfLastPair : resultsOfLastPair) {
+        aggreResultDataList.add(resultOfLastPair != null ? resultOfLastPair
+            : getAggregateResult(futures.get(futureIndex++)));
+      }
+    } else {
+      for (int i = 0; i < selectedSeries.size(); i++) {
+        if (resultsOfLastPair[i] != null) {
+          aggreResultDataList.add(resultsOfLastPair[i]);
+          continue;
+        }
+        AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
+            readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
+        aggreResultDataList.add(aggreResultData);
+      }
     }
     return constructDataSet(aggreResultDataList);
   }
 
+  /**
+   * answer last or max_time from the latest point of the series.
+   *
+   * @param lastPair the latest point, whose value is null if the series has no data
+   */
+  private AggreResultData getResultOfLastPair(AggregateFunction function, TimeValuePair lastPair) {
+    AggreResultData resultData = function.getResult();
+    if (lastPair.getValue() == null) {
+      return resultData;
+    }
+    if (function instanceof LastAggrFunc) {
+      resultData.putTimeAndValue(0, lastPair.getValue().getValue());
+    } else {
+      resultData.putTimeAndValue(0, lastPair.getTimestamp());
+    }
+    return resultData;
+  }
+
+  /**
+   * read the latest point of one series from its data, newest files first.
+   *
+   * @return the latest point, whose value is null if the series has no data
+   */
+  TimeValuePair readLastPair(Path path, TSDataType dataType, QueryContext context)
+      throws StorageEngineException, IOException, ProcessorException {
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, context, null);
+    IAggregateReader sequenceReader = new SeqResourceIterateReader(
+        queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), null, context, true);
+    IPointReader unSequenceReader = new UnseqResourceMergeReader(queryDataSource.getSeriesPath(),
+        queryDataSource.getUnseqResources(), context, null);
+    LastAggrFunc function = new LastAggrFunc(dataType);
+    function.init();
+    AggreResultData resultData = handleLastMaxTimeWithOutTimeGenerator(function, sequenceReader,
+        unSequenceReader, null);
+    if (!resultData.isSetValue()) {
+      return new TimeValuePair(Long.MIN_VALUE, null);
+    }
+    return new TimeValuePair(function.getLastTime(),
+        TsPrimitiveType.getByType(dataType, resultData.getValue()));
+  }
+
+  /**
+   * wait for the aggregation task of one series and rethrow its exception.
+   */
+  private AggreResultData getAggregateResult(Future<AggreResultData> future)
+      throws IOException, ProcessorException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessorException(e);
+    } catch (CancellationException e) {
+      throw new ProcessorException("The aggregation is cancelled");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof ProcessorException) {
+        throw (ProcessorException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ProcessorException(cause);
+    }
+  }
+
   /**
    * calculation aggregate result with only time filter or no filter for one series.
    *
@@ -147,16 +260,25 @@ public class AggregateEngineExecutor {
           filter);
     }
 
-    while (sequenceReader.hasNext()) {
-      PageHeader pageHeader = sequenceReader.nextPageHeader();
-      // judge if overlap with unsequence data
-      if (canUseHeader(function, pageHeader, unSequenceReader, filter)) {
-        // cal by pageHeader
-        function.calculateValueFromPageHeader(pageHeader);
-        sequenceReader.skipPageData();
+    while (true) {
+      ChunkMetaData chunkMetaData = sequenceReader.nextChunkMetaData();
+      if (canUseChunkMetaData(function, chunkMetaData, unSequenceReader, filter)) {
+        // cal by the statistics of the whole chunk without reading it
+        function.calculateValueFromChunkMetaData(chunkMetaData);
+        sequenceReader.skipChunkData();
+      } else if (sequenceReader.hasNext()) {
+        PageHeader pageHeader = sequenceReader.nextPageHeader();
+        // judge if overlap with unsequence data
+        if (canUseHeader(function, pageHeader, unSequenceReader, filter)) {
+          // cal by pageHeader
+          function.calculateValueFromPageHeader(pageHeader);
+          sequenceReader.skipPageData();
+        } else {
+          // cal by pageData
+          function.calculateValueFromPageData(sequenceReader.nextBatch(), unSequenceReader);
+        }
       } else {
-        // cal by pageData
-        function.calculateValueFromPageData(sequenceReader.nextBatch(), unSequenceReader);
+        break;
       }
 
       if (function.isCalculatedAggregationResult()) {
@@ -181,64 +303,82 @@ public class AggregateEngineExecutor {
     if (pageHeader == null) {
       return false;
     }
+    return canUseStatistics(function, pageHeader.getMinTimestamp(),
+        pageHeader.getMaxTimestamp(), unSequenceReader, filter);
+  }
 
-    long minTime = pageHeader.getMinTimestamp();
-    long maxTime = pageHeader.getMaxTimestamp();
+  /**
+   * determine whether the statistics in chunkMetaData can be used to compute aggregation results,
+   * so that the chunk need not be read at all.
+   */
+  private boolean canUseChunkMetaData(AggregateFunction function, ChunkMetaData chunkMetaData,
+      IPointReader unSequenceReader, Filter filter) throws IOException, ProcessorException {
+    // no chunk can be skipped now, or the chunk is written without statistics
+    if (chunkMetaData == null || chunkMetaData.getDigest() == null
+        || chunkMetaData.getDigest().getStatistics() == null) {
+      return false;
+    }
+    // the statistics still count the points that have been deleted
+    if (chunkMetaData.getDeletedAt() >= chunkMetaData.getStartTime()) {
+      return false;
+    }
+    return canUseStatistics(function, chunkMetaData.getStartTime(), chunkMetaData.getEndTime(),
+        unSequenceReader, filter);
+  }
 
-    // If there are points in the page that do not satisfy the time filter,
-    // page header cannot be used to calculate.
+  /**
+   * determine whether the statistics of sequence data in [minTime, maxTime] can be used to compute
+   * aggregation results.
+   */
+  private boolean canUseStatistics(AggregateFunction function, long minTime, long maxTime,
+      IPointReader unSequenceReader, Filter filter) throws IOException, ProcessorException {
+    // If there are points in the page or chunk that do not satisfy the time filter,
+    // the statistics cannot be used to calculate.
     if (filter != null && !filter.containStartEndTime(minTime, maxTime)) {
       return false;
     }
 
-    // cal unsequence data with timestamps between pages.
+    // cal unsequence data with timestamps between pages or chunks.
     function.calculateValueFromUnsequenceReader(unSequenceReader, minTime);
 
     return !(unSequenceReader.hasNext() && unSequenceReader.current().getTimestamp() <= maxTime);
-
   }
 
   /**
    * handle last and max_time aggregate function with only time filter or no filter.
    *
    * @param function aggregate function
-   * @param sequenceReader sequence data reader
+   * @param sequenceReader sequence data reader in reverse order
    * @param unSequenceReader unsequence data reader
    * @return BatchData-aggregate result
    */
   private AggreResultData handleLastMaxTimeWithOutTimeGenerator(AggregateFunction function,
       IAggregateReader sequenceReader, IPointReader unSequenceReader, Filter timeFilter)
       throws IOException, ProcessorException {
-    long lastBatchTimeStamp = Long.MIN_VALUE;
-    boolean isChunkEnd = false;
-    while (sequenceReader.hasNext()) {
+    // the chunks and the pages are iterated from the newest one, so the sequence data is done
+    // once a chunk or a page with data is calculated
+    while (true) {
+      ChunkMetaData chunkMetaData = sequenceReader.nextChunkMetaData();
+      if (canUseChunkMetaData(function, chunkMetaData, unSequenceReader, timeFilter)) {
+        function.calculateValueFromChunkMetaData(chunkMetaData);
+        sequenceReader.skipChunkData();
+        break;
+      }
+      if (!sequenceReader.hasNext()) {
+        break;
+      }
       PageHeader pageHeader = sequenceReader.nextPageHeader();
       // judge if overlap with unsequence data
       if (canUseHeader(function, pageHeader, unSequenceReader, timeFilter)) {
         // cal by pageHeader
         function.calculateValueFromPageHeader(pageHeader);
         sequenceReader.skipPageData();
-
-        if (lastBatchTimeStamp > pageHeader.getMinTimestamp()) {
-          // the chunk is end.
-          isChunkEnd = true;
-        } else {
-          // current page and last page are in the same chunk.
-          lastBatchTimeStamp = pageHeader.getMinTimestamp();
-        }
-      } else {
-        // cal by pageData
-        BatchData batchData = sequenceReader.nextBatch();
-        if (lastBatchTimeStamp > batchData.currentTime()) {
-          // the chunk is end.
-          isChunkEnd = true;
-        } else {
-          // current page and last page are in the same chunk.
-          lastBatchTimeStamp = batchData.currentTime();
-        }
-        function.calculateValueFromPageData(batchData, unSequenceReader);
+        break;
       }
-      if (isChunkEnd) {
+      // cal by pageData, a page may have no data left after deletion or filtering
+      BatchData batchData = sequenceReader.nextBatch();
+      if (batchData.hasNext()) {
+        function.calculateValueFromPageData(batchData, unSequenceReader);
         break;
       }
     }
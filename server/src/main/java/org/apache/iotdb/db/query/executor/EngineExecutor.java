@@ -21,6 +21,7 @@ package org.apache.iotdb.db.query.executor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.metadata.MManager;
@@ -30,8 +31,10 @@ import org.apache.iotdb.db.query.dataset.EngineDataSetWithValueFilter;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.seriesRelated.ReverseSeriesReaderWithoutValueFilter;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.query.reader.universal.PrefetchPointReader;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -47,8 +50,18 @@ public class EngineExecutor {
 
   private QueryExpression queryExpression;
 
+  /**
+   * true to return the rows in descending time order, only for queries without value filter.
+   */
+  private boolean isReverse;
+
   public EngineExecutor(QueryExpression queryExpression) {
+    this(queryExpression, false);
+  }
+
+  public EngineExecutor(QueryExpression queryExpression, boolean isReverse) {
     this.queryExpression = queryExpression;
+    this.isReverse = isReverse;
   }
 
   /**
@@ -64,23 +77,40 @@ public class EngineExecutor {
       timeFilter = ((GlobalTimeExpression) queryExpression.getExpression()).getFilter();
     }
 
+    // read the series in the query threads if there are more than one
+    QueryTaskExecutor taskExecutor = null;
+    if (queryExpression.getSelectedSeries().size() > 1
+        && IoTDBDescriptor.getInstance().getConfig().getMaxParallelismPerQuery() > 1) {
+      taskExecutor = QueryResourceManager.getInstance().getQueryTaskExecutor(context.getJobId());
+    }
+
     List<IPointReader> readersOfSelectedSeries = new ArrayList<>();
     List<TSDataType> dataTypes = new ArrayList<>();
     for (Path path : queryExpression.getSelectedSeries()) {
+      TSDataType dataType;
       try {
         // add data type
-        dataTypes.add(MManager.getInstance().getSeriesType(path.getFullPath()));
+        dataType = MManager.getInstance().getSeriesType(path.getFullPath());
+        dataTypes.add(dataType);
       } catch (PathErrorException e) {
         throw new StorageEngineException(e);
       }
 
-      IPointReader reader = new SeriesReaderWithoutValueFilter(path, timeFilter, context);
+      IPointReader reader;
+      if (isReverse) {
+        reader = new ReverseSeriesReaderWithoutValueFilter(path, timeFilter, context);
+      } else {
+        reader = new SeriesReaderWithoutValueFilter(path, timeFilter, context);
+      }
+      if (taskExecutor != null) {
+        reader = new PrefetchPointReader(reader, dataType, taskExecutor);
+      }
       readersOfSelectedSeries.add(reader);
     }
 
     try {
       return new EngineDataSetWithoutValueFilter(queryExpression.getSelectedSeries(), dataTypes,
-          readersOfSelectedSeries);
+          readersOfSelectedSeries, isReverse);
     } catch (IOException e) {
       throw new StorageEngineException(e);
     }
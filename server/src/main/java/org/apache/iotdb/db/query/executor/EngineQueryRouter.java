@@ -52,6 +52,17 @@ public class EngineQueryRouter implements IEngineQueryRouter {
   @Override
   public QueryDataSet query(QueryExpression queryExpression, QueryContext context)
       throws StorageEngineException {
+    return query(queryExpression, context, false);
+  }
+
+  @Override
+  public QueryDataSet reverseQuery(QueryExpression queryExpression, QueryContext context)
+      throws StorageEngineException {
+    return query(queryExpression, context, true);
+  }
+
+  private QueryDataSet query(QueryExpression queryExpression, QueryContext context,
+      boolean isReverse) throws StorageEngineException {
 
     if (queryExpression.hasQueryFilter()) {
       try {
@@ -59,9 +70,12 @@ public class EngineQueryRouter implements IEngineQueryRouter {
             .optimize(queryExpression.getExpression(), queryExpression.getSelectedSeries());
         queryExpression.setExpression(optimizedExpression);
         EngineExecutor engineExecutor =
-            new EngineExecutor(queryExpression);
+            new EngineExecutor(queryExpression, isReverse);
         if (optimizedExpression.getType() == ExpressionType.GLOBAL_TIME) {
           return engineExecutor.executeWithoutValueFilter(context);
+        } else if (isReverse) {
+          throw new StorageEngineException(
+              "Queries in reverse order do not support value filters");
         } else {
           return engineExecutor.executeWithValueFilter(context);
         }
@@ -71,7 +85,7 @@ public class EngineQueryRouter implements IEngineQueryRouter {
       }
     } else {
       EngineExecutor engineExecutor = new EngineExecutor(
-          queryExpression);
+          queryExpression, isReverse);
       try {
         return engineExecutor.executeWithoutValueFilter(context);
       } catch (IOException e) {
@@ -165,7 +179,7 @@ public class EngineQueryRouter implements IEngineQueryRouter {
   @Override
   public QueryDataSet fill(List<Path> fillPaths, long queryTime, Map<TSDataType, IFill> fillType,
       QueryContext context)
-      throws StorageEngineException, PathErrorException, IOException {
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException {
 
     long nextJobId = context.getJobId();
 
@@ -174,6 +188,13 @@ public class EngineQueryRouter implements IEngineQueryRouter {
     return fillEngineExecutor.execute(context);
   }
 
+  @Override
+  public QueryDataSet last(List<Path> selectedSeries, QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException {
+    LastQueryExecutor lastQueryExecutor = new LastQueryExecutor(selectedSeries);
+    return lastQueryExecutor.execute(context);
+  }
+
   /**
    * sort intervals by start time and merge overlapping intervals.
    *
@@ -23,8 +23,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.engine.cache.LastValueCache;
 import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
@@ -32,6 +34,7 @@ import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.query.fill.PreviousFill;
 import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
@@ -57,7 +60,7 @@ public class FillEngineExecutor {
    * @param context query context
    */
   public QueryDataSet execute(QueryContext context)
-      throws StorageEngineException, PathErrorException, IOException {
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException {
     QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(jobId, selectedSeries);
 
     List<IFill> fillList = new ArrayList<>();
@@ -73,7 +76,15 @@ public class FillEngineExecutor {
       }
       fill.setDataType(dataType);
       fill.setQueryTime(queryTime);
-      fill.constructReaders(path, context);
+      // the latest point of the series decides the previous fill unless it is after queryTime
+      boolean filled = false;
+      if (fill instanceof PreviousFill && LastValueCache.getInstance().isEnabled()) {
+        TimeValuePair lastPair = LastQueryExecutor.calculateLastPair(path, dataType, context);
+        filled = ((PreviousFill) fill).fillWithLastPair(lastPair);
+      }
+      if (!filled) {
+        fill.constructReaders(path, context);
+      }
       fillList.add(fill);
     }
 
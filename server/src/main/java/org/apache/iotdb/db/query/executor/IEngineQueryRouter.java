@@ -42,6 +42,13 @@ public interface IEngineQueryRouter {
   QueryDataSet query(QueryExpression queryExpression, QueryContext context)
       throws StorageEngineException, PathErrorException;
 
+  /**
+   * Execute physical plan in descending time order, so that the query can stop after the latest
+   * rows. Only a global time filter is supported.
+   */
+  QueryDataSet reverseQuery(QueryExpression queryExpression, QueryContext context)
+      throws StorageEngineException, PathErrorException;
+
   /**
    * Execute aggregation query.
    */
@@ -73,6 +80,15 @@ public interface IEngineQueryRouter {
    * @param fillType type IFill map
    */
   QueryDataSet fill(List<Path> fillPaths, long queryTime, Map<TSDataType, IFill> fillType,
-      QueryContext context) throws StorageEngineException, PathErrorException, IOException;
+      QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException;
+
+  /**
+   * Execute latest point query.
+   *
+   * @param selectedSeries select path list
+   */
+  QueryDataSet last(List<Path> selectedSeries, QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException;
 
 }
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.executor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.engine.cache.LastValueCache;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.query.aggregation.AggreResultData;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.dataset.AggreResultDataPointReader;
+import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+
+/**
+ * This class queries the latest point of each selected series, answering from LastValueCache
+ * when it can.
+ */
+public class LastQueryExecutor {
+
+  private List<Path> selectedSeries;
+
+  public LastQueryExecutor(List<Path> selectedSeries) {
+    this.selectedSeries = selectedSeries;
+  }
+
+  /**
+   * execute the latest point query, each series returns its latest point with its own timestamp.
+   *
+   * @param context query context
+   */
+  public QueryDataSet execute(QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException, ProcessorException {
+    QueryResourceManager
+        .getInstance().beginQueryOfGivenQueryPaths(context.getJobId(), selectedSeries);
+
+    List<TSDataType> dataTypes = new ArrayList<>();
+    List<IPointReader> readers = new ArrayList<>();
+    for (Path path : selectedSeries) {
+      TSDataType dataType = MManager.getInstance().getSeriesType(path.getFullPath());
+      TimeValuePair lastPair = calculateLastPair(path, dataType, context);
+      AggreResultData resultData = new AggreResultData(dataType);
+      if (lastPair.getValue() != null) {
+        resultData.putTimeAndValue(lastPair.getTimestamp(), lastPair.getValue().getValue());
+      }
+      dataTypes.add(dataType);
+      readers.add(new AggreResultDataPointReader(resultData));
+    }
+    return new EngineDataSetWithoutValueFilter(selectedSeries, dataTypes, readers);
+  }
+
+  /**
+   * get the latest point of a series from LastValueCache, or read it from the data newest files
+   * first and complete the cache with it. The paths of the query must have been registered in
+   * QueryResourceManager.
+   *
+   * @return the latest point, whose value is null if the series has no data
+   */
+  public static TimeValuePair calculateLastPair(Path path, TSDataType dataType,
+      QueryContext context) throws StorageEngineException, IOException, ProcessorException {
+    LastValueCache lastValueCache = LastValueCache.getInstance();
+    TimeValuePair lastPair = lastValueCache.get(path);
+    if (lastPair != null) {
+      return lastPair;
+    }
+    long version = lastValueCache.getVersion();
+    lastPair = new AggregateEngineExecutor(Collections.singletonList(path),
+        Collections.singletonList(StatisticConstant.LAST), null)
+        .readLastPair(path, dataType, context);
+    lastValueCache.complete(path, dataType, lastPair, version);
+    return lastPair;
+  }
+}
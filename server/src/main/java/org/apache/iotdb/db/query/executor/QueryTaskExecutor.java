@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+/**
+ * QueryTaskExecutor runs the tasks of one query on the threads of {@link QueryTaskPoolManager}.
+ * At most <code>maxParallelism</code> tasks of the query run at the same time, the others wait in
+ * the executor rather than in the shared pool, so that one query over many series cannot occupy
+ * all query threads.
+ * <p>
+ * A QueryTaskExecutor is created by {@link org.apache.iotdb.db.query.control.QueryResourceManager}
+ * for each query job and is cancelled when the job ends.
+ */
+public class QueryTaskExecutor {
+
+  private final int maxParallelism;
+
+  /**
+   * tasks submitted but not handed to the pool yet.
+   */
+  private final Queue<FutureTask<?>> pendingTasks = new ArrayDeque<>();
+
+  /**
+   * number of tasks handed to the pool but not finished yet.
+   */
+  private int runningTaskNum = 0;
+
+  private volatile boolean cancelled = false;
+
+  public QueryTaskExecutor() {
+    this(IoTDBDescriptor.getInstance().getConfig().getMaxParallelismPerQuery());
+  }
+
+  public QueryTaskExecutor(int maxParallelism) {
+    this.maxParallelism = Math.max(1, maxParallelism);
+  }
+
+  public int getMaxParallelism() {
+    return maxParallelism;
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    FutureTask<T> futureTask = new FutureTask<>(task);
+    submit(futureTask);
+    return futureTask;
+  }
+
+  public Future<?> submit(Runnable task) {
+    FutureTask<?> futureTask = new FutureTask<>(task, null);
+    submit(futureTask);
+    return futureTask;
+  }
+
+  private synchronized void submit(FutureTask<?> futureTask) {
+    if (cancelled) {
+      futureTask.cancel(false);
+    } else if (runningTaskNum < maxParallelism) {
+      runningTaskNum++;
+      QueryTaskPoolManager.getInstance().submit(new TaskRunner(futureTask));
+    } else {
+      pendingTasks.add(futureTask);
+    }
+  }
+
+  private synchronized void onTaskFinished() {
+    FutureTask<?> nextTask = cancelled ? null : pendingTasks.poll();
+    if (nextTask != null) {
+      QueryTaskPoolManager.getInstance().submit(new TaskRunner(nextTask));
+    } else {
+      runningTaskNum--;
+      if (runningTaskNum == 0) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Cancel the tasks that have not started and wait for the running ones to finish. Running tasks
+   * are not interrupted as an interrupt closes the file channels shared with other queries; long
+   * tasks should check <code>isCancelled</code> instead.
+   */
+  public synchronized void cancel() throws InterruptedException {
+    cancelled = true;
+    for (FutureTask<?> pendingTask : pendingTasks) {
+      pendingTask.cancel(false);
+    }
+    pendingTasks.clear();
+    while (runningTaskNum > 0) {
+      wait();
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  private class TaskRunner implements Runnable {
+
+    private FutureTask<?> task;
+
+    private TaskRunner(FutureTask<?> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } finally {
+        onTaskFinished();
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.pool.AbstractPoolManager;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * QueryTaskPoolManager holds the threads shared by all queries to read and aggregate series in
+ * parallel. Tasks of a query are submitted through its {@link QueryTaskExecutor}, which limits
+ * how many of them run at the same time.
+ */
+public class QueryTaskPoolManager extends AbstractPoolManager implements IService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryTaskPoolManager.class);
+
+  private QueryTaskPoolManager() {
+    int threadCnt = IoTDBDescriptor.getInstance().getConfig().getConcurrentQueryThread();
+    pool = IoTDBThreadPoolFactory.newFixedThreadPool(threadCnt, ThreadName.QUERY_SERVICE.getName());
+  }
+
+  public static QueryTaskPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  @Override
+  public Logger getLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public String getName() {
+    return "query task";
+  }
+
+  @Override
+  public synchronized void start() {
+    if (pool == null) {
+      int threadCnt = IoTDBDescriptor.getInstance().getConfig().getConcurrentQueryThread();
+      pool = IoTDBThreadPoolFactory
+          .newFixedThreadPool(threadCnt, ThreadName.QUERY_SERVICE.getName());
+    }
+    LOGGER.info("Query task manager started.");
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (pool != null) {
+      close();
+      pool = null;
+    }
+    LOGGER.info("Query task manager stopped");
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.QUERY_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static QueryTaskPoolManager instance = new QueryTaskPoolManager();
+  }
+}
@@ -22,14 +22,23 @@ import java.io.IOException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.ReverseSeriesReaderWithoutValueFilter;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 
 public class PreviousFill extends IFill {
 
   private long beforeRange;
 
+  /**
+   * the fill result decided by the latest point of the series, null if the data must be read
+   */
+  private TimeValuePair lastPairResult;
+
   public PreviousFill(TSDataType dataType, long queryTime, long beforeRange) {
     super(dataType, queryTime);
     this.beforeRange = beforeRange;
@@ -44,27 +53,50 @@ public class PreviousFill extends IFill {
     return new PreviousFill(dataType, queryTime, beforeRange);
   }
 
+  /**
+   * the data is read from queryTime backwards, so only the previous point is read.
+   */
   @Override
   public void constructReaders(Path path, QueryContext context)
       throws IOException, StorageEngineException {
-    super.constructReaders(path, context, beforeRange);
+    Filter timeFilter = TimeFilter.ltEq(queryTime);
+    if (beforeRange != -1) {
+      timeFilter = FilterFactory.and(TimeFilter.gtEq(queryTime - beforeRange), timeFilter);
+    }
+    allDataReader = new ReverseSeriesReaderWithoutValueFilter(path, timeFilter, context);
   }
 
   public long getBeforeRange() {
     return beforeRange;
   }
 
+  /**
+   * decide the fill result by the latest point of the series, so that no data is read.
+   *
+   * @param lastPair the latest point, whose value is null if the series has no data
+   * @return false if the latest point is after queryTime and the data must be read
+   */
+  public boolean fillWithLastPair(TimeValuePair lastPair) {
+    if (lastPair.getValue() != null && lastPair.getTimestamp() > queryTime) {
+      return false;
+    }
+    if (lastPair.getValue() == null
+        || beforeRange != -1 && lastPair.getTimestamp() < queryTime - beforeRange) {
+      lastPairResult = new TimeValuePair(queryTime, null);
+    } else {
+      lastPairResult = new TimeValuePair(queryTime, lastPair.getValue());
+    }
+    return true;
+  }
+
   @Override
   public IPointReader getFillResult() throws IOException {
+    if (lastPairResult != null) {
+      return new TimeValuePairPointReader(lastPairResult);
+    }
     TimeValuePair beforePair = null;
-    TimeValuePair cachedPair = null;
-    while (allDataReader.hasNext()) {
-      cachedPair = allDataReader.next();
-      if (cachedPair.getTimestamp() <= queryTime) {
-        beforePair = cachedPair;
-      } else {
-        break;
-      }
+    if (allDataReader.hasNext()) {
+      beforePair = allDataReader.next();
     }
 
     if (beforePair != null) {
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.query.reader;
 
 import java.io.IOException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 
 public interface IAggregateReader extends IBatchReader {
 
@@ -32,4 +33,19 @@ public interface IAggregateReader extends IBatchReader {
   PageHeader nextPageHeader() throws IOException;
 
   void skipPageData() throws IOException;
+
+  /**
+   * Returns the metadata of the next chunk if the data read so far ends at a chunk boundary and
+   * the next chunk on disk has not been loaded yet, so that the whole chunk can be skipped by
+   * <code>skipChunkData</code> without reading it.
+   * <p>
+   * Returns null if the next batch data comes from memory or from a chunk being read, or if there
+   * is no more data.
+   */
+  ChunkMetaData nextChunkMetaData() throws IOException;
+
+  /**
+   * Skips the chunk returned by the last call of <code>nextChunkMetaData</code>.
+   */
+  void skipChunkData() throws IOException;
 }
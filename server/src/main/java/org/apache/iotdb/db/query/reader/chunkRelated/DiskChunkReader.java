@@ -32,6 +32,9 @@ import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
  * Note that <code>ChunkReader</code> is an abstract class with three concrete classes, two of which
  * are used here: <code>ChunkReaderWithoutFilter</code> and <code>ChunkReaderWithFilter</code>.
  * <p>
+ * In reverse order, the pages are read from the last one to the first one and the points of each
+ * page from the last one to the first one, so the points are returned in descending time order.
+ * <p>
  * This class is used in {@link org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader}.
  */
 public class DiskChunkReader implements IPointReader {
@@ -39,12 +42,29 @@ public class DiskChunkReader implements IPointReader {
   private ChunkReader chunkReader;
   private BatchData data;
 
+  private boolean isReverse;
+  /**
+   * the index of the next point in data in reverse order
+   */
+  private int reverseIndex = -1;
+
   public DiskChunkReader(ChunkReader chunkReader) {
+    this(chunkReader, false);
+  }
+
+  public DiskChunkReader(ChunkReader chunkReader, boolean isReverse) {
     this.chunkReader = chunkReader;
+    this.isReverse = isReverse;
+    if (isReverse) {
+      chunkReader.enableReverse();
+    }
   }
 
   @Override
   public boolean hasNext() throws IOException {
+    if (isReverse) {
+      return hasPrevious();
+    }
     if (data != null && data.hasNext()) {
       return true;
     }
@@ -57,8 +77,25 @@ public class DiskChunkReader implements IPointReader {
     return false;
   }
 
+  private boolean hasPrevious() throws IOException {
+    if (reverseIndex >= 0) {
+      return true;
+    }
+    while (chunkReader.hasNextBatch()) {
+      data = chunkReader.nextBatch();
+      reverseIndex = data.length() - 1;
+      if (reverseIndex >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public TimeValuePair next() {
+    if (isReverse) {
+      return TimeValuePairUtils.getTimeValuePair(data, reverseIndex--);
+    }
     TimeValuePair timeValuePair = TimeValuePairUtils.getCurrentTimeValuePair(data);
     data.next();
     return timeValuePair;
@@ -66,6 +103,9 @@ public class DiskChunkReader implements IPointReader {
 
   @Override
   public TimeValuePair current() {
+    if (isReverse) {
+      return TimeValuePairUtils.getTimeValuePair(data, reverseIndex);
+    }
     return TimeValuePairUtils.getCurrentTimeValuePair(data);
   }
 
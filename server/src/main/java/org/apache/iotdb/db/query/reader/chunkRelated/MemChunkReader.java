@@ -18,14 +18,14 @@
  */
 package org.apache.iotdb.db.query.reader.chunkRelated;
 
-import java.util.Iterator;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunkIterator;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
-import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
@@ -38,17 +38,27 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
  */
 public class MemChunkReader implements IPointReader, IAggregateReader {
 
-  private Iterator<TimeValuePair> timeValuePairIterator;
+  /**
+   * the maximum number of points returned by nextBatch()
+   */
+  private static final int BATCH_SIZE = 4096;
+
+  private ReadOnlyMemChunkIterator pointIterator;
   private Filter filter;
   private boolean hasCachedTimeValuePair;
   private TimeValuePair cachedTimeValuePair;
 
-  private TSDataType dataType;
-
   public MemChunkReader(ReadOnlyMemChunk readableChunk, Filter filter) {
-    timeValuePairIterator = readableChunk.getIterator();
+    this(readableChunk, filter, false);
+  }
+
+  /**
+   * @param isReverse true to read the points in descending time order, and the batches from the
+   * newest to the oldest, each of which is still in ascending time order
+   */
+  public MemChunkReader(ReadOnlyMemChunk readableChunk, Filter filter, boolean isReverse) {
+    pointIterator = readableChunk.getPointIterator(isReverse);
     this.filter = filter;
-    this.dataType = readableChunk.getDataType();
   }
 
   @Override
@@ -56,54 +66,40 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
     if (hasCachedTimeValuePair) {
       return true;
     }
-    while (timeValuePairIterator.hasNext()) {
-      TimeValuePair timeValuePair = timeValuePairIterator.next();
-      if (filter == null || filter
-          .satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
-        hasCachedTimeValuePair = true;
-        cachedTimeValuePair = timeValuePair;
-        break;
+    while (pointIterator.hasNext()) {
+      if (filter == null || pointIterator.currentSatisfy(filter)) {
+        return true;
       }
+      pointIterator.next();
     }
-    return hasCachedTimeValuePair;
+    return false;
   }
 
   @Override
   public TimeValuePair next() {
-    if (hasCachedTimeValuePair) {
-      hasCachedTimeValuePair = false;
-      return cachedTimeValuePair;
-    } else {
-      return timeValuePairIterator.next();
-    }
+    TimeValuePair timeValuePair = current();
+    hasCachedTimeValuePair = false;
+    pointIterator.next();
+    return timeValuePair;
   }
 
   @Override
   public TimeValuePair current() {
     if (!hasCachedTimeValuePair) {
-      cachedTimeValuePair = timeValuePairIterator.next();
+      cachedTimeValuePair = pointIterator.currentTimeValuePair();
       hasCachedTimeValuePair = true;
     }
     return cachedTimeValuePair;
   }
 
+  /**
+   * the points are copied from the TVLists into the batch as primitives. A batch holds at most
+   * BATCH_SIZE points, so call hasNext() to know whether there are more.
+   */
   @Override
   public BatchData nextBatch() {
-    BatchData batchData = new BatchData(dataType, true);
-    if (hasCachedTimeValuePair) {
-      hasCachedTimeValuePair = false;
-      batchData.putTime(cachedTimeValuePair.getTimestamp());
-      batchData.putAnObject(cachedTimeValuePair.getValue().getValue());
-    }
-    while (timeValuePairIterator.hasNext()) {
-      TimeValuePair timeValuePair = timeValuePairIterator.next();
-      if (filter == null || filter
-          .satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
-        batchData.putTime(timeValuePair.getTimestamp());
-        batchData.putAnObject(timeValuePair.getValue().getValue());
-      }
-    }
-    return batchData;
+    hasCachedTimeValuePair = false;
+    return pointIterator.nextBatch(filter, BATCH_SIZE);
   }
 
   @Override
@@ -120,4 +116,14 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
   public void skipPageData() {
     nextBatch();
   }
+
+  @Override
+  public ChunkMetaData nextChunkMetaData() {
+    return null;
+  }
+
+  @Override
+  public void skipChunkData() {
+    throw new UnsupportedOperationException("Data in memory has no chunk metadata");
+  }
 }
\ No newline at end of file
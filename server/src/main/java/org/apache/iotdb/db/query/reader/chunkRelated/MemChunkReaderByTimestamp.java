@@ -18,11 +18,10 @@
  */
 package org.apache.iotdb.db.query.reader.chunkRelated;
 
-import java.util.Iterator;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunkIterator;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileReaderByTimestamp;
-import org.apache.iotdb.db.utils.TimeValuePair;
 
 /**
  * To read data in memory by timestamp, this class implements an interface {@link
@@ -33,46 +32,22 @@ import org.apache.iotdb.db.utils.TimeValuePair;
  */
 public class MemChunkReaderByTimestamp implements IReaderByTimestamp {
 
-  private Iterator<TimeValuePair> timeValuePairIterator;
-  private boolean hasCachedTimeValuePair;
-  private TimeValuePair cachedTimeValuePair;
+  private ReadOnlyMemChunkIterator pointIterator;
 
   public MemChunkReaderByTimestamp(ReadOnlyMemChunk readableChunk) {
-    timeValuePairIterator = readableChunk.getIterator();
+    pointIterator = readableChunk.getPointIterator();
   }
 
   @Override
   public boolean hasNext() {
-    if (hasCachedTimeValuePair) {
-      return true;
-    }
-    return timeValuePairIterator.hasNext();
+    return pointIterator.hasNext();
   }
 
-  private TimeValuePair next() {
-    if (hasCachedTimeValuePair) {
-      hasCachedTimeValuePair = false;
-      return cachedTimeValuePair;
-    } else {
-      return timeValuePairIterator.next();
-    }
-  }
-
-  // TODO consider change timeValuePairIterator to List structure, and use binary search instead of
-  // sequential search
+  /**
+   * the points before the timestamp are skipped by binary searches in the sorted TVLists.
+   */
   @Override
   public Object getValueInTimestamp(long timestamp) {
-    while (hasNext()) {
-      TimeValuePair timeValuePair = next();
-      long time = timeValuePair.getTimestamp();
-      if (time == timestamp) {
-        return timeValuePair.getValue().getValue();
-      } else if (time > timestamp) {
-        hasCachedTimeValuePair = true;
-        cachedTimeValuePair = timeValuePair;
-        break;
-      }
-    }
-    return null;
+    return pointIterator.getValueInTimestamp(timestamp);
   }
 }
@@ -19,17 +19,16 @@
 package org.apache.iotdb.db.query.reader.fileRelated;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
 import org.apache.iotdb.db.query.reader.chunkRelated.MemChunkReader;
 import org.apache.iotdb.db.query.reader.universal.IterateReader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
@@ -84,7 +83,8 @@ public class UnSealedTsFileIterateReader extends IterateReader {
     if (idx == 0) {
       if (enableReverse) {
         // data in memory first if it is to iterate over chunk data in reverse chronological order
-        currentSeriesReader = new MemChunkReader(unsealedTsFile.getReadOnlyMemChunk(), filter);
+        currentSeriesReader = new MemChunkReader(unsealedTsFile.getReadOnlyMemChunk(), filter,
+            true);
       } else {
         // data on disk first if it is to iterate over chunk data in chronological order
         currentSeriesReader = initUnSealedTsFileDiskReader(unsealedTsFile, filter);
@@ -108,14 +108,11 @@ public class UnSealedTsFileIterateReader extends IterateReader {
 
     // prepare metaDataList
     List<ChunkMetaData> metaDataList = unSealedTsFile.getChunkMetaDatas();
-    if (enableReverse && metaDataList != null && !metaDataList.isEmpty()) {
-      Collections.reverse(metaDataList);
-    }
 
     // prepare chunkLoader
     TsFileSequenceReader unClosedTsFileReader = FileReaderManager.getInstance()
         .get(unSealedTsFile.getFile().getPath(), false);
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(unClosedTsFileReader);
+    ChunkLoader chunkLoader = new DiskChunkLoader(unClosedTsFileReader);
 
     // init fileSeriesReader
     FileSeriesReader fileSeriesReader;
@@ -124,6 +121,9 @@ public class UnSealedTsFileIterateReader extends IterateReader {
     } else {
       fileSeriesReader = new FileSeriesReaderWithFilter(chunkLoader, metaDataList, filter);
     }
+    if (enableReverse) {
+      fileSeriesReader.enableReverse();
+    }
 
     return new FileSeriesReaderAdapter(fileSeriesReader);
   }
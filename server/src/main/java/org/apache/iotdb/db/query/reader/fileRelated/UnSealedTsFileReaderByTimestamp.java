@@ -22,10 +22,10 @@ import java.io.IOException;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
 import org.apache.iotdb.db.query.reader.chunkRelated.MemChunkReaderByTimestamp;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderByTimestamp;
 
 /**
@@ -65,7 +65,7 @@ public class UnSealedTsFileReaderByTimestamp implements IReaderByTimestamp {
     // create FileSeriesReaderByTimestamp for data which has been flushed to disk
     TsFileSequenceReader unClosedTsFileReader = FileReaderManager.getInstance()
         .get(unsealedTsFile.getFile().getPath(), false);
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(unClosedTsFileReader);
+    ChunkLoader chunkLoader = new DiskChunkLoader(unClosedTsFileReader);
     unSealedTsFileDiskReaderByTs = new FileSeriesReaderByTimestamp(chunkLoader,
         unsealedTsFile.getChunkMetaDatas());
 
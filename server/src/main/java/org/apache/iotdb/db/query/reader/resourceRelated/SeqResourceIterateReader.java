@@ -27,6 +27,7 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
 import org.apache.iotdb.db.query.reader.fileRelated.FileSeriesReaderAdapter;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
 import org.apache.iotdb.db.query.reader.universal.IterateReader;
@@ -35,7 +36,6 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
@@ -59,9 +59,10 @@ public class SeqResourceIterateReader extends IterateReader {
   /**
    * Whether the reverse order is enabled.
    * <p>
-   * True to iterate over the list of sequence TsFiles and chunks in TsFiles in reverse
-   * chronological order (from newest to oldest); False to iterate in chronological order (from
-   * oldest to newest).
+   * True to iterate over the list of sequence TsFiles, the chunks in TsFiles and the pages in
+   * chunks in reverse chronological order (from newest to oldest), while the points in each batch
+   * are still in chronological order; False to iterate in chronological order (from oldest to
+   * newest).
    */
   private boolean enableReverse;
 
@@ -167,13 +168,10 @@ public class SeqResourceIterateReader extends IterateReader {
       QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
     }
 
-    if (enableReverse) {
-      Collections.reverse(metaDataList);
-    }
     // prepare chunkLoader
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(sealedTsFile.getFile().getPath(), true);
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    ChunkLoader chunkLoader = new DiskChunkLoader(tsFileReader);
 
     // init fileSeriesReader
     FileSeriesReader fileSeriesReader;
@@ -182,6 +180,9 @@ public class SeqResourceIterateReader extends IterateReader {
     } else {
       fileSeriesReader = new FileSeriesReaderWithFilter(chunkLoader, metaDataList, filter);
     }
+    if (enableReverse) {
+      fileSeriesReader.enableReverse();
+    }
     return new FileSeriesReaderAdapter(fileSeriesReader);
   }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
 import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkReader;
 import org.apache.iotdb.db.query.reader.chunkRelated.MemChunkReader;
 import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
@@ -34,7 +35,7 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
@@ -57,6 +58,15 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
 
   public UnseqResourceMergeReader(Path seriesPath, List<TsFileResource> unseqResources,
       QueryContext context, Filter filter) throws IOException {
+    this(seriesPath, unseqResources, context, filter, false);
+  }
+
+  /**
+   * @param isReverse true to return the points in descending time order
+   */
+  public UnseqResourceMergeReader(Path seriesPath, List<TsFileResource> unseqResources,
+      QueryContext context, Filter filter, boolean isReverse) throws IOException {
+    super(isReverse);
     this.seriesPath = seriesPath;
 
     int priorityValue = 1;
@@ -84,12 +94,12 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         metaDataList = tsFileResource.getChunkMetaDatas();
       }
 
-      ChunkLoaderImpl chunkLoader = null;
+      ChunkLoader chunkLoader = null;
       if (!metaDataList.isEmpty()) {
         // create and add ChunkReader with priority
         TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
             .get(tsFileResource.getFile().getPath(), tsFileResource.isClosed());
-        chunkLoader = new ChunkLoaderImpl(tsFileReader);
+        chunkLoader = new DiskChunkLoader(tsFileReader);
       }
 
       for (ChunkMetaData chunkMetaData : metaDataList) {
@@ -109,13 +119,14 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         ChunkReader chunkReader = filter != null ? new ChunkReaderWithFilter(chunk, filter)
             : new ChunkReaderWithoutFilter(chunk);
 
-        addReaderWithPriority(new DiskChunkReader(chunkReader), priorityValue++);
+        addReaderWithPriority(new DiskChunkReader(chunkReader, isReverse), priorityValue++);
       }
 
       if (!tsFileResource.isClosed()) {
         // create and add MemChunkReader with priority
         addReaderWithPriority(
-            new MemChunkReader(tsFileResource.getReadOnlyMemChunk(), filter), priorityValue++);
+            new MemChunkReader(tsFileResource.getReadOnlyMemChunk(), filter, isReverse),
+            priorityValue++);
       }
     }
   }
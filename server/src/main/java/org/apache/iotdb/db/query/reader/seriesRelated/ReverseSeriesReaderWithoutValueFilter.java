@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.seriesRelated;
+
+import java.io.IOException;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
+import org.apache.iotdb.db.query.reader.universal.ReverseBatchPointReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * To read series data without value filter in descending time order, this class extends {@link
+ * PriorityMergeReader} in reverse order to merge the sequence data read from the newest TsFile to
+ * the oldest and the unsequence data, which overwrites the sequence data at the same timestamp.
+ * <p>
+ * The data is read lazily from the newest, so reading the latest N points of a series only loads
+ * the pages holding them.
+ */
+public class ReverseSeriesReaderWithoutValueFilter extends PriorityMergeReader {
+
+  private static final int SEQ_PRIORITY = 1;
+  private static final int UNSEQ_PRIORITY = 2;
+
+  /**
+   * Constructor function.
+   *
+   * @param seriesPath the path of the series data
+   * @param timeFilter time filter condition. Null if no filter.
+   * @param context query context
+   */
+  public ReverseSeriesReaderWithoutValueFilter(Path seriesPath, Filter timeFilter,
+      QueryContext context) throws StorageEngineException, IOException {
+    super(true);
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(seriesPath, context, timeFilter);
+
+    IPointReader seqReader = new ReverseBatchPointReader(new SeqResourceIterateReader(
+        queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), timeFilter, context,
+        true));
+    IPointReader unseqReader = new UnseqResourceMergeReader(queryDataSource.getSeriesPath(),
+        queryDataSource.getUnseqResources(), context, timeFilter, true);
+
+    addReaderWithPriority(seqReader, SEQ_PRIORITY);
+    addReaderWithPriority(unseqReader, UNSEQ_PRIORITY);
+  }
+}
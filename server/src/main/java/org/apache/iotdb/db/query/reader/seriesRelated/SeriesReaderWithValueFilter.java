@@ -24,6 +24,7 @@ import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
@@ -64,7 +65,7 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
     }
     while (super.hasNext()) {
       timeValuePair = super.next();
-      if (filter.satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
+      if (satisfy(timeValuePair)) {
         hasCachedValue = true;
         return true;
       }
@@ -72,6 +73,28 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
     return false;
   }
 
+  /**
+   * pass the primitive value to the filter so that it is not boxed.
+   */
+  private boolean satisfy(TimeValuePair timeValuePair) {
+    long time = timeValuePair.getTimestamp();
+    TsPrimitiveType value = timeValuePair.getValue();
+    switch (value.getDataType()) {
+      case BOOLEAN:
+        return filter.satisfy(time, value.getBoolean());
+      case INT32:
+        return filter.satisfy(time, value.getInt());
+      case INT64:
+        return filter.satisfy(time, value.getLong());
+      case FLOAT:
+        return filter.satisfy(time, value.getFloat());
+      case DOUBLE:
+        return filter.satisfy(time, value.getDouble());
+      default:
+        return filter.satisfy(time, value.getValue());
+    }
+  }
+
   @Override
   public TimeValuePair next() throws IOException {
     if (hasCachedValue || hasNext()) {
@@ -71,8 +71,9 @@ public class SeriesReaderWithoutValueFilter implements IPointReader {
    */
   protected SeriesReaderWithoutValueFilter(Path seriesPath, Filter filter, QueryContext context,
       boolean pushdownUnseq) throws StorageEngineException, IOException {
+    // only a time filter can be used to exclude files, which is the case when it is pushed down
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-        .getQueryDataSource(seriesPath, context);
+        .getQueryDataSource(seriesPath, context, pushdownUnseq ? filter : null);
 
     // reader for sequence resources
     IBatchReader seqResourceIterateReader = new SeqResourceIterateReader(
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.query.reader.universal;
 import java.io.IOException;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
 /**
@@ -83,6 +84,37 @@ public abstract class IterateReader implements IAggregateReader {
     currentSeriesReader.skipPageData();
   }
 
+  /**
+   * Unlike <code>hasNext</code>, this method moves to the next data source without loading any
+   * chunk of it, so the chunks of a data source can be skipped without reading them.
+   */
+  @Override
+  public ChunkMetaData nextChunkMetaData() throws IOException {
+    while (true) {
+      if (curReaderInitialized) {
+        ChunkMetaData chunkMetaData = currentSeriesReader.nextChunkMetaData();
+        if (chunkMetaData != null) {
+          return chunkMetaData;
+        }
+        // there is no chunk to skip, the current data source either has data in memory or in a
+        // chunk being read, or is used up
+        if (currentSeriesReader.hasNext()) {
+          return null;
+        }
+        curReaderInitialized = false;
+      }
+      if (nextSeriesReaderIndex >= readerSize) {
+        return null;
+      }
+      curReaderInitialized = constructNextReader(nextSeriesReaderIndex++);
+    }
+  }
+
+  @Override
+  public void skipChunkData() throws IOException {
+    currentSeriesReader.skipChunkData();
+  }
+
   @Override
   public void close() {
     // file stream is managed in QueryResourceManager.
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.query.executor.QueryTaskExecutor;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+
+/**
+ * PrefetchPointReader reads ahead the data of a series in the threads of a {@link
+ * QueryTaskExecutor}, so that the series of a query are read in parallel while the query thread
+ * only merges their points.
+ * <p>
+ * A read task reads at most <code>BATCH_SIZE</code> points into a batch and puts it into a bounded
+ * queue. It is resubmitted while the queue has room, otherwise the next task is submitted when the
+ * query thread takes a batch, so a read task never blocks a pool thread. A batch with fewer than
+ * <code>BATCH_SIZE</code> points is the last one.
+ */
+public class PrefetchPointReader implements IPointReader {
+
+  private static final int BATCH_SIZE = 4096;
+  private static final int QUEUE_CAPACITY = 2;
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final IPointReader reader;
+  private final TSDataType dataType;
+  private final QueryTaskExecutor taskExecutor;
+
+  private final BlockingQueue<BatchData> batchQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /**
+   * whether a read task is submitted and not finished, guarded by this.
+   */
+  private boolean isReading = false;
+  /**
+   * whether the last batch has been put into the queue, guarded by this.
+   */
+  private boolean isReadingFinished = false;
+  private volatile IOException readException;
+
+  private BatchData currentBatch;
+  private boolean isLastBatchTaken = false;
+  private TimeValuePair cachedPair;
+
+  public PrefetchPointReader(IPointReader reader, TSDataType dataType,
+      QueryTaskExecutor taskExecutor) {
+    this.reader = reader;
+    this.dataType = dataType;
+    this.taskExecutor = taskExecutor;
+    submitReadTask();
+  }
+
+  private synchronized void submitReadTask() {
+    if (!isReading && !isReadingFinished && batchQueue.remainingCapacity() > 0) {
+      isReading = true;
+      taskExecutor.submit(this::readBatch);
+    }
+  }
+
+  private void readBatch() {
+    BatchData batchData = new BatchData(dataType, true);
+    try {
+      while (batchData.length() < BATCH_SIZE && reader.hasNext()) {
+        TimeValuePair timeValuePair = reader.next();
+        batchData.putTime(timeValuePair.getTimestamp());
+        putValue(batchData, timeValuePair.getValue());
+      }
+    } catch (IOException e) {
+      readException = e;
+    } catch (RuntimeException e) {
+      readException = new IOException(e);
+    }
+    synchronized (this) {
+      if (readException != null) {
+        // drop the partial batch so that the query thread meets the exception
+        batchData = new BatchData(dataType, true);
+      }
+      // never blocks as a task is only submitted when the queue has room
+      batchQueue.add(batchData);
+      isReading = false;
+      isReadingFinished = batchData.length() < BATCH_SIZE;
+      if (!taskExecutor.isCancelled()) {
+        submitReadTask();
+      }
+    }
+  }
+
+  private void putValue(BatchData batchData, TsPrimitiveType value) {
+    switch (dataType) {
+      case BOOLEAN:
+        batchData.putBoolean(value.getBoolean());
+        break;
+      case INT32:
+        batchData.putInt(value.getInt());
+        break;
+      case INT64:
+        batchData.putLong(value.getLong());
+        break;
+      case FLOAT:
+        batchData.putFloat(value.getFloat());
+        break;
+      case DOUBLE:
+        batchData.putDouble(value.getDouble());
+        break;
+      case TEXT:
+        batchData.putBinary(value.getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    if (cachedPair != null) {
+      return true;
+    }
+    while (currentBatch == null || !currentBatch.hasNext()) {
+      if (isLastBatchTaken) {
+        return false;
+      }
+      currentBatch = takeBatch();
+    }
+    cachedPair = TimeValuePairUtils.getCurrentTimeValuePair(currentBatch);
+    currentBatch.next();
+    return true;
+  }
+
+  private BatchData takeBatch() throws IOException {
+    BatchData batchData = null;
+    try {
+      while (batchData == null) {
+        if (taskExecutor.isCancelled()) {
+          throw new IOException("The query is cancelled");
+        }
+        batchData = batchQueue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+    // the queue has room now
+    submitReadTask();
+    if (batchData.length() < BATCH_SIZE) {
+      isLastBatchTaken = true;
+      if (readException != null) {
+        throw readException;
+      }
+    }
+    return batchData;
+  }
+
+  @Override
+  public TimeValuePair next() throws IOException {
+    if (!hasNext()) {
+      throw new IOException("no next data");
+    }
+    TimeValuePair timeValuePair = cachedPair;
+    cachedPair = null;
+    return timeValuePair;
+  }
+
+  @Override
+  public TimeValuePair current() throws IOException {
+    if (!hasNext()) {
+      throw new IOException("no next data");
+    }
+    return cachedPair;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -27,12 +27,24 @@ import org.apache.iotdb.db.utils.TimeValuePair;
 
 /**
  * This class implements {@link IPointReader} for data sources with different priorities.
+ * <p>
+ * In reverse order, the data sources must return their points in descending time order, and the
+ * merged points are returned in descending time order as well.
  */
 public class PriorityMergeReader implements IPointReader {
 
   private List<IPointReader> readerList = new ArrayList<>();
   private List<Integer> priorityList = new ArrayList<>();
   private PriorityQueue<Element> heap = new PriorityQueue<>();
+  private boolean isReverse;
+
+  public PriorityMergeReader() {
+    this(false);
+  }
+
+  public PriorityMergeReader(boolean isReverse) {
+    this.isReverse = isReverse;
+  }
 
   public void addReaderWithPriority(IPointReader reader, int priority) throws IOException {
     if (reader.hasNext()) {
@@ -94,11 +106,11 @@ public class PriorityMergeReader implements IPointReader {
         Element o) {
 
       if (this.timeValuePair.getTimestamp() > o.timeValuePair.getTimestamp()) {
-        return 1;
+        return isReverse ? -1 : 1;
       }
 
       if (this.timeValuePair.getTimestamp() < o.timeValuePair.getTimestamp()) {
-        return -1;
+        return isReverse ? 1 : -1;
       }
 
       return o.priority.compareTo(this.priority);
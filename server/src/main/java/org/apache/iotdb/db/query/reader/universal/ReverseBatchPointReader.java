@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+
+/**
+ * This class implements {@link IPointReader} in descending time order for an {@link IBatchReader}
+ * in reverse order, whose batches come from the newest to the oldest while the points in each
+ * batch are in ascending time order, e.g. a reversed {@link org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader}.
+ * The points of each batch are read from the last one to the first one.
+ */
+public class ReverseBatchPointReader implements IPointReader {
+
+  private IBatchReader batchReader;
+  private BatchData batchData;
+  /**
+   * the index of the next point in batchData, -1 if batchData is used up
+   */
+  private int index = -1;
+
+  public ReverseBatchPointReader(IBatchReader batchReader) {
+    this.batchReader = batchReader;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    if (index >= 0) {
+      return true;
+    }
+    while (batchReader.hasNext()) {
+      batchData = batchReader.nextBatch();
+      index = batchData.length() - 1;
+      if (index >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public TimeValuePair next() {
+    return TimeValuePairUtils.getTimeValuePair(batchData, index--);
+  }
+
+  @Override
+  public TimeValuePair current() {
+    return TimeValuePairUtils.getTimeValuePair(batchData, index);
+  }
+
+  @Override
+  public void close() throws IOException {
+    batchReader.close();
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manage the direct memory segments of the off-heap memtables.
+ * <p>
+ * Direct memory is allocated in slabs of SLAB_SIZE bytes which are cut into segments of
+ * SEGMENT_SIZE bytes, a segment holds the timestamps of ARRAY_SIZE points. Released segments are
+ * kept in a lock-free queue and the slabs are never freed, so the direct memory taken by the pool
+ * is the peak memory of the memtables.
+ */
+public class OffHeapSegmentPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapSegmentPool.class);
+
+  public static final int SEGMENT_SIZE = ARRAY_SIZE * Long.BYTES;
+
+  private static final int SEGMENTS_PER_SLAB = 1024;
+
+  private static final long SLAB_SIZE = (long) SEGMENT_SIZE * SEGMENTS_PER_SLAB;
+
+  private static final OffHeapSegmentPool INSTANCE = new OffHeapSegmentPool();
+
+  private final Queue<ByteBuffer> freeSegments = new ConcurrentLinkedQueue<>();
+
+  /**
+   * bytes of the slabs allocated so far.
+   */
+  private final AtomicLong allocatedSize = new AtomicLong();
+
+  /**
+   * bytes of the segments held by TVLists.
+   */
+  private final AtomicLong usedSize = new AtomicLong();
+
+  public static OffHeapSegmentPool getInstance() {
+    return INSTANCE;
+  }
+
+  private OffHeapSegmentPool() {
+  }
+
+  /**
+   * @return a segment of SEGMENT_SIZE bytes in the native byte order, its content is undefined
+   */
+  public ByteBuffer allocate() {
+    ByteBuffer segment = freeSegments.poll();
+    if (segment == null) {
+      segment = allocateSlab();
+    }
+    usedSize.addAndGet(SEGMENT_SIZE);
+    return segment;
+  }
+
+  public void release(ByteBuffer segment) {
+    usedSize.addAndGet(-SEGMENT_SIZE);
+    freeSegments.add(segment);
+  }
+
+  private synchronized ByteBuffer allocateSlab() {
+    // another thread may have allocated a slab while this one was waiting
+    ByteBuffer segment = freeSegments.poll();
+    if (segment != null) {
+      return segment;
+    }
+    long limit = IoTDBDescriptor.getInstance().getConfig().getAllocateMemoryForOffHeapMemtable();
+    if (allocatedSize.get() + SLAB_SIZE > limit) {
+      logger.warn("The off-heap memtables take {} bytes, which exceeds the limit {}",
+          allocatedSize.get() + SLAB_SIZE, limit);
+    }
+    ByteBuffer slab = ByteBuffer.allocateDirect((int) SLAB_SIZE);
+    allocatedSize.addAndGet(SLAB_SIZE);
+    for (int i = 1; i < SEGMENTS_PER_SLAB; i++) {
+      freeSegments.add(sliceSegment(slab, i));
+    }
+    return sliceSegment(slab, 0);
+  }
+
+  private static ByteBuffer sliceSegment(ByteBuffer slab, int index) {
+    slab.limit((index + 1) * SEGMENT_SIZE);
+    slab.position(index * SEGMENT_SIZE);
+    // slice() always returns a big-endian buffer
+    return slab.slice().order(ByteOrder.nativeOrder());
+  }
+
+  public long getAllocatedSize() {
+    return allocatedSize.get();
+  }
+
+  public long getUsedSize() {
+    return usedSize.get();
+  }
+}
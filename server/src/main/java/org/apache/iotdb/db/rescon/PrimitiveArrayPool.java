@@ -19,103 +19,249 @@
 package org.apache.iotdb.db.rescon;
 
 import java.util.ArrayDeque;
-import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Manage all primitive data list in memory, including get and release operation.
+ * <p>
+ * The arrays are kept in two tiers. Each thread caches a few arrays of each data type that it
+ * gets and releases without any synchronization. When its cache is empty or full, a thread moves
+ * a batch of arrays from or to one of the shared shards, there is a shard for each core and each
+ * is guarded by its own lock, so threads seldom wait for each other. The arrays retained by the
+ * shards are bounded by the memory the memtables may take, the arrays released beyond that are
+ * left to GC.
  */
 public class PrimitiveArrayPool {
 
+  public static final int ARRAY_SIZE = 128;
+
   /**
-   * data type -> Array<PrimitiveArray>
+   * max number of arrays of each data type cached by a thread.
    */
-  private static final EnumMap<TSDataType, ArrayDeque> primitiveArraysMap = new EnumMap<>(TSDataType.class);
+  private static final int THREAD_CACHE_CAPACITY = 16;
 
-  public static final int ARRAY_SIZE = 128;
+  /**
+   * number of arrays moved between a thread cache and a shard at once.
+   */
+  private static final int BATCH_SIZE = THREAD_CACHE_CAPACITY / 2;
 
-  static {
-    primitiveArraysMap.put(TSDataType.BOOLEAN, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT32, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT64, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.FLOAT, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.DOUBLE, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.TEXT, new ArrayDeque());
-  }
+  private static final int DATA_TYPE_NUM = TSDataType.values().length;
+
+  private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /**
+   * data type ordinal -> arrays cached by the current thread
+   */
+  private final ThreadLocal<ArrayDeque<Object>[]> threadCaches = ThreadLocal
+      .withInitial(PrimitiveArrayPool::newArrayDeques);
+
+  private final Shard[] shards;
+  private final int shardMask;
+
+  /**
+   * bytes of the arrays retained by the shards.
+   */
+  private final AtomicLong retainedSize = new AtomicLong();
+
+  private final LongAdder hitNum = new LongAdder();
+  private final LongAdder missNum = new LongAdder();
+  private final LongAdder contentionNum = new LongAdder();
 
   public static PrimitiveArrayPool getInstance() {
     return INSTANCE;
   }
 
-  private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
-
-
-  private PrimitiveArrayPool() {}
+  private PrimitiveArrayPool() {
+    int shardNum = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+    shards = new Shard[shardNum];
+    for (int i = 0; i < shardNum; i++) {
+      shards[i] = new Shard();
+    }
+    shardMask = shardNum - 1;
+  }
 
-  public synchronized Object getPrimitiveDataListByType(TSDataType dataType) {
-    ArrayDeque dataListQueue = primitiveArraysMap.computeIfAbsent(dataType, k ->new ArrayDeque<>());
-    Object dataArray = dataListQueue.poll();
+  public Object getPrimitiveDataListByType(TSDataType dataType) {
+    ArrayDeque<Object> threadCache = threadCaches.get()[dataType.ordinal()];
+    Object dataArray = threadCache.poll();
+    if (dataArray == null && fillThreadCache(dataType, threadCache)) {
+      dataArray = threadCache.poll();
+    }
+    if (dataArray != null) {
+      hitNum.increment();
+      return dataArray;
+    }
+    missNum.increment();
     switch (dataType) {
       case BOOLEAN:
-        if (dataArray == null) {
-          dataArray = new boolean[ARRAY_SIZE];
-        }
-        break;
+        return new boolean[ARRAY_SIZE];
       case INT32:
-        if (dataArray == null) {
-          dataArray = new int[ARRAY_SIZE];
-        }
-        break;
+        return new int[ARRAY_SIZE];
       case INT64:
-        if (dataArray == null) {
-          dataArray = new long[ARRAY_SIZE];
-        }
-        break;
+        return new long[ARRAY_SIZE];
       case FLOAT:
-        if (dataArray == null) {
-          dataArray = new float[ARRAY_SIZE];
-        }
-        break;
+        return new float[ARRAY_SIZE];
       case DOUBLE:
-        if (dataArray == null) {
-          dataArray = new double[ARRAY_SIZE];
-        }
-        break;
+        return new double[ARRAY_SIZE];
       case TEXT:
-        if (dataArray == null) {
-          dataArray = new Binary[ARRAY_SIZE];
-        }
-        break;
+        return new Binary[ARRAY_SIZE];
       default:
         throw new UnSupportedDataTypeException("DataType: " + dataType);
     }
-    return dataArray;
   }
 
-
-  public synchronized void release(Object dataArray) {
+  public void release(Object dataArray) {
+    TSDataType dataType;
     if (dataArray instanceof boolean[]) {
-      primitiveArraysMap.get(TSDataType.BOOLEAN).add(dataArray);
+      dataType = TSDataType.BOOLEAN;
     } else if (dataArray instanceof int[]) {
-      primitiveArraysMap.get(TSDataType.INT32).add(dataArray);
+      dataType = TSDataType.INT32;
     } else if (dataArray instanceof long[]){
-      primitiveArraysMap.get(TSDataType.INT64).add(dataArray);
+      dataType = TSDataType.INT64;
     } else if (dataArray instanceof float[]) {
-      primitiveArraysMap.get(TSDataType.FLOAT).add(dataArray);
+      dataType = TSDataType.FLOAT;
     } else if (dataArray instanceof double[]) {
-      primitiveArraysMap.get(TSDataType.DOUBLE).add(dataArray);
+      dataType = TSDataType.DOUBLE;
     } else if (dataArray instanceof Binary[]) {
-      primitiveArraysMap.get(TSDataType.TEXT).add(dataArray);
+      dataType = TSDataType.TEXT;
+    } else {
+      return;
+    }
+    ArrayDeque<Object> threadCache = threadCaches.get()[dataType.ordinal()];
+    if (threadCache.size() >= THREAD_CACHE_CAPACITY) {
+      drainThreadCache(dataType, threadCache);
+    }
+    threadCache.push(dataArray);
+  }
+
+  /**
+   * move a batch of arrays from a shard into the cache of the current thread.
+   *
+   * @return false if no shard has arrays of the data type
+   */
+  private boolean fillThreadCache(TSDataType dataType, ArrayDeque<Object> threadCache) {
+    if (retainedSize.get() <= 0) {
+      return false;
+    }
+    int typeIndex = dataType.ordinal();
+    int home = shardIndex();
+    for (int i = 0; i <= shardMask; i++) {
+      Shard shard = shards[(home + i) & shardMask];
+      if (!shard.lock.tryLock()) {
+        // another thread is using the shard, try the next one rather than waiting
+        contentionNum.increment();
+        continue;
+      }
+      int movedNum = 0;
+      try {
+        ArrayDeque<Object> arrays = shard.arrays[typeIndex];
+        while (movedNum < BATCH_SIZE && !arrays.isEmpty()) {
+          threadCache.push(arrays.pop());
+          movedNum++;
+        }
+      } finally {
+        shard.lock.unlock();
+      }
+      if (movedNum > 0) {
+        retainedSize.addAndGet(-(long) movedNum * getArraySize(dataType));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * move a batch of arrays from the cache of the current thread into a shard, or drop them if the
+   * shards retain too many arrays.
+   */
+  private void drainThreadCache(TSDataType dataType, ArrayDeque<Object> threadCache) {
+    long batchSize = (long) BATCH_SIZE * getArraySize(dataType);
+    if (retainedSize.get() + batchSize > getMaxRetainedSize()) {
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        threadCache.pop();
+      }
+      return;
+    }
+    Shard shard = lockShard();
+    try {
+      ArrayDeque<Object> arrays = shard.arrays[dataType.ordinal()];
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        arrays.push(threadCache.pop());
+      }
+    } finally {
+      shard.lock.unlock();
     }
+    retainedSize.addAndGet(batchSize);
+  }
+
+  /**
+   * lock the first free shard from the home shard of the current thread, or wait for the home
+   * shard if all are in use.
+   */
+  private Shard lockShard() {
+    int home = shardIndex();
+    for (int i = 0; i <= shardMask; i++) {
+      Shard shard = shards[(home + i) & shardMask];
+      if (shard.lock.tryLock()) {
+        return shard;
+      }
+      contentionNum.increment();
+    }
+    Shard shard = shards[home];
+    shard.lock.lock();
+    return shard;
+  }
+
+  private int shardIndex() {
+    return (int) Thread.currentThread().getId() & shardMask;
+  }
+
+  /**
+   * the arrays retained by the pool are not more than those of the memtables.
+   */
+  private long getMaxRetainedSize() {
+    return config.getMaxMemtableNumber() * config.getMemtableSizeThreshold();
+  }
+
+  private static int getArraySize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return ARRAY_SIZE;
+      case INT32:
+      case FLOAT:
+        return ARRAY_SIZE * 4;
+      case INT64:
+      case DOUBLE:
+      case TEXT:
+        // a reference of a Binary is counted as 8 bytes
+        return ARRAY_SIZE * 8;
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArrayDeque<Object>[] newArrayDeques() {
+    ArrayDeque<Object>[] arrayDeques = new ArrayDeque[DATA_TYPE_NUM];
+    for (int i = 0; i < DATA_TYPE_NUM; i++) {
+      arrayDeques[i] = new ArrayDeque<>();
+    }
+    return arrayDeques;
   }
 
   /**
    * @param size needed capacity
    * @return an array of primitive data arrays
    */
-  public synchronized Object getDataListsByType(TSDataType dataType, int size) {
+  public Object getDataListsByType(TSDataType dataType, int size) {
     int arrayNumber = (int) Math.ceil((float) size / (float)ARRAY_SIZE);
     switch (dataType) {
       case BOOLEAN:
@@ -159,4 +305,37 @@ public class PrimitiveArrayPool {
     }
   }
 
+  /**
+   * @return number of arrays got from the pool rather than allocated
+   */
+  public long getHitNum() {
+    return hitNum.sum();
+  }
+
+  /**
+   * @return number of arrays allocated as the pool has none
+   */
+  public long getMissNum() {
+    return missNum.sum();
+  }
+
+  /**
+   * @return number of times a shard is found in use by another thread
+   */
+  public long getContentionNum() {
+    return contentionNum.sum();
+  }
+
+  /**
+   * @return bytes of the arrays retained by the shards, the thread caches are not included
+   */
+  public long getRetainedSize() {
+    return retainedSize.get();
+  }
+
+  private static class Shard {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Object>[] arrays = newArrayDeques();
+  }
 }
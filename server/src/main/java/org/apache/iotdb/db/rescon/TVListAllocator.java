@@ -19,10 +19,11 @@
 
 package org.apache.iotdb.db.rescon;
 
-import java.util.ArrayDeque;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.service.IService;
@@ -34,12 +35,19 @@ import org.apache.iotdb.db.utils.datastructure.DoubleTVList;
 import org.apache.iotdb.db.utils.datastructure.FloatTVList;
 import org.apache.iotdb.db.utils.datastructure.IntTVList;
 import org.apache.iotdb.db.utils.datastructure.LongTVList;
+import org.apache.iotdb.db.utils.datastructure.OffHeapTVList;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
+/**
+ * TVListAllocator reuses the TVLists of the released memtables. The lists of each data type are
+ * kept in a lock-free queue, so allocating and releasing never block.
+ */
 public class TVListAllocator implements TVListAllocatorMBean, IService {
 
   private Map<TSDataType, Queue<TVList>> tvListCache = new EnumMap<>(TSDataType.class);
+  private LongAdder hitNum = new LongAdder();
+  private LongAdder missNum = new LongAdder();
   private String mbeanName = String
       .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
           getID().getJmxName());
@@ -50,21 +58,33 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
     return INSTANCE;
   }
 
-  public synchronized TVList allocate(TSDataType dataType) {
-    Queue<TVList> tvLists = tvListCache.computeIfAbsent(dataType,
-        k -> new ArrayDeque<>());
-    TVList list = tvLists.poll();
-    return list != null ? list : TVList.newList(dataType);
+  private TVListAllocator() {
+    // the map is filled up front as EnumMap is not thread-safe to modify
+    for (TSDataType dataType : TSDataType.values()) {
+      tvListCache.put(dataType, new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  public TVList allocate(TSDataType dataType) {
+    TVList list = tvListCache.get(dataType).poll();
+    if (list != null) {
+      hitNum.increment();
+      return list;
+    }
+    missNum.increment();
+    return TVList.newList(dataType);
   }
 
-  public synchronized void release(TSDataType dataType, TVList list) {
+  public void release(TSDataType dataType, TVList list) {
     list.clear();
     tvListCache.get(dataType).add(list);
   }
 
-  public synchronized void release(TVList list) {
+  public void release(TVList list) {
     list.clear();
-    if (list instanceof BinaryTVList) {
+    if (list instanceof OffHeapTVList) {
+      tvListCache.get(((OffHeapTVList) list).getDataType()).add(list);
+    } else if (list instanceof BinaryTVList) {
       tvListCache.get(TSDataType.TEXT).add(list);
     } else if (list instanceof BooleanTVList) {
       tvListCache.get(TSDataType.BOOLEAN).add(list);
@@ -88,6 +108,46 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
     return number;
   }
 
+  @Override
+  public long getTVListHitNum() {
+    return hitNum.sum();
+  }
+
+  @Override
+  public long getTVListMissNum() {
+    return missNum.sum();
+  }
+
+  @Override
+  public long getArrayHitNum() {
+    return PrimitiveArrayPool.getInstance().getHitNum();
+  }
+
+  @Override
+  public long getArrayMissNum() {
+    return PrimitiveArrayPool.getInstance().getMissNum();
+  }
+
+  @Override
+  public long getArrayContentionNum() {
+    return PrimitiveArrayPool.getInstance().getContentionNum();
+  }
+
+  @Override
+  public long getRetainedArraySize() {
+    return PrimitiveArrayPool.getInstance().getRetainedSize();
+  }
+
+  @Override
+  public long getOffHeapAllocatedSize() {
+    return OffHeapSegmentPool.getInstance().getAllocatedSize();
+  }
+
+  @Override
+  public long getOffHeapUsedSize() {
+    return OffHeapSegmentPool.getInstance().getUsedSize();
+  }
+
   @Override
   public void start() throws StartupException {
     try {
@@ -103,7 +163,9 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
   @Override
   public void stop() {
     JMXService.deregisterMBean(mbeanName);
-    tvListCache.clear();
+    for (Queue<TVList> queue : tvListCache.values()) {
+      queue.clear();
+    }
   }
 
   @Override
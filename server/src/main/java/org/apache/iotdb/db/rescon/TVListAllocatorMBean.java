@@ -22,4 +22,35 @@ public interface TVListAllocatorMBean {
 
   int getNumberOfTVLists();
 
+  long getTVListHitNum();
+
+  long getTVListMissNum();
+
+  /**
+   * @return number of primitive arrays got from PrimitiveArrayPool rather than allocated
+   */
+  long getArrayHitNum();
+
+  long getArrayMissNum();
+
+  /**
+   * @return number of times a shard of PrimitiveArrayPool is found in use by another thread
+   */
+  long getArrayContentionNum();
+
+  /**
+   * @return bytes of the primitive arrays retained by the shards of PrimitiveArrayPool
+   */
+  long getRetainedArraySize();
+
+  /**
+   * @return bytes of direct memory allocated by OffHeapSegmentPool
+   */
+  long getOffHeapAllocatedSize();
+
+  /**
+   * @return bytes of direct memory held by the off-heap TVLists
+   */
+  long getOffHeapUsedSize();
+
 }
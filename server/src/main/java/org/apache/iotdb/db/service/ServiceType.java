@@ -25,7 +25,8 @@ public enum ServiceType {
   JDBC_SERVICE("JDBC ServerService", "JDBCService"),
   MONITOR_SERVICE("Monitor ServerService", "Monitor"),
   STAT_MONITOR_SERVICE("Statistics ServerService", ""),
-  WAL_SERVICE("WAL ServerService", ""),
+  WAL_SERVICE("WAL ServerService",
+      generateJmxName("org.apache.iotdb.db.writelog", "WAL Manager")),
   CLOSE_MERGE_SERVICE("Close&Merge ServerService", ""),
   JVM_MEM_CONTROL_SERVICE("Memory Controller", ""),
   AUTHORIZATION_SERVICE("Authorization ServerService", ""),
@@ -34,9 +35,14 @@ public enum ServiceType {
   PERFORMANCE_STATISTIC_SERVICE("PERFORMANCE_STATISTIC_SERVICE","PERFORMANCE_STATISTIC_SERVICE"),
   MANAGE_DYNAMIC_PARAMETERS_SERVICE("Manage Dynamic Parameters", "Manage Dynamic Parameters"),
   TVLIST_ALLOCATOR_SERVICE("TVList Allocator", ""),
+  QUERY_SERVICE("Query ServerService", ""),
 
   FLUSH_SERVICE("Flush ServerService",
-      generateJmxName("org.apache.iotdb.db.engine.pool", "Flush Manager"));
+      generateJmxName("org.apache.iotdb.db.engine.pool", "Flush Manager")),
+  MERGE_SERVICE("Merge ServerService",
+      generateJmxName("org.apache.iotdb.db.engine.merge", "Merge Manager")),
+  CHUNK_CACHE_SERVICE("Chunk Cache ServerService",
+      generateJmxName("org.apache.iotdb.db.engine.cache", "Chunk Cache"));
 
   private String name;
   private String jmxName;
@@ -28,6 +28,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,22 +62,26 @@ import org.apache.iotdb.db.metadata.Metadata;
 import org.apache.iotdb.db.qp.QueryProcessor;
 import org.apache.iotdb.db.qp.executor.QueryProcessExecutor;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.utils.QueryDataSetUtils;
 import org.apache.iotdb.service.rpc.thrift.ServerProperties;
+import org.apache.iotdb.service.rpc.thrift.TSBatchInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSFetchColumnarResultsResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataReq;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchResultsReq;
@@ -425,11 +430,25 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       boolean isAllSuccessful = true;
       StringBuilder batchErrorMessage = new StringBuilder();
 
+      // only the plain inserts are parsed ahead, the other statements are parsed right before
+      // they are executed, as they may depend on the schema changed by the statements before them
+      List<PhysicalPlan> physicalPlans = new ArrayList<>(statements.size());
       for (String statement : statements) {
+        physicalPlans.add(processor.parsePlainInsert(statement));
+      }
+      int start = 0;
+      while (start < statements.size()) {
         long t2 = System.currentTimeMillis();
-        isAllSuccessful =
-            isAllSuccessful && executeStatementInBatch(statement, batchErrorMessage, result);
+        int end = getInsertGroupEnd(physicalPlans, start);
+        if (end - start > 1) {
+          isAllSuccessful = isAllSuccessful && executeInsertGroupInBatch(statements, physicalPlans,
+              start, end, batchErrorMessage, result);
+        } else {
+          isAllSuccessful = isAllSuccessful && executeStatementInBatch(statements.get(start),
+              physicalPlans.get(start), batchErrorMessage, result);
+        }
         Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_ONE_SQL_IN_BATCH, t2);
+        start = end;
       }
 
       if (isAllSuccessful) {
@@ -448,12 +467,78 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
-  // execute one statement of a batch. Currently, query is not allowed in a batch statement and
-  // on finding queries in a batch, such query will be ignored and an error will be generated
-  private boolean executeStatementInBatch(String statement, StringBuilder batchErrorMessage,
+  /**
+   * @return the end (exclusive) of the consecutive inserts into the same device and measurements
+   * as the plan at start, or start + 1 if it is not an insert.
+   */
+  private int getInsertGroupEnd(List<PhysicalPlan> physicalPlans, int start) {
+    int end = start + 1;
+    if (!(physicalPlans.get(start) instanceof InsertPlan)) {
+      return end;
+    }
+    InsertPlan first = (InsertPlan) physicalPlans.get(start);
+    while (end < physicalPlans.size() && physicalPlans.get(end) instanceof InsertPlan) {
+      InsertPlan insertPlan = (InsertPlan) physicalPlans.get(end);
+      if (!insertPlan.getDeviceId().equals(first.getDeviceId())
+          || !Arrays.equals(insertPlan.getMeasurements(), first.getMeasurements())) {
+        break;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  // execute the consecutive inserts of a batch into the same device and measurements as one
+  // batch insert, which takes the locks and writes the WAL once for all of them. If the values
+  // can not be converted, or the batch insert fails halfway, the statements that are not inserted
+  // are executed one by one so that each of them is reported correctly.
+  private boolean executeInsertGroupInBatch(List<String> statements,
+      List<PhysicalPlan> physicalPlans, int start, int end, StringBuilder batchErrorMessage,
       List<Integer> result) {
+    List<InsertPlan> insertPlans = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      insertPlans.add((InsertPlan) physicalPlans.get(i));
+    }
+    int retryStart = start;
+    try {
+      BatchInsertPlan batchInsertPlan = processor.getExecutor().toBatchInsertPlan(insertPlans);
+      TSExecuteStatementResp resp = executeUpdateStatement(batchInsertPlan);
+      if (resp.getStatus().getStatusCode().equals(TS_StatusCode.SUCCESS_STATUS)) {
+        for (int i = start; i < end; i++) {
+          result.add(Statement.SUCCESS_NO_INFO);
+        }
+        return true;
+      }
+      // the rows of a batch insert are inserted in order, the ones before the failure are kept
+      retryStart = start + batchInsertPlan.getInsertedRowCount();
+      for (int i = start; i < retryStart; i++) {
+        result.add(Statement.SUCCESS_NO_INFO);
+      }
+      logger.debug("the inserts into {} failed after {} of them, execute the others one by one "
+          + "because {}", insertPlans.get(0).getDeviceId(), retryStart - start,
+          resp.getStatus().getErrorMessage());
+    } catch (ProcessorException e) {
+      logger.debug("cannot merge the inserts into {}, execute them one by one",
+          insertPlans.get(0).getDeviceId(), e);
+    }
+
+    boolean isAllSuccessful = true;
+    for (int i = retryStart; i < end; i++) {
+      isAllSuccessful = isAllSuccessful && executeStatementInBatch(statements.get(i),
+          physicalPlans.get(i), batchErrorMessage, result);
+    }
+    return isAllSuccessful;
+  }
+
+  // execute one statement of a batch, which is parsed here if it was not parsed ahead. Currently,
+  // query is not allowed in a batch statement and on finding queries in a batch, such query will
+  // be ignored and an error will be generated
+  private boolean executeStatementInBatch(String statement, PhysicalPlan physicalPlan,
+      StringBuilder batchErrorMessage, List<Integer> result) {
     try {
-      PhysicalPlan physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      if (physicalPlan == null) {
+        physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      }
       if (physicalPlan.isQuery()) {
         throw new QueryInBatchStmtException("Query statement not allowed in batch: " + statement);
       }
@@ -740,12 +825,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         return getTSFetchResultsResp(TS_StatusCode.ERROR_STATUS, "Has not executed statement");
       }
 
-      QueryDataSet queryDataSet;
-      if (!queryRet.get().containsKey(statement)) {
-        queryDataSet = createNewDataSet(statement, req);
-      } else {
-        queryDataSet = queryRet.get().get(statement);
-      }
+      QueryDataSet queryDataSet = getQueryDataSet(statement, req);
 
       int fetchSize = req.getFetch_size();
       TSQueryDataSet result = QueryDataSetUtils
@@ -767,6 +847,51 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  @Override
+  public TSFetchColumnarResultsResp fetchColumnarResults(TSFetchResultsReq req) {
+    try {
+      if (!checkLogin()) {
+        return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS, "Not login.");
+      }
+
+      String statement = req.getStatement();
+      if (!queryStatus.get().containsKey(statement)) {
+        return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS,
+            "Has not executed statement");
+      }
+
+      QueryDataSet queryDataSet = getQueryDataSet(statement, req);
+
+      int fetchSize = req.getFetch_size();
+      TSColumnarDataSet result = QueryDataSetUtils
+          .convertQueryDataSetToColumnarByFetchSize(queryDataSet, fetchSize);
+
+      boolean hasResultSet = result.getRowCount() > 0;
+      if (!hasResultSet && queryRet.get() != null) {
+        queryRet.get().remove(statement);
+      }
+
+      TSFetchColumnarResultsResp resp = getTSFetchColumnarResultsResp(
+          TS_StatusCode.SUCCESS_STATUS,
+          "FetchResult successfully. Has more result: " + hasResultSet);
+      resp.setHasResultSet(hasResultSet);
+      resp.setColumnarDataSet(result);
+      return resp;
+    } catch (Exception e) {
+      logger.error("{}: Internal server error: ", IoTDBConstant.GLOBAL_DB_NAME, e);
+      return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
+    }
+  }
+
+  private QueryDataSet getQueryDataSet(String statement, TSFetchResultsReq req)
+      throws PathErrorException, QueryFilterOptimizationException, StorageEngineException,
+      ProcessorException, IOException {
+    if (!queryRet.get().containsKey(statement)) {
+      return createNewDataSet(statement, req);
+    }
+    return queryRet.get().get(statement);
+  }
+
   private QueryDataSet createNewDataSet(String statement, TSFetchResultsReq req)
       throws PathErrorException, QueryFilterOptimizationException, StorageEngineException,
       ProcessorException, IOException {
@@ -924,6 +1049,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return resp;
   }
 
+  private TSFetchColumnarResultsResp getTSFetchColumnarResultsResp(TS_StatusCode code,
+      String msg) {
+    TSFetchColumnarResultsResp resp = new TSFetchColumnarResultsResp();
+    TS_Status tsStatus = new TS_Status(code);
+    tsStatus.setErrorMessage(msg);
+    resp.setStatus(tsStatus);
+    return resp;
+  }
+
   void handleClientExit() throws TException {
     closeOperation(null);
     closeSession(null);
@@ -1004,6 +1138,30 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  @Override
+  public TSExecuteStatementResp insertBatch(TSBatchInsertionReq req) {
+    if (!checkLogin()) {
+      logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+      return getTSExecuteStatementResp(TS_StatusCode.ERROR_STATUS, ERROR_NOT_LOGIN);
+    }
+
+    try {
+      TSDataType[] dataTypes = new TSDataType[req.getDataTypesSize()];
+      for (int i = 0; i < dataTypes.length; i++) {
+        dataTypes[i] = TSDataType.valueOf(req.getDataTypes().get(i));
+      }
+      BatchInsertPlan plan = new BatchInsertPlan(req.getDeviceId(),
+          req.getMeasurements().toArray(new String[0]), dataTypes);
+      plan.setRows(QueryDataSetUtils.readTimesFromBuffer(req.timestamps, req.getSize()),
+          QueryDataSetUtils.readValuesFromBuffer(req.getValues(), dataTypes, req.getSize()),
+          req.getSize());
+      return executeUpdateStatement(plan);
+    } catch (Exception e) {
+      logger.info("meet error while executing a batch insertion into {}", req.getDeviceId(), e);
+      return getTSExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
+    }
+  }
+
   @Override
   public long requestStatementId() {
     return globalStmtId.incrementAndGet();
@@ -159,11 +159,21 @@ public class SyncFileManager {
     if (!validAllFiles.containsKey(storageGroup.getName())) {
       validAllFiles.put(storageGroup.getName(), new HashSet<>());
     }
-    File[] files = storageGroup.listFiles();
+    addStorageGroupFiles(storageGroup.getName(), storageGroup);
+  }
+
+  /**
+   * add the files in folder, and in its sub folders which are the time partitions of the storage
+   * group.
+   */
+  private void addStorageGroupFiles(String storageGroupName, File folder) {
+    File[] files = folder.listFiles();
     for (File file : files) {
-      if (!file.getPath().endsWith(RESTORE_SUFFIX) && !new File(
+      if (file.isDirectory()) {
+        addStorageGroupFiles(storageGroupName, file);
+      } else if (!file.getPath().endsWith(RESTORE_SUFFIX) && !new File(
           file.getPath() + RESTORE_SUFFIX).exists()) {
-        currentLocalFiles.get(storageGroup.getName()).add(file.getPath());
+        currentLocalFiles.get(storageGroupName).add(file.getPath());
       }
     }
   }
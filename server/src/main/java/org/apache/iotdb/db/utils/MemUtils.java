@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.utils;
 
 import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
@@ -67,6 +68,35 @@ public class MemUtils {
     return memSize;
   }
 
+  /**
+   * function for getting the value size of the rows of a BatchInsertPlan in its current range.
+   */
+  public static long getRecordSize(BatchInsertPlan batchInsertPlan) {
+    long memSize = 0;
+    int rowNum = batchInsertPlan.getEnd() - batchInsertPlan.getStart();
+    for (int i = 0; i < batchInsertPlan.getMeasurements().length; i++) {
+      switch (batchInsertPlan.getDataTypes()[i]) {
+        case INT32:
+        case FLOAT:
+          memSize += (8L + 4L) * rowNum; break;
+        case INT64:
+        case DOUBLE:
+          memSize += (8L + 8L) * rowNum; break;
+        case BOOLEAN:
+          memSize += (8L + 1L) * rowNum; break;
+        case TEXT:
+          Binary[] binaries = (Binary[]) batchInsertPlan.getColumns()[i];
+          for (int j = batchInsertPlan.getStart(); j < batchInsertPlan.getEnd(); j++) {
+            memSize += 8L + binaries[j].getLength();
+          }
+          break;
+        default:
+          memSize += (8L + 8L) * rowNum;
+      }
+    }
+    return memSize;
+  }
+
   /**
    * Calculate how much memory will be used if the given record is written to sequence file.
    */
@@ -14,17 +14,22 @@
  */
 package org.apache.iotdb.db.utils;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSRowRecord;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
 
 /**
  * TimeValuePairUtils to convert between thrift format and TsFile format.
@@ -101,4 +106,173 @@ public class QueryDataSetUtils {
     }
     return tsRowRecord;
   }
+
+  /**
+   * convert query data set by fetch size into the columnar form, i.e., one packed time column and
+   * one packed value buffer plus a null bitmap for each column. No thrift object is created per
+   * cell.
+   *
+   * @param queryDataSet -query dataset
+   * @param fetchSize -fetch size
+   * @return -columnar dataset, whose rowCount is 0 if queryDataSet has no more rows
+   */
+  public static TSColumnarDataSet convertQueryDataSetToColumnarByFetchSize(
+      QueryDataSet queryDataSet, int fetchSize) throws IOException {
+    PublicBAOS timeBAOS = new PublicBAOS();
+    DataOutputStream timeStream = new DataOutputStream(timeBAOS);
+    PublicBAOS[] valueBAOSs = null;
+    DataOutputStream[] valueStreams = null;
+    PublicBAOS[] bitmapBAOSs = null;
+    TSDataType[] columnTypes = null;
+    int[] currentBitmaps = null;
+    int columnNum = 0;
+
+    int rowCount = 0;
+    while (rowCount < fetchSize && queryDataSet.hasNext()) {
+      RowRecord rowRecord = queryDataSet.next();
+      List<Field> fields = rowRecord.getFields();
+      if (valueStreams == null) {
+        columnNum = fields.size();
+        valueBAOSs = new PublicBAOS[columnNum];
+        valueStreams = new DataOutputStream[columnNum];
+        bitmapBAOSs = new PublicBAOS[columnNum];
+        currentBitmaps = new int[columnNum];
+        columnTypes = new TSDataType[columnNum];
+        for (int i = 0; i < columnNum; i++) {
+          valueBAOSs[i] = new PublicBAOS();
+          valueStreams[i] = new DataOutputStream(valueBAOSs[i]);
+          bitmapBAOSs[i] = new PublicBAOS();
+        }
+      }
+
+      timeStream.writeLong(rowRecord.getTimestamp());
+      for (int i = 0; i < columnNum; i++) {
+        Field field = fields.get(i);
+        if (field.getDataType() != null && !field.isNull()) {
+          currentBitmaps[i] |= 1 << (7 - rowCount % 8);
+          if (columnTypes[i] == null) {
+            columnTypes[i] = field.getDataType();
+          }
+          writeFieldValue(valueStreams[i], field);
+        }
+        if (rowCount % 8 == 7) {
+          bitmapBAOSs[i].write(currentBitmaps[i]);
+          currentBitmaps[i] = 0;
+        }
+      }
+      rowCount++;
+    }
+
+    TSColumnarDataSet columnarDataSet = new TSColumnarDataSet(rowCount, toByteBuffer(timeBAOS),
+        new ArrayList<>(columnNum), new ArrayList<>(columnNum), new ArrayList<>(columnNum));
+    for (int i = 0; i < columnNum; i++) {
+      if (rowCount % 8 != 0) {
+        bitmapBAOSs[i].write(currentBitmaps[i]);
+      }
+      // a column without any value in this block is never decoded, so any type is fine for it
+      columnarDataSet.getDataTypeList()
+          .add(columnTypes[i] == null ? TSDataType.TEXT.toString() : columnTypes[i].toString());
+      columnarDataSet.getValueList().add(toByteBuffer(valueBAOSs[i]));
+      columnarDataSet.getBitmapList().add(toByteBuffer(bitmapBAOSs[i]));
+    }
+    return columnarDataSet;
+  }
+
+  private static void writeFieldValue(DataOutputStream stream, Field field) throws IOException {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        stream.writeBoolean(field.getBoolV());
+        break;
+      case INT32:
+        stream.writeInt(field.getIntV());
+        break;
+      case INT64:
+        stream.writeLong(field.getLongV());
+        break;
+      case FLOAT:
+        stream.writeFloat(field.getFloatV());
+        break;
+      case DOUBLE:
+        stream.writeDouble(field.getDoubleV());
+        break;
+      case TEXT:
+        Binary binary = field.getBinaryV();
+        stream.writeInt(binary.getLength());
+        stream.write(binary.getValues());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.format(
+            "data type %s is not supported when convert data at server",
+            field.getDataType().toString()));
+    }
+  }
+
+  private static ByteBuffer toByteBuffer(PublicBAOS baos) {
+    return ByteBuffer.wrap(baos.getBuf(), 0, baos.size());
+  }
+
+  /**
+   * read the packed timestamps of a TSBatchInsertionReq.
+   */
+  public static long[] readTimesFromBuffer(ByteBuffer buffer, int size) {
+    long[] times = new long[size];
+    buffer.slice().asLongBuffer().get(times);
+    return times;
+  }
+
+  /**
+   * read the packed value columns of a TSBatchInsertionReq into primitive arrays.
+   *
+   * @return one array of the corresponding data type for each column
+   */
+  public static Object[] readValuesFromBuffer(List<ByteBuffer> buffers, TSDataType[] dataTypes,
+      int size) {
+    Object[] values = new Object[dataTypes.length];
+    for (int i = 0; i < dataTypes.length; i++) {
+      ByteBuffer buffer = buffers.get(i).slice();
+      switch (dataTypes[i]) {
+        case BOOLEAN:
+          boolean[] boolValues = new boolean[size];
+          for (int index = 0; index < size; index++) {
+            boolValues[index] = buffer.get() != 0;
+          }
+          values[i] = boolValues;
+          break;
+        case INT32:
+          int[] intValues = new int[size];
+          buffer.asIntBuffer().get(intValues);
+          values[i] = intValues;
+          break;
+        case INT64:
+          long[] longValues = new long[size];
+          buffer.asLongBuffer().get(longValues);
+          values[i] = longValues;
+          break;
+        case FLOAT:
+          float[] floatValues = new float[size];
+          buffer.asFloatBuffer().get(floatValues);
+          values[i] = floatValues;
+          break;
+        case DOUBLE:
+          double[] doubleValues = new double[size];
+          buffer.asDoubleBuffer().get(doubleValues);
+          values[i] = doubleValues;
+          break;
+        case TEXT:
+          Binary[] binaryValues = new Binary[size];
+          for (int index = 0; index < size; index++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            binaryValues[index] = new Binary(bytes);
+          }
+          values[i] = binaryValues;
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+              String.format("data type %s is not supported when convert data at server",
+                  dataTypes[i]));
+      }
+    }
+    return values;
+  }
 }
@@ -18,8 +18,10 @@
  */
 package org.apache.iotdb.db.utils;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import org.apache.iotdb.tsfile.common.cache.Cache;
 import org.apache.iotdb.tsfile.exception.cache.CacheException;
 
@@ -38,25 +40,29 @@ public abstract class RandomDeleteCache<K, V> implements Cache<K, V> {
     V v = cache.get(key);
     if (v == null) {
       randomRemoveObjectIfCacheIsFull();
-      cache.put(key, loadObjectByKey(key));
-      v = cache.get(key);
+      // do not read the value back, another thread may have removed it already
+      v = loadObjectByKey(key);
+      cache.put(key, v);
     }
     return v;
   }
 
   private void randomRemoveObjectIfCacheIsFull() throws CacheException {
-    if (cache.size() == this.cacheSize) {
+    // concurrent loads may put the cache over its size, which must still be reduced
+    if (cache.size() >= this.cacheSize) {
       removeFirstObject();
     }
   }
 
   private void removeFirstObject() throws CacheException {
-    if (cache.size() == 0) {
+    Iterator<Map.Entry<K, V>> iterator = cache.entrySet().iterator();
+    // the cache may be emptied by other threads after its size is checked
+    if (!iterator.hasNext()) {
       return;
     }
-    K key = cache.keySet().iterator().next();
-    beforeRemove(cache.get(key));
-    cache.remove(key);
+    Map.Entry<K, V> entry = iterator.next();
+    beforeRemove(entry.getValue());
+    cache.remove(entry.getKey());
   }
 
   /**
@@ -68,6 +74,24 @@ public abstract class RandomDeleteCache<K, V> implements Cache<K, V> {
 
   public abstract V loadObjectByKey(K key) throws CacheException;
 
+  /**
+   * @return the cached value of the key, or null if it is not cached. Nothing is loaded.
+   */
+  public V getIfPresent(K key) {
+    return cache.get(key);
+  }
+
+  public void remove(K key) {
+    cache.remove(key);
+  }
+
+  /**
+   * remove the cached values whose keys match the predicate, other values are kept.
+   */
+  public void removeIf(Predicate<K> predicate) {
+    cache.keySet().removeIf(predicate);
+  }
+
   @Override
   public void clear() {
     cache.clear();
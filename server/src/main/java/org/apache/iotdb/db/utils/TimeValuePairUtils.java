@@ -53,6 +53,36 @@ public class TimeValuePairUtils {
     }
   }
 
+  /**
+   * get the (time,value) pair at the given index of the data, the cursor of the data is not moved.
+   *
+   * @param data -batch data
+   * @param index -index of the pair in the data
+   * @return -given data's (time,value) pair at the index
+   */
+  public static TimeValuePair getTimeValuePair(BatchData data, int index) {
+    long time = data.getTimeByIndex(index);
+    switch (data.getDataType()) {
+      case INT32:
+        return new TimeValuePair(time, new TsPrimitiveType.TsInt(data.getIntByIndex(index)));
+      case INT64:
+        return new TimeValuePair(time, new TsPrimitiveType.TsLong(data.getLongByIndex(index)));
+      case FLOAT:
+        return new TimeValuePair(time, new TsPrimitiveType.TsFloat(data.getFloatByIndex(index)));
+      case DOUBLE:
+        return new TimeValuePair(time,
+            new TsPrimitiveType.TsDouble(data.getDoubleByIndex(index)));
+      case TEXT:
+        return new TimeValuePair(time,
+            new TsPrimitiveType.TsBinary(data.getBinaryByIndex(index)));
+      case BOOLEAN:
+        return new TimeValuePair(time,
+            new TsPrimitiveType.TsBoolean(data.getBooleanByIndex(index)));
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(data.getDataType()));
+    }
+  }
+
   /**
    * get given data's current (time,value) pair.
    *
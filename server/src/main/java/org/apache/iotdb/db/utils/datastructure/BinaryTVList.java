@@ -48,8 +48,22 @@ public class BinaryTVList extends TVList {
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
     size++;
-    if (sorted && size > 1 && timestamp < getTime(size - 2)) {
-      sorted = false;
+    updateSorted(timestamp);
+  }
+
+  @Override
+  public void putBinaries(long[] time, Binary[] value, int start, int end) {
+    updateMinTimeAndSorted(time, start, end);
+    int idx = start;
+    while (idx < end) {
+      checkExpansion();
+      int arrayIndex = size / ARRAY_SIZE;
+      int elementIndex = size % ARRAY_SIZE;
+      int copyLength = Math.min(end - idx, ARRAY_SIZE - elementIndex);
+      System.arraycopy(time, idx, timestamps.get(arrayIndex), elementIndex, copyLength);
+      System.arraycopy(value, idx, values.get(arrayIndex), elementIndex, copyLength);
+      idx += copyLength;
+      size += copyLength;
     }
   }
 
@@ -89,7 +103,26 @@ public class BinaryTVList extends TVList {
     return cloneArray;
   }
 
+  @Override
+  public BinaryTVList snapshot() {
+    BinaryTVList view = new BinaryTVList();
+    snapshotAs(view);
+    view.values.addAll(values);
+    return view;
+  }
+
+  @Override
+  protected void unshareValueArray(int arrayIndex) {
+    Binary[] array = (Binary[]) PrimitiveArrayPool
+        .getInstance().getPrimitiveDataListByType(TSDataType.TEXT);
+    System.arraycopy(values.get(arrayIndex), 0, array, 0, ARRAY_SIZE);
+    values.set(arrayIndex, array);
+  }
+
   public void sort() {
+    if (sorted) {
+      return;
+    }
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -98,7 +131,7 @@ public class BinaryTVList extends TVList {
       sortedValues = (Binary[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.TEXT, size);
     }
-    sort(0, size);
+    sortUnsortedPart();
     clearSortedValue();
     clearSortedTime();
     sorted = true;
@@ -107,8 +140,9 @@ public class BinaryTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (Binary[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      // the arrays shared with snapshots are left to GC
+      for (int i = sharedArrayNum; i < values.size(); i++) {
+        PrimitiveArrayPool.getInstance().release(values.get(i));
       }
       values.clear();
     }
@@ -47,8 +47,22 @@ public class IntTVList extends TVList {
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
     size++;
-    if (sorted && size > 1 && timestamp < getTime(size - 2)) {
-      sorted = false;
+    updateSorted(timestamp);
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value, int start, int end) {
+    updateMinTimeAndSorted(time, start, end);
+    int idx = start;
+    while (idx < end) {
+      checkExpansion();
+      int arrayIndex = size / ARRAY_SIZE;
+      int elementIndex = size % ARRAY_SIZE;
+      int copyLength = Math.min(end - idx, ARRAY_SIZE - elementIndex);
+      System.arraycopy(time, idx, timestamps.get(arrayIndex), elementIndex, copyLength);
+      System.arraycopy(value, idx, values.get(arrayIndex), elementIndex, copyLength);
+      idx += copyLength;
+      size += copyLength;
     }
   }
 
@@ -88,7 +102,26 @@ public class IntTVList extends TVList {
     return cloneArray;
   }
 
+  @Override
+  public IntTVList snapshot() {
+    IntTVList view = new IntTVList();
+    snapshotAs(view);
+    view.values.addAll(values);
+    return view;
+  }
+
+  @Override
+  protected void unshareValueArray(int arrayIndex) {
+    int[] array = (int[]) PrimitiveArrayPool
+        .getInstance().getPrimitiveDataListByType(TSDataType.INT32);
+    System.arraycopy(values.get(arrayIndex), 0, array, 0, ARRAY_SIZE);
+    values.set(arrayIndex, array);
+  }
+
   public void sort() {
+    if (sorted) {
+      return;
+    }
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -97,7 +130,7 @@ public class IntTVList extends TVList {
       sortedValues = (int[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT32, size);
     }
-    sort(0, size);
+    sortUnsortedPart();
     clearSortedValue();
     clearSortedTime();
     sorted = true;
@@ -106,8 +139,9 @@ public class IntTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (int[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      // the arrays shared with snapshots are left to GC
+      for (int i = sharedArrayNum; i < values.size(); i++) {
+        PrimitiveArrayPool.getInstance().release(values.get(i));
       }
       values.clear();
     }
@@ -0,0 +1,452 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.rescon.OffHeapSegmentPool;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * A TVList of BOOLEAN, INT32, INT64, FLOAT or DOUBLE whose timestamps and values are kept in
+ * direct memory segments from {@link OffHeapSegmentPool}, so a large memtable does not burden the
+ * GC. A time segment holds ARRAY_SIZE timestamps, a value segment holds as many values as fit in
+ * the same SEGMENT_SIZE bytes. Values are moved around as their raw bits in a long, so sorting
+ * and deleting are shared by all the data types.
+ */
+public class OffHeapTVList extends TVList {
+
+  private static final OffHeapSegmentPool POOL = OffHeapSegmentPool.getInstance();
+
+  private final TSDataType dataType;
+
+  /**
+   * log2 of the bytes of a value.
+   */
+  private final int valueSizeShift;
+
+  /**
+   * log2 of the number of values in a value segment.
+   */
+  private final int valueSegmentShift;
+
+  private final int valueSegmentMask;
+
+  private List<ByteBuffer> timeSegments = new ArrayList<>();
+
+  private List<ByteBuffer> valueSegments = new ArrayList<>();
+
+  private List<ByteBuffer> sortedTimeSegments;
+
+  private List<ByteBuffer> sortedValueSegments;
+
+  private long pivotValue;
+
+  OffHeapTVList(TSDataType dataType) {
+    super();
+    this.dataType = dataType;
+    switch (dataType) {
+      case BOOLEAN:
+        valueSizeShift = 0;
+        break;
+      case INT32:
+      case FLOAT:
+        valueSizeShift = 2;
+        break;
+      case INT64:
+      case DOUBLE:
+        valueSizeShift = 3;
+        break;
+      default:
+        throw new UnSupportedDataTypeException("Off-heap TVList does not support " + dataType);
+    }
+    int valuesPerSegment = OffHeapSegmentPool.SEGMENT_SIZE >> valueSizeShift;
+    valueSegmentShift = Integer.numberOfTrailingZeros(valuesPerSegment);
+    valueSegmentMask = valuesPerSegment - 1;
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  @Override
+  public long getTime(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return readTime(timeSegments, index);
+  }
+
+  @Override
+  public void putLong(long timestamp, long value) {
+    checkDataType(TSDataType.INT64);
+    put(timestamp, value);
+  }
+
+  @Override
+  public void putInt(long timestamp, int value) {
+    checkDataType(TSDataType.INT32);
+    put(timestamp, value);
+  }
+
+  @Override
+  public void putFloat(long timestamp, float value) {
+    checkDataType(TSDataType.FLOAT);
+    put(timestamp, Float.floatToRawIntBits(value));
+  }
+
+  @Override
+  public void putDouble(long timestamp, double value) {
+    checkDataType(TSDataType.DOUBLE);
+    put(timestamp, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void putBoolean(long timestamp, boolean value) {
+    checkDataType(TSDataType.BOOLEAN);
+    put(timestamp, value ? 1 : 0);
+  }
+
+  @Override
+  public void putLongs(long[] time, long[] value, int start, int end) {
+    checkDataType(TSDataType.INT64);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value, int start, int end) {
+    checkDataType(TSDataType.INT32);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value, int start, int end) {
+    checkDataType(TSDataType.FLOAT);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], Float.floatToRawIntBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putDoubles(long[] time, double[] value, int start, int end) {
+    checkDataType(TSDataType.DOUBLE);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], Double.doubleToRawLongBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
+    checkDataType(TSDataType.BOOLEAN);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i] ? 1 : 0);
+    }
+  }
+
+  @Override
+  public long getLong(int index) {
+    checkDataType(TSDataType.INT64);
+    return getValueBits(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    checkDataType(TSDataType.INT32);
+    return (int) getValueBits(index);
+  }
+
+  @Override
+  public float getFloat(int index) {
+    checkDataType(TSDataType.FLOAT);
+    return Float.intBitsToFloat((int) getValueBits(index));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    checkDataType(TSDataType.DOUBLE);
+    return Double.longBitsToDouble(getValueBits(index));
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    checkDataType(TSDataType.BOOLEAN);
+    return getValueBits(index) != 0;
+  }
+
+  private void checkDataType(TSDataType expected) {
+    if (dataType != expected) {
+      throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+    }
+  }
+
+  private void put(long timestamp, long valueBits) {
+    minTime = minTime <= timestamp ? minTime : timestamp;
+    append(timestamp, valueBits);
+    updateSorted(timestamp);
+  }
+
+  private void append(long timestamp, long valueBits) {
+    checkExpansion();
+    writeTime(timeSegments, size, timestamp);
+    writeValueBits(valueSegments, size, valueBits);
+    size++;
+  }
+
+  private long getValueBits(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return readValueBits(valueSegments, index);
+  }
+
+  private static long readTime(List<ByteBuffer> segments, int index) {
+    return segments.get(index / ARRAY_SIZE).getLong((index % ARRAY_SIZE) << 3);
+  }
+
+  private static void writeTime(List<ByteBuffer> segments, int index, long timestamp) {
+    segments.get(index / ARRAY_SIZE).putLong((index % ARRAY_SIZE) << 3, timestamp);
+  }
+
+  private long readValueBits(List<ByteBuffer> segments, int index) {
+    ByteBuffer segment = segments.get(index >>> valueSegmentShift);
+    int offset = (index & valueSegmentMask) << valueSizeShift;
+    switch (valueSizeShift) {
+      case 3:
+        return segment.getLong(offset);
+      case 2:
+        return segment.getInt(offset);
+      default:
+        return segment.get(offset);
+    }
+  }
+
+  private void writeValueBits(List<ByteBuffer> segments, int index, long valueBits) {
+    ByteBuffer segment = segments.get(index >>> valueSegmentShift);
+    int offset = (index & valueSegmentMask) << valueSizeShift;
+    switch (valueSizeShift) {
+      case 3:
+        segment.putLong(offset, valueBits);
+        break;
+      case 2:
+        segment.putInt(offset, (int) valueBits);
+        break;
+      default:
+        segment.put(offset, (byte) valueBits);
+        break;
+    }
+  }
+
+  /**
+   * copy the list into an on-heap TVList, which can be kept by a query after the memtable is
+   * released.
+   */
+  @Override
+  public TVList clone() {
+    TVList cloneList = TVList.newOnHeapList(dataType);
+    for (int i = 0; i < size; i++) {
+      long time = getTime(i);
+      switch (dataType) {
+        case BOOLEAN:
+          cloneList.putBoolean(time, getBoolean(i));
+          break;
+        case INT32:
+          cloneList.putInt(time, getInt(i));
+          break;
+        case INT64:
+          cloneList.putLong(time, getLong(i));
+          break;
+        case FLOAT:
+          cloneList.putFloat(time, getFloat(i));
+          break;
+        case DOUBLE:
+          cloneList.putDouble(time, getDouble(i));
+          break;
+        default:
+          throw new UnSupportedDataTypeException(dataType.toString());
+      }
+    }
+    cloneList.sorted = sorted;
+    cloneList.sortedPrefix = sortedPrefix;
+    cloneList.minTime = minTime;
+    return cloneList;
+  }
+
+  /**
+   * the segments are never shared as they return to the pool when the memtable is released, so
+   * the snapshot is an on-heap copy.
+   */
+  @Override
+  public TVList snapshot() {
+    return clone();
+  }
+
+  @Override
+  protected void unshareValueArray(int arrayIndex) {
+    // the segments are never shared
+  }
+
+  @Override
+  public void sort() {
+    if (!sorted) {
+      sortedTimeSegments = allocateSegments(timeSegments.size());
+      sortedValueSegments = allocateSegments(valueSegments.size());
+      sortUnsortedPart();
+      clearSortedTime();
+      clearSortedValue();
+    }
+    sorted = true;
+  }
+
+  private static List<ByteBuffer> allocateSegments(int number) {
+    List<ByteBuffer> segments = new ArrayList<>(number);
+    for (int i = 0; i < number; i++) {
+      segments.add(POOL.allocate());
+    }
+    return segments;
+  }
+
+  private static void releaseSegments(List<ByteBuffer> segments) {
+    for (ByteBuffer segment : segments) {
+      POOL.release(segment);
+    }
+    segments.clear();
+  }
+
+  @Override
+  public void delete(long upperBound) {
+    super.delete(upperBound);
+    // the base class only releases the on-heap arrays, release the segments that are empty
+    int timeSegmentNum = (size + ARRAY_SIZE - 1) / ARRAY_SIZE;
+    while (timeSegments.size() > timeSegmentNum) {
+      releaseLastTimeArray();
+    }
+    int valueSegmentNum = (size + valueSegmentMask) >>> valueSegmentShift;
+    while (valueSegments.size() > valueSegmentNum) {
+      releaseLastValueArray();
+    }
+  }
+
+  @Override
+  protected void checkExpansion() {
+    if ((size % ARRAY_SIZE) == 0) {
+      timeSegments.add(POOL.allocate());
+    }
+    if ((size & valueSegmentMask) == 0) {
+      expandValues();
+    }
+  }
+
+  @Override
+  protected void expandValues() {
+    valueSegments.add(POOL.allocate());
+  }
+
+  @Override
+  protected void releaseLastTimeArray() {
+    POOL.release(timeSegments.remove(timeSegments.size() - 1));
+  }
+
+  @Override
+  protected void releaseLastValueArray() {
+    POOL.release(valueSegments.remove(valueSegments.size() - 1));
+  }
+
+  @Override
+  protected void clearTime() {
+    releaseSegments(timeSegments);
+  }
+
+  @Override
+  protected void clearSortedTime() {
+    if (sortedTimeSegments != null) {
+      releaseSegments(sortedTimeSegments);
+      sortedTimeSegments = null;
+    }
+  }
+
+  @Override
+  void clearValue() {
+    releaseSegments(valueSegments);
+  }
+
+  @Override
+  void clearSortedValue() {
+    if (sortedValueSegments != null) {
+      releaseSegments(sortedValueSegments);
+      sortedValueSegments = null;
+    }
+  }
+
+  @Override
+  protected void set(int src, int dest) {
+    writeTime(timeSegments, dest, readTime(timeSegments, src));
+    writeValueBits(valueSegments, dest, readValueBits(valueSegments, src));
+  }
+
+  @Override
+  protected void setFromSorted(int src, int dest) {
+    writeTime(timeSegments, dest, readTime(sortedTimeSegments, src));
+    writeValueBits(valueSegments, dest, readValueBits(sortedValueSegments, src));
+  }
+
+  @Override
+  protected void setToSorted(int src, int dest) {
+    writeTime(sortedTimeSegments, dest, readTime(timeSegments, src));
+    writeValueBits(sortedValueSegments, dest, readValueBits(valueSegments, src));
+  }
+
+  @Override
+  protected void reverseRange(int lo, int hi) {
+    hi--;
+    while (lo < hi) {
+      long loT = readTime(timeSegments, lo);
+      long loV = readValueBits(valueSegments, lo);
+      set(hi, lo);
+      writeTime(timeSegments, hi, loT);
+      writeValueBits(valueSegments, hi, loV);
+      lo++;
+      hi--;
+    }
+  }
+
+  @Override
+  protected void saveAsPivot(int pos) {
+    pivotTime = readTime(timeSegments, pos);
+    pivotValue = readValueBits(valueSegments, pos);
+  }
+
+  @Override
+  protected void setPivotTo(int pos) {
+    writeTime(timeSegments, pos, pivotTime);
+    writeValueBits(valueSegments, pos, pivotValue);
+  }
+}
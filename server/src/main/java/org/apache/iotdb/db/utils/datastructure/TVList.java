@@ -23,6 +23,7 @@ import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -30,7 +31,7 @@ import org.apache.iotdb.tsfile.utils.Binary;
 @SuppressWarnings("unused")
 public abstract class TVList {
 
-  private static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
+  protected static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
 
   protected static final int SMALL_ARRAY_LENGTH = 32;
 
@@ -40,6 +41,18 @@ public abstract class TVList {
   protected long[][] sortedTimestamps;
   protected boolean sorted = true;
 
+  /**
+   * the points in [0, sortedPrefix) are in order, only meaningful when sorted is false.
+   */
+  protected int sortedPrefix;
+
+  /**
+   * the first sharedArrayNum arrays are shared with the snapshots of this list, they must not be
+   * modified in place or released to PrimitiveArrayPool. Appending to the last of them is allowed
+   * as a snapshot only reads the points it has.
+   */
+  protected int sharedArrayNum;
+
   /**
    * this field is effective only in the Tvlist in a RealOnlyMemChunk.
    */
@@ -92,6 +105,30 @@ public abstract class TVList {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
+  public void putLongs(long[] time, long[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putInts(long[] time, int[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putFloats(long[] time, float[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putDoubles(long[] time, double[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putBinaries(long[] time, Binary[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
   public long getLong(int index) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
@@ -134,6 +171,41 @@ public abstract class TVList {
 
   public abstract TVList clone();
 
+  /**
+   * get a read-only view of the points in this sorted list, which is not affected by the later
+   * insertions, sorting or deletions of this list. The view shares the arrays of this list rather
+   * than copying them, the shared arrays are copied by this list before it modifies them.
+   */
+  public abstract TVList snapshot();
+
+  protected void snapshotAs(TVList view) {
+    if (!sorted) {
+      throw new IllegalStateException("Only a sorted TVList can be snapshotted");
+    }
+    view.timestamps.addAll(timestamps);
+    view.size = size;
+    view.minTime = minTime;
+    view.sharedArrayNum = timestamps.size();
+    sharedArrayNum = timestamps.size();
+  }
+
+  /**
+   * copy the shared arrays from the one holding the point at index, so that the points after
+   * index can be modified in place.
+   */
+  protected void unshareArrays(int index) {
+    for (int arrayIndex = index / ARRAY_SIZE; arrayIndex < sharedArrayNum; arrayIndex++) {
+      long[] array = (long[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.INT64);
+      System.arraycopy(timestamps.get(arrayIndex), 0, array, 0, ARRAY_SIZE);
+      timestamps.set(arrayIndex, array);
+      unshareValueArray(arrayIndex);
+    }
+    sharedArrayNum = Math.min(sharedArrayNum, index / ARRAY_SIZE);
+  }
+
+  protected abstract void unshareValueArray(int arrayIndex);
+
   protected abstract void releaseLastValueArray();
 
   protected void releaseLastTimeArray() {
@@ -141,16 +213,30 @@ public abstract class TVList {
   }
 
   public void delete(long upperBound) {
+    // the points before the first deleted one stay where they are
     int newSize = 0;
     minTime = Long.MAX_VALUE;
-    for (int i = 0; i < size; i++) {
+    while (newSize < size && getTime(newSize) > upperBound) {
+      minTime = Math.min(minTime, getTime(newSize));
+      newSize++;
+    }
+    if (newSize == size) {
+      return;
+    }
+    unshareArrays(newSize);
+    int newSortedPrefix = Math.min(sortedPrefix, newSize);
+    for (int i = newSize + 1; i < size; i++) {
       long time = getTime(i);
       if (time > upperBound) {
         set(i, newSize++);
         minTime = time < minTime ? time : minTime;
+        if (i < sortedPrefix) {
+          newSortedPrefix = newSize;
+        }
       }
     }
     size = newSize;
+    sortedPrefix = newSortedPrefix;
     // release primitive arrays that are empty
     int newArrayNum = newSize / ARRAY_SIZE;
     if (newSize % ARRAY_SIZE != 0) {
@@ -168,6 +254,7 @@ public abstract class TVList {
     }
     cloneList.size = size;
     cloneList.sorted = sorted;
+    cloneList.sortedPrefix = sortedPrefix;
     cloneList.minTime = minTime;
   }
 
@@ -181,12 +268,15 @@ public abstract class TVList {
 
     clearValue();
     clearSortedValue();
+    sortedPrefix = 0;
+    sharedArrayNum = 0;
   }
 
   protected void clearTime() {
     if (timestamps != null) {
-      for (long[] dataArray : timestamps) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      // the arrays shared with snapshots are left to GC
+      for (int i = sharedArrayNum; i < timestamps.size(); i++) {
+        PrimitiveArrayPool.getInstance().release(timestamps.get(i));
       }
       timestamps.clear();
     }
@@ -212,12 +302,80 @@ public abstract class TVList {
     }
   }
 
+  /**
+   * update minTime and the sorted flag with the timestamps [start, end) that are going to be
+   * appended, must be called before size is increased.
+   */
+  protected void updateMinTimeAndSorted(long[] time, int start, int end) {
+    long inputMinTime = Long.MAX_VALUE;
+    boolean inputSorted = true;
+    for (int i = start; i < end; i++) {
+      inputMinTime = inputMinTime <= time[i] ? inputMinTime : time[i];
+      if (inputSorted && i + 1 < end && time[i + 1] < time[i]) {
+        inputSorted = false;
+      }
+    }
+    minTime = minTime <= inputMinTime ? minTime : inputMinTime;
+    if (!sorted) {
+      return;
+    }
+    if (size > 0 && time[start] < getTime(size - 1)) {
+      sorted = false;
+      sortedPrefix = size;
+    } else if (!inputSorted) {
+      sorted = false;
+      sortedPrefix = size + 1;
+      while (time[start + sortedPrefix - size] >= time[start + sortedPrefix - size - 1]) {
+        sortedPrefix++;
+      }
+    }
+  }
+
+  /**
+   * update the sorted flag after a point of the given timestamp is appended, must be called
+   * after size is increased.
+   */
+  protected void updateSorted(long timestamp) {
+    if (sorted && size > 1 && timestamp < getTime(size - 2)) {
+      sorted = false;
+      sortedPrefix = size - 1;
+    }
+  }
+
   protected long[] cloneTime(long[] array) {
     long[] cloneArray = new long[array.length];
     System.arraycopy(array, 0, cloneArray, 0, array.length);
     return cloneArray;
   }
 
+  /**
+   * sort the list, the sorting buffers must be ready. As [0, sortedPrefix) is in order, only the
+   * rest is sorted, and then merged with the points of the prefix that are later than its first
+   * point, so appending a few late points to a large list does not sort it all over again.
+   */
+  protected void sortUnsortedPart() {
+    unshareArrays(sortedPrefix);
+    sort(sortedPrefix, size);
+    if (sortedPrefix > 0 && sortedPrefix < size
+        && getTime(sortedPrefix) < getTime(sortedPrefix - 1)) {
+      // the points in the prefix no later than the first point of the rest stay where they are
+      long firstTime = getTime(sortedPrefix);
+      int low = 0;
+      int high = sortedPrefix - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (getTime(mid) > firstTime) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      unshareArrays(low);
+      merge(low, sortedPrefix, size);
+    }
+    sortedPrefix = size;
+  }
+
   protected void sort(int lo, int hi) {
     if (sorted) {
       return;
@@ -257,7 +415,19 @@ public abstract class TVList {
     return runHi - lo;
   }
 
+  /**
+   * create an off-heap list if enable_off_heap_memtable is set and the data type is not TEXT,
+   * otherwise create an on-heap list.
+   */
   public static TVList newList(TSDataType dataType) {
+    if (dataType != TSDataType.TEXT
+        && IoTDBDescriptor.getInstance().getConfig().isEnableOffHeapMemtable()) {
+      return new OffHeapTVList(dataType);
+    }
+    return newOnHeapList(dataType);
+  }
+
+  static TVList newOnHeapList(TSDataType dataType) {
     switch (dataType) {
       case TEXT:
         return new BinaryTVList();
@@ -24,8 +24,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.zip.CRC32;
-import org.apache.iotdb.db.conf.IoTDBConfig;
-import org.apache.iotdb.db.conf.IoTDBDescriptor;
 
 /**
  * LogWriter writes the binarized logs into a file using FileChannel together with check sums of
@@ -37,7 +35,6 @@ public class LogWriter implements ILogWriter {
   private FileOutputStream fileOutputStream;
   private FileChannel channel;
   private CRC32 checkSummer = new CRC32();
-  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   private ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
   private ByteBuffer checkSumBuffer = ByteBuffer.allocate(8);
 
@@ -75,10 +72,6 @@ public class LogWriter implements ILogWriter {
     channel.write(lengthBuffer);
     channel.write(logBuffer);
     channel.write(checkSumBuffer);
-
-    if (config.getForceWalPeriodInMs() == 0) {
-      channel.force(true);
-    }
   }
 
   @Override
@@ -20,13 +20,19 @@ package org.apache.iotdb.db.writelog.manager;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.monitor.MonitorConstants.WalStatConstants;
+import org.apache.iotdb.db.monitor.collector.WalStatistics;
 import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
@@ -35,14 +41,19 @@ import org.slf4j.LoggerFactory;
 
 /**
  * MultiFileLogNodeManager manages all ExclusiveWriteLogNodes, each manages WALs of a TsFile
- * (either seq or unseq).
+ * (either seq or unseq). It runs the thread that forces the nodes periodically and the thread
+ * that group commits the nodes with SYNC writes waiting.
  */
-public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
+public class MultiFileLogNodeManager implements WriteLogNodeManager, IService,
+    MultiFileLogNodeManagerMBean {
 
   private static final Logger logger = LoggerFactory.getLogger(MultiFileLogNodeManager.class);
   private Map<String, WriteLogNode> nodeMap;
 
   private Thread forceThread;
+  private Thread groupCommitThread;
+  private volatile boolean groupCommitRunning;
+  private BlockingQueue<ExclusiveWriteLogNode> groupCommitQueue = new LinkedBlockingQueue<>();
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   private final Runnable forceTask = () -> {
@@ -58,7 +69,7 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
         for (WriteLogNode node : nodeMap.values()) {
           try {
-            node.forceSync();
+            node.periodicForceSync();
           } catch (IOException e) {
             logger.error("Cannot force {}, because ", node, e);
           }
@@ -73,6 +84,25 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       }
   };
 
+  /**
+   * The group commit thread is not interrupted to stop, as an interrupt closes the WAL file it may
+   * be forcing. It exits after the nodes submitted before it is stopped are committed.
+   */
+  private final Runnable groupCommitTask = () -> {
+    while (groupCommitRunning || !groupCommitQueue.isEmpty()) {
+      try {
+        ExclusiveWriteLogNode node = groupCommitQueue.poll(100, TimeUnit.MILLISECONDS);
+        if (node != null) {
+          node.groupCommit();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    logger.info("WAL group commit thread exits.");
+  };
+
   private MultiFileLogNodeManager() {
     nodeMap = new ConcurrentHashMap<>();
   }
@@ -95,6 +125,20 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
     return node;
   }
 
+  /**
+   * let the group commit thread write and force the logs of the node.
+   *
+   * @return false if the group commit thread is not running, the caller should commit the node
+   * itself
+   */
+  public boolean submitGroupCommit(ExclusiveWriteLogNode node) {
+    if (!groupCommitRunning) {
+      return false;
+    }
+    groupCommitQueue.add(node);
+    return true;
+  }
+
   @Override
   public void deleteNode(String identifier) throws IOException {
     WriteLogNode node = nodeMap.remove(identifier);
@@ -105,7 +149,7 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   @Override
   public void close() {
-    if (!isActivated(forceThread)) {
+    if (!isActivated(forceThread) && !isActivated(groupCommitThread)) {
       logger.error("MultiFileLogNodeManager has not yet started");
       return;
     }
@@ -117,6 +161,21 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
         // wait for forceThread
       }
     }
+    groupCommitRunning = false;
+    if (isActivated(groupCommitThread)) {
+      logger.info("Waiting for group commit thread to stop");
+      try {
+        groupCommitThread.join();
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted while waiting for group commit thread to stop");
+        Thread.currentThread().interrupt();
+      }
+    }
+    // the nodes submitted while the thread is stopping
+    ExclusiveWriteLogNode remainingNode;
+    while ((remainingNode = groupCommitQueue.poll()) != null) {
+      remainingNode.groupCommit();
+    }
     logger.info("{} nodes to be closed", nodeMap.size());
     for (WriteLogNode node : nodeMap.values()) {
       try {
@@ -135,12 +194,17 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       if (!config.isEnableWal()) {
         return;
       }
-      if (!isActivated(forceThread)) {
+      if (!isActivated(groupCommitThread)) {
+        groupCommitRunning = true;
+        groupCommitThread = new Thread(groupCommitTask, ThreadName.WAL_DAEMON.getName());
+        groupCommitThread.start();
         if (config.getForceWalPeriodInMs() > 0) {
           InstanceHolder.instance.forceThread = new Thread(InstanceHolder.instance.forceTask,
               ThreadName.WAL_FORCE_DAEMON.getName());
           InstanceHolder.instance.forceThread.start();
         }
+        WalStatistics.getInstance().register();
+        JMXService.registerMBean(this, ServiceType.WAL_SERVICE.getJmxName());
       } else {
         logger.warn("MultiFileLogNodeManager has already started");
       }
@@ -158,6 +222,7 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       return;
     }
     close();
+    JMXService.deregisterMBean(ServiceType.WAL_SERVICE.getJmxName());
   }
 
   @Override
@@ -165,6 +230,46 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
     return ServiceType.WAL_SERVICE;
   }
 
+  @Override
+  public long getBufferWriteNum() {
+    return WalStatistics.getInstance().getValue(WalStatConstants.BUFFER_WRITE_NUM);
+  }
+
+  @Override
+  public double getAverageLogNumPerBufferWrite() {
+    return average(WalStatConstants.BUFFER_WRITE_LOG_NUM, WalStatConstants.BUFFER_WRITE_NUM);
+  }
+
+  @Override
+  public long getForceNum() {
+    return WalStatistics.getInstance().getValue(WalStatConstants.FORCE_NUM);
+  }
+
+  @Override
+  public double getAverageLogNumPerForce() {
+    return average(WalStatConstants.FORCE_LOG_NUM, WalStatConstants.FORCE_NUM);
+  }
+
+  @Override
+  public long getSyncWriteNum() {
+    return WalStatistics.getInstance().getValue(WalStatConstants.SYNC_WRITE_NUM);
+  }
+
+  @Override
+  public double getAverageSyncWriteLatencyInUs() {
+    return average(WalStatConstants.SYNC_WRITE_LATENCY_IN_US, WalStatConstants.SYNC_WRITE_NUM);
+  }
+
+  @Override
+  public int getGroupCommitQueueSize() {
+    return groupCommitQueue.size();
+  }
+
+  private double average(WalStatConstants total, WalStatConstants count) {
+    long countValue = WalStatistics.getInstance().getValue(count);
+    return countValue == 0 ? 0 : (double) WalStatistics.getInstance().getValue(total) / countValue;
+  }
+
   private boolean isActivated(Thread thread) {
     return thread != null && thread.isAlive();
   }
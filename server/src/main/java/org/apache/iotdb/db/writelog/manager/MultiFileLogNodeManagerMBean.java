@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.manager;
+
+public interface MultiFileLogNodeManagerMBean {
+
+  long getBufferWriteNum();
+
+  /**
+   * @return average number of logs carried by a write of a log buffer into a WAL file
+   */
+  double getAverageLogNumPerBufferWrite();
+
+  long getForceNum();
+
+  /**
+   * @return average number of logs committed by a force of a WAL file
+   */
+  double getAverageLogNumPerForce();
+
+  long getSyncWriteNum();
+
+  /**
+   * @return average time a SYNC write waits for its log to be forced
+   */
+  double getAverageSyncWriteLatencyInUs();
+
+  int getGroupCommitQueueSize();
+}
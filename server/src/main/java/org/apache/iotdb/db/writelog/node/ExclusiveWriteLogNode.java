@@ -20,46 +20,106 @@ import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
-import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.monitor.collector.WalStatistics;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.io.ILogWriter;
 import org.apache.iotdb.db.writelog.io.LogWriter;
 import org.apache.iotdb.db.writelog.io.MultiFileLogReader;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This WriteLogNode is used to manage insert ahead logs of a TsFile.
+ * <p>
+ * Writers serialize their plans into a buffer of their own thread without any lock of the node,
+ * and then only copy the bytes into the log buffer of the node. There are two log buffers: writers
+ * append to one while the other is written to the WAL file, and forcing the file holds neither of
+ * them. Forces requested by SYNC writes are done by the group commit thread of
+ * {@link MultiFileLogNodeManager} (or by the writer itself if it is not running), so one force
+ * commits all the SYNC writes that arrived during the previous one.
  */
 public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<ExclusiveWriteLogNode> {
 
   public static final String WAL_FILE_NAME = "wal";
   private static final Logger logger = LoggerFactory.getLogger(ExclusiveWriteLogNode.class);
-  private static int logBufferSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize();
+  /**
+   * each of the two log buffers takes half of wal_buffer_size.
+   */
+  private static int logBufferSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize()
+      / 2;
+  private static final int INITIAL_SERIALIZE_BUFFER_SIZE = 64 * 1024;
+  private static final ThreadLocal<ByteBuffer> serializeBuffer = ThreadLocal.withInitial(
+      () -> ByteBuffer.allocate(Math.min(INITIAL_SERIALIZE_BUFFER_SIZE, logBufferSize)));
 
   private String identifier;
 
   private String logDirectory;
 
-  private ILogWriter currentFileWriter;
+  private volatile ILogWriter currentFileWriter;
 
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
+  /**
+   * the buffer writers append to.
+   */
   private ByteBuffer logBuffer = ByteBuffer.allocate(logBufferSize);
 
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /**
+   * the buffer being written to the WAL file, it is empty when no write is in progress.
+   */
+  private ByteBuffer flushingBuffer = ByteBuffer.allocate(logBufferSize);
+
+  /**
+   * guards logBuffer and the log counters, it is never held during IO.
+   */
+  private ReentrantLock bufferLock = new ReentrantLock();
+  private Condition logForced = bufferLock.newCondition();
+
+  /**
+   * serializes writing the buffers into the WAL file and switching the WAL file.
+   */
+  private ReentrantLock flushLock = new ReentrantLock();
+
+  /**
+   * serializes forcing and closing the WAL file.
+   */
+  private ReentrantLock forceLock = new ReentrantLock();
 
   private long fileId = 0;
   private long lastFlushedId = 0;
 
-  private int bufferedLogNum = 0;
+  private volatile int bufferedLogNum = 0;
+
+  /**
+   * number of logs ever appended to this node, a log is identified by the value after it is
+   * appended.
+   */
+  private long appendedLogNum = 0;
+  /**
+   * the logs not after it are written into the WAL file.
+   */
+  private volatile long writtenLogNum = 0;
+  /**
+   * the logs not after it are forced to disk.
+   */
+  private volatile long forcedLogNum = 0;
+  /**
+   * the last log written in PERIODIC mode.
+   */
+  private volatile long lastPeriodicLogNum = 0;
+
+  private AtomicBoolean forceScheduled = new AtomicBoolean(false);
+
+  private volatile boolean failed = false;
 
   /**
    * constructor of ExclusiveWriteLogNode.
@@ -77,38 +137,119 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public void write(PhysicalPlan plan) throws IOException {
-    lock.writeLock().lock();
+    WalSyncMode syncMode = plan.getWalSyncMode();
+    write(plan, syncMode != null ? syncMode : config.getWalSyncMode());
+  }
+
+  @Override
+  public void write(PhysicalPlan plan, WalSyncMode syncMode) throws IOException {
+    long logNum = putLog(serialize(plan), syncMode);
+    if (syncMode == WalSyncMode.SYNC) {
+      long startTime = System.nanoTime();
+      requestForce();
+      waitForForce(logNum);
+      WalStatistics.getInstance().recordSyncWrite(System.nanoTime() - startTime);
+    } else if (bufferedLogNum >= config.getFlushWalThreshold()) {
+      flushBuffer();
+    }
+  }
+
+  /**
+   * serialize the plan into the buffer of the current thread, which grows up to the size of a
+   * log buffer.
+   */
+  private ByteBuffer serialize(PhysicalPlan plan) throws IOException {
+    ByteBuffer buffer = serializeBuffer.get();
+    while (true) {
+      buffer.clear();
+      try {
+        plan.serializeTo(buffer);
+        buffer.flip();
+        return buffer;
+      } catch (BufferOverflowException e) {
+        if (buffer.capacity() >= logBufferSize) {
+          throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size", e);
+        }
+        buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, logBufferSize));
+        serializeBuffer.set(buffer);
+      }
+    }
+  }
+
+  /**
+   * @return the number that identifies the log
+   */
+  private long putLog(ByteBuffer log, WalSyncMode syncMode) {
+    while (true) {
+      bufferLock.lock();
+      try {
+        if (logBuffer.remaining() >= log.remaining()) {
+          logBuffer.put(log);
+          bufferedLogNum++;
+          appendedLogNum++;
+          if (syncMode == WalSyncMode.PERIODIC) {
+            lastPeriodicLogNum = appendedLogNum;
+          }
+          return appendedLogNum;
+        }
+      } finally {
+        bufferLock.unlock();
+      }
+      logger.info("WAL BufferOverflow !");
+      flushBuffer();
+    }
+  }
+
+  private void waitForForce(long logNum) throws IOException {
+    bufferLock.lock();
     try {
-      putLog(plan);
-      if (bufferedLogNum >= config.getFlushWalThreshold()) {
-        sync();
+      while (forcedLogNum < logNum) {
+        if (failed) {
+          throw new IOException(
+              String.format("Log node %s cannot force its logs, the system is read-only",
+                  identifier));
+        }
+        logForced.await();
       }
-    } catch (BufferOverflowException e) {
-      throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(
+          String.format("Interrupted while waiting for the logs of %s to be forced", identifier),
+          e);
     } finally {
-      lock.writeLock().unlock();
+      bufferLock.unlock();
     }
   }
 
-  private void putLog(PhysicalPlan plan) {
-    logBuffer.mark();
-    try {
-      plan.serializeTo(logBuffer);
-    } catch (BufferOverflowException e) {
-      logger.info("WAL BufferOverflow !");
-      logBuffer.reset();
-      sync();
-      plan.serializeTo(logBuffer);
+  /**
+   * make sure the buffered logs will be written and forced by the group commit thread, or do it
+   * in the current thread if the group commit thread is not running.
+   */
+  private void requestForce() {
+    if (forceScheduled.compareAndSet(false, true)
+        && !MultiFileLogNodeManager.getInstance().submitGroupCommit(this)) {
+      groupCommit();
     }
-    bufferedLogNum ++;
+  }
+
+  /**
+   * Write the buffered logs into the WAL file and force it. Called by the group commit thread of
+   * MultiFileLogNodeManager for the forces requested by writes.
+   */
+  public void groupCommit() {
+    // reset the flag first, so that a write after the buffer is swapped schedules a new commit
+    forceScheduled.set(false);
+    flushBuffer();
+    force();
   }
 
   @Override
   public void close() {
-    sync();
-    forceWal();
-    lock.writeLock().lock();
+    flushLock.lock();
+    forceLock.lock();
     try {
+      flushBuffer();
+      force();
       if (this.currentFileWriter != null) {
         this.currentFileWriter.close();
         this.currentFileWriter = null;
@@ -117,36 +258,44 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     } catch (IOException e) {
       logger.error("Cannot close log node {} because:", identifier, e);
     } finally {
-      lock.writeLock().unlock();
+      forceLock.unlock();
+      flushLock.unlock();
     }
   }
 
   @Override
   public void forceSync() {
-    sync();
-    forceWal();
+    flushBuffer();
+    force();
   }
 
+  @Override
+  public void periodicForceSync() {
+    if (lastPeriodicLogNum > forcedLogNum) {
+      flushBuffer();
+      force();
+    }
+  }
 
   @Override
   public void notifyStartFlush() {
-    lock.writeLock().lock();
+    flushLock.lock();
     try {
       close();
       nextFileWriter();
     } finally {
-      lock.writeLock().unlock();
+      flushLock.unlock();
     }
   }
 
   @Override
   public void notifyEndFlush() {
-    lock.writeLock().lock();
+    flushLock.lock();
     try {
       File logFile = new File(logDirectory, WAL_FILE_NAME + ++lastFlushedId);
       discard(logFile);
     } finally {
-      lock.writeLock().unlock();
+      flushLock.unlock();
     }
   }
 
@@ -162,13 +311,21 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public void delete() throws IOException {
-    lock.writeLock().lock();
+    flushLock.lock();
     try {
-      logBuffer.clear();
+      bufferLock.lock();
+      try {
+        logBuffer.clear();
+        bufferedLogNum = 0;
+        // the abandoned logs will never be written, do not let SYNC writes wait for them
+        writtenLogNum = appendedLogNum;
+      } finally {
+        bufferLock.unlock();
+      }
       close();
       FileUtils.deleteDirectory(new File(logDirectory));
     } finally {
-      lock.writeLock().unlock();
+      flushLock.unlock();
     }
   }
 
@@ -193,39 +350,91 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     }
   }
 
-  private void forceWal() {
-    lock.writeLock().lock();
+  /**
+   * force the logs written into the WAL file. Logs are appended and written meanwhile, only the
+   * ones written before the force starts are marked as forced.
+   */
+  private void force() {
+    forceLock.lock();
     try {
-      try {
-        if (currentFileWriter != null) {
-          currentFileWriter.force();
+      long logNum = writtenLogNum;
+      if (logNum <= forcedLogNum) {
+        return;
+      }
+      ILogWriter writer = currentFileWriter;
+      if (writer != null) {
+        try {
+          writer.force();
+        } catch (IOException e) {
+          logger.error("Log node {} force failed, change system mode to read-only", identifier, e);
+          fail();
+          return;
         }
-      } catch (IOException e) {
-        logger.error("Log node {} force failed.", identifier, e);
+      }
+      WalStatistics.getInstance().recordForce(logNum - forcedLogNum);
+      bufferLock.lock();
+      try {
+        forcedLogNum = logNum;
+        logForced.signalAll();
+      } finally {
+        bufferLock.unlock();
       }
     } finally {
-      lock.writeLock().unlock();
+      forceLock.unlock();
     }
   }
 
-  private void sync() {
-    lock.writeLock().lock();
+  /**
+   * swap the log buffers and write the one filled by writers into the WAL file.
+   */
+  private void flushBuffer() {
+    flushLock.lock();
     try {
-      if (bufferedLogNum == 0) {
-        return;
+      ByteBuffer buffer;
+      int logNum;
+      long lastLogNum;
+      bufferLock.lock();
+      try {
+        if (bufferedLogNum == 0) {
+          return;
+        }
+        buffer = logBuffer;
+        logBuffer = flushingBuffer;
+        flushingBuffer = buffer;
+        logNum = bufferedLogNum;
+        lastLogNum = appendedLogNum;
+        bufferedLogNum = 0;
+      } finally {
+        bufferLock.unlock();
       }
+      int byteNum = buffer.position();
       try {
-        getCurrentFileWriter().write(logBuffer);
+        getCurrentFileWriter().write(buffer);
+        writtenLogNum = lastLogNum;
+        WalStatistics.getInstance().recordBufferWrite(logNum, byteNum);
+        logger.debug("Log node {} ends sync.", identifier);
       } catch (IOException e) {
         logger.error("Log node {} sync failed, change system mode to read-only", identifier, e);
-        IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
-        return;
+        fail();
+      } finally {
+        buffer.clear();
       }
-      logBuffer.clear();
-      bufferedLogNum = 0;
-      logger.debug("Log node {} ends sync.", identifier);
     } finally {
-      lock.writeLock().unlock();
+      flushLock.unlock();
+    }
+    if (config.getForceWalPeriodInMs() == 0 && lastPeriodicLogNum > forcedLogNum) {
+      requestForce();
+    }
+  }
+
+  private void fail() {
+    IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+    bufferLock.lock();
+    try {
+      failed = true;
+      logForced.signalAll();
+    } finally {
+      bufferLock.unlock();
     }
   }
 
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+/**
+ * WalSyncMode decides when a write to a {@link WriteLogNode} is acknowledged and when its log is
+ * forced to disk. The modes are declared from the least to the most durable.
+ */
+public enum WalSyncMode {
+
+  /**
+   * the write returns once the log is in the buffer of the node. The log is written to the WAL
+   * file when flush_wal_threshold logs are buffered, and is only forced when the WAL file is
+   * switched or closed.
+   */
+  ASYNC,
+
+  /**
+   * like ASYNC, but the log is also written and forced by the WAL force thread every
+   * force_wal_period_in_ms (or after each write of the buffer if the period is 0).
+   */
+  PERIODIC,
+
+  /**
+   * the write returns after the log is forced to disk. Concurrent SYNC writes of a node are
+   * committed by one force.
+   */
+  SYNC
+}
@@ -30,12 +30,21 @@ public interface WriteLogNode {
   /**
    * Write a wal for a PhysicalPlan. First, the PhysicalPlan will be conveyed to byte[].
    * Then the byte[] will be put into a cache. When the cache is full, the logs in the cache will be
-   * synced to disk.
+   * synced to disk. The write is acknowledged according to the WalSyncMode of the plan, or the
+   * configured wal_sync_mode if the plan has none.
    *
    * @param plan - a PhysicalPlan
    */
   void write(PhysicalPlan plan) throws IOException;
 
+  /**
+   * Same as write(plan), but the write is acknowledged according to the given syncMode instead.
+   *
+   * @param plan - a PhysicalPlan
+   * @param syncMode - when the write returns and when the log is forced to disk
+   */
+  void write(PhysicalPlan plan, WalSyncMode syncMode) throws IOException;
+
   /**
    * Sync and close streams.
    */
@@ -46,6 +55,12 @@ public interface WriteLogNode {
    */
   void forceSync() throws IOException;
 
+  /**
+   * Called by the WAL force thread every force_wal_period_in_ms. Write what in cache to disk and
+   * force it if there are logs written in PERIODIC mode that are not forced yet.
+   */
+  void periodicForceSync() throws IOException;
+
   /**
    * When data that have WALs in this node start to be flushed, this method must be called to
    * change the working WAL file.
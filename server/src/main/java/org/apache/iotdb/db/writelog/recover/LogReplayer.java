@@ -31,6 +31,7 @@ import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -92,6 +93,8 @@ public class LogReplayer {
         PhysicalPlan plan = logReader.next();
         if (plan instanceof InsertPlan) {
           replayInsert((InsertPlan) plan);
+        } else if (plan instanceof BatchInsertPlan) {
+          replayBatchInsert((BatchInsertPlan) plan);
         } else if (plan instanceof DeletePlan) {
           replayDelete((DeletePlan) plan);
         } else if (plan instanceof UpdatePlan) {
@@ -138,6 +141,44 @@ public class LogReplayer {
     recoverMemTable.insert(insertPlan);
   }
 
+  private void replayBatchInsert(BatchInsertPlan batchInsertPlan) {
+    if (currentTsFileResource == null) {
+      recoverMemTable.insertBatch(batchInsertPlan);
+      return;
+    }
+    String deviceId = batchInsertPlan.getDeviceId();
+    // the last chunk group may contain the same data with the logs, ignore such rows in seq file
+    Long lastEndTime = currentTsFileResource.getEndTimeMap().get(deviceId);
+    long[] times = batchInsertPlan.getTimes();
+    int rowCount = batchInsertPlan.getRowCount();
+    int start = 0;
+    while (start < rowCount) {
+      // find the next run of rows that should be replayed
+      while (start < rowCount && isDuplicated(lastEndTime, times[start])) {
+        start++;
+      }
+      int end = start;
+      while (end < rowCount && !isDuplicated(lastEndTime, times[end])) {
+        end++;
+      }
+      if (start < end) {
+        batchInsertPlan.setRange(start, end);
+        tempStartTimeMap.putIfAbsent(deviceId, times[start]);
+        long maxTime = batchInsertPlan.getMaxTime();
+        Long endTime = tempEndTimeMap.get(deviceId);
+        if (endTime == null || endTime < maxTime) {
+          tempEndTimeMap.put(deviceId, maxTime);
+        }
+        recoverMemTable.insertBatch(batchInsertPlan);
+      }
+      start = end;
+    }
+  }
+
+  private boolean isDuplicated(Long lastEndTime, long time) {
+    return lastEndTime != null && lastEndTime >= time && !acceptDuplication;
+  }
+
   @SuppressWarnings("unused")
   private void replayUpdate(UpdatePlan updatePlan) {
     // TODO: support update
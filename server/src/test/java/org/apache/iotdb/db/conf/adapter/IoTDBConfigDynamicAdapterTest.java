@@ -143,4 +143,25 @@ public class IoTDBConfigDynamicAdapterTest {
       assertEquals("The IoTDB system load is too large to add timeseries.", e.getMessage());
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void addOrDeleteStorageGroupOffHeap() throws ConfigAdjusterException {
+    long oldOffHeapMemory = CONFIG.getAllocateMemoryForOffHeapMemtable();
+    CONFIG.setEnableOffHeapMemtable(true);
+    CONFIG.setAllocateMemoryForOffHeapMemtable(1024L * IoTDBConstant.MB);
+    try {
+      MManager.getInstance().setMaxSeriesNumberAmongStorageGroup(100);
+      int memTableNum = IoTDBConfigDynamicAdapter.MEM_TABLE_AVERAGE_QUEUE_LEN;
+      for (int i = 0; i < 10; i++) {
+        IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(1);
+        memTableNum += 4;
+        // the memtables share the off-heap memory evenly
+        assertEquals(1024L * IoTDBConstant.MB / memTableNum, CONFIG.getMemtableSizeThreshold());
+        assertEquals(memTableNum, CONFIG.getMaxMemtableNumber());
+      }
+    } finally {
+      CONFIG.setEnableOffHeapMemtable(false);
+      CONFIG.setAllocateMemoryForOffHeapMemtable(oldOffHeapMemory);
+    }
+  }
+}
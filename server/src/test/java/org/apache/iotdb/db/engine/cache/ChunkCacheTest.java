@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkCacheTest {
+
+  private File tsF;
+  private TsFileSequenceReader reader;
+  private List<ChunkMetaData> chunkMetaDataList = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    tsF = new File("temp", "chunkCacheTest.tsfile");
+    tsF.getParentFile().mkdirs();
+
+    FileSchema schema = new FileSchema();
+    for (int i = 0; i < 10; i++) {
+      schema.registerMeasurement(new MeasurementSchema("sensor" + i, TSDataType.INT64,
+          TSEncoding.PLAIN));
+    }
+    TsFileWriter writer = new TsFileWriter(tsF, schema);
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        TSRecord tsRecord = new TSRecord(i, "device" + j);
+        for (int k = 0; k < 10; k++) {
+          tsRecord.addTuple(DataPoint.getDataPoint(TSDataType.INT64, "sensor" + k,
+              String.valueOf(k)));
+        }
+        writer.write(tsRecord);
+      }
+    }
+    writer.close();
+
+    reader = new TsFileSequenceReader(tsF.getPath());
+    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(reader);
+    for (int j = 0; j < 10; j++) {
+      for (int k = 0; k < 10; k++) {
+        chunkMetaDataList
+            .addAll(metadataQuerier.getChunkMetaDataList(new Path("device" + j, "sensor" + k)));
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    reader.close();
+    FileUtils.deleteDirectory(tsF.getParentFile());
+  }
+
+  @Test
+  public void testGetAndRemove() throws IOException {
+    ChunkCache cache = new ChunkCache(Long.MAX_VALUE, 4);
+    ChunkMetaData chunkMetaData = chunkMetaDataList.get(0);
+    chunkMetaData.setDeletedAt(3);
+
+    Chunk chunk = cache.get(chunkMetaData, reader);
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(3, chunk.getDeletedAt());
+    // consuming a returned chunk leaves the cached one intact
+    int dataSize = chunk.getData().remaining();
+    chunk.getData().position(dataSize);
+
+    Chunk cachedChunk = cache.get(chunkMetaData, reader);
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(2, cache.getRequestCount());
+    Assert.assertEquals(dataSize, cachedChunk.getData().remaining());
+    Assert.assertEquals(chunk.getHeader().getMeasurementID(),
+        cachedChunk.getHeader().getMeasurementID());
+    Assert.assertEquals(1, cache.getEntryNumber());
+    Assert.assertEquals(ChunkCache.calEntrySize(cachedChunk), cache.getUsedMemory());
+
+    cache.remove(tsF.getPath());
+    Assert.assertEquals(0, cache.getEntryNumber());
+    Assert.assertEquals(0, cache.getUsedMemory());
+    cache.get(chunkMetaData, reader);
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testScanResistance() throws IOException {
+    long entrySize = ChunkCache.calEntrySize(reader.readMemChunk(chunkMetaDataList.get(0)));
+    // room for about 10 chunks in a single segment
+    ChunkCache cache = new ChunkCache(entrySize * 10 + entrySize / 2, 1);
+
+    List<ChunkMetaData> hotChunks = chunkMetaDataList.subList(0, 4);
+    for (int i = 0; i < 2; i++) {
+      for (ChunkMetaData chunkMetaData : hotChunks) {
+        cache.get(chunkMetaData, reader);
+      }
+    }
+    Assert.assertEquals(4, cache.getHitCount());
+
+    // a scan reading each chunk once only evicts chunks that were requested once
+    for (ChunkMetaData chunkMetaData : chunkMetaDataList.subList(4, chunkMetaDataList.size())) {
+      cache.get(chunkMetaData, reader);
+    }
+    Assert.assertTrue(cache.getEvictionCount() > 0);
+    Assert.assertTrue(cache.getUsedMemory() <= cache.getMaxMemory());
+    Assert.assertEquals(4, cache.getHitCount());
+
+    for (ChunkMetaData chunkMetaData : hotChunks) {
+      cache.get(chunkMetaData, reader);
+    }
+    Assert.assertEquals(8, cache.getHitCount());
+  }
+}
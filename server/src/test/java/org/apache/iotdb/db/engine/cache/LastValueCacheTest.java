@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LastValueCacheTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private LastValueCache cache = LastValueCache.getInstance();
+  private Path path = new Path("root.vehicle.d0", "s0");
+  private int prevCacheSize;
+
+  @Before
+  public void setUp() {
+    prevCacheSize = config.getLastValueCacheSize();
+    config.setLastValueCacheSize(100);
+    cache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    cache.clear();
+    config.setLastValueCacheSize(prevCacheSize);
+  }
+
+  @Test
+  public void testCompleteAndUpdate() {
+    // an entry created by insertions is unknown until it is completed
+    cache.update("root.vehicle.d0", "s0", TSDataType.INT32, 0, 10, "10");
+    Assert.assertNull(cache.get(path));
+
+    cache.complete(path, TSDataType.INT32,
+        new TimeValuePair(5, new TsPrimitiveType.TsInt(5)), cache.getVersion());
+    TimeValuePair pair = cache.get(path);
+    Assert.assertEquals(10, pair.getTimestamp());
+    Assert.assertEquals(10, pair.getValue().getInt());
+
+    // an older insertion does not change the latest point
+    cache.update("root.vehicle.d0", "s0", TSDataType.INT32, 0, 7, 7);
+    Assert.assertEquals(10, cache.get(path).getTimestamp());
+
+    cache.update("root.vehicle.d0", "s0", TSDataType.INT32, 0, 20, 20);
+    pair = cache.get(path);
+    Assert.assertEquals(20, pair.getTimestamp());
+    Assert.assertEquals(20, pair.getValue().getInt());
+  }
+
+  @Test
+  public void testFloatPrecision() {
+    cache.complete(path, TSDataType.FLOAT, new TimeValuePair(1, new TsPrimitiveType.TsFloat(1)),
+        cache.getVersion());
+    // the inserted values are rounded as they are read from the memtable
+    cache.update("root.vehicle.d0", "s0", TSDataType.FLOAT, 2, 2, "1.23456");
+    Assert.assertEquals(1.23f, cache.get(path).getValue().getFloat(), 1e-6);
+    cache.update("root.vehicle.d0", "s0", TSDataType.FLOAT, 2, 3, 6.54321f);
+    Assert.assertEquals(6.54f, cache.get(path).getValue().getFloat(), 1e-6);
+  }
+
+  @Test
+  public void testNoData() {
+    cache.complete(path, TSDataType.INT64, new TimeValuePair(Long.MIN_VALUE, null),
+        cache.getVersion());
+    Assert.assertNull(cache.get(path).getValue());
+
+    cache.update("root.vehicle.d0", "s0", TSDataType.INT64, 0, 3, "3");
+    Assert.assertEquals(3L, cache.get(path).getValue().getLong());
+  }
+
+  @Test
+  public void testInvalidate() {
+    long version = cache.getVersion();
+    cache.update("root.vehicle.d0", "s0", TSDataType.INT32, 0, 10, "10");
+    cache.invalidate("root.vehicle.d0", "s0");
+    Assert.assertEquals(0, cache.size());
+
+    // a point read before the deletion may have been deleted
+    cache.complete(path, TSDataType.INT32,
+        new TimeValuePair(10, new TsPrimitiveType.TsInt(10)), version);
+    Assert.assertNull(cache.get(path));
+
+    cache.complete(path, TSDataType.INT32,
+        new TimeValuePair(8, new TsPrimitiveType.TsInt(8)), cache.getVersion());
+    Assert.assertEquals(8, cache.get(path).getTimestamp());
+
+    cache.invalidateStorageGroup("root.vehicle");
+    Assert.assertNull(cache.get(path));
+    Assert.assertEquals(0, cache.size());
+  }
+}
@@ -79,4 +79,26 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getTsDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushManyDevices() throws ExecutionException, InterruptedException {
+    // more series than the io task queue holds, so the flushing thread has to wait for io
+    int deviceNum = Runtime.getRuntime().availableProcessors() * 4;
+    for (int i = 0; i < deviceNum; i++) {
+      MemTableTestUtils.produceData(memTable, startTime + i, endTime + i, "d" + i,
+          MemTableTestUtils.measurementId0, MemTableTestUtils.dataType0);
+    }
+    MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable,
+        MemTableTestUtils.getFileSchema(), writer, storageGroup);
+    memTableFlushTask.syncFlushMemTable();
+    writer.makeMetadataVisible();
+
+    assertEquals(deviceNum, writer.getChunkGroupMetaDatas().size());
+    for (int i = 0; i < deviceNum; i++) {
+      ChunkMetaData chunkMetaData = writer.getVisibleMetadataList("d" + i,
+          MemTableTestUtils.measurementId0, MemTableTestUtils.dataType0).get(0);
+      assertEquals(startTime + i, chunkMetaData.getStartTime());
+      assertEquals(endTime + i, chunkMetaData.getEndTime());
+    }
+  }
+}
@@ -22,6 +22,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Random;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunkIterator;
 import org.apache.iotdb.db.utils.MathUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType;
@@ -29,6 +32,9 @@ import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Assert;
 import org.junit.Before;
@@ -88,6 +94,77 @@ public class PrimitiveMemTableTest {
     }
   }
 
+  @Test
+  public void testPointIterator() {
+    IMemTable oldMemTable = new PrimitiveMemTable();
+    IMemTable newMemTable = new PrimitiveMemTable();
+    for (int i = 99; i >= 0; i--) {
+      oldMemTable.write("d1", "s1", TSDataType.INT64, i, String.valueOf(i));
+    }
+    // overwrite the even timestamps of the old memtable and append 100..149
+    for (int i = 0; i < 150; i += 2) {
+      newMemTable.write("d1", "s1", TSDataType.INT64, i, String.valueOf(-i));
+      newMemTable.write("d1", "s1", TSDataType.INT64, i + 1 < 100 ? i : i + 1, String.valueOf(-i));
+    }
+    // the points of the old memtable before 10 are deleted
+    oldMemTable.delete(new Deletion(new Path("d1", "s1"), 0, 9));
+
+    ReadOnlyMemChunk memChunk = new ReadOnlyMemChunk(TSDataType.INT64, Arrays.asList(
+        oldMemTable.query("d1", "s1", TSDataType.INT64, Collections.emptyMap()),
+        newMemTable.query("d1", "s1", TSDataType.INT64, Collections.emptyMap())));
+
+    ReadOnlyMemChunkIterator iterator = memChunk.getPointIterator();
+    BatchData batchData = iterator.nextBatch(TimeFilter.ltEq(20), 5);
+    Assert.assertEquals(5, batchData.length());
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(2 * i, batchData.getTimeByIndex(i));
+      Assert.assertEquals(-2 * i, batchData.getLongByIndex(i));
+    }
+    batchData = iterator.nextBatch(TimeFilter.ltEq(20), 100);
+    Assert.assertEquals(11, batchData.length());
+    Assert.assertEquals(10, batchData.getTimeByIndex(0));
+    Assert.assertEquals(-10, batchData.getLongByIndex(0));
+    Assert.assertEquals(11, batchData.getLongByIndex(1));
+    Assert.assertFalse(iterator.hasNext());
+
+    iterator = memChunk.getPointIterator();
+    Assert.assertNull(iterator.getValueInTimestamp(7));
+    Assert.assertEquals(-8L, iterator.getValueInTimestamp(8));
+    Assert.assertEquals(55L, iterator.getValueInTimestamp(55));
+    Assert.assertEquals(-100L, iterator.getValueInTimestamp(101));
+    Assert.assertEquals(-146L, iterator.getValueInTimestamp(147));
+    Assert.assertNull(iterator.getValueInTimestamp(147));
+    Assert.assertNull(iterator.getValueInTimestamp(150));
+
+    Assert.assertEquals(145, memChunk.getSortedTimeValuePairList().size());
+
+    // in reverse order, a batch holds the newest points in ascending order
+    iterator = memChunk.getPointIterator(true);
+    batchData = iterator.nextBatch(TimeFilter.gtEq(95), 4);
+    Assert.assertEquals(4, batchData.length());
+    Assert.assertEquals(146, batchData.getTimeByIndex(0));
+    Assert.assertEquals(-146, batchData.getLongByIndex(0));
+    Assert.assertEquals(149, batchData.getTimeByIndex(3));
+    Assert.assertEquals(-148, batchData.getLongByIndex(3));
+    // the points are iterated in descending order, the newer memtable wins a tie
+    long lastTime = 146;
+    int count = 4;
+    while (iterator.hasNext()) {
+      TimeValuePair timeValuePair = iterator.currentTimeValuePair();
+      Assert.assertTrue(timeValuePair.getTimestamp() < lastTime);
+      lastTime = timeValuePair.getTimestamp();
+      if (lastTime == 11) {
+        Assert.assertEquals(11L, timeValuePair.getValue().getLong());
+      } else if (lastTime == 10) {
+        Assert.assertEquals(-10L, timeValuePair.getValue().getLong());
+      }
+      iterator.next();
+      count++;
+    }
+    Assert.assertEquals(0, lastTime);
+    Assert.assertEquals(145, count);
+  }
+
   private void write(IMemTable memTable, String deviceId, String sensorId, TSDataType dataType,
       int size) {
     TimeValuePair[] ret = genTimeValuePair(size, dataType);
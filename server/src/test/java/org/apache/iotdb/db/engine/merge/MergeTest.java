@@ -0,0 +1,311 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergeTest {
+
+  private String storageGroup = "root.vehicle.d0";
+  private String systemDir = "data/info";
+  private String deviceId = "root.vehicle.d0";
+  private String measurementId = "s0";
+  private StorageGroupProcessor processor;
+
+  @Before
+  public void setUp() throws Exception {
+    MetadataManagerHelper.initMetadata();
+    EnvironmentUtils.envSetUp();
+    processor = new StorageGroupProcessor(systemDir, storageGroup);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    processor.syncDeleteDataFiles();
+    EnvironmentUtils.cleanEnv();
+    EnvironmentUtils.cleanDir("data");
+  }
+
+  /**
+   * sequence files [1, 10], [11, 20] and [21, 30] with value = time, an unsequence file with 5
+   * and 15, another one with 15 and 25, the value of unsequence data is time + 1000 * the number
+   * of the unsequence file, and data <= 2 is deleted.
+   */
+  private void prepareData() throws IOException {
+    for (int i = 1; i <= 30; i++) {
+      insert(i, i);
+      if (i % 10 == 0) {
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    insert(5, 1005);
+    insert(15, 1015);
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    insert(15, 2015);
+    insert(25, 2025);
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    processor.delete(deviceId, measurementId, 2);
+  }
+
+  private void insert(long time, int value) {
+    TSRecord record = new TSRecord(time, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId,
+        String.valueOf(value)));
+    processor.insert(new InsertPlan(record));
+  }
+
+  private void checkData(StorageGroupProcessor processor) throws IOException {
+    QueryContext context = new QueryContext();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    for (int i = 3; i <= 30; i++) {
+      assertTrue(reader.hasNext());
+      TimeValuePair pair = reader.next();
+      assertEquals(i, pair.getTimestamp());
+      int expected = i;
+      if (i == 5) {
+        expected = 1005;
+      } else if (i == 15) {
+        expected = 2015;
+      } else if (i == 25) {
+        expected = 2025;
+      }
+      assertEquals(expected, pair.getValue().getInt());
+    }
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    prepareData();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, new QueryContext());
+    List<TsFileResource> oldSeqFiles = dataSource.getSeqResources();
+    List<TsFileResource> oldUnseqFiles = dataSource.getUnseqResources();
+    assertEquals(3, oldSeqFiles.size());
+    assertEquals(2, oldUnseqFiles.size());
+
+    processor.merge().get();
+
+    dataSource = processor.query(deviceId, measurementId, new QueryContext());
+    assertEquals(3, dataSource.getSeqResources().size());
+    assertTrue(dataSource.getUnseqResources().isEmpty());
+    for (int i = 0; i < 3; i++) {
+      TsFileResource newFile = dataSource.getSeqResources().get(i);
+      assertEquals(MergeTask.getMergedFile(oldSeqFiles.get(i).getFile()), newFile.getFile());
+      assertTrue(newFile.getFile().exists());
+      assertFalse(oldSeqFiles.get(i).getFile().exists());
+    }
+    for (TsFileResource unseqFile : oldUnseqFiles) {
+      assertFalse(unseqFile.getFile().exists());
+    }
+    checkData(processor);
+
+    // nothing is left to merge
+    assertNull(processor.merge());
+  }
+
+  @Test
+  public void testMergedFilesKeptForRunningQuery() throws Exception {
+    prepareData();
+    List<TsFileResource> oldSeqFiles = processor
+        .query(deviceId, measurementId, new QueryContext()).getSeqResources();
+
+    int token = processor.beginQuery();
+    processor.merge().get();
+    for (TsFileResource seqFile : oldSeqFiles) {
+      assertTrue(seqFile.getFile().exists());
+    }
+    processor.endQuery(token);
+    for (TsFileResource seqFile : oldSeqFiles) {
+      assertFalse(seqFile.getFile().exists());
+    }
+    checkData(processor);
+  }
+
+  @Test
+  public void testDeletionDuringMerge() throws Exception {
+    prepareData();
+    MergeManager mergeManager = MergeManager.getInstance();
+    long throughput = mergeManager.getMergeThroughputBytePerSec();
+    // slow the merge down so that the deletion is likely to happen while merging
+    mergeManager.setMergeThroughputBytePerSec(100);
+    try {
+      Future<Void> future = processor.merge();
+      processor.delete(deviceId, measurementId, 10);
+      future.get();
+    } finally {
+      mergeManager.setMergeThroughputBytePerSec(throughput);
+    }
+
+    QueryContext context = new QueryContext();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    assertTrue(dataSource.getUnseqResources().isEmpty());
+    Path path = new Path(deviceId, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    assertTrue(reader.hasNext());
+    TimeValuePair pair = reader.next();
+    assertEquals(11, pair.getTimestamp());
+    assertEquals(11, pair.getValue().getInt());
+    reader.close();
+  }
+
+  @Test
+  public void testRecoverIncompleteMerge() throws Exception {
+    prepareData();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, new QueryContext());
+    List<File> seqFiles = new ArrayList<>();
+    List<File> tempFiles = new ArrayList<>();
+    for (TsFileResource seqFile : dataSource.getSeqResources()) {
+      seqFiles.add(seqFile.getFile());
+      File tempFile = new File(
+          MergeTask.getMergedFile(seqFile.getFile()).getPath() + MergeTask.MERGE_TEMP_SUFFIX);
+      try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+        outputStream.write(new byte[]{1, 2, 3});
+      }
+      tempFiles.add(tempFile);
+    }
+    List<File> unseqFiles = new ArrayList<>();
+    for (TsFileResource unseqFile : dataSource.getUnseqResources()) {
+      unseqFiles.add(unseqFile.getFile());
+    }
+    // the merge crashed before it ended
+    File logFile = new File(systemDir + File.separator + storageGroup,
+        "100" + MergeLogger.MERGE_LOG_SUFFIX);
+    MergeLogger mergeLogger = new MergeLogger(logFile);
+    mergeLogger.logFiles(seqFiles, unseqFiles, tempFiles);
+    mergeLogger.close();
+
+    StorageGroupProcessor recoveredProcessor = new StorageGroupProcessor(systemDir, storageGroup);
+    assertFalse(logFile.exists());
+    for (File tempFile : tempFiles) {
+      assertFalse(tempFile.exists());
+    }
+    dataSource = recoveredProcessor.query(deviceId, measurementId, new QueryContext());
+    assertEquals(3, dataSource.getSeqResources().size());
+    assertEquals(2, dataSource.getUnseqResources().size());
+    checkData(recoveredProcessor);
+  }
+
+  @Test
+  public void testRecoverCompleteMerge() throws Exception {
+    prepareData();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, new QueryContext());
+    List<TsFileResource> seqFiles = new ArrayList<>(dataSource.getSeqResources());
+    List<TsFileResource> unseqFiles = new ArrayList<>(dataSource.getUnseqResources());
+    List<Map<String, Long>> lowerBounds = new ArrayList<>();
+    Map<String, Long> previousEndTimes = new HashMap<>();
+    for (TsFileResource seqFile : seqFiles) {
+      lowerBounds.add(new HashMap<>(previousEndTimes));
+      previousEndTimes.putAll(seqFile.getEndTimeMap());
+    }
+    File logFile = new File(systemDir + File.separator + storageGroup,
+        "100" + MergeLogger.MERGE_LOG_SUFFIX);
+    // the merge crashed after it ended but before the files were swapped
+    boolean[] mergeResult = new boolean[1];
+    MergeTask mergeTask = new MergeTask(storageGroup, seqFiles, lowerBounds, unseqFiles,
+        new FileSchema(MManager.getInstance().getSchemaForStorageGroup(storageGroup)), 100,
+        logFile, (task, merged) -> mergeResult[0] = merged);
+    mergeTask.call();
+    assertTrue(mergeResult[0]);
+    assertTrue(logFile.exists());
+
+    StorageGroupProcessor recoveredProcessor = new StorageGroupProcessor(systemDir, storageGroup);
+    assertFalse(logFile.exists());
+    dataSource = recoveredProcessor.query(deviceId, measurementId, new QueryContext());
+    assertEquals(3, dataSource.getSeqResources().size());
+    assertTrue(dataSource.getUnseqResources().isEmpty());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(MergeTask.getMergedFile(seqFiles.get(i).getFile()).getName(),
+          dataSource.getSeqResources().get(i).getFile().getName());
+    }
+    checkData(recoveredProcessor);
+  }
+
+  @Test
+  public void testMergeSkipsUnsealedFiles() throws Exception {
+    for (int i = 1; i <= 10; i++) {
+      insert(i, i);
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    insert(5, 1005);
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    // this unsequence file is not sealed
+    insert(5, 2005);
+    insert(6, 2006);
+
+    processor.merge().get();
+
+    QueryContext context = new QueryContext();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    assertEquals(1, dataSource.getSeqResources().size());
+    assertEquals(1, dataSource.getUnseqResources().size());
+    assertFalse(dataSource.getUnseqResources().get(0).isClosed());
+    Path path = new Path(deviceId, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    for (int i = 1; i <= 10; i++) {
+      TimeValuePair pair = reader.next();
+      assertEquals(i, pair.getTimestamp());
+      assertEquals(i == 5 || i == 6 ? 2000 + i : i, pair.getValue().getInt());
+    }
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+}
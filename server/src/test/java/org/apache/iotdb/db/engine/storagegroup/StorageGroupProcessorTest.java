@@ -18,13 +18,23 @@
  */
 package org.apache.iotdb.db.engine.storagegroup;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
 import org.junit.After;
@@ -106,4 +116,216 @@ public class StorageGroupProcessorTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testInsertBatchInRuns() {
+    for (int j = 11; j <= 20; j++) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+    }
+    processor.putAllWorkingTsFileProcessorIntoClosingList();
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+
+    // sequence, unsequence and sequence rows again, which are inserted in three runs
+    long[] times = {21, 22, 5, 6, 23};
+    int[] values = {21, 22, 5, 6, 23};
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(deviceId, new String[]{measurementId},
+        new TSDataType[]{TSDataType.INT32});
+    batchInsertPlan.setRows(times, new Object[]{values}, times.length);
+    Assert.assertTrue(processor.insertBatch(batchInsertPlan));
+    Assert.assertEquals(times.length, batchInsertPlan.getInsertedRowCount());
+    Assert.assertEquals(0, batchInsertPlan.getStart());
+    Assert.assertEquals(times.length, batchInsertPlan.getEnd());
+
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+  }
+
+  @Test
+  public void testQueryWithTimeFilter() {
+    for (int j = 21; j <= 30; j++) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    // an unsealed file is always checked by its current time range
+    TSRecord record = new TSRecord(5, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "5"));
+    processor.insert(new InsertPlan(record));
+
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+        FilterFactory.and(TimeFilter.gtEq(24), TimeFilter.ltEq(26)));
+    Assert.assertEquals(3, queryDataSource.getSeqResources().size());
+    Assert.assertTrue(queryDataSource.getUnseqResources().isEmpty());
+    long time = 24;
+    for (TsFileResource resource : queryDataSource.getSeqResources()) {
+      Assert.assertEquals(time++, (long) resource.getStartTimeMap().get(deviceId));
+    }
+
+    queryDataSource = processor.query(deviceId, measurementId, context, TimeFilter.lt(10));
+    Assert.assertTrue(queryDataSource.getSeqResources().isEmpty());
+    Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+  }
+
+  @Test
+  public void testConcurrentRecovery() throws Exception {
+    for (int j = 21; j <= 30; j++) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+    }
+    for (int j = 10; j >= 1; j--) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+
+    ExecutorService recoveryPool = Executors.newFixedThreadPool(4);
+    try {
+      StorageGroupProcessor recoveredProcessor = new StorageGroupProcessor(systemDir,
+          storageGroup, recoveryPool);
+      QueryDataSource queryDataSource = recoveredProcessor
+          .query(deviceId, measurementId, context);
+      Assert.assertEquals(10, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(10, queryDataSource.getUnseqResources().size());
+      // the files keep their order although they are recovered concurrently
+      long time = 21;
+      for (TsFileResource resource : queryDataSource.getSeqResources()) {
+        Assert.assertTrue(resource.isClosed());
+        Assert.assertEquals(time++, (long) resource.getStartTimeMap().get(deviceId));
+      }
+      time = 10;
+      for (TsFileResource resource : queryDataSource.getUnseqResources()) {
+        Assert.assertTrue(resource.isClosed());
+        Assert.assertEquals(time--, (long) resource.getStartTimeMap().get(deviceId));
+      }
+    } finally {
+      recoveryPool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testTimePartition() throws Exception {
+    processor.syncDeleteDataFiles();
+    IoTDBDescriptor.getInstance().getConfig().setPartitionInterval(100);
+    try {
+      processor = new StorageGroupProcessor(systemDir, storageGroup);
+      for (long time : new long[]{150, 151}) {
+        insertRecord(time);
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      // late data of an earlier partition is still sequential, late data of the same partition is
+      // not
+      insertRecord(50);
+      insertRecord(140);
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      checkPartitionedFiles(processor, new long[]{50, 150, 151}, new long[]{140});
+      StorageGroupProcessor recoveredProcessor = new StorageGroupProcessor(systemDir,
+          storageGroup);
+      checkPartitionedFiles(recoveredProcessor, new long[]{50, 150, 151}, new long[]{140});
+
+      // the files of a dropped partition are kept until the queries started before end
+      List<File> partitionFiles = new ArrayList<>();
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context);
+      for (TsFileResource resource : queryDataSource.getSeqResources()) {
+        partitionFiles.add(resource.getFile());
+      }
+      for (TsFileResource resource : queryDataSource.getUnseqResources()) {
+        partitionFiles.add(resource.getFile());
+      }
+      int token = processor.beginQuery();
+      processor.dropTimePartition(1);
+      checkPartitionedFiles(processor, new long[]{50}, new long[0]);
+      for (File file : partitionFiles) {
+        Assert.assertTrue(file.exists());
+      }
+      processor.endQuery(token);
+      for (File file : partitionFiles) {
+        Assert.assertEquals(file.getParentFile().getName().equals("0"), file.exists());
+      }
+      // the partition is written sequentially again after it is dropped
+      insertRecord(120);
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+      checkPartitionedFiles(processor, new long[]{50, 120}, new long[0]);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setPartitionInterval(0);
+    }
+  }
+
+  @Test
+  public void testConcurrentInsert() throws Exception {
+    int deviceNum = 3;
+    int pointNum = 200;
+    ExecutorService insertPool = Executors.newFixedThreadPool(deviceNum + 1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < deviceNum; i++) {
+        String device = "root.vehicle.d" + i;
+        futures.add(insertPool.submit(() -> {
+          for (int j = 1; j <= pointNum; j++) {
+            TSRecord record = new TSRecord(j, device);
+            record.addTuple(
+                DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+            Assert.assertTrue(processor.insert(new InsertPlan(record)));
+          }
+        }));
+      }
+      // switch the working files while the devices are inserted
+      futures.add(insertPool.submit(() -> {
+        for (int j = 0; j < 20; j++) {
+          processor.putAllWorkingTsFileProcessorIntoClosingList();
+        }
+      }));
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      insertPool.shutdownNow();
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+
+    for (int i = 0; i < deviceNum; i++) {
+      String device = "root.vehicle.d" + i;
+      QueryDataSource queryDataSource = processor.query(device, measurementId, context);
+      // the points of each device are inserted in order, so none of them is unsequential
+      Assert.assertTrue(queryDataSource.getUnseqResources().isEmpty());
+      long previousEndTime = 0;
+      for (TsFileResource resource : queryDataSource.getSeqResources()) {
+        Assert.assertTrue(resource.isClosed());
+        Assert.assertTrue(resource.getStartTimeMap().get(device) > previousEndTime);
+        previousEndTime = resource.getEndTimeMap().get(device);
+      }
+      Assert.assertEquals(pointNum, previousEndTime);
+    }
+  }
+
+  private void insertRecord(long time) {
+    TSRecord record = new TSRecord(time, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(time)));
+    processor.insert(new InsertPlan(record));
+  }
+
+  private void checkPartitionedFiles(StorageGroupProcessor processor, long[] seqStartTimes,
+      long[] unseqStartTimes) {
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(seqStartTimes.length, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(unseqStartTimes.length, queryDataSource.getUnseqResources().size());
+    for (int i = 0; i < seqStartTimes.length; i++) {
+      TsFileResource resource = queryDataSource.getSeqResources().get(i);
+      Assert.assertEquals(seqStartTimes[i], (long) resource.getStartTimeMap().get(deviceId));
+      Assert.assertEquals(processor.getTimePartition(seqStartTimes[i]),
+          Long.parseLong(resource.getFile().getParentFile().getName()));
+    }
+    for (int i = 0; i < unseqStartTimes.length; i++) {
+      Assert.assertEquals(unseqStartTimes[i],
+          (long) queryDataSource.getUnseqResources().get(i).getStartTimeMap().get(deviceId));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TsFileResourceTimeIndexTest {
+
+  private static final String DEVICE = "root.sg.d0";
+
+  private List<TsFileResource> resources = new ArrayList<>();
+
+  private TsFileResourceTimeIndex index = new TsFileResourceTimeIndex(resources);
+
+  private TsFileResource newResource(String name, long startTime, long endTime, boolean closed) {
+    if (closed) {
+      Map<String, Long> startTimeMap = new HashMap<>();
+      Map<String, Long> endTimeMap = new HashMap<>();
+      startTimeMap.put(DEVICE, startTime);
+      endTimeMap.put(DEVICE, endTime);
+      return new TsFileResource(new File(name), startTimeMap, endTimeMap);
+    }
+    // a resource created for a TsFileProcessor stays unclosed until close() is called
+    TsFileResource resource = new TsFileResource(new File(name), (TsFileProcessor) null);
+    resource.updateStartTime(DEVICE, startTime);
+    // the end time of an unsealed sequence file is unknown
+    if (endTime != Long.MAX_VALUE) {
+      resource.updateEndTime(DEVICE, endTime);
+    }
+    return resource;
+  }
+
+  @Test
+  public void testSequenceFiles() {
+    for (int i = 0; i < 100; i++) {
+      resources.add(newResource("seq" + i, i * 100L, i * 100L + 99, true));
+    }
+    resources.add(newResource("unsealed", 10000, Long.MAX_VALUE, false));
+
+    List<TsFileResource> result = index
+        .getResources(DEVICE, FilterFactory.and(TimeFilter.gtEq(2050), TimeFilter.lt(2250)));
+    Assert.assertEquals(3, result.size());
+    for (int i = 0; i < 3; i++) {
+      Assert.assertSame(resources.get(20 + i), result.get(i));
+    }
+
+    result = index.getResources(DEVICE, TimeFilter.gt(9950));
+    Assert.assertEquals(2, result.size());
+    Assert.assertSame(resources.get(99), result.get(0));
+    Assert.assertSame(resources.get(100), result.get(1));
+
+    result = index
+        .getResources(DEVICE, FilterFactory.or(TimeFilter.eq(150), TimeFilter.eq(9050)));
+    Assert.assertEquals(2, result.size());
+    Assert.assertSame(resources.get(1), result.get(0));
+    Assert.assertSame(resources.get(90), result.get(1));
+
+    Assert.assertEquals(resources, index.getResources(DEVICE, null));
+    Assert.assertTrue(index.getResources("root.sg.d1", null).isEmpty());
+  }
+
+  @Test
+  public void testUnsequenceFiles() {
+    // overlapping files, the result must keep their order in the list
+    resources.add(newResource("unseq0", 0, 1000, true));
+    resources.add(newResource("unseq1", 500, 600, true));
+    resources.add(newResource("unseq2", 100, 200, true));
+    resources.add(newResource("unseq3", 300, 2000, true));
+    resources.add(newResource("unseq4", 550, 560, false));
+
+    List<TsFileResource> result = index
+        .getResources(DEVICE, FilterFactory.and(TimeFilter.gtEq(580), TimeFilter.ltEq(700)));
+    Assert.assertEquals(3, result.size());
+    Assert.assertSame(resources.get(0), result.get(0));
+    Assert.assertSame(resources.get(1), result.get(1));
+    Assert.assertSame(resources.get(3), result.get(2));
+
+    result = index.getResources(DEVICE, TimeFilter.lt(150));
+    Assert.assertEquals(2, result.size());
+    Assert.assertSame(resources.get(0), result.get(0));
+    Assert.assertSame(resources.get(2), result.get(1));
+
+    // the unclosed file is checked by its current time range
+    resources.get(4).updateStartTime(DEVICE, 50);
+    result = index.getResources(DEVICE, TimeFilter.lt(60));
+    Assert.assertEquals(2, result.size());
+    Assert.assertSame(resources.get(4), result.get(1));
+  }
+
+  @Test
+  public void testInvalidate() {
+    resources.add(newResource("seq0", 0, 100, true));
+    Assert.assertEquals(1, index.getResources(DEVICE, TimeFilter.gt(50)).size());
+
+    resources.set(0, newResource("merged0", 0, 10, true));
+    resources.add(newResource("seq1", 200, 300, true));
+    index.invalidate();
+    Assert.assertEquals(Collections.singletonList(resources.get(1)),
+        index.getResources(DEVICE, TimeFilter.gt(50)));
+  }
+}
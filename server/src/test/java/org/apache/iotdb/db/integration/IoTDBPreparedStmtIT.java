@@ -30,7 +30,10 @@ import java.util.Arrays;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.jdbc.IoTDBPreparedBatchInsertionStatement;
 import org.apache.iotdb.jdbc.IoTDBPreparedInsertionStatement;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -66,6 +69,7 @@ public class IoTDBPreparedStmtIT {
       statement.execute("SET STORAGE GROUP TO root.device1");
       statement.execute("SET STORAGE GROUP TO root.device2");
       statement.execute("SET STORAGE GROUP TO root.device3");
+      statement.execute("SET STORAGE GROUP TO root.device4");
 
       for (int i = 0; i < 5; i++) {
         statement.execute(String.format("CREATE TIMESERIES root.device1.sensor%d WITH "
@@ -75,6 +79,12 @@ public class IoTDBPreparedStmtIT {
         statement.execute(String.format("CREATE TIMESERIES root.device3.sensor%d WITH "
             + "DATATYPE=DOUBLE,ENCODING=PLAIN", i));
       }
+      statement.execute("CREATE TIMESERIES root.device4.s0 WITH DATATYPE=BOOLEAN,ENCODING=PLAIN");
+      statement.execute("CREATE TIMESERIES root.device4.s1 WITH DATATYPE=INT32,ENCODING=RLE");
+      statement.execute("CREATE TIMESERIES root.device4.s2 WITH DATATYPE=INT64,ENCODING=RLE");
+      statement.execute("CREATE TIMESERIES root.device4.s3 WITH DATATYPE=FLOAT,ENCODING=RLE");
+      statement.execute("CREATE TIMESERIES root.device4.s4 WITH DATATYPE=DOUBLE,ENCODING=GORILLA");
+      statement.execute("CREATE TIMESERIES root.device4.s5 WITH DATATYPE=TEXT,ENCODING=PLAIN");
       // to create processors
       statement.execute("INSERT INTO root.device1(timestamp,sensor0,sensor1,sensor2,sensor3,"
           + "sensor4) VALUES (1,1,1,1,1,1)");
@@ -131,6 +141,75 @@ public class IoTDBPreparedStmtIT {
     }
   }
 
+  @Test
+  public void testPreparedBatchInsertion() throws SQLException {
+    Connection connection;
+    connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+    IoTDBPreparedBatchInsertionStatement statement =
+        (IoTDBPreparedBatchInsertionStatement) connection.prepareStatement("INSERT BATCH");
+
+    try {
+      statement.setDeviceId("root.device4");
+      statement.setMeasurements(Arrays.asList("s0", "s1", "s2", "s3", "s4", "s5"),
+          Arrays.asList(TSDataType.BOOLEAN, TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT,
+              TSDataType.DOUBLE, TSDataType.TEXT));
+      int size = 100;
+      // the rows are not in time order and the arrays are longer than size
+      long[] times = new long[size + 10];
+      boolean[] booleans = new boolean[size + 10];
+      int[] ints = new int[size + 10];
+      long[] longs = new long[size + 10];
+      float[] floats = new float[size + 10];
+      double[] doubles = new double[size + 10];
+      Binary[] binaries = new Binary[size + 10];
+      for (int i = 0; i < size; i++) {
+        long time = i < size / 2 ? size - i : i - size / 2 + 1;
+        times[i] = time;
+        booleans[i] = time % 2 == 0;
+        ints[i] = (int) time;
+        longs[i] = time * 10;
+        floats[i] = time + 0.5f;
+        doubles[i] = time + 0.25;
+        binaries[i] = new Binary("text" + time);
+      }
+      statement.setTimestamps(times, size);
+      statement.setValues(0, booleans);
+      statement.setValues(1, ints);
+      statement.setValues(2, longs);
+      statement.setValues(3, floats);
+      statement.setValues(4, doubles);
+      statement.setValues(5, binaries);
+      assertEquals(true, statement.execute());
+
+      // a data type that does not match the schema is rejected
+      statement.setMeasurements(Arrays.asList("s1"), Arrays.asList(TSDataType.INT64));
+      statement.setTimestamps(new long[]{1000}, 1);
+      statement.setValues(0, new long[]{1000});
+      assertEquals(false, statement.execute());
+      statement.close();
+
+      Statement queryStmt = connection.createStatement();
+      ResultSet resultSet = queryStmt.executeQuery("SELECT * FROM root.device4");
+      int cnt = 0;
+      while (resultSet.next()) {
+        cnt++;
+        assertEquals(cnt, resultSet.getLong(1));
+        assertEquals(String.valueOf(cnt % 2 == 0), resultSet.getString(2));
+        assertEquals(cnt, resultSet.getInt(3));
+        assertEquals(cnt * 10L, resultSet.getLong(4));
+        assertEquals(cnt + 0.5f, resultSet.getFloat(5), 0.0001);
+        assertEquals(cnt + 0.25, resultSet.getDouble(6), 0.0001);
+        assertEquals("text" + cnt, resultSet.getString(7));
+      }
+      assertEquals(size, cnt);
+      resultSet.close();
+      queryStmt.close();
+    } finally {
+      connection.close();
+    }
+  }
+
   @Ignore
   @Test
   public void testPreparedInsertionPerf() throws SQLException {
@@ -360,4 +360,64 @@ public class MManagerBasicTest {
     manager.deletePaths(Collections.singletonList(new Path("root.laptop.d1.s2")));
     assertEquals(1, manager.getMaximalSeriesNumberAmongStorageGroups());
   }
+
+  @Test
+  public void testTargetedCacheInvalidation() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.addPathToMTree("root.sg1.d1.s1", "INT32", "RLE");
+    manager.addPathToMTree("root.sg1.d2.s1", "INT64", "RLE");
+    MNode d1 = manager.getNodeByDeviceIdFromCache("root.sg1.d1");
+    MNode d2 = manager.getNodeByDeviceIdFromCache("root.sg1.d2");
+    assertEquals(TSDataType.INT64,
+        manager.checkPathStorageLevelAndGetDataType("root.sg1.d2.s1").getDataType());
+
+    // a path that does not exist yet is not cached as absent after it is created
+    assertFalse(manager.checkPathStorageLevelAndGetDataType("root.sg1.d2.s2").isSuccessfully());
+    manager.addPathToMTree("root.sg1.d2.s2", "FLOAT", "RLE");
+    assertEquals(TSDataType.FLOAT,
+        manager.checkPathStorageLevelAndGetDataType("root.sg1.d2.s2").getDataType());
+
+    // deleting the only series of d1 removes d1, but the node of d2 stays cached
+    manager.deletePaths(Collections.singletonList(new Path("root.sg1.d1.s1")));
+    try {
+      manager.getNodeByDeviceIdFromCache("root.sg1.d1");
+      fail();
+    } catch (PathErrorException e) {
+      // expected
+    }
+    assertTrue(d2 == manager.getNodeByDeviceIdFromCache("root.sg1.d2"));
+    manager.addPathToMTree("root.sg1.d1.s1", "INT32", "RLE");
+    assertFalse(d1 == manager.getNodeByDeviceIdFromCache("root.sg1.d1"));
+
+    // the children are still listed in the order they were added
+    List<String> paths = manager.getPaths("root.sg1");
+    assertEquals("root.sg1.d2.s1", paths.get(0));
+    assertEquals("root.sg1.d2.s2", paths.get(1));
+    assertEquals("root.sg1.d1.s1", paths.get(2));
+  }
+
+  @Test
+  public void testResolvePathsWhileCreating() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.addPathToMTree("root.sg1.d0.s0", "INT32", "RLE");
+    Thread creator = new Thread(() -> {
+      try {
+        for (int i = 1; i < 1000; i++) {
+          manager.addPathToMTree("root.sg1.d" + i % 10 + ".s" + i, "INT64", "RLE");
+        }
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    creator.start();
+    while (creator.isAlive()) {
+      assertEquals(TSDataType.INT32, manager.getSeriesType("root.sg1.d0.s0"));
+      assertFalse(manager.getNodeByDeviceIdFromCache("root.sg1.d0").isLeaf());
+    }
+    creator.join();
+    assertEquals(TSDataType.INT64, manager.getSeriesType("root.sg1.d9.s999"));
+    assertEquals(1000, manager.getPaths("root.sg1").size());
+  }
 }
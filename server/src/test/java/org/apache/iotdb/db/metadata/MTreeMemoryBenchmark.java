@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * MTree memory benchmark. Build an MTree of numOfStorageGroup * numOfDevice * numOfMeasurement
+ * timeseries and report the heap it takes per timeseries. Run it with a fixed heap, e.g. -Xmx8g,
+ * so that the garbage collection before each measurement is effective.
+ */
+public class MTreeMemoryBenchmark {
+
+  private static int numOfStorageGroup = 10;
+  private static int numOfDevice = 10000;
+  private static int numOfMeasurement = 100;
+
+  public static void main(String[] args) throws PathErrorException {
+    long before = usedMemory();
+    final long startTime = System.currentTimeMillis();
+    MTree mTree = new MTree(MetadataConstant.ROOT);
+    for (int i = 0; i < numOfStorageGroup; i++) {
+      String storageGroup = "root.sg" + i;
+      mTree.setStorageGroup(storageGroup);
+      for (int j = 0; j < numOfDevice; j++) {
+        String device = storageGroup + ".d" + j;
+        for (int k = 0; k < numOfMeasurement; k++) {
+          mTree.addTimeseriesPath(device + ".s" + k, TSDataType.FLOAT, TSEncoding.RLE,
+              CompressionType.SNAPPY, null);
+        }
+      }
+    }
+    final long endTime = System.currentTimeMillis();
+    long after = usedMemory();
+
+    long numOfSeries = (long) numOfStorageGroup * numOfDevice * numOfMeasurement;
+    System.out.println(String.format(
+        "Num of time series: %d, " + "The total time: %d ms, " + "Heap used: %d bytes, "
+            + "Bytes per time series: %d, " + "Distinct schemas: %d",
+        numOfSeries, endTime - startTime, after - before, (after - before) / numOfSeries,
+        MeasurementSchemaPool.getInstance().size()));
+    // keep the tree reachable until it is measured
+    System.out.println(mTree.getRoot().getChildrenNum());
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
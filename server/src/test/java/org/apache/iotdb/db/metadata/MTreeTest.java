@@ -25,7 +25,9 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -311,4 +313,57 @@ public class MTreeTest {
       fail(e.getMessage());
     }
   }
+
+  @Test
+  public void testChildrenBeyondArray() throws PathErrorException {
+    MTree root = new MTree("root");
+    root.setStorageGroup("root.sg");
+    int childNum = MNode.MAX_ARRAY_CHILDREN * 2;
+    for (int i = 0; i < childNum; i++) {
+      root.addTimeseriesPath("root.sg.d1.s" + i, "INT32", "RLE");
+    }
+    root.deletePath("root.sg.d1.s1");
+    root.deletePath("root.sg.d1.s" + (childNum - 1));
+    root.addTimeseriesPath("root.sg.d1.s1", "INT32", "RLE");
+
+    MNode device = root.getNodeByPath("root.sg.d1");
+    assertEquals(childNum - 1, device.getChildrenNum());
+    List<String> names = new ArrayList<>(device.getChildren().keySet());
+    assertEquals("s0", names.get(0));
+    assertEquals("s2", names.get(1));
+    assertEquals("s1", names.get(childNum - 2));
+    List<MNode> orderedChildren = device.getOrderedChildNodes();
+    assertEquals(childNum - 1, orderedChildren.size());
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals(names.get(i), orderedChildren.get(i).getName());
+    }
+    Set<String> unorderedNames = new HashSet<>();
+    for (MNode child : device.getChildNodes()) {
+      unorderedNames.add(child.getName());
+    }
+    assertEquals(new HashSet<>(names), unorderedNames);
+    assertTrue(device.hasChild("s" + (childNum - 2)));
+    assertFalse(device.hasChild("s" + (childNum - 1)));
+  }
+
+  @Test
+  public void testShareSchema() throws PathErrorException {
+    MTree root = new MTree("root");
+    root.setStorageGroup("root.sg");
+    HashMap<String, String> props = new HashMap<>();
+    props.put("max_point_number", "3");
+    root.addTimeseriesPath("root.sg.d1.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, props);
+    root.addTimeseriesPath("root.sg.d2.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, new HashMap<>(props));
+    root.addTimeseriesPath("root.sg.d3.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    props.put("max_point_number", "4");
+
+    MNode s1 = root.getNodeByPath("root.sg.d1.s1");
+    assertTrue(s1.getSchema() == root.getNodeByPath("root.sg.d2.s1").getSchema());
+    assertTrue(s1.getName() == root.getNodeByPath("root.sg.d2.s1").getName());
+    assertFalse(s1.getSchema() == root.getNodeByPath("root.sg.d3.s1").getSchema());
+    assertEquals("3", s1.getSchema().getProps().get("max_point_number"));
+  }
 }
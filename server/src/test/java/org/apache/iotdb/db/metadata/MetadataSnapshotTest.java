@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.MetadataErrorException;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetadataSnapshotTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private File snapshotFile = new File(config.getSystemDir() + File.separator + "schema"
+      + File.separator + MetadataConstant.METADATA_SNAPSHOT);
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testSnapshotAndLogTail() throws Exception {
+    MManager manager = MManager.getInstance();
+    Map<String, String> props = new HashMap<>();
+    props.put("max_point_number", "3");
+    manager.setStorageLevelToMTree("root.a.sg1");
+    manager.setStorageLevelToMTree("root.a.sg2");
+    manager.addPathToMTree("root.a.sg1.d1.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, props);
+    manager.addPathToMTree("root.a.sg1.d1.s2", TSDataType.INT64, TSEncoding.TS_2DIFF,
+        CompressionType.UNCOMPRESSED, null);
+    manager.addPathToMTree("root.a.sg1.d2.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.addPathToMTree("root.a.sg2.d1.s1", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null);
+    manager.takeSnapshot();
+    assertTrue(snapshotFile.exists());
+
+    // the log after the snapshot
+    manager.setStorageLevelToMTree("root.b");
+    manager.addPathToMTree("root.b.d1.s1", TSDataType.BOOLEAN, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null);
+    manager.deletePaths(Collections.singletonList(new Path("root.a.sg1.d1.s2")));
+    String expected = manager.getMetadataInString();
+
+    manager.reload();
+    assertEquals(expected, manager.getMetadataInString());
+    checkRecoveredMetadata(manager);
+
+    // a broken snapshot is ignored and the whole log is replayed
+    try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) {
+      file.seek(file.length() - 20);
+      file.write(~file.read());
+    }
+    manager.reload();
+    assertEquals(expected, manager.getMetadataInString());
+    checkRecoveredMetadata(manager);
+  }
+
+  private void checkRecoveredMetadata(MManager manager) throws Exception {
+    assertEquals(3, manager.getAllStorageGroup().size());
+    assertTrue(manager.pathExist("root.a.sg1.d1.s1"));
+    assertFalse(manager.pathExist("root.a.sg1.d1.s2"));
+    assertEquals(TSDataType.BOOLEAN, manager.getSeriesType("root.b.d1.s1"));
+    assertEquals("root.a.sg2", manager.getStorageGroupNameByPath("root.a.sg2.d1.s1"));
+
+    List<MeasurementSchema> schemas = manager.getSchemaForStorageGroup("root.a.sg1");
+    assertEquals(1, schemas.size());
+    MeasurementSchema schema = schemas.get(0);
+    assertEquals(TSEncoding.RLE, schema.getEncodingType());
+    assertEquals(CompressionType.SNAPPY, schema.getCompressor());
+    assertEquals("3", schema.getProps().get("max_point_number"));
+
+    // the schema map of the storage group is rebuilt, so conflicting types are still rejected
+    try {
+      manager.addPathToMTree("root.a.sg1.d3.s1", TSDataType.INT32, TSEncoding.RLE,
+          CompressionType.SNAPPY, null);
+      fail();
+    } catch (MetadataErrorException e) {
+      // expected
+    }
+    manager.addPathToMTree("root.a.sg1.d3.s1", TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.deletePaths(Collections.singletonList(new Path("root.a.sg1.d3.s1")));
+  }
+
+  @Test
+  public void testBackgroundSnapshot() throws Exception {
+    int interval = config.getSchemaSnapshotInterval();
+    config.setSchemaSnapshotInterval(10);
+    try {
+      MManager manager = MManager.getInstance();
+      manager.setStorageLevelToMTree("root.sg");
+      for (int i = 0; i < 20; i++) {
+        manager.addPathToMTree("root.sg.d" + i % 3 + ".s" + i, TSDataType.INT32, TSEncoding.RLE,
+            CompressionType.UNCOMPRESSED, null);
+      }
+      for (int i = 0; i < 100 && !snapshotFile.exists(); i++) {
+        Thread.sleep(50);
+      }
+      assertTrue(snapshotFile.exists());
+      String expected = manager.getMetadataInString();
+      manager.reload();
+      assertEquals(expected, manager.getMetadataInString());
+    } finally {
+      config.setSchemaSnapshotInterval(interval);
+    }
+  }
+
+  @Test
+  public void testPTree() throws Exception {
+    MGraph mgraph = new MGraph(MetadataConstant.ROOT);
+    mgraph.setStorageLevel("root.sg");
+    mgraph.addPathToMTree("root.sg.d1.s1", "INT32", "RLE");
+    mgraph.addPathToMTree("root.sg.d2.s1", "INT32", "RLE");
+    mgraph.addAPTree("region");
+    mgraph.addPathToPTree("region.beijing");
+    mgraph.addPathToPTree("region.shanghai");
+    mgraph.linkMNodeToPTree("region.beijing", "root.sg.d1");
+
+    File file = new File(snapshotFile.getParentFile(), "test.snapshot");
+    file.getParentFile().mkdirs();
+    MetadataSnapshot.write(mgraph, 12, file);
+    MetadataSnapshot snapshot = MetadataSnapshot.read(file);
+    assertEquals(12, snapshot.getLogLength());
+    MGraph recovered = snapshot.getMGraph();
+    assertEquals(mgraph.toString(), recovered.toString());
+
+    PNode region = recovered.getPTreeMap().get("region").getRoot();
+    assertEquals(2, region.getChildren().size());
+    assertEquals(Collections.singleton("root.sg.d1.s1"),
+        region.getChild("beijing").getLinkedMTreePathMap().keySet());
+    assertTrue(region.getChild("shanghai").getLinkedMTreePathMap().isEmpty());
+    assertNull(recovered.getMTree().getRoot().getDataFileName());
+    assertEquals("root.sg",
+        recovered.getNodeByPath("root.sg.d2.s1").getDataFileName());
+  }
+
+  @Test(expected = IOException.class)
+  public void testChecksum() throws Exception {
+    MGraph mgraph = new MGraph(MetadataConstant.ROOT);
+    mgraph.setStorageLevel("root.sg");
+    mgraph.addPathToMTree("root.sg.d1.s1", "INT32", "RLE");
+    File file = new File(snapshotFile.getParentFile(), "test.snapshot");
+    file.getParentFile().mkdirs();
+    MetadataSnapshot.write(mgraph, 0, file);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.seek(randomAccessFile.length() - 12);
+      randomAccessFile.write(~randomAccessFile.read());
+    }
+    MetadataSnapshot.read(file);
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.utils.MemIntQpExecutor;
+import org.apache.iotdb.db.sql.ParseGenerator;
+import org.apache.iotdb.db.sql.parse.ParseUtils;
+import org.junit.Test;
+
+public class FastInsertParserTest {
+
+  private FastInsertParser parser = new FastInsertParser();
+
+  @Test
+  public void testSameAsFullParser() throws Exception {
+    String[] statements = {
+        "insert into root.vehicle.d0(timestamp,s0) values(10,100)",
+        "INSERT INTO root.vehicle.d0 (timestamp, s0, s1) VALUES (10, -100, +1.5);",
+        "insert into root.vehicle.d0(timestamp,s0,s1,s2) values(1,1.5e-3,-2.0E10,true)",
+        "  insert\tinto\nroot . vehicle . d_1-a ( timestamp , s0 ) values ( 5 , FALSE ) ; ",
+        "insert into root.vehicle.d0(timestamp,s0) values(10,'a''b\\'c')",
+        "insert into root.vehicle.d0(timestamp,s0,s1) values(10,\"a,b)\",'')",
+    };
+    for (String statement : statements) {
+      InsertPlan plan = parser.parse(statement);
+      assertNotNull(statement, plan);
+      assertEquals(statement, parseByFullParser(statement), plan);
+      // the second time the template is cached
+      assertEquals(statement, parseByFullParser(statement), parser.parse(statement));
+    }
+  }
+
+  @Test
+  public void testCachedTemplate() {
+    InsertPlan plan1 = parser.parse("insert into root.vehicle.d0(timestamp,s0,s1) values(1,2,3)");
+    InsertPlan plan2 = parser.parse("insert into root.vehicle.d0(timestamp,s0,s1) values(4,5,6)");
+    assertEquals(new InsertPlan("root.vehicle.d0", 4, new String[]{"s0", "s1"},
+        new String[]{"5", "6"}), plan2);
+    // the measurements of a plan can be changed without affecting the others
+    plan1.getMeasurements()[0] = "s2";
+    assertEquals("s0", plan2.getMeasurements()[0]);
+    // the same prefix is still rejected if the values are not in the plain form
+    assertNull(parser.parse("insert into root.vehicle.d0(timestamp,s0,s1) values(now(),5,6)"));
+  }
+
+  @Test
+  public void testConcurrentTemplates() throws Exception {
+    // more prefixes than the cache holds, so templates are evicted while others are loaded
+    int threadNum = 4;
+    int deviceNum = FastInsertParser.TEMPLATE_CACHE_SIZE * 2;
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threadNum; t++) {
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < deviceNum; i++) {
+            String deviceId = "root.vehicle.d" + i;
+            String statement =
+                "insert into " + deviceId + "(timestamp,s0) values(" + (i + 1) + ",1)";
+            assertEquals(statement,
+                new InsertPlan(deviceId, i + 1, new String[]{"s0"}, new String[]{"1"}),
+                parser.parse(statement));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFallback() {
+    String[] statements = {
+        "select s0 from root.vehicle.d0",
+        "insert into root.vehicle.d0(timestamp,s0) values(0,1)",
+        "insert into root.vehicle.d0(timestamp,s0) values(-1,1)",
+        "insert into root.vehicle.d0(timestamp,s0) values(now(),1)",
+        "insert into root.vehicle.d0(timestamp,s0) values(2017-11-01T00:13:00,1)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,1,2)",
+        "insert into root.vehicle.d0(timestamp,s0,s1) values(1,1)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,abc)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,1.)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,1e5)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,'abc)",
+        "insert into root.vehicle.d0(timestamp,s0) values(1,1) where",
+        "insert into root.vehicle.d0(time,s0) values(1,1)",
+        "insert into root.vehicle.select(timestamp,s0) values(1,1)",
+        "insert into root.vehicle.1(timestamp,s0) values(1,1)",
+        "insert into root(timestamp,s0) values(1,1)",
+        "insert into root.vehicle.d0(timestamp) values(1)",
+    };
+    for (String statement : statements) {
+      assertNull(statement, parser.parse(statement));
+    }
+  }
+
+  private PhysicalPlan parseByFullParser(String statement) throws Exception {
+    LogicalGenerator generator = new LogicalGenerator(ZonedDateTime.now().getOffset());
+    return new PhysicalGenerator(new MemIntQpExecutor()).transformToPhysicalPlan(
+        generator.getLogicalPlan(ParseUtils.findRootNonNullToken(
+            ParseGenerator.generateAST(statement))));
+  }
+}
@@ -34,6 +34,7 @@ import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.executor.AbstractQueryProcessExecutor;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
@@ -193,6 +194,45 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
     return true;
   }
 
+  @Override
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan) {
+    for (int i = 0; i < batchInsertPlan.getMeasurements().length; i++) {
+      String strPath = batchInsertPlan.getDeviceId() + IoTDBConstant.PATH_SEPARATOR
+          + batchInsertPlan.getMeasurements()[i];
+      if (!demoMemDataBase.containsKey(strPath)) {
+        demoMemDataBase.put(strPath, new TestSeries());
+      }
+      int[] values = (int[]) batchInsertPlan.getColumns()[i];
+      for (int j = batchInsertPlan.getStart(); j < batchInsertPlan.getEnd(); j++) {
+        demoMemDataBase.get(strPath).data.put(batchInsertPlan.getTimes()[j], values[j]);
+        timeStampUnion.add(batchInsertPlan.getTimes()[j]);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BatchInsertPlan toBatchInsertPlan(List<InsertPlan> insertPlans) {
+    String[] measurements = insertPlans.get(0).getMeasurements();
+    TSDataType[] dataTypes = new TSDataType[measurements.length];
+    long[] times = new long[insertPlans.size()];
+    Object[] columns = new Object[measurements.length];
+    for (int i = 0; i < measurements.length; i++) {
+      dataTypes[i] = TSDataType.INT32;
+      columns[i] = new int[insertPlans.size()];
+    }
+    for (int row = 0; row < insertPlans.size(); row++) {
+      times[row] = insertPlans.get(row).getTime();
+      for (int i = 0; i < measurements.length; i++) {
+        ((int[]) columns[i])[row] = Integer.valueOf(insertPlans.get(row).getValues()[i]);
+      }
+    }
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(insertPlans.get(0).getDeviceId(),
+        measurements, dataTypes);
+    batchInsertPlan.setRows(times, columns, insertPlans.size());
+    return batchInsertPlan;
+  }
+
   @Override
   protected QueryDataSet processAuthorQuery(AuthorPlan plan, QueryContext context) {
     return null;
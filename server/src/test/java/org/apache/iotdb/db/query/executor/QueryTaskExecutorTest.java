@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryTaskExecutorTest {
+
+  @Before
+  public void setUp() {
+    QueryTaskPoolManager.getInstance().start();
+  }
+
+  @After
+  public void tearDown() {
+    QueryTaskPoolManager.getInstance().stop();
+  }
+
+  @Test
+  public void testMaxParallelism() throws Exception {
+    QueryTaskExecutor executor = new QueryTaskExecutor(2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      int value = i;
+      futures.add(executor.submit(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(10);
+        running.decrementAndGet();
+        return value;
+      }));
+    }
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, (int) futures.get(i).get());
+    }
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    QueryTaskExecutor executor = new QueryTaskExecutor(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> running = executor.submit(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    Future<?> pending = executor.submit(() -> {
+    });
+    started.await();
+
+    Thread canceller = new Thread(() -> {
+      try {
+        executor.cancel();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    canceller.start();
+    while (!executor.isCancelled()) {
+      Thread.sleep(1);
+    }
+    // the running task is waited for rather than interrupted
+    assertTrue(canceller.isAlive());
+    release.countDown();
+    canceller.join();
+
+    assertTrue(running.isDone());
+    assertTrue(pending.isCancelled());
+    assertTrue(executor.submit(() -> 1).isCancelled());
+  }
+}
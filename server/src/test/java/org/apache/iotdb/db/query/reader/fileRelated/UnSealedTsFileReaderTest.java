@@ -86,15 +86,15 @@ public class UnSealedTsFileReaderTest extends ReaderTestHelper {
     for (int j = 1000; j <= 1009; j++) {
       insertOneRecord(j, j);
     }
-    storageGroupProcessor.getWorkSequenceTsFileProcessor().syncFlush();
+    storageGroupProcessor.getWorkSequenceTsFileProcessor(0).syncFlush();
     for (int j = 1010; j <= 1019; j++) {
       insertOneRecord(j, j);
     }
-    storageGroupProcessor.getWorkSequenceTsFileProcessor().syncFlush();
+    storageGroupProcessor.getWorkSequenceTsFileProcessor(0).syncFlush();
     for (int j = 1020; j <= 3019; j++) {
       insertOneRecord(j, j);
     }
-    storageGroupProcessor.getWorkSequenceTsFileProcessor().syncFlush();
+    storageGroupProcessor.getWorkSequenceTsFileProcessor(0).syncFlush();
     for (int j = 3020; j <= 3029; j = j + 1) {
       insertOneRecord(j, j);
     }
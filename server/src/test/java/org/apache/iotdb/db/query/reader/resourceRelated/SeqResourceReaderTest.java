@@ -23,6 +23,7 @@ import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.ReaderTestHelper;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.Assert;
@@ -50,6 +51,31 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
     Assert.assertEquals(5049L, time);
   }
 
+  @Test
+  public void testSkipChunkData() throws IOException {
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceIterateReader reader = new SeqResourceIterateReader(path,
+        queryDataSource.getSeqResources(), null, EnvironmentUtils.TEST_QUERY_CONTEXT);
+    long count = 0;
+    int skippedChunkNum = 0;
+    while (true) {
+      ChunkMetaData chunkMetaData = reader.nextChunkMetaData();
+      if (chunkMetaData != null) {
+        // chunks on disk are counted by their metadata without reading them
+        count += chunkMetaData.getNumOfPoints();
+        reader.skipChunkData();
+        skippedChunkNum++;
+      } else if (reader.hasNext()) {
+        count += reader.nextBatch().length();
+      } else {
+        break;
+      }
+    }
+    Assert.assertEquals(4050L, count);
+    Assert.assertTrue(skippedChunkNum > 0);
+  }
+
   @Test
   public void testSeqResourceReaderByTimestamp() throws IOException {
     QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context);
@@ -82,7 +108,7 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
     }
     for (int j = 1010; j <= 1019; j++) {
       insertOneRecord(j, j);
-      storageGroupProcessor.getWorkSequenceTsFileProcessor().syncFlush();
+      storageGroupProcessor.getWorkSequenceTsFileProcessor(0).syncFlush();
     }
     storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
 
@@ -91,7 +117,7 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
     }
     storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
 
-    assert storageGroupProcessor.getWorkSequenceTsFileProcessor() == null;
+    assert storageGroupProcessor.getWorkSequenceTsFileProcessor(0) == null;
 
     for (int j = 3020; j <= 5029; j++) {
       insertOneRecord(j, j);
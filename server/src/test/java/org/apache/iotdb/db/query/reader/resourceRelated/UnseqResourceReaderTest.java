@@ -42,7 +42,7 @@ public class UnseqResourceReaderTest extends ReaderTestHelper {
     for (int j = 1; j <= 100; j++) {
       insertOneRecord(j, j);
     }
-    storageGroupProcessor.getWorkSequenceTsFileProcessor().syncFlush();
+    storageGroupProcessor.getWorkSequenceTsFileProcessor(0).syncFlush();
 
     for (int j = 10; j >= 1; j--) {
       insertOneRecord(j, j);
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * PrimitiveArrayPool and TVListAllocator benchmark. Many threads fill TVLists and release them,
+ * as writers and flush threads do, and the throughput and the counters of the pools are printed.
+ * The first argument is the number of threads, 64 by default.
+ */
+public class PrimitiveArrayPoolBenchmark {
+
+  private static int numOfList = 20;
+  private static int numOfPoint = 2000;
+  private static int numOfRound = 20;
+
+  public static void main(String[] args) throws InterruptedException {
+    int numOfThread = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    // warm up
+    run(numOfThread);
+
+    PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+    long hitNum = pool.getHitNum();
+    long missNum = pool.getMissNum();
+    long contentionNum = pool.getContentionNum();
+    final long startTime = System.currentTimeMillis();
+    run(numOfThread);
+    final long endTime = System.currentTimeMillis();
+
+    long pointNum = (long) numOfThread * numOfRound * numOfList * numOfPoint;
+    System.out.println(String.format(
+        "Num of threads: %d, Num of points: %d, The total time: %d ms, %.2f points/ms. "
+            + "Array hits: %d, misses: %d, contentions: %d, retained: %d bytes.",
+        numOfThread, pointNum, endTime - startTime, (double) pointNum / (endTime - startTime),
+        pool.getHitNum() - hitNum, pool.getMissNum() - missNum,
+        pool.getContentionNum() - contentionNum, pool.getRetainedSize()));
+  }
+
+  private static void run(int numOfThread) throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < numOfThread; t++) {
+      threads.add(new Thread(() -> {
+        for (int round = 0; round < numOfRound; round++) {
+          List<TVList> lists = new ArrayList<>();
+          for (int i = 0; i < numOfList; i++) {
+            TVList list = TVListAllocator.getInstance().allocate(TSDataType.INT64);
+            for (int j = 0; j < numOfPoint; j++) {
+              list.putLong(j, j);
+            }
+            lists.add(list);
+          }
+          for (TVList list : lists) {
+            TVListAllocator.getInstance().release(list);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Test;
+
+public class PrimitiveArrayPoolTest {
+
+  private PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+
+  @Test
+  public void testReuse() {
+    List<long[]> arrays = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      arrays.add((long[]) pool.getPrimitiveDataListByType(TSDataType.INT64));
+    }
+    for (long[] array : arrays) {
+      pool.release(array);
+    }
+    long hitNum = pool.getHitNum();
+    long missNum = pool.getMissNum();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(PrimitiveArrayPool.ARRAY_SIZE,
+          ((long[]) pool.getPrimitiveDataListByType(TSDataType.INT64)).length);
+    }
+    // the arrays released by this thread are in its cache or in the shards
+    assertEquals(100, pool.getHitNum() - hitNum);
+    assertEquals(missNum, pool.getMissNum());
+  }
+
+  @Test
+  public void testConcurrentGetAndRelease() throws InterruptedException {
+    // an array must never be held by two threads at the same time
+    int threadNum = 16;
+    int roundNum = 2000;
+    AtomicInteger conflictNum = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadNum; t++) {
+      int threadId = t + 1;
+      threads.add(new Thread(() -> {
+        List<int[]> arrays = new ArrayList<>();
+        for (int i = 0; i < roundNum; i++) {
+          int[] array = (int[]) pool.getPrimitiveDataListByType(TSDataType.INT32);
+          array[0] = threadId;
+          arrays.add(array);
+          if (arrays.size() == 20) {
+            for (int[] held : arrays) {
+              if (held[0] != threadId) {
+                conflictNum.incrementAndGet();
+              }
+              pool.release(held);
+            }
+            arrays.clear();
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, conflictNum.get());
+    assertTrue(pool.getRetainedSize() >= 0);
+  }
+}
@@ -74,6 +74,32 @@ public class LongTVListTest {
     }
   }
 
+  @Test
+  public void testPutLongs() {
+    LongTVList tvList = new LongTVList();
+    tvList.putLong(500, 500);
+    long[] times = new long[1000];
+    long[] values = new long[1000];
+    for (int i = 0; i < 1000; i++) {
+      times[i] = 999 - i;
+      values[i] = 999 - i;
+    }
+    // append the rows [100, 900) in descending order in bulk
+    tvList.putLongs(times, values, 100, 900);
+    Assert.assertEquals(801, tvList.size);
+    Assert.assertEquals(899, tvList.getTime(1));
+    Assert.assertEquals(100, tvList.getLong(800));
+    tvList.sort();
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(tvList.getTime(i), tvList.getLong(i));
+      if (i > 0) {
+        Assert.assertTrue(tvList.getTime(i - 1) <= tvList.getTime(i));
+      }
+    }
+    Assert.assertEquals(100, tvList.getTime(0));
+    Assert.assertEquals(899, tvList.getTime(800));
+  }
+
 
   @Test
   public void compareLongTVListSortTime() {
@@ -90,4 +116,88 @@ public class LongTVListTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testIncrementalSort() {
+    Random random = new Random();
+    LongTVList tvList = new LongTVList();
+    List<Long> inputs = new ArrayList<>();
+    for (int round = 0; round < 10; round++) {
+      // mostly ordered points with a few late ones
+      for (int i = 0; i < 1000; i++) {
+        long time = round * 1000 + i;
+        if (random.nextInt(50) == 0) {
+          time = random.nextInt(round * 1000 + 1000);
+        }
+        tvList.putLong(time, time);
+        inputs.add(time);
+      }
+      long[] times = new long[100];
+      for (int i = 0; i < 100; i++) {
+        times[i] = random.nextInt(round * 1000 + 1000);
+      }
+      tvList.putLongs(times, times, 0, 100);
+      for (long time : times) {
+        inputs.add(time);
+      }
+      tvList.sort();
+      inputs.sort(Long::compareTo);
+      Assert.assertEquals(inputs.size(), tvList.size);
+      for (int i = 0; i < tvList.size; i++) {
+        Assert.assertEquals((long) inputs.get(i), tvList.getTime(i));
+        Assert.assertEquals((long) inputs.get(i), tvList.getLong(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSortIsStable() {
+    LongTVList tvList = new LongTVList();
+    for (int i = 0; i < 500; i++) {
+      tvList.putLong(i, i);
+    }
+    // the later value of a timestamp must stay after the earlier one
+    tvList.putLong(100, -100);
+    tvList.putLong(50, -50);
+    tvList.sort();
+    Assert.assertEquals(50, tvList.getLong(50));
+    Assert.assertEquals(-50, tvList.getLong(51));
+    Assert.assertEquals(100, tvList.getLong(101));
+    Assert.assertEquals(-100, tvList.getLong(102));
+  }
+
+  @Test
+  public void testSnapshot() {
+    LongTVList tvList = new LongTVList();
+    for (int i = 0; i < 1000; i++) {
+      tvList.putLong(i * 2, i * 2);
+    }
+    TVList snapshot = tvList.snapshot();
+    // late points, sorting and deletion of the list must not change the snapshot
+    for (int i = 0; i < 1000; i++) {
+      tvList.putLong(i * 2 + 1, i * 2 + 1);
+    }
+    tvList.sort();
+    tvList.delete(999);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i + 1000, tvList.getTime(i));
+      Assert.assertEquals(i + 1000, tvList.getLong(i));
+    }
+    tvList.clear();
+    for (int i = 0; i < 2000; i++) {
+      tvList.putLong(-i, -i);
+    }
+    Assert.assertEquals(1000, snapshot.size());
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i * 2, snapshot.getTime(i));
+      Assert.assertEquals(i * 2, snapshot.getLong(i));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSnapshotUnsorted() {
+    LongTVList tvList = new LongTVList();
+    tvList.putLong(2, 2);
+    tvList.putLong(1, 1);
+    tvList.snapshot();
+  }
+}
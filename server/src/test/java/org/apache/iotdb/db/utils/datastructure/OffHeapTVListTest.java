@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.db.rescon.OffHeapSegmentPool;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapTVListTest {
+
+  @Test
+  public void testSort() {
+    Random random = new Random();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.DOUBLE);
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      double value = random.nextDouble();
+      tvList.putDouble(time, value);
+      inputs.add(new TimeValuePair(time, new TsDouble(value)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getDouble(), tvList.getDouble(i), 0);
+    }
+    tvList.clear();
+  }
+
+  @Test
+  public void testPutAndDelete() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT32);
+    long[] times = new long[1000];
+    int[] values = new int[1000];
+    for (int i = 0; i < 1000; i++) {
+      times[i] = 999 - i;
+      values[i] = -(999 - i);
+    }
+    tvList.putInts(times, values, 0, 1000);
+    tvList.putInt(1000, -1000);
+    Assert.assertEquals(1001, tvList.size());
+
+    tvList.sort();
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(-i, tvList.getInt(i));
+    }
+
+    tvList.delete(799);
+    Assert.assertEquals(201, tvList.size());
+    Assert.assertEquals(800, tvList.getTime(0));
+    Assert.assertEquals(-1000, tvList.getInt(200));
+    tvList.putInt(1001, -1001);
+    Assert.assertEquals(-1001, tvList.getInt(201));
+    tvList.clear();
+  }
+
+  @Test
+  public void testClone() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.BOOLEAN);
+    for (int i = 300; i > 0; i--) {
+      tvList.putBoolean(i, i % 3 == 0);
+    }
+    TVList cloneList = tvList.clone();
+    tvList.clear();
+    Assert.assertTrue(cloneList instanceof BooleanTVList);
+    Assert.assertEquals(300, cloneList.size());
+    cloneList.sort();
+    for (int i = 0; i < cloneList.size(); i++) {
+      Assert.assertEquals(i + 1, cloneList.getTime(i));
+      Assert.assertEquals((i + 1) % 3 == 0, cloneList.getBoolean(i));
+    }
+  }
+
+  @Test
+  public void testReleaseSegments() {
+    OffHeapSegmentPool pool = OffHeapSegmentPool.getInstance();
+    long usedSize = pool.getUsedSize();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT64);
+    for (int i = 1000; i > 0; i--) {
+      tvList.putLong(i, i);
+    }
+    tvList.sort();
+    Assert.assertTrue(pool.getUsedSize() > usedSize);
+    tvList.clear();
+    Assert.assertEquals(usedSize, pool.getUsedSize());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testInconsistentDataType() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.FLOAT);
+    tvList.putLong(1, 1);
+  }
+}
@@ -24,13 +24,20 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.monitor.MonitorConstants.WalStatConstants;
+import org.apache.iotdb.db.monitor.collector.WalStatistics;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.db.writelog.node.WalSyncMode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.After;
@@ -193,4 +200,84 @@ public class WriteLogNodeTest {
 
     logNode.delete();
   }
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    // this test writes logs in SYNC mode from several threads, each write returns after its log
+    // is forced, and the logs of concurrent writes are forced together
+    String identifier = "root.logTestDevice.sync";
+    WriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+    int threadNum = 8;
+    int logNumPerThread = 50;
+    long syncWriteNum = WalStatistics.getInstance().getValue(WalStatConstants.SYNC_WRITE_NUM);
+    long forceNum = WalStatistics.getInstance().getValue(WalStatConstants.FORCE_NUM);
+
+    List<Thread> threads = new ArrayList<>();
+    List<Exception> exceptions = new ArrayList<>();
+    for (int i = 0; i < threadNum; i++) {
+      int threadId = i;
+      threads.add(new Thread(() -> {
+        try {
+          for (int j = 0; j < logNumPerThread; j++) {
+            logNode.write(new DeletePlan(threadId * logNumPerThread + j,
+                new Path(identifier + ".s1")), WalSyncMode.SYNC);
+          }
+        } catch (IOException e) {
+          synchronized (exceptions) {
+            exceptions.add(e);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(exceptions.isEmpty());
+    assertEquals(threadNum * logNumPerThread,
+        WalStatistics.getInstance().getValue(WalStatConstants.SYNC_WRITE_NUM) - syncWriteNum);
+    assertTrue(WalStatistics.getInstance().getValue(WalStatConstants.FORCE_NUM) - forceNum
+        <= threadNum * logNumPerThread);
+
+    // all logs are in the file before the node is closed
+    Set<Long> deleteTimes = new HashSet<>();
+    ILogReader reader = logNode.getLogReader();
+    while (reader.hasNext()) {
+      deleteTimes.add(((DeletePlan) reader.next()).getDeleteTime());
+    }
+    reader.close();
+    assertEquals(threadNum * logNumPerThread, deleteTimes.size());
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testAsyncWrite() throws IOException {
+    // logs written in ASYNC mode are not forced periodically, only when the file is closed
+    String identifier = "root.logTestDevice.async";
+    WriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+    DeletePlan deletePlan = new DeletePlan(50, new Path(identifier + ".s1"));
+
+    // the mode of the plan is used unless another is given
+    deletePlan.setWalSyncMode(WalSyncMode.ASYNC);
+    logNode.write(deletePlan);
+    logNode.periodicForceSync();
+    File walFile = new File(
+        config.getWalFolder() + File.separator + identifier + File.separator + "wal1");
+    assertFalse(walFile.exists());
+
+    logNode.write(deletePlan, WalSyncMode.PERIODIC);
+    logNode.periodicForceSync();
+    assertTrue(walFile.exists());
+
+    ILogReader reader = logNode.getLogReader();
+    assertEquals(deletePlan, reader.next());
+    assertEquals(deletePlan, reader.next());
+    assertFalse(reader.hasNext());
+    reader.close();
+
+    logNode.delete();
+  }
 }
@@ -27,9 +27,12 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -52,6 +55,14 @@ public class LogWriterReaderTest {
     plans.add(insertPlan1);
     plans.add(insertPlan2);
     plans.add(deletePlan);
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan("d1", new String[]{"s1", "s2", "s3"},
+        new TSDataType[]{TSDataType.INT64, TSDataType.BOOLEAN, TSDataType.TEXT});
+    batchInsertPlan.setRows(new long[]{10L, 20L, 30L}, new Object[]{new long[]{1L, 2L, 3L},
+        new boolean[]{true, false, true},
+        new Binary[]{new Binary("a"), new Binary("b"), new Binary("c")}}, 3);
+    // only the last two rows are logged
+    batchInsertPlan.setRange(1, 3);
+    plans.add(batchInsertPlan);
     for (PhysicalPlan plan : plans) {
       plan.serializeTo(logsBuffer);
     }
@@ -217,6 +217,28 @@ struct TSFetchResultsResp{
 	3: optional TSQueryDataSet queryDataSet
 }
 
+// Columnar form of a fetched block of rows. Values of a column are packed one after another in
+// big-endian order, only for the rows whose bit is set in the column's bitmap. BOOLEAN takes 1
+// byte, INT32/FLOAT 4 bytes, INT64/DOUBLE 8 bytes and TEXT is an i32 length followed by the bytes.
+struct TSColumnarDataSet{
+	// number of rows in this block
+	1: required i32 rowCount
+	// packed timestamps, 8 bytes for each row
+	2: required binary time
+	// data type name of each column
+	3: required list<string> dataTypeList
+	// packed values of each column
+	4: required list<binary> valueList
+	// bit i (from the most significant bit of byte i/8) is set if row i of the column has a value
+	5: required list<binary> bitmapList
+}
+
+struct TSFetchColumnarResultsResp{
+	1: required TS_Status status
+	2: required bool hasResultSet
+	3: optional TSColumnarDataSet columnarDataSet
+}
+
 struct TSFetchMetadataResp{
 		1: required TS_Status status
 		2: optional string metadataInJson
@@ -259,6 +281,18 @@ struct TSInsertionReq {
     5: required i64 stmtId
 }
 
+// Rows of one device in a columnar layout. timestamps holds size big-endian i64. Each element
+// of values is the packed column of the measurement with the same index, encoded in the same way
+// as a value column of TSColumnarDataSet, but all the size values are present.
+struct TSBatchInsertionReq {
+    1: required string deviceId
+    2: required list<string> measurements
+    3: required list<string> dataTypes
+    4: required binary timestamps
+    5: required list<binary> values
+    6: required i32 size
+}
+
 struct ServerProperties {
 	1: required string version;
 	2: required list<string> supportedTimeAggregationOperations;
@@ -280,6 +314,8 @@ service TSIService {
 
 	TSFetchResultsResp fetchResults(1:TSFetchResultsReq req)
 
+	TSFetchColumnarResultsResp fetchColumnarResults(1:TSFetchResultsReq req)
+
 	TSFetchMetadataResp fetchMetadata(1:TSFetchMetadataReq req)
 
 	TSCancelOperationResp cancelOperation(1:TSCancelOperationReq req);
@@ -294,5 +330,7 @@ service TSIService {
 
 	TSExecuteStatementResp executeInsertion(1:TSInsertionReq req);
 
+	TSExecuteStatementResp insertBatch(1:TSBatchInsertionReq req);
+
 	i64 requestStatementId();
 	}
@@ -140,6 +140,60 @@ public abstract class Decoder {
     throw new TsFileDecodingException("Method readBigDecimal is not supproted by Decoder");
   }
 
+  /*
+   * The bulk reading methods below read at most len values into dst from off and return the number
+   * of values read, which is less than len only if the buffer has no more values. By default they
+   * read the values one by one, decoders override them to copy whole decoded blocks at once.
+   */
+
+  public int readBooleans(ByteBuffer buffer, boolean[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readBoolean(buffer);
+    }
+    return num;
+  }
+
+  public int readInts(ByteBuffer buffer, int[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readInt(buffer);
+    }
+    return num;
+  }
+
+  public int readLongs(ByteBuffer buffer, long[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readLong(buffer);
+    }
+    return num;
+  }
+
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readFloat(buffer);
+    }
+    return num;
+  }
+
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readDouble(buffer);
+    }
+    return num;
+  }
+
+  public int readBinaries(ByteBuffer buffer, Binary[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = readBinary(buffer);
+    }
+    return num;
+  }
+
   public abstract boolean hasNext(ByteBuffer buffer) throws IOException;
 
   public abstract void reset();
@@ -114,6 +114,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readInts(ByteBuffer buffer, int[] dst, int off, int len) {
+      int num = 0;
+      while (num < len) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          dst[off + num++] = loadIntBatch(buffer);
+        } else {
+          int copyNum = Math.min(len - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, dst, off + num, copyNum);
+          nextReadIndex += copyNum;
+          num += copyNum;
+        }
+      }
+      return num;
+    }
+
     /**
      * if remaining data has been run out, load next pack from InputStream.
      *
@@ -231,6 +250,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] dst, int off, int len) {
+      int num = 0;
+      while (num < len) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          dst[off + num++] = loadIntBatch(buffer);
+        } else {
+          int copyNum = Math.min(len - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, dst, off + num, copyNum);
+          nextReadIndex += copyNum;
+          num += copyNum;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
@@ -73,6 +73,19 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
     return Double.NaN;
   }
 
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int len) throws IOException {
+    int num = 0;
+    if (!flag && len > 0 && hasNext(buffer)) {
+      dst[off + num++] = readDouble(buffer);
+    }
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = Double.longBitsToDouble(preValue);
+      getNextValue(buffer);
+    }
+    return num;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -90,9 +103,9 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
     if (!nextFlag2) {
       // case: '10'
       long tmp = 0;
-      for (int i = 0; i < TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        long bit = readBit(buffer) ? 1 : 0;
-        tmp |= (bit << (TSFileConfig.DOUBLE_LENGTH - 1 - leadingZeroNum - i));
+      int meaningfulLength = TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum;
+      if (meaningfulLength > 0) {
+        tmp = readLongFromStream(buffer, meaningfulLength) << tailingZeroNum;
       }
       tmp ^= preValue;
       preValue = tmp;
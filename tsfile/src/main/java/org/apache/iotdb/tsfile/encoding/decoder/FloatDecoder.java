@@ -50,6 +50,13 @@ public class FloatDecoder extends Decoder {
    */
   private boolean isMaxPointNumberRead;
 
+  /**
+   * the undivided values of readFloats() or readDoubles(), reused across the calls and only grown
+   * when a call reads more values.
+   */
+  private int[] intBuffer;
+  private long[] longBuffer;
+
   public FloatDecoder(TSEncoding encodingType, TSDataType dataType) {
     super(encodingType);
     if (encodingType == TSEncoding.RLE) {
@@ -96,6 +103,34 @@ public class FloatDecoder extends Decoder {
     return value / maxPointValue;
   }
 
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int len) throws IOException {
+    readMaxPointValue(buffer);
+    if (intBuffer == null || intBuffer.length < len) {
+      intBuffer = new int[len];
+    }
+    int[] values = intBuffer;
+    int num = decoder.readInts(buffer, values, 0, len);
+    for (int i = 0; i < num; i++) {
+      dst[off + i] = (float) (values[i] / maxPointValue);
+    }
+    return num;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int len) throws IOException {
+    readMaxPointValue(buffer);
+    if (longBuffer == null || longBuffer.length < len) {
+      longBuffer = new long[len];
+    }
+    long[] values = longBuffer;
+    int num = decoder.readLongs(buffer, values, 0, len);
+    for (int i = 0; i < num; i++) {
+      dst[off + i] = values[i] / maxPointValue;
+    }
+    return num;
+  }
+
   private void readMaxPointValue(ByteBuffer buffer) {
     if (!isMaxPointNumberRead) {
       int maxPointNumber = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
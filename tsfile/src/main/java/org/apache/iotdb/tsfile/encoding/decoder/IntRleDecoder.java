@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.bitpacking.IntPacker;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
@@ -104,6 +105,48 @@ public class IntRleDecoder extends RleDecoder {
     return result;
   }
 
+  @Override
+  public int readBooleans(ByteBuffer buffer, boolean[] dst, int off, int len)
+      throws IOException {
+    int[] ints = new int[len];
+    int num = readInts(buffer, ints, 0, len);
+    for (int i = 0; i < num; i++) {
+      dst[off + i] = ints[i] != 0;
+    }
+    return num;
+  }
+
+  @Override
+  public int readInts(ByteBuffer buffer, int[] dst, int off, int len) throws IOException {
+    int num = 0;
+    while (num < len && hasNext(buffer)) {
+      if (!isLengthAndBitWidthReaded) {
+        readLengthAndBitWidth(buffer);
+      }
+      if (currentCount == 0) {
+        readNext();
+      }
+      int copyNum = Math.min(len - num, currentCount);
+      switch (mode) {
+        case RLE:
+          Arrays.fill(dst, off + num, off + num + copyNum, currentValue);
+          break;
+        case BIT_PACKED:
+          System.arraycopy(currentBuffer, bitPackingNum - currentCount, dst, off + num, copyNum);
+          break;
+        default:
+          throw new TsFileDecodingException(
+              String.format("tsfile-encoding IntRleDecoder: not a valid mode %s", mode));
+      }
+      currentCount -= copyNum;
+      num += copyNum;
+      if (!hasNextPackage()) {
+        isLengthAndBitWidthReaded = false;
+      }
+    }
+    return num;
+  }
+
   @Override
   protected void initPacker() {
     packer = new IntPacker(bitWidth);
@@ -22,6 +22,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -117,6 +118,54 @@ public class PlainDecoder extends Decoder {
     return new Binary(buf);
   }
 
+  @Override
+  public int readBooleans(ByteBuffer buffer, boolean[] dst, int off, int len) {
+    int num = Math.min(len, buffer.remaining());
+    for (int i = 0; i < num; i++) {
+      dst[off + i] = buffer.get() != 0;
+    }
+    return num;
+  }
+
+  @Override
+  public int readInts(ByteBuffer buffer, int[] dst, int off, int len) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readInts(buffer, dst, off, len);
+    }
+    int num = Math.min(len, buffer.remaining() / 4);
+    buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(dst, off, num);
+    buffer.position(buffer.position() + num * 4);
+    return num;
+  }
+
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] dst, int off, int len) {
+    // longs are always little endian, see readLong()
+    int num = Math.min(len, buffer.remaining() / 8);
+    buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(dst, off, num);
+    buffer.position(buffer.position() + num * 8);
+    return num;
+  }
+
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int len) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readFloats(buffer, dst, off, len);
+    }
+    int num = Math.min(len, buffer.remaining() / 4);
+    buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(dst, off, num);
+    buffer.position(buffer.position() + num * 4);
+    return num;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int len) {
+    int num = Math.min(len, buffer.remaining() / 8);
+    buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dst, off, num);
+    buffer.position(buffer.position() + num * 8);
+    return num;
+  }
+
   @Override
   public boolean hasNext(ByteBuffer buffer) throws IOException {
     return buffer.remaining() > 0;
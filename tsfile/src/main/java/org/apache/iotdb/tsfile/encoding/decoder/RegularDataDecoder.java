@@ -152,6 +152,26 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readInts(ByteBuffer buffer, int[] dst, int off, int len) {
+      int num = 0;
+      while (num < len) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          // the first value of a pack and the packs with missing points are read one by one
+          if (nextReadIndex == readIntTotalCount && !buffer.hasRemaining()) {
+            break;
+          }
+          dst[off + num++] = readT(buffer);
+        } else {
+          int copyNum = Math.min(len - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, dst, off + num, copyNum);
+          nextReadIndex += copyNum;
+          num += copyNum;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readInt(buffer);
@@ -265,6 +285,26 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] dst, int off, int len) {
+      int num = 0;
+      while (num < len) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          // the first value of a pack and the packs with missing points are read one by one
+          if (nextReadIndex == readIntTotalCount && !buffer.hasRemaining()) {
+            break;
+          }
+          dst[off + num++] = readT(buffer);
+        } else {
+          int copyNum = Math.min(len - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, dst, off + num, copyNum);
+          nextReadIndex += copyNum;
+          num += copyNum;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
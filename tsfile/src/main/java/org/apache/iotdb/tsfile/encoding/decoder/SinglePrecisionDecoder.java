@@ -69,6 +69,19 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
     return Float.NaN;
   }
 
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int len) throws IOException {
+    int num = 0;
+    if (!flag && len > 0 && hasNext(buffer)) {
+      dst[off + num++] = readFloat(buffer);
+    }
+    while (num < len && hasNext(buffer)) {
+      dst[off + num++] = Float.intBitsToFloat(preValue);
+      getNextValue(buffer);
+    }
+    return num;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -86,9 +99,9 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
     if (!nextFlag2) {
       // case: '10'
       int tmp = 0;
-      for (int i = 0; i < TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        int bit = readBit(buffer) ? 1 : 0;
-        tmp |= bit << (TSFileConfig.FLOAT_LENGTH - 1 - leadingZeroNum - i);
+      int meaningfulLength = TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum;
+      if (meaningfulLength > 0) {
+        tmp = readIntFromStream(buffer, meaningfulLength) << tailingZeroNum;
       }
       tmp ^= preValue;
       preValue = tmp;
@@ -23,18 +23,39 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 /**
  * TSFileMetaData collects all metadata info and saves in its data structure.
+ * <p>
+ * When read by {@link #deserializeLazilyFrom(ByteBuffer)}, the device indexes are kept serialized
+ * and only the positions of their entries are built, sorted by device id, so a device is found by
+ * a binary search and only the indexes of the devices looked up are decoded. The whole device map
+ * is decoded the first time it is asked for, e.g., by {@link #getDeviceMap()}. The entries are
+ * serialized in the order of device ids, so the positions of a file written this way need no
+ * sorting.
  */
 public class TsFileMetaData {
 
-  private Map<String, TsDeviceMetadataIndex> deviceIndexMap = new HashMap<>();
+  /**
+   * serialized size of a TsDeviceMetadataIndex: offset, len, startTime and endTime
+   */
+  private static final int DEVICE_INDEX_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES * 2;
+
+  private volatile Map<String, TsDeviceMetadataIndex> deviceIndexMap = new HashMap<>();
+
+  /**
+   * only set when the device indexes are read lazily and not decoded as a whole yet, it is cleared
+   * after deviceIndexMap is set
+   */
+  private volatile LazyDeviceIndex lazyDeviceIndex;
 
   /**
    * TSFile schema for this file. This schema contains metadata for all the measurements.
@@ -155,6 +176,109 @@ public class TsFileMetaData {
     return fileMetaData;
   }
 
+  /**
+   * deserialize data from the buffer, the device indexes are decoded on demand. The buffer must
+   * not be modified afterwards as it is kept by the returned instance.
+   *
+   * @param buffer -buffer use to deserialize
+   * @return -a instance of TsFileMetaData
+   */
+  public static TsFileMetaData deserializeLazilyFrom(ByteBuffer buffer) {
+    TsFileMetaData fileMetaData = new TsFileMetaData();
+
+    int size = ReadWriteIOUtils.readInt(buffer);
+    int start = buffer.position();
+    int[] positions = new int[size];
+    boolean sorted = true;
+    for (int i = 0; i < size; i++) {
+      positions[i] = buffer.position() - start;
+      int keyLength = ReadWriteIOUtils.readInt(buffer);
+      if (sorted && i > 0 && compareKeys(buffer, start + positions[i - 1], start + positions[i])
+          > 0) {
+        sorted = false;
+      }
+      buffer.position(buffer.position() + keyLength + DEVICE_INDEX_SIZE);
+    }
+    ByteBuffer deviceIndexes = buffer.duplicate();
+    deviceIndexes.position(start);
+    deviceIndexes.limit(buffer.position());
+    deviceIndexes = deviceIndexes.slice();
+    if (!sorted) {
+      positions = sortPositions(deviceIndexes, positions);
+    }
+    fileMetaData.lazyDeviceIndex = new LazyDeviceIndex(deviceIndexes, positions);
+    fileMetaData.deviceIndexMap = null;
+
+    size = ReadWriteIOUtils.readInt(buffer);
+    if (size > 0) {
+      fileMetaData.measurementSchema = new HashMap<>();
+      String key;
+      MeasurementSchema value;
+      for (int i = 0; i < size; i++) {
+        key = ReadWriteIOUtils.readString(buffer);
+        value = MeasurementSchema.deserializeFrom(buffer);
+        fileMetaData.measurementSchema.put(key, value);
+      }
+    }
+
+    fileMetaData.currentVersion = ReadWriteIOUtils.readInt(buffer);
+
+    if (ReadWriteIOUtils.readIsNull(buffer)) {
+      fileMetaData.createdBy = ReadWriteIOUtils.readString(buffer);
+    }
+
+    return fileMetaData;
+  }
+
+  /**
+   * compare the device ids of the entries at position1 and position2 of buffer byte by byte.
+   */
+  private static int compareKeys(ByteBuffer buffer, int position1, int position2) {
+    int length1 = buffer.getInt(position1);
+    int length2 = buffer.getInt(position2);
+    int minLength = Math.min(length1, length2);
+    for (int i = 0; i < minLength; i++) {
+      int cmp = Integer.compare(buffer.get(position1 + Integer.BYTES + i) & 0xff,
+          buffer.get(position2 + Integer.BYTES + i) & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length1, length2);
+  }
+
+  /**
+   * compare the device id of the entry at position of buffer with key byte by byte.
+   */
+  private static int compareKey(ByteBuffer buffer, int position, byte[] key) {
+    int length = buffer.getInt(position);
+    int minLength = Math.min(length, key.length);
+    for (int i = 0; i < minLength; i++) {
+      int cmp = Integer.compare(buffer.get(position + Integer.BYTES + i) & 0xff, key[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  /**
+   * sort the positions of the entries by their device ids, only needed by the files whose entries
+   * are not serialized in order.
+   */
+  private static int[] sortPositions(ByteBuffer buffer, int[] positions) {
+    Integer[] boxedPositions = new Integer[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      boxedPositions[i] = positions[i];
+    }
+    Arrays.sort(boxedPositions, (p1, p2) -> compareKeys(buffer, p1, p2));
+    int[] sortedPositions = new int[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      sortedPositions[i] = boxedPositions[i];
+    }
+    return sortedPositions;
+  }
+
   /**
    * add time series metadata to list. THREAD NOT SAFE
    *
@@ -166,7 +290,7 @@ public class TsFileMetaData {
 
   @Override
   public String toString() {
-    return "TsFileMetaData{" + "deviceIndexMap=" + deviceIndexMap + ", measurementSchema="
+    return "TsFileMetaData{" + "deviceIndexMap=" + getDeviceMap() + ", measurementSchema="
         + measurementSchema
         + ", CURRENT_VERSION=" + currentVersion + ", createdBy='" + createdBy + '\'' + '}';
   }
@@ -187,20 +311,56 @@ public class TsFileMetaData {
     this.createdBy = createdBy;
   }
 
+  /**
+   * decode all the device indexes if they are read lazily.
+   */
   public Map<String, TsDeviceMetadataIndex> getDeviceMap() {
-    return deviceIndexMap;
+    Map<String, TsDeviceMetadataIndex> deviceMap = deviceIndexMap;
+    if (deviceMap != null) {
+      return deviceMap;
+    }
+    synchronized (this) {
+      if (deviceIndexMap == null) {
+        deviceIndexMap = lazyDeviceIndex.decodeAll();
+        lazyDeviceIndex = null;
+      }
+      return deviceIndexMap;
+    }
   }
 
-  public void setDeviceMap(Map<String, TsDeviceMetadataIndex> deviceMap) {
+  public synchronized void setDeviceMap(Map<String, TsDeviceMetadataIndex> deviceMap) {
     this.deviceIndexMap = deviceMap;
+    this.lazyDeviceIndex = null;
   }
 
   public boolean containsDevice(String deltaObjUid) {
-    return this.deviceIndexMap.containsKey(deltaObjUid);
+    return getDeviceMetadataIndex(deltaObjUid) != null;
   }
 
   public TsDeviceMetadataIndex getDeviceMetadataIndex(String deltaObjUid) {
-    return this.deviceIndexMap.get(deltaObjUid);
+    LazyDeviceIndex lazyIndex = lazyDeviceIndex;
+    if (lazyIndex != null) {
+      return lazyIndex.get(deltaObjUid);
+    }
+    // deviceIndexMap is always set before lazyDeviceIndex is cleared
+    return deviceIndexMap.get(deltaObjUid);
+  }
+
+  public int getDeviceNum() {
+    LazyDeviceIndex lazyIndex = lazyDeviceIndex;
+    if (lazyIndex != null) {
+      return lazyIndex.entryPositions.length;
+    }
+    return deviceIndexMap.size();
+  }
+
+  /**
+   * @return the size of the serialized device indexes kept in memory, 0 if they are decoded as a
+   * whole
+   */
+  public int getSerializedDeviceIndexSize() {
+    LazyDeviceIndex lazyIndex = lazyDeviceIndex;
+    return lazyIndex == null ? 0 : lazyIndex.buffer.capacity();
   }
 
   public boolean containsMeasurement(String measurement) {
@@ -234,8 +394,9 @@ public class TsFileMetaData {
   public int serializeTo(OutputStream outputStream) throws IOException {
     int byteLen = 0;
 
-    byteLen += ReadWriteIOUtils.write(deviceIndexMap.size(), outputStream);
-    for (Map.Entry<String, TsDeviceMetadataIndex> entry : deviceIndexMap.entrySet()) {
+    Map<String, TsDeviceMetadataIndex> sortedDeviceMap = new TreeMap<>(getDeviceMap());
+    byteLen += ReadWriteIOUtils.write(sortedDeviceMap.size(), outputStream);
+    for (Map.Entry<String, TsDeviceMetadataIndex> entry : sortedDeviceMap.entrySet()) {
       byteLen += ReadWriteIOUtils.write(entry.getKey(), outputStream);
       byteLen += entry.getValue().serializeTo(outputStream);
     }
@@ -265,8 +426,9 @@ public class TsFileMetaData {
   public int serializeTo(ByteBuffer buffer) throws IOException {
     int byteLen = 0;
 
-    byteLen += ReadWriteIOUtils.write(deviceIndexMap.size(), buffer);
-    for (Map.Entry<String, TsDeviceMetadataIndex> entry : deviceIndexMap.entrySet()) {
+    Map<String, TsDeviceMetadataIndex> sortedDeviceMap = new TreeMap<>(getDeviceMap());
+    byteLen += ReadWriteIOUtils.write(sortedDeviceMap.size(), buffer);
+    for (Map.Entry<String, TsDeviceMetadataIndex> entry : sortedDeviceMap.entrySet()) {
       byteLen += ReadWriteIOUtils.write(entry.getKey(), buffer);
       byteLen += entry.getValue().serializeTo(buffer);
     }
@@ -287,4 +449,68 @@ public class TsFileMetaData {
     return byteLen;
   }
 
+  /**
+   * the serialized device indexes, the positions of their entries sorted by device id and the
+   * indexes decoded so far. THREAD SAFE.
+   */
+  private static class LazyDeviceIndex {
+
+    private final ByteBuffer buffer;
+    private final int[] entryPositions;
+    private final Map<String, TsDeviceMetadataIndex> decodedIndexes = new ConcurrentHashMap<>();
+
+    private LazyDeviceIndex(ByteBuffer buffer, int[] entryPositions) {
+      this.buffer = buffer;
+      this.entryPositions = entryPositions;
+    }
+
+    /**
+     * @return the index of the device or null if the file does not contain the device
+     */
+    private TsDeviceMetadataIndex get(String deviceId) {
+      TsDeviceMetadataIndex index = decodedIndexes.get(deviceId);
+      if (index == null) {
+        index = search(deviceId);
+        if (index != null) {
+          decodedIndexes.put(deviceId, index);
+        }
+      }
+      return index;
+    }
+
+    /**
+     * find the index of a device by a binary search over the sorted entries, only absolute reads
+     * are made on the buffer so it can be searched concurrently.
+     */
+    private TsDeviceMetadataIndex search(String deviceId) {
+      byte[] key = deviceId.getBytes();
+      int low = 0;
+      int high = entryPositions.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int position = entryPositions[mid];
+        int cmp = compareKey(buffer, position, key);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          ByteBuffer entry = buffer.duplicate();
+          entry.position(position + Integer.BYTES + key.length);
+          return TsDeviceMetadataIndex.deserializeFrom(entry);
+        }
+      }
+      return null;
+    }
+
+    private Map<String, TsDeviceMetadataIndex> decodeAll() {
+      Map<String, TsDeviceMetadataIndex> deviceMap = new HashMap<>();
+      ByteBuffer entries = buffer.duplicate();
+      for (int i = 0; i < entryPositions.length; i++) {
+        String key = ReadWriteIOUtils.readString(entries);
+        deviceMap.put(key, TsDeviceMetadataIndex.deserializeFrom(entries));
+      }
+      return deviceMap;
+    }
+  }
 }
@@ -23,7 +23,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
 import org.apache.iotdb.tsfile.exception.write.UnknownColumnTypeException;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -97,6 +100,47 @@ public abstract class Statistics<T> {
     return statistics;
   }
 
+  /**
+   * rebuild the statistics of a chunk from the digest in its ChunkMetaData.
+   *
+   * @return null if the digest does not contain all the statistics
+   */
+  public static Statistics deserialize(TsDigest digest, TSDataType dataType) throws IOException {
+    Map<String, ByteBuffer> values = digest == null ? null : digest.getStatistics();
+    if (values == null) {
+      return null;
+    }
+    // the same order as serialize()
+    String[] keys = {StatisticConstant.MIN_VALUE, StatisticConstant.MAX_VALUE,
+        StatisticConstant.FIRST, StatisticConstant.LAST};
+    ByteBuffer sum = values.get(StatisticConstant.SUM);
+    if (sum == null) {
+      return null;
+    }
+    Statistics statistics = getStatsByType(dataType);
+    boolean withLength = statistics.sizeOfDatum() == -1;
+    int size = sum.remaining();
+    for (String key : keys) {
+      ByteBuffer value = values.get(key);
+      if (value == null) {
+        return null;
+      }
+      size += withLength ? Integer.BYTES + value.remaining() : value.remaining();
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (String key : keys) {
+      ByteBuffer value = values.get(key);
+      if (withLength) {
+        buffer.putInt(value.remaining());
+      }
+      buffer.put(value.duplicate());
+    }
+    buffer.put(sum.duplicate());
+    buffer.flip();
+    return deserialize(buffer, dataType);
+  }
+
   public abstract void setMinMaxFromBytes(byte[] minBytes, byte[] maxBytes);
 
   public abstract T getMin();
@@ -209,10 +209,11 @@ public class TsFileSequenceReader implements AutoCloseable {
   }
 
   /**
-   * this function does not modify the position of the file reader.
+   * this function does not modify the position of the file reader. The device indexes of the
+   * returned TsFileMetaData are decoded on demand.
    */
   public TsFileMetaData readFileMetadata() throws IOException {
-    return TsFileMetaData.deserializeFrom(readData(fileMetadataPos, fileMetadataSize));
+    return TsFileMetaData.deserializeLazilyFrom(readData(fileMetadataPos, fileMetadataSize));
   }
 
   /**
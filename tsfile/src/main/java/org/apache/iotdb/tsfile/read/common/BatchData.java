@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.common;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.function.IntFunction;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -362,6 +363,90 @@ public class BatchData implements Serializable {
     valueLength++;
   }
 
+  /**
+   * put length timestamps of src starting from offset, the result is the same as calling
+   * putTime() for each of them.
+   */
+  public void putTimes(long[] src, int offset, int length) {
+    while (length > 0) {
+      if (curTimeIdx == timeCapacity) {
+        if (timeCapacity >= capacityThreshold) {
+          this.timeRet.add(new long[timeCapacity]);
+          timeArrayIdx++;
+          curTimeIdx = 0;
+        } else {
+          long[] newData = new long[timeCapacity * 2];
+          System.arraycopy(timeRet.get(0), 0, newData, 0, timeCapacity);
+          this.timeRet.set(0, newData);
+          timeCapacity = timeCapacity * 2;
+        }
+      }
+      int num = Math.min(length, timeCapacity - curTimeIdx);
+      System.arraycopy(src, offset, timeRet.get(timeArrayIdx), curTimeIdx, num);
+      curTimeIdx += num;
+      timeLength += num;
+      offset += num;
+      length -= num;
+    }
+  }
+
+  public void putBooleans(boolean[] src, int offset, int length) {
+    putValues(booleanRet, boolean[]::new, src, offset, length);
+  }
+
+  public void putInts(int[] src, int offset, int length) {
+    putValues(intRet, int[]::new, src, offset, length);
+  }
+
+  public void putLongs(long[] src, int offset, int length) {
+    putValues(longRet, long[]::new, src, offset, length);
+  }
+
+  public void putFloats(float[] src, int offset, int length) {
+    putValues(floatRet, float[]::new, src, offset, length);
+  }
+
+  public void putDoubles(double[] src, int offset, int length) {
+    putValues(doubleRet, double[]::new, src, offset, length);
+  }
+
+  public void putBinaries(Binary[] src, int offset, int length) {
+    putValues(binaryRet, Binary[]::new, src, offset, length);
+  }
+
+  /**
+   * copy values into the value arrays block by block, growing them the same way as the single
+   * value puts do.
+   *
+   * @param valueRet the value arrays of the data type, the element type of T must match src
+   * @param arrayFactory creates a value array of the given capacity
+   */
+  private <T> void putValues(ArrayList<T> valueRet, IntFunction<T> arrayFactory, Object src,
+      int offset, int length) {
+    while (length > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (valueRet.size() <= valueArrayIdx + 1) {
+            valueRet.add(arrayFactory.apply(valueCapacity));
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          T newData = arrayFactory.apply(valueCapacity * 2);
+          System.arraycopy(valueRet.get(0), 0, newData, 0, valueCapacity);
+          valueRet.set(0, newData);
+          valueCapacity = valueCapacity * 2;
+        }
+      }
+      int num = Math.min(length, valueCapacity - curValueIdx);
+      System.arraycopy(src, offset, valueRet.get(valueArrayIdx), curValueIdx, num);
+      curValueIdx += num;
+      valueLength += num;
+      offset += num;
+      length -= num;
+    }
+  }
+
   /**
    * Checks if the given index is in range. If not, throws an appropriate runtime exception.
    */
@@ -18,6 +18,9 @@
  */
 package org.apache.iotdb.tsfile.read.filter.basic;
 
+import java.util.BitSet;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 
 /**
@@ -44,6 +47,87 @@ public interface Filter {
    */
   boolean satisfy(long time, Object value);
 
+  /**
+   * The same as {@link #satisfy(long, Object)} for a primitive value. The default implementations
+   * box the value, filters that compare values should override them to avoid the boxing.
+   */
+  default boolean satisfy(long time, boolean value) {
+    return satisfy(time, (Object) value);
+  }
+
+  default boolean satisfy(long time, int value) {
+    return satisfy(time, (Object) value);
+  }
+
+  default boolean satisfy(long time, long value) {
+    return satisfy(time, (Object) value);
+  }
+
+  default boolean satisfy(long time, float value) {
+    return satisfy(time, (Object) value);
+  }
+
+  default boolean satisfy(long time, double value) {
+    return satisfy(time, (Object) value);
+  }
+
+  /**
+   * To examine all the points of a batch at once. The cursor of the batch is not moved.
+   *
+   * @return a bitmap whose i-th bit is set if the i-th point of the batch satisfies the filter
+   */
+  default BitSet satisfyBatch(BatchData batchData) {
+    int length = batchData.length();
+    BitSet selection = new BitSet(length);
+    switch (batchData.getDataType()) {
+      case BOOLEAN:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getBooleanByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      case INT32:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getIntByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      case INT64:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getLongByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getFloatByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getDoubleByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      case TEXT:
+        for (int i = 0; i < length; i++) {
+          if (satisfy(batchData.getTimeByIndex(i), batchData.getBinaryByIndex(i))) {
+            selection.set(i);
+          }
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(batchData.getDataType()));
+    }
+    return selection;
+  }
+
   /**
    * To examine whether the min time and max time are satisfied with the filter.
    *
@@ -44,6 +44,31 @@ public class NotFilter implements Filter, Serializable {
     return !that.satisfy(time, value);
   }
 
+  @Override
+  public boolean satisfy(long time, boolean value) {
+    return !that.satisfy(time, value);
+  }
+
+  @Override
+  public boolean satisfy(long time, int value) {
+    return !that.satisfy(time, value);
+  }
+
+  @Override
+  public boolean satisfy(long time, long value) {
+    return !that.satisfy(time, value);
+  }
+
+  @Override
+  public boolean satisfy(long time, float value) {
+    return !that.satisfy(time, value);
+  }
+
+  @Override
+  public boolean satisfy(long time, double value) {
+    return !that.satisfy(time, value);
+  }
+
   /**
    * Notice that, if the not filter only contains value filter, this method may return false, this
    * may cause misunderstanding.
@@ -21,7 +21,9 @@ package org.apache.iotdb.tsfile.read.reader.chunk;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.compress.IUnCompressor;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
@@ -52,6 +54,17 @@ public abstract class ChunkReader {
   private PageHeader pageHeader;
   private boolean hasCachedPageHeader;
 
+  /**
+   * whether the pages are read from the last one to the first one.
+   */
+  private boolean reverse;
+  /**
+   * the unread page headers and the positions of their page bodies in the chunk in the order of
+   * the pages, only used when reading in reverse order. Null until the chunk is first scanned.
+   */
+  private List<PageHeader> pageHeaders;
+  private List<Integer> pageBodyPositions;
+
   /**
    * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
    */
@@ -79,6 +92,14 @@ public abstract class ChunkReader {
     hasCachedPageHeader = false;
   }
 
+  /**
+   * read the pages from the last one to the first one, so that the newest data comes first. The
+   * data in each page is still in ascending time order. It must be called before reading.
+   */
+  public void enableReverse() {
+    this.reverse = true;
+  }
+
   /**
    * judge if has nextBatch.
    */
@@ -86,6 +107,9 @@ public abstract class ChunkReader {
     if (hasCachedPageHeader) {
       return true;
     }
+    if (reverse) {
+      return hasPreviousSatisfiedPage();
+    }
     // construct next satisfied page header
     while (chunkDataBuffer.remaining() > 0) {
       // deserialize a PageHeader from chunkDataBuffer
@@ -102,6 +126,31 @@ public abstract class ChunkReader {
     return false;
   }
 
+  private boolean hasPreviousSatisfiedPage() throws IOException {
+    if (pageHeaders == null) {
+      // only the page headers are deserialized, the page bodies are skipped
+      pageHeaders = new ArrayList<>();
+      pageBodyPositions = new ArrayList<>();
+      while (chunkDataBuffer.remaining() > 0) {
+        PageHeader header = PageHeader.deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+        pageHeaders.add(header);
+        pageBodyPositions.add(chunkDataBuffer.position());
+        skipBytesInStreamByLength(header.getCompressedSize());
+      }
+    }
+    while (!pageHeaders.isEmpty()) {
+      int last = pageHeaders.size() - 1;
+      pageHeader = pageHeaders.remove(last);
+      int pageBodyPosition = pageBodyPositions.remove(last);
+      if (pageSatisfied(pageHeader)) {
+        chunkDataBuffer.position(pageBodyPosition);
+        hasCachedPageHeader = true;
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * get next data batch.
    *
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader.page;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -50,6 +51,11 @@ public class PageReader {
 
   private long deletedAt = -1;
 
+  private static final int INITIAL_TIME_ARRAY_SIZE = 1024;
+
+  /** number of the timestamps decoded by readAllTimes() */
+  private int timeCount;
+
   public PageReader(ByteBuffer pageData, TSDataType dataType, Decoder valueDecoder,
       Decoder timeDecoder,
       Filter filter) {
@@ -89,12 +95,7 @@ public class PageReader {
    * may return an empty BatchData
    */
   public BatchData nextBatch() throws IOException {
-    if (filter == null) {
-      data = getAllPageData();
-    } else {
-      data = getAllPageDataWithFilter();
-    }
-
+    data = getAllPageData();
     return data;
   }
 
@@ -102,142 +103,104 @@ public class PageReader {
     return data;
   }
 
+  /**
+   * decode the whole time column and then the whole value column into primitive arrays, and then
+   * copy the points that are not deleted and satisfy the filter into a BatchData.
+   */
   private BatchData getAllPageData() throws IOException {
-
+    long[] times = readAllTimes();
+    int count = timeCount;
     BatchData pageData = new BatchData(dataType, true);
-
-    while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
-      switch (dataType) {
-        case BOOLEAN:
-          boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBoolean(aBoolean);
+    // the satisfied points are moved to the front of the arrays and then copied in bulk
+    int satisfied = 0;
+
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[count];
+        valueDecoder.readBooleans(valueBuffer, booleans, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], booleans[i]))) {
+            times[satisfied] = times[i];
+            booleans[satisfied++] = booleans[i];
           }
-          break;
-        case INT32:
-          int anInt = valueDecoder.readInt(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putInt(anInt);
+        }
+        pageData.putBooleans(booleans, 0, satisfied);
+        break;
+      case INT32:
+        int[] ints = new int[count];
+        valueDecoder.readInts(valueBuffer, ints, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], ints[i]))) {
+            times[satisfied] = times[i];
+            ints[satisfied++] = ints[i];
           }
-          break;
-        case INT64:
-          long aLong = valueDecoder.readLong(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putLong(aLong);
+        }
+        pageData.putInts(ints, 0, satisfied);
+        break;
+      case INT64:
+        long[] longs = new long[count];
+        valueDecoder.readLongs(valueBuffer, longs, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], longs[i]))) {
+            times[satisfied] = times[i];
+            longs[satisfied++] = longs[i];
           }
-          break;
-        case FLOAT:
-          float aFloat = valueDecoder.readFloat(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putFloat(aFloat);
+        }
+        pageData.putLongs(longs, 0, satisfied);
+        break;
+      case FLOAT:
+        float[] floats = new float[count];
+        valueDecoder.readFloats(valueBuffer, floats, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], floats[i]))) {
+            times[satisfied] = times[i];
+            floats[satisfied++] = floats[i];
           }
-          break;
-        case DOUBLE:
-          double aDouble = valueDecoder.readDouble(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putDouble(aDouble);
+        }
+        pageData.putFloats(floats, 0, satisfied);
+        break;
+      case DOUBLE:
+        double[] doubles = new double[count];
+        valueDecoder.readDoubles(valueBuffer, doubles, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], doubles[i]))) {
+            times[satisfied] = times[i];
+            doubles[satisfied++] = doubles[i];
           }
-          break;
-        case TEXT:
-          Binary aBinary = valueDecoder.readBinary(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBinary(aBinary);
+        }
+        pageData.putDoubles(doubles, 0, satisfied);
+        break;
+      case TEXT:
+        Binary[] binaries = new Binary[count];
+        valueDecoder.readBinaries(valueBuffer, binaries, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (times[i] > deletedAt && (filter == null || filter.satisfy(times[i], binaries[i]))) {
+            times[satisfied] = times[i];
+            binaries[satisfied++] = binaries[i];
           }
-          break;
-        default:
-          throw new UnSupportedDataTypeException(String.valueOf(dataType));
-      }
+        }
+        pageData.putBinaries(binaries, 0, satisfied);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
+    pageData.putTimes(times, 0, satisfied);
     return pageData;
   }
 
-  private BatchData getAllPageDataWithFilter() throws IOException {
-    BatchData pageData = new BatchData(dataType, true);
-
+  /**
+   * decode all the timestamps of the page, their number is saved in timeCount.
+   */
+  private long[] readAllTimes() throws IOException {
+    long[] times = new long[INITIAL_TIME_ARRAY_SIZE];
+    timeCount = 0;
     while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
-      switch (dataType) {
-        case BOOLEAN:
-          readBoolean(pageData, timestamp);
-          break;
-        case INT32:
-          readInt(pageData, timestamp);
-          break;
-        case INT64:
-          readLong(pageData, timestamp);
-          break;
-        case FLOAT:
-          readFloat(pageData, timestamp);
-          break;
-        case DOUBLE:
-          readDouble(pageData, timestamp);
-          break;
-        case TEXT:
-          readText(pageData, timestamp);
-          break;
-        default:
-          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      if (timeCount == times.length) {
+        times = Arrays.copyOf(times, times.length * 2);
       }
+      timeCount += timeDecoder.readLongs(timeBuffer, times, timeCount, times.length - timeCount);
     }
-
-    return pageData;
-  }
-
-  private void readBoolean(BatchData pageData, long timestamp) {
-    boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBoolean)) {
-      pageData.putTime(timestamp);
-      pageData.putBoolean(aBoolean);
-    }
-  }
-
-  private void readInt(BatchData pageData, long timestamp) {
-    int anInt = valueDecoder.readInt(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, anInt)) {
-      pageData.putTime(timestamp);
-      pageData.putInt(anInt);
-    }
-  }
-
-  private void readLong(BatchData pageData, long timestamp) {
-    long aLong = valueDecoder.readLong(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aLong)) {
-      pageData.putTime(timestamp);
-      pageData.putLong(aLong);
-    }
-  }
-
-  private void readFloat(BatchData pageData, long timestamp) {
-    float aFloat = valueDecoder.readFloat(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aFloat)) {
-      pageData.putTime(timestamp);
-      pageData.putFloat(aFloat);
-    }
-  }
-
-  private void readDouble(BatchData pageData, long timestamp) {
-    double aDouble = valueDecoder.readDouble(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aDouble)) {
-      pageData.putTime(timestamp);
-      pageData.putDouble(aDouble);
-    }
-  }
-
-  private void readText(BatchData pageData, long timestamp) {
-    Binary aBinary = valueDecoder.readBinary(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBinary)) {
-      pageData.putTime(timestamp);
-      pageData.putBinary(aBinary);
-    }
+    return times;
   }
 
   public void close() {
@@ -37,8 +37,18 @@ public abstract class FileSeriesReader {
   protected ChunkReader chunkReader;
   private int chunkToRead;
 
+  /**
+   * the next satisfied chunk whose data has not been loaded yet.
+   */
+  private ChunkMetaData nextSatisfiedChunkMetaData;
+
   private BatchData data;
 
+  /**
+   * whether the chunks and the pages in them are read from the newest to the oldest.
+   */
+  private boolean reverse;
+
   /**
    * constructor of FileSeriesReader.
    */
@@ -48,6 +58,15 @@ public abstract class FileSeriesReader {
     this.chunkToRead = 0;
   }
 
+  /**
+   * read the chunks in the reverse order of chunkMetaDataList and the pages of each chunk from the
+   * last one to the first one, so that the newest data of a sequence file comes first. The data in
+   * each batch is still in ascending time order. It must be called before reading.
+   */
+  public void enableReverse() {
+    this.reverse = true;
+  }
+
   /**
    * check if current chunk has next batch data.
    *
@@ -61,19 +80,48 @@ public abstract class FileSeriesReader {
     }
 
     // current chunk does not have additional batch, init new chunk reader
-    while (chunkToRead < chunkMetaDataList.size()) {
+    while (hasNextSatisfiedChunk()) {
+      // chunk metadata satisfy the condition
+      initChunkReader(nextSatisfiedChunkMetaData);
+      nextSatisfiedChunkMetaData = null;
+      if (reverse) {
+        chunkReader.enableReverse();
+      }
 
+      if (chunkReader.hasNextBatch()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasNextSatisfiedChunk() {
+    while (nextSatisfiedChunkMetaData == null && chunkToRead < chunkMetaDataList.size()) {
       ChunkMetaData chunkMetaData = nextChunkMeta();
       if (chunkSatisfied(chunkMetaData)) {
-        // chunk metadata satisfy the condition
-        initChunkReader(chunkMetaData);
-
-        if (chunkReader.hasNextBatch()) {
-          return true;
-        }
+        nextSatisfiedChunkMetaData = chunkMetaData;
       }
     }
-    return false;
+    return nextSatisfiedChunkMetaData != null;
+  }
+
+  /**
+   * If all data of the current chunk has been read, return the metadata of the next satisfied
+   * chunk without loading it, so that the caller may skip the whole chunk by {@link #skipChunk()}.
+   * Return null if the current chunk still has data or there is no more satisfied chunk.
+   */
+  public ChunkMetaData nextChunkMetaData() throws IOException {
+    if (chunkReader != null && chunkReader.hasNextBatch()) {
+      return null;
+    }
+    return hasNextSatisfiedChunk() ? nextSatisfiedChunkMetaData : null;
+  }
+
+  /**
+   * skip the chunk returned by the last call of {@link #nextChunkMetaData()}.
+   */
+  public void skipChunk() {
+    nextSatisfiedChunkMetaData = null;
   }
 
   /**
@@ -105,6 +153,9 @@ public abstract class FileSeriesReader {
   }
 
   private ChunkMetaData nextChunkMeta() {
+    if (reverse) {
+      return chunkMetaDataList.get(chunkMetaDataList.size() - 1 - chunkToRead++);
+    }
     return chunkMetaDataList.get(chunkToRead++);
   }
 }
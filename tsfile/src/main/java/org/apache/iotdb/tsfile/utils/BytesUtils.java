@@ -171,15 +171,7 @@ public class BytesUtils {
    * @return integer variable
    */
   public static int bytesToInt(byte[] result, int pos, int width) {
-
-    int value = 0;
-    int temp = 0;
-
-    for (int i = 0; i < width; i++) {
-      temp = (pos + width - 1 - i) / 8;
-      value = setIntN(value, i, getByteN(result[temp], pos + width - 1 - i));
-    }
-    return value;
+    return (int) bytesToLong(result, pos, width);
   }
 
   /**
@@ -522,10 +514,17 @@ public class BytesUtils {
    */
   public static long bytesToLong(byte[] result, int pos, int width) {
     long value = 0;
-    int temp = 0;
-    for (int i = 0; i < width; i++) {
-      temp = (pos + width - 1 - i) / 8;
-      value = setLongN(value, i, getByteN(result[temp], pos + width - 1 - i));
+    int bitPos = pos;
+    int bitsToRead = width;
+    // the bits are stored from the highest bit of each byte, take as many as possible at a time
+    while (bitsToRead > 0) {
+      int bitsLeftInByte = 8 - (bitPos & 7);
+      int bitNum = Math.min(bitsToRead, bitsLeftInByte);
+      int bits = ((result[bitPos >>> 3] & 0xff) >>> (bitsLeftInByte - bitNum))
+          & ((1 << bitNum) - 1);
+      value = (value << bitNum) | bits;
+      bitPos += bitNum;
+      bitsToRead -= bitNum;
     }
     return value;
   }
@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.FloatEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.LongRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.RegularDataEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The bulk reading methods of each decoder must return the same values as reading them one by
+ * one, however the values are split into calls.
+ */
+public class DecoderBulkReadTest {
+
+  private static final int ROW_NUM = 10000;
+  private static final int[] READ_LENGTHS = {1, 7, 128, 1000};
+
+  private Random random = new Random(0);
+
+  @Test
+  public void testLongs() throws IOException {
+    long[] regularTimes = new long[ROW_NUM];
+    long[] jitteredTimes = new long[ROW_NUM];
+    long[] runs = new long[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      regularTimes[i] = 1000L * i;
+      jitteredTimes[i] = 1000L * i + random.nextInt(10);
+      runs[i] = i / 50 % 3 == 0 ? i / 50 : random.nextInt(1000);
+    }
+    // the regular encoding only suits regular timestamps
+    checkLongs(regularTimes, new RegularDataEncoder.LongRegularEncoder(),
+        new RegularDataDecoder.LongRegularDecoder(), new RegularDataDecoder.LongRegularDecoder());
+    for (long[] data : new long[][]{regularTimes, jitteredTimes, runs}) {
+      checkLongs(data, new DeltaBinaryEncoder.LongDeltaEncoder(),
+          new DeltaBinaryDecoder.LongDeltaDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder());
+      checkLongs(data, new LongRleEncoder(EndianType.LITTLE_ENDIAN),
+          new LongRleDecoder(EndianType.LITTLE_ENDIAN),
+          new LongRleDecoder(EndianType.LITTLE_ENDIAN));
+      checkLongs(data, new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT64, 0),
+          new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN));
+    }
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    int[] data = new int[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      data[i] = i / 50 % 3 == 0 ? i / 50 : random.nextInt(1000) - 500;
+    }
+    checkInts(data, new DeltaBinaryEncoder.IntDeltaEncoder(),
+        new DeltaBinaryDecoder.IntDeltaDecoder(), new DeltaBinaryDecoder.IntDeltaDecoder());
+    int[] regularData = new int[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      regularData[i] = 3 * i;
+    }
+    checkInts(regularData, new RegularDataEncoder.IntRegularEncoder(),
+        new RegularDataDecoder.IntRegularDecoder(), new RegularDataDecoder.IntRegularDecoder());
+    checkInts(data, new IntRleEncoder(EndianType.LITTLE_ENDIAN),
+        new IntRleDecoder(EndianType.LITTLE_ENDIAN), new IntRleDecoder(EndianType.LITTLE_ENDIAN));
+    checkInts(data, new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT32, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN));
+  }
+
+  @Test
+  public void testBooleans() throws IOException {
+    Encoder encoder = new IntRleEncoder(EndianType.LITTLE_ENDIAN);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < ROW_NUM; i++) {
+      encoder.encode(i % 100 < 60 || random.nextBoolean(), out);
+    }
+    encoder.flush(out);
+    ByteBuffer expectedBuffer = ByteBuffer.wrap(out.toByteArray());
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder expectedDecoder = new IntRleDecoder(EndianType.LITTLE_ENDIAN);
+    Decoder decoder = new IntRleDecoder(EndianType.LITTLE_ENDIAN);
+    boolean[] values = new boolean[ROW_NUM];
+    int num = 0;
+    for (int i = 0; num < ROW_NUM; i++) {
+      num += decoder.readBooleans(buffer, values, num,
+          Math.min(READ_LENGTHS[i % READ_LENGTHS.length], ROW_NUM - num));
+    }
+    for (int i = 0; i < ROW_NUM; i++) {
+      Assert.assertEquals(expectedDecoder.readBoolean(expectedBuffer), values[i]);
+    }
+    Assert.assertFalse(decoder.hasNext(buffer));
+  }
+
+  @Test
+  public void testFloatsAndDoubles() throws IOException {
+    float[] floats = new float[ROW_NUM];
+    double[] doubles = new double[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      floats[i] = 20 + (i % 200) / 10.0f;
+      doubles[i] = i % 100 < 20 ? 0 : random.nextGaussian() * 100;
+    }
+    checkFloats(floats, new SinglePrecisionEncoder(), new SinglePrecisionDecoder(),
+        new SinglePrecisionDecoder());
+    checkFloats(floats, new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.FLOAT, 2),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.FLOAT),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.FLOAT));
+    checkFloats(floats, new FloatEncoder(TSEncoding.RLE, TSDataType.FLOAT, 2),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.FLOAT),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.FLOAT));
+    checkFloats(floats, new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.FLOAT, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN));
+
+    checkDoubles(doubles, new DoublePrecisionEncoder(), new DoublePrecisionDecoder(),
+        new DoublePrecisionDecoder());
+    checkDoubles(doubles, new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE, 3),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE));
+    checkDoubles(doubles, new FloatEncoder(TSEncoding.RLE, TSDataType.DOUBLE, 3),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.DOUBLE),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.DOUBLE));
+    checkDoubles(doubles, new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.DOUBLE, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN));
+  }
+
+  @Test
+  public void testBinaries() throws IOException {
+    Encoder encoder = new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.TEXT, 100);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < ROW_NUM; i++) {
+      encoder.encode(new Binary("text" + i), out);
+    }
+    encoder.flush(out);
+    Binary[] values = new Binary[ROW_NUM];
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new PlainDecoder(EndianType.LITTLE_ENDIAN);
+    Assert.assertEquals(ROW_NUM, decoder.readBinaries(buffer, values, 0, ROW_NUM + 1));
+    for (int i = 0; i < ROW_NUM; i++) {
+      Assert.assertEquals(new Binary("text" + i), values[i]);
+    }
+  }
+
+  private void checkLongs(long[] data, Encoder encoder, Decoder expectedDecoder, Decoder decoder)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer expectedBuffer = ByteBuffer.wrap(out.toByteArray());
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+
+    long[] values = new long[data.length];
+    int num = 0;
+    for (int i = 0; num < data.length; i++) {
+      int readNum = decoder.readLongs(buffer, values, num,
+          Math.min(READ_LENGTHS[i % READ_LENGTHS.length], data.length - num));
+      if (readNum == 0) {
+        break;
+      }
+      num += readNum;
+    }
+    for (int i = 0; i < num; i++) {
+      Assert.assertTrue(expectedDecoder.hasNext(expectedBuffer));
+      Assert.assertEquals(expectedDecoder.readLong(expectedBuffer), values[i]);
+    }
+    Assert.assertFalse(expectedDecoder.hasNext(expectedBuffer));
+    Assert.assertFalse(decoder.hasNext(buffer));
+    Assert.assertEquals(0, decoder.readLongs(buffer, values, 0, 1));
+  }
+
+  private void checkInts(int[] data, Encoder encoder, Decoder expectedDecoder, Decoder decoder)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer expectedBuffer = ByteBuffer.wrap(out.toByteArray());
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+
+    int[] values = new int[data.length];
+    int num = 0;
+    for (int i = 0; num < data.length; i++) {
+      int readNum = decoder.readInts(buffer, values, num,
+          Math.min(READ_LENGTHS[i % READ_LENGTHS.length], data.length - num));
+      if (readNum == 0) {
+        break;
+      }
+      num += readNum;
+    }
+    for (int i = 0; i < num; i++) {
+      Assert.assertTrue(expectedDecoder.hasNext(expectedBuffer));
+      Assert.assertEquals(expectedDecoder.readInt(expectedBuffer), values[i]);
+    }
+    Assert.assertFalse(expectedDecoder.hasNext(expectedBuffer));
+    Assert.assertFalse(decoder.hasNext(buffer));
+  }
+
+  private void checkFloats(float[] data, Encoder encoder, Decoder expectedDecoder,
+      Decoder decoder) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (float value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer expectedBuffer = ByteBuffer.wrap(out.toByteArray());
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+
+    float[] values = new float[data.length];
+    int num = 0;
+    for (int i = 0; num < data.length; i++) {
+      int readNum = decoder.readFloats(buffer, values, num,
+          Math.min(READ_LENGTHS[i % READ_LENGTHS.length], data.length - num));
+      if (readNum == 0) {
+        break;
+      }
+      num += readNum;
+    }
+    for (int i = 0; i < num; i++) {
+      Assert.assertTrue(expectedDecoder.hasNext(expectedBuffer));
+      Assert.assertEquals(expectedDecoder.readFloat(expectedBuffer), values[i], 0);
+    }
+    Assert.assertFalse(expectedDecoder.hasNext(expectedBuffer));
+    Assert.assertFalse(decoder.hasNext(buffer));
+  }
+
+  private void checkDoubles(double[] data, Encoder encoder, Decoder expectedDecoder,
+      Decoder decoder) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (double value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer expectedBuffer = ByteBuffer.wrap(out.toByteArray());
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+
+    double[] values = new double[data.length];
+    int num = 0;
+    for (int i = 0; num < data.length; i++) {
+      int readNum = decoder.readDoubles(buffer, values, num,
+          Math.min(READ_LENGTHS[i % READ_LENGTHS.length], data.length - num));
+      if (readNum == 0) {
+        break;
+      }
+      num += readNum;
+    }
+    for (int i = 0; i < num; i++) {
+      Assert.assertTrue(expectedDecoder.hasNext(expectedBuffer));
+      Assert.assertEquals(expectedDecoder.readDouble(expectedBuffer), values[i], 0);
+    }
+    Assert.assertFalse(expectedDecoder.hasNext(expectedBuffer));
+    Assert.assertFalse(decoder.hasNext(buffer));
+  }
+}
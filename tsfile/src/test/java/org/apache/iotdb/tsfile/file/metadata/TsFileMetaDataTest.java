@@ -22,9 +22,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.iotdb.tsfile.file.metadata.utils.TestHelper;
 import org.apache.iotdb.tsfile.file.metadata.utils.Utils;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -55,6 +60,64 @@ public class TsFileMetaDataTest {
     serialized(readMetaData);
   }
 
+  @Test
+  public void testLazyDeserialize() throws IOException {
+    Map<String, TsDeviceMetadataIndex> deviceMap = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      TsDeviceMetadataIndex index = TestHelper.createSimpleDeviceIndexMetadata();
+      index.setOffset(i);
+      deviceMap.put("device_" + i, index);
+    }
+    TsFileMetaData tsfMetaData = new TsFileMetaData(deviceMap, new HashMap<>(), VERSION);
+    tsfMetaData.addMeasurementSchema(TestHelper.createSimpleMeasurementSchema());
+    tsfMetaData.setCreatedBy(CREATED_BY);
+
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    tsfMetaData.serializeTo(buffer);
+    buffer.flip();
+    TsFileMetaData readMetaData = TsFileMetaData.deserializeLazilyFrom(buffer);
+    assertLazyLookup(readMetaData, 100);
+    Utils.isFileMetaDataEqual(tsfMetaData, readMetaData);
+    // the whole device map is decoded and the serialized indexes are released
+    Assert.assertEquals(0, readMetaData.getSerializedDeviceIndexSize());
+    Assert.assertEquals(100, readMetaData.getDeviceNum());
+  }
+
+  @Test
+  public void testLazyDeserializeUnsorted() {
+    // entries serialized out of the order of device ids, as by older writers
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    ReadWriteIOUtils.write(100, buffer);
+    for (int i = 99; i >= 0; i--) {
+      TsDeviceMetadataIndex index = TestHelper.createSimpleDeviceIndexMetadata();
+      index.setOffset(i);
+      ReadWriteIOUtils.write("device_" + i, buffer);
+      index.serializeTo(buffer);
+    }
+    ReadWriteIOUtils.write(0, buffer);
+    ReadWriteIOUtils.write(VERSION, buffer);
+    ReadWriteIOUtils.writeIsNull(null, buffer);
+    buffer.flip();
+
+    TsFileMetaData readMetaData = TsFileMetaData.deserializeLazilyFrom(buffer);
+    assertLazyLookup(readMetaData, 100);
+    Assert.assertEquals(VERSION, readMetaData.getCurrentVersion());
+    Assert.assertNull(readMetaData.getCreatedBy());
+  }
+
+  private void assertLazyLookup(TsFileMetaData metaData, int deviceNum) {
+    Assert.assertEquals(deviceNum, metaData.getDeviceNum());
+    Assert.assertTrue(metaData.getSerializedDeviceIndexSize() > 0);
+    for (int i = 0; i < deviceNum; i++) {
+      Assert.assertTrue(metaData.containsDevice("device_" + i));
+      Assert.assertEquals(i, metaData.getDeviceMetadataIndex("device_" + i).getOffset());
+    }
+    Assert.assertFalse(metaData.containsDevice("device_" + deviceNum));
+    Assert.assertNull(metaData.getDeviceMetadataIndex("device"));
+    // looking up devices does not decode the whole device map
+    Assert.assertTrue(metaData.getSerializedDeviceIndexSize() > 0);
+  }
+
   private TsFileMetaData deSerialized() {
     FileInputStream fis = null;
     TsFileMetaData metaData = null;
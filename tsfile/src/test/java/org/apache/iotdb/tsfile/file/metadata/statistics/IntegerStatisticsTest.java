@@ -20,6 +20,11 @@ package org.apache.iotdb.tsfile.file.metadata.statistics;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.junit.Test;
 
 public class IntegerStatisticsTest {
@@ -64,4 +69,31 @@ public class IntegerStatisticsTest {
     assertEquals(101 + 200, (int) intStats3.getSum());
     assertEquals(200, (int) intStats3.getLast());
   }
+
+  @Test
+  public void testDeserializeFromDigest() throws IOException {
+    Statistics<Integer> intStats = new IntegerStatistics();
+    intStats.updateStats(3);
+    intStats.updateStats(-1);
+    intStats.updateStats(7);
+    TsDigest digest = new TsDigest();
+    digest.addStatistics(StatisticConstant.MAX_VALUE, ByteBuffer.wrap(intStats.getMaxBytes()));
+    digest.addStatistics(StatisticConstant.MIN_VALUE, ByteBuffer.wrap(intStats.getMinBytes()));
+    digest.addStatistics(StatisticConstant.FIRST, ByteBuffer.wrap(intStats.getFirstBytes()));
+    digest.addStatistics(StatisticConstant.SUM, ByteBuffer.wrap(intStats.getSumBytes()));
+    digest.addStatistics(StatisticConstant.LAST, ByteBuffer.wrap(intStats.getLastBytes()));
+
+    Statistics<Integer> stats = Statistics.deserialize(digest, TSDataType.INT32);
+    assertEquals(false, stats.isEmpty());
+    assertEquals(7, (int) stats.getMax());
+    assertEquals(-1, (int) stats.getMin());
+    assertEquals(3, (int) stats.getFirst());
+    assertEquals(9, (int) stats.getSum());
+    assertEquals(7, (int) stats.getLast());
+
+    // an incomplete digest cannot be used
+    TsDigest partialDigest = new TsDigest();
+    partialDigest.addStatistics(StatisticConstant.SUM, ByteBuffer.wrap(intStats.getSumBytes()));
+    assertEquals(null, Statistics.deserialize(partialDigest, TSDataType.INT32));
+  }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.iotdb.tsfile.read.filter;
 
+import java.util.BitSet;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -143,6 +146,55 @@ public class OperatorTest {
     Assert.assertEquals(true, andFilter2.satisfy(1000L, 51d));
   }
 
+  @Test
+  public void testPrimitiveSatisfy() {
+    Filter[] intFilters = {ValueFilter.eq(5), ValueFilter.notEq(5), ValueFilter.gt(5),
+        ValueFilter.gtEq(5), ValueFilter.lt(5), ValueFilter.ltEq(5),
+        ValueFilter.not(ValueFilter.gt(5)),
+        FilterFactory.and(TimeFilter.gtEq(3L), ValueFilter.lt(8)),
+        FilterFactory.or(TimeFilter.eq(9L), ValueFilter.gt(7))};
+    for (Filter filter : intFilters) {
+      for (int i = 0; i < 10; i++) {
+        Assert.assertEquals(filter.toString(), filter.satisfy(i, (Object) i),
+            filter.satisfy(i, i));
+      }
+    }
+
+    Filter[] doubleFilters = {ValueFilter.gt(0.5), ValueFilter.ltEq(0.5), ValueFilter.eq(0.5),
+        FilterFactory.and(TimeFilter.gt(2L), ValueFilter.notEq(0.7))};
+    for (Filter filter : doubleFilters) {
+      for (int i = 0; i < 10; i++) {
+        double value = i / 10.0;
+        Assert.assertEquals(filter.toString(), filter.satisfy(i, (Object) value),
+            filter.satisfy(i, value));
+      }
+    }
+
+    Assert.assertTrue(ValueFilter.lt(10L).satisfy(TESTED_TIMESTAMP, 9L));
+    Assert.assertFalse(ValueFilter.gt(0.5f).satisfy(TESTED_TIMESTAMP, 0.5f));
+    Assert.assertTrue(ValueFilter.notEq(false).satisfy(TESTED_TIMESTAMP, true));
+    Assert.assertTrue(TimeFilter.ltEq(100L).satisfy(100, 1000.0));
+    // the value types differ, the same as comparing boxed values
+    Assert.assertFalse(ValueFilter.eq(5L).satisfy(TESTED_TIMESTAMP, 5));
+  }
+
+  @Test
+  public void testSatisfyBatch() {
+    BatchData batchData = new BatchData(TSDataType.INT64, true);
+    for (long i = 0; i < 3000; i++) {
+      batchData.putTime(i);
+      batchData.putLong(i % 100);
+    }
+    Filter filter = FilterFactory.and(TimeFilter.gtEq(1000L), ValueFilter.lt(10L));
+    BitSet selection = filter.satisfyBatch(batchData);
+    for (int i = 0; i < 3000; i++) {
+      Assert.assertEquals(i >= 1000 && i % 100 < 10, selection.get(i));
+    }
+    Assert.assertEquals(200, selection.cardinality());
+    // the cursor is not moved
+    Assert.assertEquals(0, batchData.currentTime());
+  }
+
   @Test
   public void testWrongUsage() {
     Filter andFilter = FilterFactory.and(TimeFilter.gt(100L), ValueFilter.lt(true));
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DoublePrecisionDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.IntRleDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.write.page.PageWriter;
+
+/**
+ * PageReader benchmark. Pages of sensor-like data are decoded by PageReader, which decodes whole
+ * columns with the bulk methods of Decoder, and by a loop reading one point at a time, which is
+ * how PageReader used to decode. The first argument is the number of rounds, 200 by default.
+ */
+public class PageReaderBenchmark {
+
+  private static final int POINT_NUM_IN_PAGE = 10000;
+  private static final int PAGE_NUM = 100;
+
+  public static void main(String[] args) throws IOException {
+    int roundNum = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    Random random = new Random(0);
+    long[] times = new long[POINT_NUM_IN_PAGE];
+    double[] doubles = new double[POINT_NUM_IN_PAGE];
+    int[] ints = new int[POINT_NUM_IN_PAGE];
+    long[] longs = new long[POINT_NUM_IN_PAGE];
+    double value = 20;
+    for (int i = 0; i < POINT_NUM_IN_PAGE; i++) {
+      // a timestamp every second with some jitter, a slowly drifting temperature, a state code
+      times[i] = 1000L * i + random.nextInt(5);
+      value += random.nextGaussian() / 10;
+      doubles[i] = Math.round(value * 100) / 100.0;
+      ints[i] = i / 300 % 4;
+      longs[i] = random.nextLong();
+    }
+
+    PageWriter pageWriter = newPageWriter(new DoublePrecisionEncoder());
+    pageWriter.write(times, doubles);
+    run("DOUBLE GORILLA", pageWriter, TSDataType.DOUBLE, DoublePrecisionDecoder::new, roundNum);
+    pageWriter = newPageWriter(new IntRleEncoder(EndianType.LITTLE_ENDIAN));
+    pageWriter.write(times, ints);
+    run("INT32 RLE", pageWriter, TSDataType.INT32,
+        () -> new IntRleDecoder(EndianType.LITTLE_ENDIAN), roundNum);
+    pageWriter = newPageWriter(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.write(times, times);
+    run("INT64 TS_2DIFF", pageWriter, TSDataType.INT64, DeltaBinaryDecoder.LongDeltaDecoder::new,
+        roundNum);
+    pageWriter = newPageWriter(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT64, 0));
+    pageWriter.write(times, longs);
+    run("INT64 PLAIN", pageWriter, TSDataType.INT64,
+        () -> new PlainDecoder(EndianType.LITTLE_ENDIAN), roundNum);
+  }
+
+  private static PageWriter newPageWriter(Encoder valueEncoder) {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(valueEncoder);
+    return pageWriter;
+  }
+
+  private static void run(String name, PageWriter pageWriter, TSDataType dataType,
+      Supplier<Decoder> valueDecoderSupplier, int roundNum) throws IOException {
+    ByteBuffer page = pageWriter.getUncompressedBytes();
+    Filter filter = TimeFilter.gtEq(POINT_NUM_IN_PAGE * 1000L / 2);
+    // warm up
+    long pointNum = decode(page, dataType, valueDecoderSupplier, roundNum / 10 + 1, true, null)
+        + decode(page, dataType, valueDecoderSupplier, roundNum / 10 + 1, false, null);
+
+    for (Filter pageFilter : new Filter[]{null, filter}) {
+      long startTime = System.nanoTime();
+      pointNum = decode(page, dataType, valueDecoderSupplier, roundNum, false, pageFilter);
+      long pointByPointTime = System.nanoTime() - startTime;
+      startTime = System.nanoTime();
+      decode(page, dataType, valueDecoderSupplier, roundNum, true, pageFilter);
+      long bulkTime = System.nanoTime() - startTime;
+      System.out.println(String.format(
+          "%s%s, Num of points: %d, point by point: %d ms, bulk: %d ms, speedup: %.2f",
+          name, pageFilter == null ? "" : " with a time filter", pointNum,
+          pointByPointTime / 1000000, bulkTime / 1000000, (double) pointByPointTime / bulkTime));
+    }
+  }
+
+  private static long decode(ByteBuffer page, TSDataType dataType,
+      Supplier<Decoder> valueDecoderSupplier, int roundNum, boolean bulk, Filter filter)
+      throws IOException {
+    long pointNum = 0;
+    for (int round = 0; round < roundNum; round++) {
+      for (int i = 0; i < PAGE_NUM; i++) {
+        BatchData batchData;
+        if (bulk) {
+          PageReader pageReader = new PageReader(page.duplicate(), dataType,
+              valueDecoderSupplier.get(), new DeltaBinaryDecoder.LongDeltaDecoder(), filter);
+          batchData = pageReader.nextBatch();
+        } else {
+          batchData = decodePointByPoint(page.duplicate(), dataType, valueDecoderSupplier.get(),
+              filter);
+        }
+        pointNum += batchData.length();
+      }
+    }
+    return pointNum;
+  }
+
+  private static BatchData decodePointByPoint(ByteBuffer page, TSDataType dataType,
+      Decoder valueDecoder, Filter filter) throws IOException {
+    Decoder timeDecoder = new DeltaBinaryDecoder.LongDeltaDecoder();
+    int timeBufferLength = ReadWriteForEncodingUtils.readUnsignedVarInt(page);
+    ByteBuffer timeBuffer = page.slice();
+    timeBuffer.limit(timeBufferLength);
+    ByteBuffer valueBuffer = page.slice();
+    valueBuffer.position(timeBufferLength);
+
+    BatchData batchData = new BatchData(dataType, true);
+    while (timeDecoder.hasNext(timeBuffer)) {
+      long time = timeDecoder.readLong(timeBuffer);
+      switch (dataType) {
+        case INT32:
+          int anInt = valueDecoder.readInt(valueBuffer);
+          if (filter == null || filter.satisfy(time, anInt)) {
+            batchData.putTime(time);
+            batchData.putInt(anInt);
+          }
+          break;
+        case INT64:
+          long aLong = valueDecoder.readLong(valueBuffer);
+          if (filter == null || filter.satisfy(time, aLong)) {
+            batchData.putTime(time);
+            batchData.putLong(aLong);
+          }
+          break;
+        case DOUBLE:
+          double aDouble = valueDecoder.readDouble(valueBuffer);
+          if (filter == null || filter.satisfy(time, aDouble)) {
+            batchData.putTime(time);
+            batchData.putDouble(aDouble);
+          }
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    return batchData;
+  }
+}
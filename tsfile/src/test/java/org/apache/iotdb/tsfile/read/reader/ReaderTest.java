@@ -100,6 +100,28 @@ public class ReaderTest {
     }
   }
 
+  @Test
+  public void reverseReadTest() throws IOException {
+    ChunkLoaderImpl seriesChunkLoader = new ChunkLoaderImpl(fileReader);
+    List<ChunkMetaData> chunkMetaDataList = metadataQuerierByFile
+        .getChunkMetaDataList(new Path("d1.s1"));
+
+    FileSeriesReader seriesReader = new FileSeriesReaderWithoutFilter(seriesChunkLoader,
+        chunkMetaDataList);
+    seriesReader.enableReverse();
+    // the batches come from the newest, and the points in each batch are in ascending order
+    long endTime = TsFileGeneratorForTest.START_TIMESTAMP + rowCount;
+    int count = 0;
+    while (seriesReader.hasNextBatch()) {
+      BatchData data = seriesReader.nextBatch();
+      for (int i = data.length() - 1; i >= 0; i--) {
+        Assert.assertEquals(--endTime, data.getTimeByIndex(i));
+        count++;
+      }
+    }
+    Assert.assertEquals(rowCount, count);
+  }
+
   @Test
   public void readWithFilterTest() throws IOException {
     ChunkLoaderImpl seriesChunkLoader = new ChunkLoaderImpl(fileReader);